@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.convert.TypeDescriptor;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link SimpleTypeConverter}, comparing warm conversions
+ * through cached plans with a reflective factory method lookup per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SimpleTypeConverterBenchmark {
+
+	@Benchmark
+	public Object stringToIntCachedPlan(ConverterState state) {
+		return state.converter.convertIfNecessary(state.number, Integer.class);
+	}
+
+	@Benchmark
+	public Object stringToIntReflectiveLookup(ConverterState state) throws Exception {
+		Method valueOf = Integer.class.getMethod("valueOf", String.class);
+		return valueOf.invoke(null, state.number);
+	}
+
+	@Benchmark
+	public Object stringToEnumCachedPlan(ConverterState state) {
+		return state.converter.convertIfNecessary(state.enumName, TimeUnit.class);
+	}
+
+	@Benchmark
+	public Object stringToEnumReflectiveLookup(ConverterState state) throws Exception {
+		Method valueOf = TimeUnit.class.getMethod("valueOf", String.class);
+		return valueOf.invoke(null, state.enumName);
+	}
+
+	@Benchmark
+	public Object stringToDurationCachedPlan(ConverterState state) {
+		return state.converter.convertIfNecessary(state.duration, Duration.class);
+	}
+
+	@Benchmark
+	public Object stringToDurationReflectiveLookup(ConverterState state) throws Exception {
+		Method parse = Duration.class.getMethod("parse", CharSequence.class);
+		return parse.invoke(null, state.duration);
+	}
+
+	@Benchmark
+	public void stringToIntArrayCachedPlan(ConverterState state, Blackhole bh) {
+		bh.consume(state.converter.convertIfNecessary(state.numbers, int[].class));
+	}
+
+	@Benchmark
+	public void stringListToIntegerListCachedPlan(ConverterState state, Blackhole bh) {
+		bh.consume(state.converter.convertIfNecessary(state.numberList, List.class, state.integerListType));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class ConverterState {
+
+		public SimpleTypeConverter converter;
+
+		public String number = "4711";
+
+		public String enumName = "MILLISECONDS";
+
+		public String duration = "PT15M";
+
+		public String numbers = "1,2,3,4,5,6,7,8,9,10";
+
+		public List<String> numberList = List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+
+		public TypeDescriptor integerListType = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(Integer.class));
+
+		@Setup
+		public void setup() {
+			this.converter = new SimpleTypeConverter();
+		}
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Simple implementation of the {@link TypeConverter} interface that does not
+ * operate on a specific target object.
+ *
+ * <p>For every combination of source type and target {@link TypeDescriptor},
+ * a conversion plan is selected once and cached: String to number, boolean,
+ * character and enum conversions are handled by dedicated parse routines,
+ * number to number conversions check for overflow, and collection, array and
+ * map targets are converted element by element (with primitive array targets
+ * filled directly from String sources, without boxing). Other types are
+ * converted through a {@code valueOf}/{@code of}/{@code from}/{@code parse}
+ * factory method or a single-argument constructor, resolved once into a
+ * method handle.
+ *
+ * <p>In contrast to {@code PropertyEditor}-based converters, this class
+ * is thread-safe and designed to be shared.
+ *
+ * @since 6.1
+ * @see #clearCache()
+ */
+public class SimpleTypeConverter implements TypeConverter {
+
+	private final Map<PlanKey, TypeConversionPlans.Plan> planCache = new ConcurrentReferenceHashMap<>(256);
+
+	private final Map<Class<?>, TypeDescriptor> descriptorCache = new ConcurrentReferenceHashMap<>(64);
+
+
+	@Override
+	@Nullable
+	public <T> T convertIfNecessary(@Nullable Object value, @Nullable Class<T> requiredType)
+			throws TypeMismatchException {
+
+		return convertIfNecessary(value, requiredType, (requiredType != null ? getTypeDescriptor(requiredType) : null));
+	}
+
+	@Override
+	@Nullable
+	public <T> T convertIfNecessary(@Nullable Object value, @Nullable Class<T> requiredType,
+			@Nullable MethodParameter methodParam) throws TypeMismatchException {
+
+		return convertIfNecessary(value, requiredType, (methodParam != null ? new TypeDescriptor(methodParam) :
+				(requiredType != null ? getTypeDescriptor(requiredType) : null)));
+	}
+
+	@Override
+	@Nullable
+	public <T> T convertIfNecessary(@Nullable Object value, @Nullable Class<T> requiredType, @Nullable Field field)
+			throws TypeMismatchException {
+
+		return convertIfNecessary(value, requiredType, (field != null ? new TypeDescriptor(field) :
+				(requiredType != null ? getTypeDescriptor(requiredType) : null)));
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T convertIfNecessary(@Nullable Object value, @Nullable Class<T> requiredType,
+			@Nullable TypeDescriptor typeDescriptor) throws TypeMismatchException {
+
+		TypeDescriptor targetType = typeDescriptor;
+		if (requiredType != null && (targetType == null || !ClassUtils.resolvePrimitiveIfNecessary(requiredType)
+				.isAssignableFrom(targetType.getObjectType()))) {
+			targetType = getTypeDescriptor(requiredType);
+		}
+		if (targetType == null) {
+			return (T) value;
+		}
+		Class<?> targetClass = targetType.getType();
+		if (value == null) {
+			if (targetClass == Optional.class) {
+				return (T) Optional.empty();
+			}
+			if (targetClass.isPrimitive()) {
+				throw new TypeMismatchException((Object) null, targetClass,
+						new IllegalArgumentException("Cannot assign null to primitive type"));
+			}
+			return null;
+		}
+		Object convertedValue;
+		try {
+			convertedValue = convertValue(value, targetType);
+		}
+		catch (TypeMismatchException ex) {
+			throw ex;
+		}
+		catch (RuntimeException ex) {
+			throw new TypeMismatchException(value, targetClass, ex);
+		}
+		if (!ClassUtils.isAssignableValue(targetClass, convertedValue)) {
+			throw new TypeMismatchException(value, targetClass, new IllegalArgumentException(
+					"Cannot convert value of type '" + ClassUtils.getDescriptiveType(value) +
+					"' to required type '" + ClassUtils.getQualifiedName(targetClass) + "'"));
+		}
+		return (T) convertedValue;
+	}
+
+	/**
+	 * Clear the cached conversion plans, e.g. after a class loader
+	 * has been replaced.
+	 */
+	public void clearCache() {
+		this.planCache.clear();
+		this.descriptorCache.clear();
+	}
+
+
+	/**
+	 * Convert the given non-null value to the given target type,
+	 * using the cached plan for the value's runtime type.
+	 */
+	@Nullable
+	Object convertValue(Object value, TypeDescriptor targetType) {
+		return getPlan(value.getClass(), targetType).convert(value);
+	}
+
+	/**
+	 * Obtain the conversion plan for the given source type and target type,
+	 * compiling it on first access.
+	 */
+	TypeConversionPlans.Plan getPlan(Class<?> sourceType, TypeDescriptor targetType) {
+		PlanKey key = new PlanKey(sourceType, targetType);
+		TypeConversionPlans.Plan plan = this.planCache.get(key);
+		if (plan == null) {
+			plan = TypeConversionPlans.compile(sourceType, targetType, this);
+			this.planCache.put(key, plan);
+		}
+		return plan;
+	}
+
+	private TypeDescriptor getTypeDescriptor(Class<?> type) {
+		TypeDescriptor typeDescriptor = this.descriptorCache.get(type);
+		if (typeDescriptor == null) {
+			typeDescriptor = TypeDescriptor.valueOf(type);
+			this.descriptorCache.put(type, typeDescriptor);
+		}
+		return typeDescriptor;
+	}
+
+
+	/**
+	 * Cache key for a (source type, target type) pair.
+	 */
+	private static final class PlanKey {
+
+		private final Class<?> sourceType;
+
+		private final TypeDescriptor targetType;
+
+		private final int hashCode;
+
+		PlanKey(Class<?> sourceType, TypeDescriptor targetType) {
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+			this.hashCode = sourceType.hashCode() * 31 + targetType.hashCode();
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof PlanKey otherKey &&
+					this.sourceType == otherKey.sourceType && this.targetType.equals(otherKey.targetType)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return "PlanKey [sourceType = " + this.sourceType.getName() + ", targetType = " + this.targetType + "]";
+		}
+	}
+
+}
@@ -0,0 +1,665 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+/**
+ * Compiles conversion plans for {@link SimpleTypeConverter}: each plan is
+ * selected once per (source type, target type) pair and then applied to
+ * every value of that source type without any further type inspection.
+ *
+ * @since 6.1
+ * @see SimpleTypeConverter#getPlan
+ */
+final class TypeConversionPlans {
+
+	private static final String[] FACTORY_METHOD_NAMES = {"valueOf", "of", "from", "parse"};
+
+	private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final Plan IDENTITY = source -> source;
+
+
+	private TypeConversionPlans() {
+	}
+
+
+	/**
+	 * Select the conversion plan for the given source type and target type.
+	 * @param sourceType the runtime type of the values to convert
+	 * @param targetType the target type descriptor
+	 * @param converter the converter to obtain element plans from
+	 * @return the plan (never {@code null}; unsupported conversions
+	 * result in a plan that throws an {@link IllegalArgumentException})
+	 */
+	static Plan compile(Class<?> sourceType, TypeDescriptor targetType, SimpleTypeConverter converter) {
+		if (targetType.isArray()) {
+			return compileArrayPlan(sourceType, targetType, converter);
+		}
+		if (targetType.isCollection() && !targetType.getType().isAssignableFrom(sourceType)) {
+			return compileCollectionPlan(sourceType, targetType, converter);
+		}
+		if (targetType.isCollection() && Collection.class.isAssignableFrom(sourceType)) {
+			TypeDescriptor elementType = targetType.getElementTypeDescriptor();
+			return (isUntyped(elementType) ? IDENTITY : compileCollectionPlan(sourceType, targetType, converter));
+		}
+		if (targetType.isMap() && Map.class.isAssignableFrom(sourceType)) {
+			return compileMapPlan(sourceType, targetType, converter);
+		}
+
+		Class<?> targetClass = targetType.getObjectType();
+		if (targetClass.isAssignableFrom(sourceType)) {
+			return IDENTITY;
+		}
+		Plan plan = null;
+		if (sourceType == String.class) {
+			plan = compileStringPlan(targetClass);
+		}
+		else if (targetClass == String.class) {
+			plan = compileToStringPlan(sourceType);
+		}
+		else if (Number.class.isAssignableFrom(sourceType) && Number.class.isAssignableFrom(targetClass)) {
+			plan = source -> convertNumber((Number) source, targetClass);
+		}
+		if (plan == null) {
+			plan = compileFactoryPlan(sourceType, targetClass);
+		}
+		if (plan == null) {
+			plan = source -> {
+				throw new IllegalArgumentException("No conversion strategy found from type [" +
+						sourceType.getName() + "] to type [" + targetType + "]");
+			};
+		}
+		return plan;
+	}
+
+	private static boolean isUntyped(@Nullable TypeDescriptor elementType) {
+		return (elementType == null || elementType.getType() == Object.class);
+	}
+
+
+	// String sources
+
+	@Nullable
+	private static Plan compileStringPlan(Class<?> targetClass) {
+		if (targetClass == Integer.class) {
+			return source -> (isEmpty(source) ? null : parseInt(trim(source)));
+		}
+		if (targetClass == Long.class) {
+			return source -> (isEmpty(source) ? null : parseLong(trim(source)));
+		}
+		if (targetClass == Double.class) {
+			return source -> (isEmpty(source) ? null : Double.valueOf(trim(source)));
+		}
+		if (targetClass == Boolean.class) {
+			return source -> (isEmpty(source) ? null : parseBoolean(trim(source)));
+		}
+		if (targetClass == Short.class) {
+			return source -> (isEmpty(source) ? null : parseShort(trim(source)));
+		}
+		if (targetClass == Byte.class) {
+			return source -> (isEmpty(source) ? null : parseByte(trim(source)));
+		}
+		if (targetClass == Float.class) {
+			return source -> (isEmpty(source) ? null : Float.valueOf(trim(source)));
+		}
+		if (targetClass == BigInteger.class) {
+			return source -> (isEmpty(source) ? null : parseBigInteger(trim(source)));
+		}
+		if (targetClass == BigDecimal.class) {
+			return source -> (isEmpty(source) ? null : new BigDecimal(trim(source)));
+		}
+		if (targetClass == Character.class) {
+			return source -> parseCharacter((String) source);
+		}
+		if (Enum.class.isAssignableFrom(targetClass)) {
+			return compileEnumPlan(targetClass);
+		}
+		return null;
+	}
+
+	private static Plan compileEnumPlan(Class<?> targetClass) {
+		Class<?> enumType = targetClass;
+		while (enumType != null && !enumType.isEnum()) {
+			enumType = enumType.getSuperclass();
+		}
+		if (enumType == null) {
+			throw new IllegalArgumentException("The target type " + targetClass.getName() + " does not refer to an enum");
+		}
+		Object[] constants = enumType.getEnumConstants();
+		Map<String, Object> constantsByName = new HashMap<>(constants.length * 2);
+		for (Object constant : constants) {
+			constantsByName.put(((Enum<?>) constant).name(), constant);
+		}
+		Class<?> enumTypeToUse = enumType;
+		return source -> {
+			if (isEmpty(source)) {
+				return null;
+			}
+			Object constant = constantsByName.get(trim(source));
+			if (constant == null) {
+				throw new IllegalArgumentException(
+						"No enum constant " + enumTypeToUse.getCanonicalName() + "." + trim(source));
+			}
+			return constant;
+		};
+	}
+
+	private static boolean isEmpty(Object source) {
+		return !StringUtils.hasText((String) source);
+	}
+
+	private static String trim(Object source) {
+		return ((String) source).trim();
+	}
+
+	private static boolean isHexNumber(String value) {
+		int index = (value.startsWith("-") ? 1 : 0);
+		return (value.startsWith("0x", index) || value.startsWith("0X", index) || value.startsWith("#", index));
+	}
+
+	static int parseInt(String value) {
+		return (isHexNumber(value) ? Integer.decode(value) : Integer.parseInt(value));
+	}
+
+	static long parseLong(String value) {
+		return (isHexNumber(value) ? Long.decode(value) : Long.parseLong(value));
+	}
+
+	static short parseShort(String value) {
+		return (isHexNumber(value) ? Short.decode(value) : Short.parseShort(value));
+	}
+
+	static byte parseByte(String value) {
+		return (isHexNumber(value) ? Byte.decode(value) : Byte.parseByte(value));
+	}
+
+	private static BigInteger parseBigInteger(String value) {
+		if (!isHexNumber(value)) {
+			return new BigInteger(value);
+		}
+		boolean negative = value.startsWith("-");
+		int index = (negative ? 1 : 0);
+		index += (value.startsWith("#", index) ? 1 : 2);
+		BigInteger result = new BigInteger(value.substring(index), 16);
+		return (negative ? result.negate() : result);
+	}
+
+	static boolean parseBoolean(String value) {
+		return switch (value.toLowerCase()) {
+			case "true", "on", "yes", "1" -> true;
+			case "false", "off", "no", "0" -> false;
+			default -> throw new IllegalArgumentException("Invalid boolean value '" + value + "'");
+		};
+	}
+
+	@Nullable
+	private static Character parseCharacter(String value) {
+		if (value.isEmpty()) {
+			return null;
+		}
+		if (value.length() > 1) {
+			throw new IllegalArgumentException("Can only convert a [String] with length of 1 to a [Character]; " +
+					"string value '" + value + "' has length of " + value.length());
+		}
+		return value.charAt(0);
+	}
+
+
+	// String targets and number conversion
+
+	@Nullable
+	private static Plan compileToStringPlan(Class<?> sourceType) {
+		if (Enum.class.isAssignableFrom(sourceType)) {
+			return source -> ((Enum<?>) source).name();
+		}
+		if (Number.class.isAssignableFrom(sourceType) || sourceType == Boolean.class ||
+				sourceType == Character.class || CharSequence.class.isAssignableFrom(sourceType)) {
+			return Object::toString;
+		}
+		return null;
+	}
+
+	private static Number convertNumber(Number number, Class<?> targetClass) {
+		if (targetClass == Integer.class) {
+			return (int) checkedLongValue(number, targetClass, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		}
+		if (targetClass == Long.class) {
+			return checkedLongValue(number, targetClass, Long.MIN_VALUE, Long.MAX_VALUE);
+		}
+		if (targetClass == Short.class) {
+			return (short) checkedLongValue(number, targetClass, Short.MIN_VALUE, Short.MAX_VALUE);
+		}
+		if (targetClass == Byte.class) {
+			return (byte) checkedLongValue(number, targetClass, Byte.MIN_VALUE, Byte.MAX_VALUE);
+		}
+		if (targetClass == Double.class) {
+			return number.doubleValue();
+		}
+		if (targetClass == Float.class) {
+			return number.floatValue();
+		}
+		if (targetClass == BigInteger.class) {
+			return (number instanceof BigDecimal bigDecimal ? bigDecimal.toBigInteger() :
+					BigInteger.valueOf(number.longValue()));
+		}
+		if (targetClass == BigDecimal.class) {
+			return new BigDecimal(number.toString());
+		}
+		throw new IllegalArgumentException("Could not convert number [" + number + "] of type [" +
+				number.getClass().getName() + "] to unsupported target class [" + targetClass.getName() + "]");
+	}
+
+	private static long checkedLongValue(Number number, Class<?> targetClass, long min, long max) {
+		BigInteger bigInt = null;
+		if (number instanceof BigInteger bigInteger) {
+			bigInt = bigInteger;
+		}
+		else if (number instanceof BigDecimal bigDecimal) {
+			bigInt = bigDecimal.toBigInteger();
+		}
+		if (bigInt != null && bigInt.bitLength() > 63) {
+			raiseOverflowException(number, targetClass);
+		}
+		long value = (bigInt != null ? bigInt.longValue() : number.longValue());
+		if (value < min || value > max) {
+			raiseOverflowException(number, targetClass);
+		}
+		return value;
+	}
+
+	private static void raiseOverflowException(Number number, Class<?> targetClass) {
+		throw new IllegalArgumentException("Could not convert number [" + number + "] of type [" +
+				number.getClass().getName() + "] to target class [" + targetClass.getName() + "]: overflow");
+	}
+
+
+	// Factory methods and constructors
+
+	@Nullable
+	private static Plan compileFactoryPlan(Class<?> sourceType, Class<?> targetClass) {
+		MethodHandle handle = null;
+		for (String methodName : FACTORY_METHOD_NAMES) {
+			for (Method method : targetClass.getMethods()) {
+				if (method.getName().equals(methodName) && Modifier.isStatic(method.getModifiers()) &&
+						method.getParameterCount() == 1 &&
+						ClassUtils.isAssignable(method.getParameterTypes()[0], sourceType) &&
+						targetClass.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()))) {
+					handle = unreflect(method);
+					break;
+				}
+			}
+			if (handle != null) {
+				break;
+			}
+		}
+		if (handle == null && !Modifier.isAbstract(targetClass.getModifiers())) {
+			for (Constructor<?> ctor : targetClass.getConstructors()) {
+				if (ctor.getParameterCount() == 1 && ClassUtils.isAssignable(ctor.getParameterTypes()[0], sourceType)) {
+					handle = unreflectConstructor(ctor);
+					break;
+				}
+			}
+		}
+		if (handle == null) {
+			return null;
+		}
+		MethodHandle handleToUse = handle;
+		return source -> {
+			try {
+				return handleToUse.invokeExact(source);
+			}
+			catch (Throwable ex) {
+				ReflectionUtils.rethrowRuntimeException(ex);
+				return null;
+			}
+		};
+	}
+
+	@Nullable
+	private static MethodHandle unreflect(Method method) {
+		try {
+			ReflectionUtils.makeAccessible(method);
+			return MethodHandles.lookup().unreflect(method).asType(FACTORY_TYPE);
+		}
+		catch (IllegalAccessException | RuntimeException ex) {
+			return null;
+		}
+	}
+
+	@Nullable
+	private static MethodHandle unreflectConstructor(Constructor<?> ctor) {
+		try {
+			ReflectionUtils.makeAccessible(ctor);
+			return MethodHandles.lookup().unreflectConstructor(ctor).asType(FACTORY_TYPE);
+		}
+		catch (IllegalAccessException | RuntimeException ex) {
+			return null;
+		}
+	}
+
+
+	// Arrays, collections and maps
+
+	private static Plan compileArrayPlan(Class<?> sourceType, TypeDescriptor targetType, SimpleTypeConverter converter) {
+		Class<?> componentType = targetType.getType().getComponentType();
+		if (targetType.getType().isAssignableFrom(sourceType) &&
+				(componentType == Object.class || componentType.isPrimitive() || sourceType == targetType.getType())) {
+			return IDENTITY;
+		}
+		if (sourceType == String.class || sourceType == String[].class) {
+			Plan primitivePlan = compilePrimitiveArrayPlan(sourceType, componentType);
+			if (primitivePlan != null) {
+				return primitivePlan;
+			}
+		}
+		TypeDescriptor elementType = targetType.getElementTypeDescriptor();
+		ElementConverter elementConverter = new ElementConverter(converter, elementType);
+		return source -> {
+			Object[] elements = toElementArray(source);
+			Object target = Array.newInstance(componentType, elements.length);
+			for (int i = 0; i < elements.length; i++) {
+				Object element = elementConverter.convert(elements[i]);
+				if (element == null && componentType.isPrimitive()) {
+					throw new IllegalArgumentException(
+							"Cannot assign null element to primitive array of type [" + componentType.getName() + "]");
+				}
+				Array.set(target, i, element);
+			}
+			return target;
+		};
+	}
+
+	/**
+	 * Fill primitive arrays straight from String input, without boxing
+	 * the parsed values.
+	 */
+	@Nullable
+	private static Plan compilePrimitiveArrayPlan(Class<?> sourceType, Class<?> componentType) {
+		boolean singleString = (sourceType == String.class);
+		if (componentType == int.class) {
+			return source -> {
+				String[] values = toStringArray(source, singleString);
+				int[] target = new int[values.length];
+				for (int i = 0; i < values.length; i++) {
+					target[i] = parseInt(values[i].trim());
+				}
+				return target;
+			};
+		}
+		if (componentType == long.class) {
+			return source -> {
+				String[] values = toStringArray(source, singleString);
+				long[] target = new long[values.length];
+				for (int i = 0; i < values.length; i++) {
+					target[i] = parseLong(values[i].trim());
+				}
+				return target;
+			};
+		}
+		if (componentType == double.class) {
+			return source -> {
+				String[] values = toStringArray(source, singleString);
+				double[] target = new double[values.length];
+				for (int i = 0; i < values.length; i++) {
+					target[i] = Double.parseDouble(values[i].trim());
+				}
+				return target;
+			};
+		}
+		if (componentType == boolean.class) {
+			return source -> {
+				String[] values = toStringArray(source, singleString);
+				boolean[] target = new boolean[values.length];
+				for (int i = 0; i < values.length; i++) {
+					target[i] = parseBoolean(values[i].trim());
+				}
+				return target;
+			};
+		}
+		return null;
+	}
+
+	private static String[] toStringArray(Object source, boolean singleString) {
+		return (singleString ? StringUtils.commaDelimitedListToStringArray((String) source) : (String[]) source);
+	}
+
+	private static Object[] toElementArray(Object source) {
+		if (source instanceof Object[] objects) {
+			return objects;
+		}
+		if (source.getClass().isArray()) {
+			int length = Array.getLength(source);
+			Object[] elements = new Object[length];
+			for (int i = 0; i < length; i++) {
+				elements[i] = Array.get(source, i);
+			}
+			return elements;
+		}
+		if (source instanceof Collection<?> collection) {
+			return collection.toArray();
+		}
+		if (source instanceof String string) {
+			return StringUtils.commaDelimitedListToStringArray(string);
+		}
+		return new Object[] {source};
+	}
+
+	private static Plan compileCollectionPlan(
+			Class<?> sourceType, TypeDescriptor targetType, SimpleTypeConverter converter) {
+
+		IntFunction<Collection<Object>> factory = collectionFactory(targetType.getType());
+		TypeDescriptor elementType = targetType.getElementTypeDescriptor();
+		ElementConverter elementConverter = new ElementConverter(converter, elementType);
+		boolean reuseSource = targetType.getType().isAssignableFrom(sourceType);
+		return source -> {
+			if (reuseSource && elementConverter.isCompatible((Collection<?>) source)) {
+				return source;
+			}
+			Object[] elements = toElementArray(source);
+			Collection<Object> target = factory.apply(elements.length);
+			for (Object element : elements) {
+				target.add(elementConverter.convert(element));
+			}
+			return target;
+		};
+	}
+
+	private static Plan compileMapPlan(Class<?> sourceType, TypeDescriptor targetType, SimpleTypeConverter converter) {
+		TypeDescriptor keyType = targetType.getMapKeyTypeDescriptor();
+		TypeDescriptor valueType = targetType.getMapValueTypeDescriptor();
+		boolean reuseSource = targetType.getType().isAssignableFrom(sourceType);
+		if (reuseSource && isUntyped(keyType) && isUntyped(valueType)) {
+			return IDENTITY;
+		}
+		IntFunction<Map<Object, Object>> factory = mapFactory(targetType.getType());
+		ElementConverter keyConverter = new ElementConverter(converter, keyType);
+		ElementConverter valueConverter = new ElementConverter(converter, valueType);
+		return source -> {
+			Map<?, ?> sourceMap = (Map<?, ?>) source;
+			if (reuseSource && keyConverter.isCompatible(sourceMap.keySet()) &&
+					valueConverter.isCompatible(sourceMap.values())) {
+				return source;
+			}
+			Map<Object, Object> target = factory.apply(sourceMap.size());
+			for (Map.Entry<?, ?> entry : sourceMap.entrySet()) {
+				target.put(keyConverter.convert(entry.getKey()), valueConverter.convert(entry.getValue()));
+			}
+			return target;
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static IntFunction<Collection<Object>> collectionFactory(Class<?> collectionType) {
+		if (collectionType.isInterface() || Modifier.isAbstract(collectionType.getModifiers())) {
+			if (collectionType.isAssignableFrom(ArrayList.class)) {
+				return ArrayList::new;
+			}
+			if (collectionType.isAssignableFrom(LinkedHashSet.class)) {
+				return size -> new LinkedHashSet<>(Math.max((int) (size / 0.75f) + 1, 16));
+			}
+			if (collectionType == SortedSet.class || collectionType == NavigableSet.class) {
+				return size -> new TreeSet<>();
+			}
+			throw new IllegalArgumentException("Unsupported Collection type: " + collectionType.getName());
+		}
+		Constructor<?> ctor = defaultConstructor(collectionType);
+		return size -> (Collection<Object>) instantiate(ctor);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static IntFunction<Map<Object, Object>> mapFactory(Class<?> mapType) {
+		if (mapType.isInterface() || Modifier.isAbstract(mapType.getModifiers())) {
+			if (mapType.isAssignableFrom(LinkedHashMap.class)) {
+				return size -> new LinkedHashMap<>(Math.max((int) (size / 0.75f) + 1, 16));
+			}
+			if (mapType == SortedMap.class || mapType == NavigableMap.class) {
+				return size -> new TreeMap<>();
+			}
+			throw new IllegalArgumentException("Unsupported Map type: " + mapType.getName());
+		}
+		Constructor<?> ctor = defaultConstructor(mapType);
+		return size -> (Map<Object, Object>) instantiate(ctor);
+	}
+
+	private static Constructor<?> defaultConstructor(Class<?> type) {
+		try {
+			return ReflectionUtils.accessibleConstructor(type);
+		}
+		catch (NoSuchMethodException ex) {
+			throw new IllegalArgumentException("Could not find default constructor for type " + type.getName(), ex);
+		}
+	}
+
+	private static Object instantiate(Constructor<?> ctor) {
+		try {
+			return ctor.newInstance();
+		}
+		catch (Exception ex) {
+			ReflectionUtils.handleReflectionException(ex);
+			throw new IllegalStateException("Should never get here");
+		}
+	}
+
+
+	/**
+	 * A compiled conversion from a specific source type to a specific target type.
+	 */
+	@FunctionalInterface
+	interface Plan {
+
+		/**
+		 * Convert the given non-null source value.
+		 */
+		@Nullable
+		Object convert(Object source);
+	}
+
+
+	/**
+	 * Converts individual elements to a given element type, remembering the
+	 * plan for the most recently seen element class so that homogeneous
+	 * collections only hit the plan cache once.
+	 */
+	private static final class ElementConverter {
+
+		private final SimpleTypeConverter converter;
+
+		@Nullable
+		private final TypeDescriptor elementType;
+
+		@Nullable
+		private volatile CachedPlan lastPlan;
+
+		ElementConverter(SimpleTypeConverter converter, @Nullable TypeDescriptor elementType) {
+			this.converter = converter;
+			this.elementType = (isUntyped(elementType) ? null : elementType);
+		}
+
+		boolean isCompatible(Collection<?> elements) {
+			if (this.elementType == null) {
+				return true;
+			}
+			Class<?> requiredType = this.elementType.getObjectType();
+			if (this.elementType.isCollection() || this.elementType.isMap() || this.elementType.isArray()) {
+				// Nested generics cannot be checked against runtime types
+				return false;
+			}
+			for (Object element : elements) {
+				if (element != null && !requiredType.isInstance(element)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Nullable
+		Object convert(@Nullable Object element) {
+			if (element == null || this.elementType == null) {
+				return element;
+			}
+			Class<?> elementClass = element.getClass();
+			CachedPlan cached = this.lastPlan;
+			if (cached == null || cached.sourceType != elementClass) {
+				cached = new CachedPlan(elementClass, this.converter.getPlan(elementClass, this.elementType));
+				this.lastPlan = cached;
+			}
+			return cached.plan.convert(element);
+		}
+
+		private static final class CachedPlan {
+
+			final Class<?> sourceType;
+
+			final Plan plan;
+
+			CachedPlan(Class<?> sourceType, Plan plan) {
+				this.sourceType = sourceType;
+				this.plan = plan;
+			}
+		}
+	}
+
+}
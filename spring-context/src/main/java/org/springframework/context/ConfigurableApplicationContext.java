@@ -2,8 +2,37 @@ package org.springframework.context;
 
 import java.io.Closeable;
 
+import org.springframework.core.env.ConfigurableEnvironment;
+
 public interface ConfigurableApplicationContext extends ApplicationContext, Lifecycle, Closeable {
 
+    /**
+     * Set the {@code Environment} for this application context.
+     * @param environment the new environment
+     */
+    void setEnvironment(ConfigurableEnvironment environment);
+
+    /**
+     * Return the {@code Environment} for this application context in configurable
+     * form, allowing for further customization.
+     */
+    @Override
+    ConfigurableEnvironment getEnvironment();
+
+    /**
+     * Add a new ApplicationListener that will be notified on context events
+     * such as context refresh and context shutdown.
+     * @param listener the ApplicationListener to register
+     * @see #removeApplicationListener
+     */
+    void addApplicationListener(ApplicationListener<?> listener);
+
+    /**
+     * Remove the given ApplicationListener from this context's set of listeners,
+     * assuming it got registered via {@link #addApplicationListener} before.
+     * @param listener the ApplicationListener to deregister
+     */
+    void removeApplicationListener(ApplicationListener<?> listener);
 
     void close();
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
+
+/**
+ * Interface to be implemented by objects that can manage a number of
+ * {@link ApplicationListener} objects and publish events to them.
+ *
+ * <p>An {@link org.springframework.context.ApplicationEventPublisher}, typically
+ * a Spring {@link org.springframework.context.ApplicationContext}, can use an
+ * {@code ApplicationEventMulticaster} as a delegate for actually publishing events.
+ *
+ * @author Rod Johnson
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see ApplicationListener
+ */
+public interface ApplicationEventMulticaster {
+
+	/**
+	 * Add a listener to be notified of all events.
+	 * @param listener the listener to add
+	 * @see #removeApplicationListener(ApplicationListener)
+	 */
+	void addApplicationListener(ApplicationListener<?> listener);
+
+	/**
+	 * Remove a listener from the notification list.
+	 * @param listener the listener to remove
+	 * @see #addApplicationListener(ApplicationListener)
+	 */
+	void removeApplicationListener(ApplicationListener<?> listener);
+
+	/**
+	 * Remove all listeners registered with this multicaster.
+	 * <p>After a remove call, the multicaster will perform no action
+	 * on event notification until new listeners are registered.
+	 */
+	void removeAllListeners();
+
+	/**
+	 * Multicast the given application event to appropriate listeners.
+	 * <p>Consider using {@link #multicastEvent(ApplicationEvent, ResolvableType)}
+	 * if possible as it provides better support for generics-based events.
+	 * @param event the event to multicast
+	 */
+	void multicastEvent(ApplicationEvent event);
+
+	/**
+	 * Multicast the given application event to appropriate listeners.
+	 * <p>If the {@code eventType} is {@code null}, a default type is built
+	 * based on the {@code event} instance.
+	 * @param event the event to multicast
+	 * @param eventType the type of event (can be {@code null})
+	 */
+	void multicastEvent(ApplicationEvent event, @Nullable ResolvableType eventType);
+
+}
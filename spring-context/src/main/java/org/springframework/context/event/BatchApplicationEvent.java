@@ -0,0 +1,82 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link ApplicationEvent} carrying a batch of events of the same type,
+ * as published by a {@link BatchingApplicationEventPublisher}.
+ *
+ * <p>Exposes its element type as a generic, so that a listener declared as
+ * {@code ApplicationListener<BatchApplicationEvent<MyEvent>>} only receives
+ * batches of {@code MyEvent} objects.
+ *
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @param <T> the type of the batched events
+ * @see BatchingApplicationEventPublisher#addBatchedEventType
+ */
+@SuppressWarnings("serial")
+public class BatchApplicationEvent<T> extends ApplicationEvent implements ResolvableTypeProvider {
+
+	private final Class<T> eventType;
+
+	private final List<T> events;
+
+
+	/**
+	 * Create a new {@code BatchApplicationEvent}.
+	 * @param source the publisher of the batch (never {@code null})
+	 * @param eventType the type of the batched events
+	 * @param events the batched events, in order of publication
+	 */
+	public BatchApplicationEvent(Object source, Class<T> eventType, List<T> events) {
+		super(source);
+		Assert.notNull(eventType, "Event type must not be null");
+		Assert.notNull(events, "Events must not be null");
+		this.eventType = eventType;
+		this.events = Collections.unmodifiableList(events);
+	}
+
+
+	@Override
+	public ResolvableType getResolvableType() {
+		return ResolvableType.forClassWithGenerics(getClass(), this.eventType);
+	}
+
+	/**
+	 * Return the type of the batched events, as registered for batching.
+	 */
+	public Class<T> getEventType() {
+		return this.eventType;
+	}
+
+	/**
+	 * Return the batched events, in order of publication.
+	 */
+	public List<T> getEvents() {
+		return this.events;
+	}
+
+}
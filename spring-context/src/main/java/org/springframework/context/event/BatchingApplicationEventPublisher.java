@@ -0,0 +1,372 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationEventPublisher} decorator that collects events of the
+ * registered types into batches, delivered to the target publisher as
+ * {@link BatchApplicationEvent BatchApplicationEvents}: a high-frequency
+ * event stream then walks the listeners once per batch rather than once
+ * per event. Events of other types are passed through as-is.
+ *
+ * <p>Each registered type has a bounded ring buffer of {@link #setCapacity
+ * capacity} events. Events with the same coalescing key, as extracted by the
+ * function given on registration, are coalesced while buffered: a later event
+ * replaces the buffered one at its position. A full buffer either gets flushed
+ * by the publishing thread, throttling the producers to the pace of the
+ * listeners, or drops its oldest event, according to the {@link OverflowPolicy}.
+ *
+ * <p>Buffers are flushed on {@link #flush()}, typically run periodically
+ * through {@link #scheduleFlush}, in batches of up to
+ * {@link #setMaxBatchSize maxBatchSize} events. Batches of one type are
+ * published in order; there is no ordering across types.
+ *
+ * <p>A listener for batches of {@code MyEvent} is declared as
+ * {@code ApplicationListener<BatchApplicationEvent<MyEvent>>}.
+ *
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see #addBatchedEventType
+ * @see BatchApplicationEvent
+ */
+public class BatchingApplicationEventPublisher implements ApplicationEventPublisher {
+
+	/**
+	 * Strategy for publishing an event into a full buffer.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Flush a batch in the publishing thread, applying backpressure
+		 * to the producers of events.
+		 */
+		FLUSH_IN_CALLER,
+
+		/**
+		 * Drop the oldest buffered event, never delaying the producers
+		 * of events.
+		 * @see #getDroppedEventCount()
+		 */
+		DROP_OLDEST
+	}
+
+
+	private static final Log logger = LogFactory.getLog(BatchingApplicationEventPublisher.class);
+
+
+	private final ApplicationEventPublisher targetPublisher;
+
+	private int capacity = 1024;
+
+	private int maxBatchSize = 256;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.FLUSH_IN_CALLER;
+
+	/** Buffers per registered type, in registration order. */
+	private volatile List<EventBuffer<?>> buffers = List.of();
+
+	/** Buffer per concrete class of published objects, empty if not batched. */
+	private final Map<Class<?>, Optional<EventBuffer<?>>> bufferCache = new ConcurrentHashMap<>(64);
+
+	private final AtomicLong droppedEventCount = new AtomicLong();
+
+
+	/**
+	 * Create a new {@code BatchingApplicationEventPublisher}.
+	 * @param targetPublisher the publisher to deliver batches and
+	 * non-batched events to, typically the application context
+	 */
+	public BatchingApplicationEventPublisher(ApplicationEventPublisher targetPublisher) {
+		Assert.notNull(targetPublisher, "Target ApplicationEventPublisher must not be null");
+		this.targetPublisher = targetPublisher;
+	}
+
+
+	/**
+	 * Set the number of events to buffer per registered type.
+	 * <p>Default is 1024. Applies to event types registered afterwards.
+	 */
+	public void setCapacity(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Set the maximum number of events per published batch.
+	 * <p>Default is 256.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "Max batch size must be positive");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Set the policy for publishing an event into a full buffer.
+	 * <p>Default is {@link OverflowPolicy#FLUSH_IN_CALLER}.
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "OverflowPolicy must not be null");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Register a type of events to batch, without coalescing.
+	 * @param eventType the type of events to batch, as published: either an
+	 * {@link org.springframework.context.ApplicationEvent} or a payload type
+	 */
+	public void addBatchedEventType(Class<?> eventType) {
+		addBatchedEventType(eventType, null);
+	}
+
+	/**
+	 * Register a type of events to batch, coalescing buffered events
+	 * with the same key.
+	 * <p>An object published is batched with the first registered type it is
+	 * an instance of. Types are meant to be registered during setup, before
+	 * any events get published.
+	 * @param eventType the type of events to batch, as published: either an
+	 * {@link org.springframework.context.ApplicationEvent} or a payload type
+	 * @param keyExtractor the function to extract the coalescing key of an
+	 * event with, returning {@code null} for an event not to coalesce;
+	 * or {@code null} not to coalesce any events
+	 */
+	public <T> void addBatchedEventType(Class<T> eventType, @Nullable Function<? super T, ?> keyExtractor) {
+		Assert.notNull(eventType, "Event type must not be null");
+		synchronized (this.bufferCache) {
+			List<EventBuffer<?>> buffers = new ArrayList<>(this.buffers);
+			for (EventBuffer<?> buffer : buffers) {
+				Assert.state(buffer.eventType != eventType, () -> "Event type already registered: " + eventType.getName());
+			}
+			buffers.add(new EventBuffer<>(eventType, keyExtractor, this.capacity));
+			this.buffers = List.copyOf(buffers);
+			this.bufferCache.clear();
+		}
+	}
+
+
+	@Override
+	public void publishEvent(Object event) {
+		Assert.notNull(event, "Event must not be null");
+		Optional<EventBuffer<?>> buffer = this.bufferCache.computeIfAbsent(event.getClass(), this::findBuffer);
+		if (buffer.isPresent()) {
+			buffer.get().add(event);
+		}
+		else {
+			this.targetPublisher.publishEvent(event);
+		}
+	}
+
+	private Optional<EventBuffer<?>> findBuffer(Class<?> eventClass) {
+		for (EventBuffer<?> buffer : this.buffers) {
+			if (buffer.eventType.isAssignableFrom(eventClass)) {
+				return Optional.of(buffer);
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Publish all currently buffered events, in batches.
+	 * <p>Events published concurrently may or may not be included.
+	 */
+	public void flush() {
+		for (EventBuffer<?> buffer : this.buffers) {
+			buffer.flush(Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Schedule a {@link #flush()} at the given interval on the given scheduler.
+	 * <p>The scheduler is not managed by this publisher: on shutdown, cancel the
+	 * scheduled flushes and call {@link #flush()} for any remaining events.
+	 * @param scheduler the scheduler to run flushes on
+	 * @param interval the interval between flushes
+	 * @return a handle for cancelling the scheduled flushes
+	 */
+	public ScheduledFuture<?> scheduleFlush(ScheduledExecutorService scheduler, Duration interval) {
+		Assert.notNull(scheduler, "ScheduledExecutorService must not be null");
+		Assert.isTrue(interval != null && !interval.isNegative() && !interval.isZero(), "Interval must be positive");
+		long nanos = interval.toNanos();
+		return scheduler.scheduleWithFixedDelay(this::flushQuietly, nanos, nanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		}
+		catch (RuntimeException ex) {
+			// Keep the scheduled flushes going; the failed batch is not retried
+			logger.warn("Failed to publish batched events", ex);
+		}
+	}
+
+	/**
+	 * Return the number of events dropped so far due to
+	 * {@link OverflowPolicy#DROP_OLDEST}.
+	 */
+	public long getDroppedEventCount() {
+		return this.droppedEventCount.get();
+	}
+
+
+	/**
+	 * Ring buffer for the events of one registered type, with the buffered
+	 * position per coalescing key.
+	 */
+	private final class EventBuffer<T> {
+
+		final Class<T> eventType;
+
+		@Nullable
+		private final Function<? super T, ?> keyExtractor;
+
+		private final Object[] events;
+
+		private final Object[] keys;
+
+		/** Sequence number of the buffered event per key, for coalescing. */
+		private final Map<Object, Long> sequences = new HashMap<>();
+
+		/** Sequence number of the oldest buffered event. */
+		private long head;
+
+		private int count;
+
+		/** Guards the buffer state. */
+		private final Object bufferMonitor = new Object();
+
+		/** Serializes flushes, so that batches get published in order. */
+		private final Object flushMonitor = new Object();
+
+		EventBuffer(Class<T> eventType, @Nullable Function<? super T, ?> keyExtractor, int capacity) {
+			this.eventType = eventType;
+			this.keyExtractor = keyExtractor;
+			this.events = new Object[capacity];
+			this.keys = new Object[capacity];
+		}
+
+		void add(Object event) {
+			T typedEvent = this.eventType.cast(event);
+			Object key = (this.keyExtractor != null ? this.keyExtractor.apply(typedEvent) : null);
+			while (!offer(typedEvent, key)) {
+				// Full with FLUSH_IN_CALLER: make room by publishing a batch ourselves
+				flush(1);
+			}
+		}
+
+		private boolean offer(T event, @Nullable Object key) {
+			synchronized (this.bufferMonitor) {
+				if (key != null) {
+					Long sequence = this.sequences.get(key);
+					if (sequence != null) {
+						this.events[index(sequence)] = event;
+						return true;
+					}
+				}
+				if (this.count == this.events.length) {
+					if (overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+						return false;
+					}
+					removeOldest();
+					droppedEventCount.incrementAndGet();
+				}
+				long sequence = this.head + this.count;
+				int index = index(sequence);
+				this.events[index] = event;
+				this.keys[index] = key;
+				if (key != null) {
+					this.sequences.put(key, sequence);
+				}
+				this.count++;
+				return true;
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private T removeOldest() {
+			int index = index(this.head);
+			T event = (T) this.events[index];
+			Object key = this.keys[index];
+			if (key != null) {
+				this.sequences.remove(key);
+			}
+			this.events[index] = null;
+			this.keys[index] = null;
+			this.head++;
+			this.count--;
+			return event;
+		}
+
+		private int index(long sequence) {
+			return (int) (sequence % this.events.length);
+		}
+
+		/**
+		 * Publish up to the given number of batches, taking the currently
+		 * buffered events only.
+		 */
+		void flush(int maxBatches) {
+			synchronized (this.flushMonitor) {
+				int remaining;
+				synchronized (this.bufferMonitor) {
+					remaining = this.count;
+				}
+				for (int i = 0; i < maxBatches && remaining > 0; i++) {
+					List<T> batch = drain(Math.min(remaining, maxBatchSize));
+					if (batch.isEmpty()) {
+						return;
+					}
+					remaining -= batch.size();
+					targetPublisher.publishEvent(new BatchApplicationEvent<>(
+							BatchingApplicationEventPublisher.this, this.eventType, batch));
+				}
+			}
+		}
+
+		private List<T> drain(int maxEvents) {
+			synchronized (this.bufferMonitor) {
+				int size = Math.min(this.count, maxEvents);
+				List<T> batch = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					batch.add(removeOldest());
+				}
+				return batch;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,554 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * Simple implementation of the {@link ApplicationEventMulticaster} interface.
+ *
+ * <p>Multicasts each event to the registered listeners whose declared event
+ * type matches the {@link ResolvableType} of the event, as provided by the
+ * event itself if it is a {@link org.springframework.core.ResolvableTypeProvider}
+ * such as {@link PayloadApplicationEvent}, and against the type of its source
+ * for a {@link GenericApplicationListener}. Listeners are invoked in
+ * {@link org.springframework.core.Ordered} / {@code @Order} sequence.
+ *
+ * <p>The matching listeners are cached per combination of event type and
+ * source type, so that publishing an event of a type seen before takes a
+ * single lookup, regardless of the number of listeners registered. Adding
+ * or removing a listener updates the cached entries it affects.
+ *
+ * <p>By default, all listeners are invoked in the calling thread, and an
+ * exception thrown by a listener propagates to the publisher, skipping the
+ * remaining listeners. With an {@link #setErrorHandler ErrorHandler}, each
+ * listener is isolated from the failures of others instead.
+ *
+ * <p>With a {@link #setTaskExecutor task executor}, listeners that
+ * {@linkplain ApplicationListener#supportsAsyncExecution() support asynchronous
+ * execution} are notified on that executor: for example, a virtual-thread-per-task
+ * executor on JDK 21 and higher, so that a slow listener no longer adds latency
+ * to the publishing thread. Each such listener still receives the events one at
+ * a time, in the order of publication; and the number of listeners being
+ * notified concurrently may be bounded through {@link #setConcurrencyLimit},
+ * with further notifications waiting for their turn without blocking the
+ * publisher.
+ *
+ * @author Rod Johnson
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see #setTaskExecutor
+ * @see #setErrorHandler
+ * @see #setConcurrencyLimit
+ */
+public class SimpleApplicationEventMulticaster implements ApplicationEventMulticaster {
+
+	/**
+	 * Permit any number of listeners to be notified concurrently.
+	 * @see #setConcurrencyLimit
+	 */
+	public static final int UNBOUNDED_CONCURRENCY = -1;
+
+	/** Maximum number of events delivered to one listener before yielding to others. */
+	private static final int MAX_EVENTS_PER_DELIVERY = 64;
+
+	private static final ListenerRegistration[] NO_REGISTRATIONS = new ListenerRegistration[0];
+
+	private static final Log logger = LogFactory.getLog(SimpleApplicationEventMulticaster.class);
+
+
+	private final Object registrationMonitor = new Object();
+
+	private volatile ListenerRegistration[] registrations = NO_REGISTRATIONS;
+
+	/** Matching listeners, in invocation order, per event type and source type. */
+	private final Map<ListenerCacheKey, ListenerRegistration[]> retrieverCache = new ConcurrentHashMap<>(64);
+
+	@Nullable
+	private volatile Executor taskExecutor;
+
+	@Nullable
+	private volatile ErrorHandler errorHandler;
+
+	private volatile int concurrencyLimit = UNBOUNDED_CONCURRENCY;
+
+	private final AtomicInteger activeDeliveries = new AtomicInteger();
+
+	private final Queue<ListenerDelivery> waitingDeliveries = new ConcurrentLinkedQueue<>();
+
+
+	/**
+	 * Set a custom executor to notify listeners asynchronously with,
+	 * e.g. {@code Executors.newVirtualThreadPerTaskExecutor()}.
+	 * <p>Default is none, notifying all listeners in the calling thread.
+	 * Listeners that do not {@linkplain ApplicationListener#supportsAsyncExecution()
+	 * support asynchronous execution} are always notified in the calling thread.
+	 * <p>The executor is not managed by this multicaster: it needs to be shut
+	 * down by the caller once no more events get published.
+	 */
+	public void setTaskExecutor(@Nullable Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Return the current task executor for this multicaster.
+	 */
+	@Nullable
+	protected Executor getTaskExecutor() {
+		return this.taskExecutor;
+	}
+
+	/**
+	 * Set the {@link ErrorHandler} to invoke in case an exception is thrown
+	 * from a listener.
+	 * <p>Default is none, with a listener exception propagating to the publisher
+	 * in the synchronous case and getting logged in the asynchronous case.
+	 * <p>Consider setting an {@link ErrorHandler} implementation that catches
+	 * and logs exceptions, so that a failing listener does not prevent the
+	 * notification of the remaining ones.
+	 */
+	public void setErrorHandler(@Nullable ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Return the current error handler for this multicaster.
+	 */
+	@Nullable
+	protected ErrorHandler getErrorHandler() {
+		return this.errorHandler;
+	}
+
+	/**
+	 * Set the maximum number of listeners to notify concurrently through the
+	 * {@link #setTaskExecutor task executor}.
+	 * <p>Default is {@link #UNBOUNDED_CONCURRENCY}. Notifications beyond the
+	 * limit are queued and handed to the executor as running ones complete.
+	 */
+	public void setConcurrencyLimit(int concurrencyLimit) {
+		Assert.isTrue(concurrencyLimit == UNBOUNDED_CONCURRENCY || concurrencyLimit > 0,
+				"Concurrency limit must be positive or UNBOUNDED_CONCURRENCY");
+		this.concurrencyLimit = concurrencyLimit;
+		startWaitingDeliveries();
+	}
+
+	/**
+	 * Return the maximum number of listeners to notify concurrently.
+	 */
+	public int getConcurrencyLimit() {
+		return this.concurrencyLimit;
+	}
+
+
+	@Override
+	public void addApplicationListener(ApplicationListener<?> listener) {
+		Assert.notNull(listener, "ApplicationListener must not be null");
+		synchronized (this.registrationMonitor) {
+			List<ListenerRegistration> registrations = new ArrayList<>(this.registrations.length + 1);
+			ListenerRegistration existing = null;
+			for (ListenerRegistration registration : this.registrations) {
+				if (registration.listener != listener) {
+					registrations.add(registration);
+				}
+				else {
+					existing = registration;
+				}
+			}
+			// Re-adding a listener re-sorts it but keeps its delivery, with any pending events
+			ListenerRegistration added = (existing != null ? existing : new ListenerRegistration(listener));
+			registrations.add(added);
+			// Stable sort: the relative order of previously registered listeners is retained
+			registrations.sort((r1, r2) -> AnnotationAwareOrderComparator.INSTANCE.compare(r1.listener, r2.listener));
+			ListenerRegistration[] sorted = registrations.toArray(NO_REGISTRATIONS);
+			this.registrations = sorted;
+			this.retrieverCache.replaceAll((cacheKey, matching) -> {
+				matching = without(matching, listener);
+				return (added.supports(cacheKey.eventType(), cacheKey.sourceType()) ?
+						merge(sorted, matching, added) : matching);
+			});
+		}
+	}
+
+	@Override
+	public void removeApplicationListener(ApplicationListener<?> listener) {
+		synchronized (this.registrationMonitor) {
+			List<ListenerRegistration> registrations = new ArrayList<>(this.registrations.length);
+			for (ListenerRegistration registration : this.registrations) {
+				if (registration.listener != listener) {
+					registrations.add(registration);
+				}
+			}
+			this.registrations = registrations.toArray(NO_REGISTRATIONS);
+			this.retrieverCache.replaceAll((cacheKey, matching) -> without(matching, listener));
+		}
+	}
+
+	@Override
+	public void removeAllListeners() {
+		synchronized (this.registrationMonitor) {
+			this.registrations = NO_REGISTRATIONS;
+			this.retrieverCache.clear();
+		}
+	}
+
+	/**
+	 * Return the registered listeners, in invocation order.
+	 */
+	public List<ApplicationListener<?>> getApplicationListeners() {
+		ListenerRegistration[] registrations = this.registrations;
+		List<ApplicationListener<?>> listeners = new ArrayList<>(registrations.length);
+		for (ListenerRegistration registration : registrations) {
+			listeners.add(registration.listener);
+		}
+		return listeners;
+	}
+
+	/**
+	 * Return the listeners that match the given event, in invocation order.
+	 * @param event the event to be propagated
+	 * @param eventType the event type
+	 */
+	protected Collection<ApplicationListener<?>> getApplicationListeners(ApplicationEvent event, ResolvableType eventType) {
+		ListenerRegistration[] registrations = retrieveRegistrations(event, eventType);
+		List<ApplicationListener<?>> listeners = new ArrayList<>(registrations.length);
+		for (ListenerRegistration registration : registrations) {
+			listeners.add(registration.listener);
+		}
+		return listeners;
+	}
+
+	/**
+	 * Retrieve the registrations matching the given event, from the cache
+	 * if the event type and source type have been seen before.
+	 */
+	private ListenerRegistration[] retrieveRegistrations(ApplicationEvent event, ResolvableType eventType) {
+		Object source = event.getSource();
+		Class<?> sourceType = (source != null ? source.getClass() : null);
+		ListenerCacheKey cacheKey = new ListenerCacheKey(eventType, sourceType);
+		ListenerRegistration[] matching = this.retrieverCache.get(cacheKey);
+		if (matching != null) {
+			return matching;
+		}
+		// Exclusive with registration changes, so that no outdated entry gets cached
+		synchronized (this.registrationMonitor) {
+			matching = this.retrieverCache.get(cacheKey);
+			if (matching == null) {
+				List<ListenerRegistration> registrations = new ArrayList<>();
+				for (ListenerRegistration registration : this.registrations) {
+					if (registration.supports(eventType, sourceType)) {
+						registrations.add(registration);
+					}
+				}
+				matching = registrations.toArray(NO_REGISTRATIONS);
+				if (isCacheSafe(event.getClass(), sourceType)) {
+					this.retrieverCache.put(cacheKey, matching);
+				}
+			}
+			return matching;
+		}
+	}
+
+	/**
+	 * Only cache entries for classes visible to this multicaster's class loader,
+	 * so that the cache does not keep other class loaders alive.
+	 */
+	private boolean isCacheSafe(Class<?> eventClass, @Nullable Class<?> sourceType) {
+		ClassLoader classLoader = getClass().getClassLoader();
+		return (ClassUtils.isCacheSafe(eventClass, classLoader) &&
+				(sourceType == null || ClassUtils.isCacheSafe(sourceType, classLoader)));
+	}
+
+	private static ListenerRegistration[] without(ListenerRegistration[] registrations, ApplicationListener<?> listener) {
+		for (int i = 0; i < registrations.length; i++) {
+			if (registrations[i].listener == listener) {
+				ListenerRegistration[] result = new ListenerRegistration[registrations.length - 1];
+				System.arraycopy(registrations, 0, result, 0, i);
+				System.arraycopy(registrations, i + 1, result, i, result.length - i);
+				return result;
+			}
+		}
+		return registrations;
+	}
+
+	/**
+	 * Insert the added registration into the given matching ones, at its
+	 * position within all registrations, in which the matching ones appear
+	 * in the same relative order.
+	 */
+	private static ListenerRegistration[] merge(ListenerRegistration[] all, ListenerRegistration[] matching,
+			ListenerRegistration added) {
+
+		ListenerRegistration[] result = new ListenerRegistration[matching.length + 1];
+		int index = 0;
+		int matchingIndex = 0;
+		for (ListenerRegistration registration : all) {
+			if (registration == added) {
+				result[index++] = registration;
+			}
+			else if (matchingIndex < matching.length && matching[matchingIndex] == registration) {
+				result[index++] = registration;
+				matchingIndex++;
+			}
+		}
+		return result;
+	}
+
+
+	@Override
+	public void multicastEvent(ApplicationEvent event) {
+		multicastEvent(event, null);
+	}
+
+	@Override
+	public void multicastEvent(ApplicationEvent event, @Nullable ResolvableType eventType) {
+		ResolvableType type = (eventType != null ? eventType : ResolvableType.forInstance(event));
+		Executor executor = getTaskExecutor();
+		for (ListenerRegistration registration : retrieveRegistrations(event, type)) {
+			if (executor != null && registration.listener.supportsAsyncExecution()) {
+				registration.delivery.enqueue(event);
+			}
+			else {
+				invokeListener(registration.listener, event);
+			}
+		}
+	}
+
+	/**
+	 * Invoke the given listener with the given event.
+	 * @param listener the ApplicationListener to invoke
+	 * @param event the current event to propagate
+	 */
+	protected void invokeListener(ApplicationListener<?> listener, ApplicationEvent event) {
+		ErrorHandler errorHandler = getErrorHandler();
+		if (errorHandler != null) {
+			try {
+				doInvokeListener(listener, event);
+			}
+			catch (Throwable err) {
+				errorHandler.handleError(err);
+			}
+		}
+		else {
+			doInvokeListener(listener, event);
+		}
+	}
+
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private void doInvokeListener(ApplicationListener listener, ApplicationEvent event) {
+		try {
+			listener.onApplicationEvent(event);
+		}
+		catch (ClassCastException ex) {
+			String msg = ex.getMessage();
+			if (msg == null || matchesClassCastMessage(msg, event.getClass()) ||
+					(event instanceof PayloadApplicationEvent<?> payloadEvent &&
+							matchesClassCastMessage(msg, payloadEvent.getPayload().getClass()))) {
+				// Possibly a lambda-defined listener which we could not resolve the generic event type for
+				// -> let's suppress the exception.
+				if (logger.isTraceEnabled()) {
+					logger.trace("Non-matching event type for listener: " + listener, ex);
+				}
+			}
+			else {
+				throw ex;
+			}
+		}
+	}
+
+	private boolean matchesClassCastMessage(String classCastMessage, Class<?> eventClass) {
+		// On Java 8, the message starts with the class name: "java.lang.String cannot be cast..."
+		if (classCastMessage.startsWith(eventClass.getName())) {
+			return true;
+		}
+		// On Java 11, the message starts with "class ..." a.k.a. Class.toString()
+		if (classCastMessage.startsWith(eventClass.toString())) {
+			return true;
+		}
+		// On Java 9, the message used to contain the module name: "java.base/java.lang.String cannot be cast..."
+		int moduleSeparatorIndex = classCastMessage.indexOf('/');
+		return (moduleSeparatorIndex != -1 && classCastMessage.startsWith(eventClass.getName(), moduleSeparatorIndex + 1));
+	}
+
+
+	/**
+	 * Hand the given delivery to the executor once the concurrency limit permits.
+	 */
+	private void scheduleDelivery(ListenerDelivery delivery) {
+		this.waitingDeliveries.add(delivery);
+		startWaitingDeliveries();
+	}
+
+	private void startWaitingDeliveries() {
+		while (!this.waitingDeliveries.isEmpty()) {
+			int active = this.activeDeliveries.get();
+			int limit = this.concurrencyLimit;
+			if (limit != UNBOUNDED_CONCURRENCY && active >= limit) {
+				// Started by a running delivery on completion
+				return;
+			}
+			if (this.activeDeliveries.compareAndSet(active, active + 1)) {
+				ListenerDelivery delivery = this.waitingDeliveries.poll();
+				if (delivery != null) {
+					startDelivery(delivery);
+				}
+				else {
+					this.activeDeliveries.decrementAndGet();
+				}
+			}
+		}
+	}
+
+	private void startDelivery(ListenerDelivery delivery) {
+		Executor executor = getTaskExecutor();
+		if (executor != null) {
+			try {
+				executor.execute(delivery);
+				return;
+			}
+			catch (RejectedExecutionException ex) {
+				logger.warn("Task executor rejected event delivery to " + delivery.listener +
+						" - notifying listener in calling thread", ex);
+			}
+		}
+		delivery.run();
+	}
+
+	private void deliveryCompleted() {
+		this.activeDeliveries.decrementAndGet();
+		startWaitingDeliveries();
+	}
+
+
+	/**
+	 * A registered listener, with its declared event type resolved once.
+	 */
+	private final class ListenerRegistration {
+
+		final ApplicationListener<?> listener;
+
+		@Nullable
+		final ResolvableType declaredEventType;
+
+		final ListenerDelivery delivery;
+
+		ListenerRegistration(ApplicationListener<?> listener) {
+			this.listener = listener;
+			this.declaredEventType = resolveDeclaredEventType(listener);
+			this.delivery = new ListenerDelivery(listener);
+		}
+
+		boolean supports(ResolvableType eventType, @Nullable Class<?> sourceType) {
+			if (this.listener instanceof GenericApplicationListener genericListener) {
+				return (genericListener.supportsEventType(eventType) && genericListener.supportsSourceType(sourceType));
+			}
+			return (this.declaredEventType == null || this.declaredEventType.isAssignableFrom(eventType));
+		}
+
+		/**
+		 * Resolve the event type declared by the listener class, or {@code null}
+		 * if not resolvable (e.g. for a lambda), in which case all events are passed
+		 * to the listener and mismatches are detected through ClassCastException.
+		 */
+		@Nullable
+		private static ResolvableType resolveDeclaredEventType(ApplicationListener<?> listener) {
+			ResolvableType declaredEventType =
+					ResolvableType.forClass(listener.getClass()).as(ApplicationListener.class).getGeneric();
+			Class<?> eventClass = declaredEventType.resolve();
+			return (eventClass == null || eventClass == ApplicationEvent.class ? null : declaredEventType);
+		}
+	}
+
+
+	/**
+	 * Cache key for the listeners matching an event type and source type.
+	 */
+	private record ListenerCacheKey(ResolvableType eventType, @Nullable Class<?> sourceType) {
+	}
+
+
+	/**
+	 * The pending asynchronous notifications of one listener, delivered
+	 * in order of publication by at most one task at any time.
+	 */
+	private final class ListenerDelivery implements Runnable {
+
+		final ApplicationListener<?> listener;
+
+		private final Queue<ApplicationEvent> events = new ConcurrentLinkedQueue<>();
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		ListenerDelivery(ApplicationListener<?> listener) {
+			this.listener = listener;
+		}
+
+		void enqueue(ApplicationEvent event) {
+			this.events.add(event);
+			if (this.scheduled.compareAndSet(false, true)) {
+				scheduleDelivery(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				ApplicationEvent event;
+				for (int i = 0; i < MAX_EVENTS_PER_DELIVERY && (event = this.events.poll()) != null; i++) {
+					try {
+						invokeListener(this.listener, event);
+					}
+					catch (Throwable ex) {
+						logger.error("Unexpected exception from asynchronous listener " + this.listener +
+								" for " + event, ex);
+					}
+				}
+			}
+			finally {
+				this.scheduled.set(false);
+				deliveryCompleted();
+				// Events added after the last poll, or beyond the per-delivery maximum
+				if (!this.events.isEmpty() && this.scheduled.compareAndSet(false, true)) {
+					scheduleDelivery(this);
+				}
+			}
+		}
+	}
+
+}
@@ -1,13 +1,268 @@
 package org.springframework.context.support;
 
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.JarFileCache;
 
 public abstract class AbstractApplicationContext extends DefaultResourceLoader
         implements ConfigurableApplicationContext {
 
+    /** ResourcePatternResolver used by this context. */
+    private final ResourcePatternResolver resourcePatternResolver;
+
+    /** Environment used by this context. */
+    @Nullable
+    private ConfigurableEnvironment environment;
+
+    /** MessageSource we delegate our implementation of this interface to. */
+    @Nullable
+    private MessageSource messageSource;
+
+    /** Helper class used in event publishing. */
+    private ApplicationEventMulticaster applicationEventMulticaster = new SimpleApplicationEventMulticaster();
+
+    /** Flag that indicates whether this context has been closed already. */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+
+    /**
+     * Create a new AbstractApplicationContext with no parent.
+     */
+    public AbstractApplicationContext() {
+        this.resourcePatternResolver = getResourcePatternResolver();
+        JarFileCache.getSharedInstance().registerUser();
+    }
+
+
+    /**
+     * Return the ResourcePatternResolver to use for resolving location patterns
+     * into Resource instances. Default is a
+     * {@link org.springframework.core.io.support.PathMatchingResourcePatternResolver},
+     * supporting Ant-style location patterns.
+     * <p>Can be overridden in subclasses, for extended resolution strategies,
+     * for example in a web environment.
+     * <p><b>Do not call this when needing to resolve a location pattern.</b>
+     * Call the context's {@code getResources} method instead, which
+     * will delegate to the ResourcePatternResolver.
+     * @return the ResourcePatternResolver for this context
+     * @see #getResources
+     * @see org.springframework.core.io.support.PathMatchingResourcePatternResolver
+     */
+    protected ResourcePatternResolver getResourcePatternResolver() {
+        return new PathMatchingResourcePatternResolver(this);
+    }
+
+    /**
+     * Set the {@code Environment} for this application context.
+     * <p>Default value is determined by {@link #createEnvironment()}. Replacing the
+     * default with this method is one option but configuration through {@link
+     * #getEnvironment()} should also be considered.
+     * @see #createEnvironment
+     */
+    @Override
+    public void setEnvironment(ConfigurableEnvironment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Return the {@code Environment} for this application context in configurable
+     * form, allowing for further customization.
+     * <p>If none specified, a default environment will be initialized via
+     * {@link #createEnvironment()}.
+     */
+    @Override
+    public ConfigurableEnvironment getEnvironment() {
+        if (this.environment == null) {
+            this.environment = createEnvironment();
+        }
+        return this.environment;
+    }
+
+    /**
+     * Create and return a new {@link StandardEnvironment}.
+     * <p>Subclasses may override this method in order to supply
+     * a custom {@link ConfigurableEnvironment} implementation.
+     */
+    protected ConfigurableEnvironment createEnvironment() {
+        return new StandardEnvironment();
+    }
+
+    /**
+     * Set the {@link MessageSource} that this context delegates message
+     * resolution to, e.g. a {@link ResourceBundleMessageSource}.
+     * <p>Default is an empty {@link DelegatingMessageSource}, which only
+     * renders default messages.
+     */
+    public void setMessageSource(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Return the internal MessageSource used by the context.
+     * @return the internal MessageSource (never {@code null})
+     */
+    protected MessageSource getMessageSource() {
+        if (this.messageSource == null) {
+            this.messageSource = new DelegatingMessageSource();
+        }
+        return this.messageSource;
+    }
+
+    /**
+     * Set the {@link ApplicationEventMulticaster} that this context delegates
+     * event publication to.
+     * <p>Default is a {@link SimpleApplicationEventMulticaster}, notifying all
+     * listeners in the publishing thread; configure it with a task executor
+     * for asynchronous notification. Listeners registered with the previous
+     * multicaster are not carried over.
+     */
+    public void setApplicationEventMulticaster(ApplicationEventMulticaster applicationEventMulticaster) {
+        Assert.notNull(applicationEventMulticaster, "ApplicationEventMulticaster must not be null");
+        this.applicationEventMulticaster = applicationEventMulticaster;
+    }
+
+    /**
+     * Return the internal ApplicationEventMulticaster used by the context.
+     * @return the internal ApplicationEventMulticaster (never {@code null})
+     */
+    protected ApplicationEventMulticaster getApplicationEventMulticaster() {
+        return this.applicationEventMulticaster;
+    }
+
+    @Override
+    public void addApplicationListener(ApplicationListener<?> listener) {
+        getApplicationEventMulticaster().addApplicationListener(listener);
+    }
+
+    @Override
+    public void removeApplicationListener(ApplicationListener<?> listener) {
+        getApplicationEventMulticaster().removeApplicationListener(listener);
+    }
+
+
+    //---------------------------------------------------------------------
+    // Implementation of ApplicationEventPublisher interface
+    //---------------------------------------------------------------------
+
+    /**
+     * Publish the given event to all listeners.
+     * @param event the event to publish (may be an {@link ApplicationEvent}
+     * or a payload object to be turned into a {@link PayloadApplicationEvent})
+     */
+    @Override
+    public void publishEvent(Object event) {
+        publishEvent(event, null);
+    }
+
+    /**
+     * Publish the given event to all listeners.
+     * <p>This is the internal delegate that all other {@code publishEvent}
+     * methods refer to. It is not meant to be called directly but rather serves
+     * as a propagation mechanism between application contexts in a hierarchy,
+     * potentially overridden in subclasses for a custom propagation arrangement.
+     * @param event the event to publish (may be an {@link ApplicationEvent}
+     * or a payload object to be turned into a {@link PayloadApplicationEvent})
+     * @param typeHint the resolved event type, if known.
+     * The implementation of this method also tolerates a payload type hint for
+     * a payload object to be turned into a {@link PayloadApplicationEvent}.
+     * However, the recommended way is to construct an actual event object via
+     * {@link PayloadApplicationEvent#PayloadApplicationEvent(Object, Object, ResolvableType)}
+     * instead for such scenarios.
+     * @see ApplicationEventMulticaster#multicastEvent(ApplicationEvent, ResolvableType)
+     */
+    protected void publishEvent(Object event, @Nullable ResolvableType typeHint) {
+        Assert.notNull(event, "Event must not be null");
+        ResolvableType eventType = null;
+
+        // Decorate event as an ApplicationEvent if necessary
+        ApplicationEvent applicationEvent;
+        if (event instanceof ApplicationEvent applEvent) {
+            applicationEvent = applEvent;
+            eventType = typeHint;
+        }
+        else {
+            ResolvableType payloadType = null;
+            if (typeHint != null && ApplicationEvent.class.isAssignableFrom(typeHint.toClass())) {
+                eventType = typeHint;
+            }
+            else {
+                payloadType = typeHint;
+            }
+            applicationEvent = new PayloadApplicationEvent<>(this, event, payloadType);
+        }
+
+        getApplicationEventMulticaster().multicastEvent(applicationEvent, eventType);
+
+        // Publish event via parent context as well...
+        ApplicationContext parent = getParent();
+        if (parent != null) {
+            if (parent instanceof AbstractApplicationContext abstractApplicationContext) {
+                abstractApplicationContext.publishEvent(event, typeHint);
+            }
+            else {
+                parent.publishEvent(event);
+            }
+        }
+    }
+
+
+    //---------------------------------------------------------------------
+    // Implementation of MessageSource interface
+    //---------------------------------------------------------------------
+
+    @Override
+    @Nullable
+    public String getMessage(String code, @Nullable Object[] args, @Nullable String defaultMessage, Locale locale) {
+        return getMessageSource().getMessage(code, args, defaultMessage, locale);
+    }
+
+    @Override
+    public String getMessage(String code, @Nullable Object[] args, Locale locale) throws NoSuchMessageException {
+        return getMessageSource().getMessage(code, args, locale);
+    }
+
+    @Override
+    public String getMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
+        return getMessageSource().getMessage(resolvable, locale);
+    }
+
+
+    @Override
+    public Resource[] getResources(String locationPattern) throws IOException {
+        return this.resourcePatternResolver.getResources(locationPattern);
+    }
 
+    /**
+     * Close this application context, unregistering it from the shared
+     * {@link JarFileCache}: once the last open context has been closed, the
+     * cache releases its jar files (each as soon as it is no longer in use).
+     * <p>Closing a context again has no effect.
+     */
     @Override
     public void close() {
+        if (this.closed.compareAndSet(false, true)) {
+            JarFileCache.getSharedInstance().unregisterUser();
+        }
     }
 }
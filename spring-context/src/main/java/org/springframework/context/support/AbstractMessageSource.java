@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.context.HierarchicalMessageSource;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Abstract implementation of the {@link HierarchicalMessageSource} interface,
+ * implementing common handling of message variants, making it easy
+ * to implement a specific strategy for a concrete MessageSource.
+ *
+ * <p>Subclasses must implement the abstract {@link #resolveCode} method,
+ * returning a {@link CompiledMessage} for a code and locale. Implementations
+ * are encouraged to cache that outcome, including misses, so that repeated
+ * resolution of a code, and of each code of a {@link MessageSourceResolvable}
+ * in turn, is a lookup in a table. A message without arguments is rendered
+ * from its text as-is, without involving {@link java.text.MessageFormat} unless
+ * {@link #setAlwaysUseMessageFormat "alwaysUseMessageFormat"} is set.
+ *
+ * <p>Note that the default messages passed into {@code getMessage} are
+ * formatted through the same compiled, cached representation.
+ *
+ * @author Rod Johnson
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see #resolveCode(String, java.util.Locale)
+ * @see CompiledMessage
+ */
+public abstract class AbstractMessageSource extends MessageSourceSupport implements HierarchicalMessageSource {
+
+	@Nullable
+	private MessageSource parentMessageSource;
+
+	private boolean useCodeAsDefaultMessage = false;
+
+
+	@Override
+	public void setParentMessageSource(@Nullable MessageSource parent) {
+		this.parentMessageSource = parent;
+	}
+
+	@Override
+	@Nullable
+	public MessageSource getParentMessageSource() {
+		return this.parentMessageSource;
+	}
+
+	/**
+	 * Set whether to use the message code as default message instead of
+	 * throwing a NoSuchMessageException. Useful for development and debugging.
+	 * Default is "false".
+	 * <p>Note: In case of a MessageSourceResolvable with multiple codes
+	 * (like a FieldError) and a MessageSource that has a parent MessageSource,
+	 * do <i>not</i> activate "useCodeAsDefaultMessage" in the <i>parent</i>:
+	 * Else, you'll get the first code returned as message by the parent,
+	 * without attempts to check further codes.
+	 * @see #getMessage(String, Object[], Locale)
+	 * @see #getMessage(MessageSourceResolvable, Locale)
+	 */
+	public void setUseCodeAsDefaultMessage(boolean useCodeAsDefaultMessage) {
+		this.useCodeAsDefaultMessage = useCodeAsDefaultMessage;
+	}
+
+	/**
+	 * Return whether to use the message code as default message instead of
+	 * throwing a NoSuchMessageException. Useful for development and debugging.
+	 * Default is "false".
+	 */
+	protected boolean isUseCodeAsDefaultMessage() {
+		return this.useCodeAsDefaultMessage;
+	}
+
+
+	@Override
+	@Nullable
+	public final String getMessage(String code, @Nullable Object[] args, @Nullable String defaultMessage, Locale locale) {
+		String msg = getMessageInternal(code, args, locale);
+		if (msg != null) {
+			return msg;
+		}
+		if (defaultMessage == null) {
+			return getDefaultMessage(code);
+		}
+		return renderDefaultMessage(defaultMessage, args, locale);
+	}
+
+	@Override
+	public final String getMessage(String code, @Nullable Object[] args, Locale locale) throws NoSuchMessageException {
+		String msg = getMessageInternal(code, args, locale);
+		if (msg != null) {
+			return msg;
+		}
+		String fallback = getDefaultMessage(code);
+		if (fallback != null) {
+			return fallback;
+		}
+		throw new NoSuchMessageException(code, locale);
+	}
+
+	@Override
+	public final String getMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
+		String[] codes = resolvable.getCodes();
+		if (codes != null) {
+			for (String code : codes) {
+				String message = getMessageInternal(code, resolvable.getArguments(), locale);
+				if (message != null) {
+					return message;
+				}
+			}
+		}
+		String defaultMessage = getDefaultMessage(resolvable, locale);
+		if (defaultMessage != null) {
+			return defaultMessage;
+		}
+		throw new NoSuchMessageException(!ObjectUtils.isEmpty(codes) ? codes[codes.length - 1] : "", locale);
+	}
+
+
+	/**
+	 * Resolve the given code and arguments as message in the given Locale,
+	 * returning {@code null} if not found. Does <i>not</i> fall back to
+	 * the code as default message. Invoked by {@code getMessage} methods.
+	 * @param code the code to lookup up, such as 'calculator.noRateSet'
+	 * @param args array of arguments that will be filled in for params
+	 * within the message
+	 * @param locale the locale in which to do the lookup
+	 * @return the resolved message, or {@code null} if not found
+	 * @see #getMessage(String, Object[], String, Locale)
+	 * @see #getMessage(String, Object[], Locale)
+	 * @see #getMessage(MessageSourceResolvable, Locale)
+	 * @see #setUseCodeAsDefaultMessage
+	 */
+	@Nullable
+	protected String getMessageInternal(@Nullable String code, @Nullable Object[] args, @Nullable Locale locale) {
+		if (code == null) {
+			return null;
+		}
+		if (locale == null) {
+			locale = Locale.getDefault();
+		}
+		CompiledMessage compiledMessage = resolveCode(code, locale);
+		if (compiledMessage != null) {
+			if (!isAlwaysUseMessageFormat() && ObjectUtils.isEmpty(args)) {
+				// Optimized resolution: no arguments to apply,
+				// therefore no MessageFormat needs to be involved.
+				return compiledMessage.getMessage();
+			}
+			return compiledMessage.format(resolveArguments(args, locale));
+		}
+
+		// Not found -> check parent, if any.
+		return getMessageFromParent(code, args, locale);
+	}
+
+	/**
+	 * Try to retrieve the given message from the parent {@code MessageSource}, if any.
+	 * @param code the code to lookup up, such as 'calculator.noRateSet'
+	 * @param args array of arguments that will be filled in for params
+	 * within the message
+	 * @param locale the locale in which to do the lookup
+	 * @return the resolved message, or {@code null} if not found
+	 * @see #getParentMessageSource()
+	 */
+	@Nullable
+	protected String getMessageFromParent(String code, @Nullable Object[] args, Locale locale) {
+		MessageSource parent = getParentMessageSource();
+		if (parent != null) {
+			if (parent instanceof AbstractMessageSource abstractMessageSource) {
+				// Call internal method to avoid getting the default code back
+				// in case of "useCodeAsDefaultMessage" being activated.
+				return abstractMessageSource.getMessageInternal(code, args, locale);
+			}
+			else {
+				// Check parent MessageSource, returning null if not found there.
+				// Covers custom MessageSource impls and DelegatingMessageSource.
+				return parent.getMessage(code, args, null, locale);
+			}
+		}
+		// Not found in parent either.
+		return null;
+	}
+
+	/**
+	 * Get a default message for the given {@code MessageSourceResolvable}.
+	 * <p>This implementation fully renders the default message if available,
+	 * or just returns the plain default message {@code String} if the primary
+	 * message code is being used as a default message.
+	 * @param resolvable the value object to resolve a default message for
+	 * @param locale the current locale
+	 * @return the default message, or {@code null} if none
+	 * @see #renderDefaultMessage(String, Object[], Locale)
+	 * @see #getDefaultMessage(String)
+	 */
+	@Nullable
+	protected String getDefaultMessage(MessageSourceResolvable resolvable, Locale locale) {
+		String defaultMessage = resolvable.getDefaultMessage();
+		String[] codes = resolvable.getCodes();
+		if (defaultMessage != null) {
+			if (!ObjectUtils.isEmpty(codes) && defaultMessage.equals(codes[0])) {
+				// Never format a code-as-default-message, even with alwaysUseMessageFormat=true
+				return defaultMessage;
+			}
+			return renderDefaultMessage(defaultMessage, resolvable.getArguments(), locale);
+		}
+		return (!ObjectUtils.isEmpty(codes) ? getDefaultMessage(codes[0]) : null);
+	}
+
+	/**
+	 * Return a fallback default message for the given code, if any.
+	 * <p>Default is to return the code itself if "useCodeAsDefaultMessage" is activated,
+	 * or return no fallback else. In case of no fallback, the caller will usually
+	 * receive a {@code NoSuchMessageException} from {@code getMessage}.
+	 * @param code the message code that we couldn't resolve
+	 * and that we didn't receive an explicit default message for
+	 * @return the default message to use, or {@code null} if none
+	 * @see #setUseCodeAsDefaultMessage
+	 */
+	@Nullable
+	protected String getDefaultMessage(String code) {
+		if (isUseCodeAsDefaultMessage()) {
+			return code;
+		}
+		return null;
+	}
+
+	/**
+	 * Searches through the given array of objects, finds any MessageSourceResolvable
+	 * objects and resolves them.
+	 * <p>Allows for messages to have MessageSourceResolvables as arguments.
+	 * @param args array of arguments for a message
+	 * @param locale the locale to resolve through
+	 * @return an array of arguments with any MessageSourceResolvables resolved
+	 */
+	@Override
+	protected Object[] resolveArguments(@Nullable Object[] args, Locale locale) {
+		if (ObjectUtils.isEmpty(args)) {
+			return super.resolveArguments(args, locale);
+		}
+		List<Object> resolvedArgs = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] instanceof MessageSourceResolvable resolvable) {
+				if (resolvedArgs == null) {
+					resolvedArgs = new ArrayList<>(args.length);
+					for (int j = 0; j < i; j++) {
+						resolvedArgs.add(args[j]);
+					}
+				}
+				resolvedArgs.add(getMessage(resolvable, locale));
+			}
+			else if (resolvedArgs != null) {
+				resolvedArgs.add(args[i]);
+			}
+		}
+		return (resolvedArgs != null ? resolvedArgs.toArray() : args);
+	}
+
+
+	/**
+	 * Subclasses must implement this method to resolve a message.
+	 * <p>Returns a {@link CompiledMessage} rather than a message String,
+	 * so that its {@code MessageFormat} is built only if arguments need to
+	 * be applied, and at most once; implementations should therefore return
+	 * the same instance for the same code and locale, at least until the
+	 * underlying message definitions change.
+	 * @param code the code of the message to resolve
+	 * @param locale the locale to resolve the code for
+	 * (subclasses are encouraged to support internationalization)
+	 * @return the compiled message, or {@code null} if not found
+	 */
+	@Nullable
+	protected abstract CompiledMessage resolveCode(String code, Locale locale);
+
+}
@@ -6,15 +6,9 @@ import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.context.ApplicationContext;
-import org.springframework.context.MessageSourceResolvable;
-import org.springframework.context.NoSuchMessageException;
 import org.springframework.core.ResolvableType;
-import org.springframework.core.env.Environment;
-import org.springframework.core.io.Resource;
 
-import java.io.IOException;
 import java.lang.annotation.Annotation;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -250,11 +244,6 @@ public class ClassPathXmlApplicationContext extends AbstractXmlApplicationContex
         return null;
     }
 
-    @Override
-    public void publishEvent(Object event) {
-
-    }
-
     @Override
     public void start() {
 
@@ -269,39 +258,4 @@ public class ClassPathXmlApplicationContext extends AbstractXmlApplicationContex
     public boolean isRunning() {
         return false;
     }
-
-    @Override
-    public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
-        return null;
-    }
-
-    @Override
-    public String getMessage(String code, Object[] args, Locale locale) throws NoSuchMessageException {
-        return null;
-    }
-
-    @Override
-    public String getMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
-        return null;
-    }
-
-    @Override
-    public Environment getEnvironment() {
-        return null;
-    }
-
-    @Override
-    public Resource getResource(String location) {
-        return null;
-    }
-
-    @Override
-    public ClassLoader getClassLoader() {
-        return null;
-    }
-
-    @Override
-    public Resource[] getResources(String locationPattern) throws IOException {
-        return new Resource[0];
-    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A message resolved for a locale, compiled into a {@link MessageFormat}
+ * on first use and formatted thread-safely from then on.
+ *
+ * <p>The message text itself is available without any {@code MessageFormat}
+ * involved. A message without argument placeholders is formatted once, and
+ * returns that result for any arguments. Otherwise, formatting uses an idle
+ * copy of the compiled {@code MessageFormat}, cloning another one only while
+ * that copy is in use by a concurrent call.
+ *
+ * <p>A message that is not a valid {@code MessageFormat} pattern is
+ * rendered as-is.
+ *
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see AbstractMessageSource#resolveCode
+ */
+public final class CompiledMessage {
+
+	private static final Object[] EMPTY_ARGUMENTS = new Object[0];
+
+
+	private final String message;
+
+	private final Locale locale;
+
+	@Nullable
+	private volatile Compiled compiled;
+
+
+	/**
+	 * Create a new {@code CompiledMessage}.
+	 * @param message the message, in {@link MessageFormat} syntax
+	 * @param locale the locale to format arguments for
+	 */
+	public CompiledMessage(String message, Locale locale) {
+		Assert.notNull(message, "Message must not be null");
+		Assert.notNull(locale, "Locale must not be null");
+		this.message = message;
+		this.locale = locale;
+	}
+
+
+	/**
+	 * Return the message text, as defined.
+	 */
+	public String getMessage() {
+		return this.message;
+	}
+
+	/**
+	 * Return the locale that arguments are formatted for.
+	 */
+	public Locale getLocale() {
+		return this.locale;
+	}
+
+	/**
+	 * Format the message with the given arguments, as by {@link MessageFormat#format}.
+	 * @param args the arguments, or {@code null} if none
+	 * @return the formatted message
+	 */
+	public String format(@Nullable Object[] args) {
+		Compiled compiled = getCompiled();
+		if (compiled.constant != null) {
+			return compiled.constant;
+		}
+		MessageFormat messageFormat = compiled.idleFormat.getAndSet(null);
+		if (messageFormat == null) {
+			messageFormat = (MessageFormat) compiled.prototype.clone();
+		}
+		try {
+			return messageFormat.format(args != null ? args : EMPTY_ARGUMENTS);
+		}
+		finally {
+			compiled.idleFormat.set(messageFormat);
+		}
+	}
+
+	private Compiled getCompiled() {
+		Compiled compiled = this.compiled;
+		if (compiled == null) {
+			compiled = compile();
+			this.compiled = compiled;
+		}
+		return compiled;
+	}
+
+	private Compiled compile() {
+		MessageFormat messageFormat = new MessageFormat("");
+		messageFormat.setLocale(this.locale);
+		try {
+			messageFormat.applyPattern(this.message);
+		}
+		catch (IllegalArgumentException ex) {
+			// Invalid message format - probably not intended for formatting,
+			// rather using a message structure with no arguments involved...
+			return new Compiled(this.message, messageFormat);
+		}
+		if (messageFormat.getFormatsByArgumentIndex().length == 0) {
+			return new Compiled(messageFormat.format(EMPTY_ARGUMENTS), messageFormat);
+		}
+		return new Compiled(null, messageFormat);
+	}
+
+	@Override
+	public String toString() {
+		return this.message;
+	}
+
+
+	/**
+	 * The compiled form: either a constant result, or a {@code MessageFormat}
+	 * to copy for formatting, with one idle copy ready for use.
+	 */
+	private static final class Compiled {
+
+		@Nullable
+		final String constant;
+
+		final MessageFormat prototype;
+
+		final AtomicReference<MessageFormat> idleFormat = new AtomicReference<>();
+
+		Compiled(@Nullable String constant, MessageFormat prototype) {
+			this.constant = constant;
+			this.prototype = prototype;
+			if (constant == null) {
+				this.idleFormat.set((MessageFormat) prototype.clone());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Base class for message source implementations, providing support
+ * infrastructure such as {@link java.text.MessageFormat} handling but
+ * not implementing concrete methods defined in the
+ * {@link org.springframework.context.MessageSource}.
+ *
+ * <p>{@link AbstractMessageSource} derives from this class, providing concrete
+ * {@code getMessage} implementations that delegate to a central template
+ * method for message code resolution.
+ *
+ * @author Juergen Hoeller
+ * @since 6.1
+ */
+public abstract class MessageSourceSupport {
+
+	private boolean alwaysUseMessageFormat = false;
+
+	/**
+	 * Cache to hold already compiled default messages per locale.
+	 * Used for passed-in default messages only.
+	 */
+	private final Map<DefaultMessageKey, CompiledMessage> compiledDefaultMessages =
+			new ConcurrentReferenceHashMap<>(64);
+
+
+	/**
+	 * Set whether to always apply the {@code MessageFormat} rules, parsing even
+	 * messages without arguments.
+	 * <p>Default is {@code false}: Messages without arguments are by default
+	 * returned as-is, without parsing them through {@code MessageFormat}.
+	 * Set this to {@code true} to enforce {@code MessageFormat} for all messages,
+	 * expecting all message texts to be written with {@code MessageFormat} escaping.
+	 * <p>For example, {@code MessageFormat} expects a single quote to be escaped
+	 * as two adjacent single quotes ("''"). If your message texts are all written
+	 * with such escaping, even when not defining argument placeholders, you need
+	 * to set this flag to {@code true}. Otherwise, only message texts with actual
+	 * arguments are supposed to be written with {@code MessageFormat} escaping.
+	 * @see java.text.MessageFormat
+	 */
+	public void setAlwaysUseMessageFormat(boolean alwaysUseMessageFormat) {
+		this.alwaysUseMessageFormat = alwaysUseMessageFormat;
+	}
+
+	/**
+	 * Return whether to always apply the {@code MessageFormat} rules, parsing even
+	 * messages without arguments.
+	 */
+	protected boolean isAlwaysUseMessageFormat() {
+		return this.alwaysUseMessageFormat;
+	}
+
+
+	/**
+	 * Render the given default message String. The default message is
+	 * passed in as specified by the caller and can be rendered into
+	 * a fully formatted default message shown to the user.
+	 * <p>The default implementation passes the String to {@code formatMessage},
+	 * resolving any argument placeholders found in them. Subclasses may override
+	 * this method to plug in custom processing of default messages.
+	 * @param defaultMessage the passed-in default message String
+	 * @param args array of arguments that will be filled in for params within
+	 * the message, or {@code null} if none.
+	 * @param locale the Locale used for formatting
+	 * @return the rendered default message (with resolved arguments)
+	 * @see #formatMessage(String, Object[], java.util.Locale)
+	 */
+	protected String renderDefaultMessage(String defaultMessage, @Nullable Object[] args, Locale locale) {
+		return formatMessage(defaultMessage, args, locale);
+	}
+
+	/**
+	 * Format the given message String, using cached MessageFormats.
+	 * By default invoked for passed-in default messages, to resolve
+	 * any argument placeholders found in them.
+	 * @param msg the message to format
+	 * @param args array of arguments that will be filled in for params within
+	 * the message, or {@code null} if none
+	 * @param locale the Locale used for formatting
+	 * @return the formatted message (with resolved arguments)
+	 */
+	protected String formatMessage(String msg, @Nullable Object[] args, Locale locale) {
+		if (!isAlwaysUseMessageFormat() && ObjectUtils.isEmpty(args)) {
+			return msg;
+		}
+		DefaultMessageKey key = new DefaultMessageKey(msg, locale);
+		CompiledMessage compiledMessage = this.compiledDefaultMessages.get(key);
+		if (compiledMessage == null) {
+			compiledMessage = new CompiledMessage(msg, locale);
+			this.compiledDefaultMessages.put(key, compiledMessage);
+		}
+		return compiledMessage.format(resolveArguments(args, locale));
+	}
+
+	/**
+	 * Template method for resolving argument objects.
+	 * <p>The default implementation simply returns the given argument array as-is.
+	 * Can be overridden in subclasses in order to resolve special argument types.
+	 * @param args the original argument array
+	 * @param locale the Locale to resolve against
+	 * @return the resolved argument array
+	 */
+	protected Object[] resolveArguments(@Nullable Object[] args, Locale locale) {
+		return (args != null ? args : new Object[0]);
+	}
+
+
+	private record DefaultMessageKey(String message, Locale locale) {
+	}
+
+}
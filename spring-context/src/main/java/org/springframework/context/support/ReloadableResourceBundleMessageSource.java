@@ -0,0 +1,521 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Spring-specific {@link org.springframework.context.MessageSource} implementation
+ * that accesses resource bundles using specified basenames, reading properties
+ * files through a {@link ResourceLoader} rather than {@link java.util.ResourceBundle},
+ * and able to reload them while the application is running.
+ *
+ * <p>The basenames are resource locations without file extension or language
+ * codes, such as "classpath:messages" or "WEB-INF/messages": for the locale
+ * "de_AT", the files "messages_de_AT.properties", "messages_de.properties",
+ * files for the system locale (see {@link #setFallbackToSystemLocale}) and
+ * "messages.properties" are searched in that order.
+ *
+ * <p>The messages of each file are held in an immutable table, indexed by a key
+ * dictionary shared by all files: resolving a code is a single lookup of its
+ * index, followed by indexed array reads along the fallback chain of the locale,
+ * which is computed once per locale. The files of a locale are read when that
+ * locale is first requested; after that, lookups never perform I/O, acquire
+ * class-loader locks or block on a reload.
+ *
+ * <p>{@link #reload()} checks the last-modified timestamps of all files read so
+ * far, re-reads the files that have changed (or appeared) and replaces all
+ * tables at once. It is typically run on a background thread through
+ * {@link #scheduleReload}.
+ *
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see #setBasenames
+ * @see #scheduleReload
+ * @see ResourceBundleMessageSource
+ */
+public class ReloadableResourceBundleMessageSource extends AbstractMessageSource {
+
+	private static final String PROPERTIES_SUFFIX = ".properties";
+
+	private static final Log logger = LogFactory.getLog(ReloadableResourceBundleMessageSource.class);
+
+	/** Marker for a code that none of the files of a locale contains. */
+	private static final CompiledMessage NO_MESSAGE = new CompiledMessage("", Locale.ROOT);
+
+
+	private final Set<String> basenameSet = new LinkedHashSet<>(4);
+
+	@Nullable
+	private String defaultEncoding;
+
+	private boolean fallbackToSystemLocale = true;
+
+	private ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+	/** Guards the loading of files, for new locales as well as on reload. */
+	private final Object loadMonitor = new Object();
+
+	private volatile MessageTables tables = MessageTables.empty();
+
+
+	/**
+	 * Set a single basename, following the basic ResourceBundle convention of
+	 * not specifying file extension or language codes. The resource location
+	 * format is up to the specified {@link #setResourceLoader ResourceLoader}.
+	 * @see #setBasenames
+	 * @see org.springframework.core.io.ResourceLoader#getResource
+	 */
+	public void setBasename(String basename) {
+		setBasenames(basename);
+	}
+
+	/**
+	 * Set an array of basenames, each following the basic ResourceBundle convention
+	 * of not specifying file extension or language codes. The resource location
+	 * format is up to the specified {@link #setResourceLoader ResourceLoader}.
+	 * <p>The associated resource bundles will be checked sequentially when resolving
+	 * a message code. Note that message definitions in a <i>previous</i> resource
+	 * bundle will override ones in a later bundle, due to the sequential lookup.
+	 * <p>Note: In contrast to {@link #addBasenames}, this replaces existing entries
+	 * with the given names and can therefore also be used to reset the configuration.
+	 * @see #setBasename
+	 * @see java.util.ResourceBundle
+	 */
+	public void setBasenames(String... basenames) {
+		synchronized (this.loadMonitor) {
+			this.basenameSet.clear();
+			addBasenames(basenames);
+		}
+	}
+
+	/**
+	 * Add the specified basenames to the existing basename configuration.
+	 * <p>Note: If a given basename already exists, the position of its entry
+	 * will remain as in the original set. New entries will be added at the
+	 * end of the list, to be searched after existing basenames.
+	 * @see #setBasenames
+	 */
+	public void addBasenames(String... basenames) {
+		synchronized (this.loadMonitor) {
+			for (String basename : basenames) {
+				Assert.hasText(basename, "Basename must not be empty");
+				this.basenameSet.add(basename.trim());
+			}
+			this.tables = MessageTables.empty();
+		}
+	}
+
+	/**
+	 * Return this {@code MessageSource}'s basename set, containing entries
+	 * in the order of registration.
+	 * @see #addBasenames
+	 */
+	public Set<String> getBasenameSet() {
+		synchronized (this.loadMonitor) {
+			return new LinkedHashSet<>(this.basenameSet);
+		}
+	}
+
+	/**
+	 * Set the default charset to use for parsing properties files.
+	 * <p>Default is none, using the {@code java.util.Properties}
+	 * default encoding: ISO-8859-1.
+	 */
+	public void setDefaultEncoding(@Nullable String defaultEncoding) {
+		this.defaultEncoding = defaultEncoding;
+	}
+
+	/**
+	 * Set whether to fall back to the system Locale if no files for a specific
+	 * Locale have been found. Default is "true"; if this is turned off, the only
+	 * fallback will be the default file (e.g. "messages.properties" for
+	 * basename "messages").
+	 */
+	public void setFallbackToSystemLocale(boolean fallbackToSystemLocale) {
+		this.fallbackToSystemLocale = fallbackToSystemLocale;
+	}
+
+	/**
+	 * Set the ResourceLoader to use for loading bundle properties files.
+	 * <p>The default is a DefaultResourceLoader.
+	 * @see org.springframework.core.io.DefaultResourceLoader
+	 */
+	public void setResourceLoader(@Nullable ResourceLoader resourceLoader) {
+		this.resourceLoader = (resourceLoader != null ? resourceLoader : new DefaultResourceLoader());
+	}
+
+
+	/**
+	 * Resolves the given message code against the message tables of the
+	 * given locale, reading the files for the locale on first use.
+	 */
+	@Override
+	@Nullable
+	protected CompiledMessage resolveCode(String code, Locale locale) {
+		LocaleMessages localeMessages = this.tables.localeMessages.get(locale);
+		if (localeMessages == null) {
+			localeMessages = loadLocaleMessages(locale);
+		}
+		return localeMessages.resolve(code);
+	}
+
+	/**
+	 * Re-read the files that have been modified, created or deleted since they
+	 * have been read, and replace the message tables if there are any.
+	 * <p>Lookups in progress complete against the previous tables.
+	 * @return {@code true} if any file has changed, {@code false} otherwise
+	 */
+	public boolean reload() {
+		synchronized (this.loadMonitor) {
+			MessageTables tables = this.tables;
+			List<String> changedFilenames = new ArrayList<>();
+			tables.files.forEach((filename, file) -> {
+				if (getLastModified(file.resource()) != file.lastModified()) {
+					changedFilenames.add(filename);
+				}
+			});
+			if (changedFilenames.isEmpty()) {
+				return false;
+			}
+			TablesBuilder builder = new TablesBuilder(tables, false);
+			for (String filename : changedFilenames) {
+				builder.files.put(filename, loadFile(filename, builder.keys));
+			}
+			for (Locale locale : tables.localeMessages.keySet()) {
+				builder.addLocaleMessages(locale);
+			}
+			this.tables = builder.build();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Reloaded message files " + changedFilenames);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Schedule a {@link #reload()} at the given interval on the given scheduler.
+	 * @param scheduler the scheduler to run reloads on
+	 * @param interval the interval between reloads
+	 * @return a handle for cancelling the scheduled reloads
+	 */
+	public ScheduledFuture<?> scheduleReload(ScheduledExecutorService scheduler, Duration interval) {
+		Assert.notNull(scheduler, "ScheduledExecutorService must not be null");
+		Assert.isTrue(interval != null && !interval.isNegative() && !interval.isZero(), "Interval must be positive");
+		long nanos = interval.toNanos();
+		return scheduler.scheduleWithFixedDelay(this::reloadQuietly, nanos, nanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void reloadQuietly() {
+		try {
+			reload();
+		}
+		catch (RuntimeException ex) {
+			// Keep the current tables and try again on the next run
+			logger.warn("Failed to reload message files", ex);
+		}
+	}
+
+	/**
+	 * Clear the message tables, so that files get read again on the next lookup.
+	 */
+	public void clearCache() {
+		synchronized (this.loadMonitor) {
+			this.tables = MessageTables.empty();
+		}
+	}
+
+
+	private LocaleMessages loadLocaleMessages(Locale locale) {
+		synchronized (this.loadMonitor) {
+			MessageTables tables = this.tables;
+			LocaleMessages localeMessages = tables.localeMessages.get(locale);
+			if (localeMessages == null) {
+				TablesBuilder builder = new TablesBuilder(tables, true);
+				localeMessages = builder.addLocaleMessages(locale);
+				this.tables = builder.build();
+			}
+			return localeMessages;
+		}
+	}
+
+	/**
+	 * Calculate all filenames for the given bundle basename and Locale.
+	 * Will calculate filenames for the given Locale, the system Locale
+	 * (if applicable), and the default file.
+	 * @param basename the basename of the bundle
+	 * @param locale the locale
+	 * @return the List of filenames to check
+	 * @see #setFallbackToSystemLocale
+	 * @see #calculateFilenamesForLocale
+	 */
+	protected List<String> calculateAllFilenames(String basename, Locale locale) {
+		List<String> filenames = new ArrayList<>(7);
+		filenames.addAll(calculateFilenamesForLocale(basename, locale));
+		Locale defaultLocale = Locale.getDefault();
+		if (this.fallbackToSystemLocale && !locale.equals(defaultLocale)) {
+			for (String fallbackFilename : calculateFilenamesForLocale(basename, defaultLocale)) {
+				if (!filenames.contains(fallbackFilename)) {
+					// Entry for fallback locale that isn't already in filenames list.
+					filenames.add(fallbackFilename);
+				}
+			}
+		}
+		filenames.add(basename);
+		return filenames;
+	}
+
+	/**
+	 * Calculate the filenames for the given bundle basename and Locale,
+	 * appending language code, country code, and variant code.
+	 * <p>For example, basename "messages", Locale "de_AT_oo" &rarr; "messages_de_AT_OO",
+	 * "messages_de_AT", "messages_de".
+	 * @param basename the basename of the bundle
+	 * @param locale the locale
+	 * @return the List of filenames to check
+	 */
+	protected List<String> calculateFilenamesForLocale(String basename, Locale locale) {
+		List<String> result = new ArrayList<>(3);
+		String language = locale.getLanguage();
+		String country = locale.getCountry();
+		String variant = locale.getVariant();
+		StringBuilder temp = new StringBuilder(basename);
+
+		temp.append('_');
+		if (language.length() > 0) {
+			temp.append(language);
+			result.add(0, temp.toString());
+		}
+
+		temp.append('_');
+		if (country.length() > 0) {
+			temp.append(country);
+			result.add(0, temp.toString());
+		}
+
+		if (variant.length() > 0 && (language.length() > 0 || country.length() > 0)) {
+			temp.append('_').append(variant);
+			result.add(0, temp.toString());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Read the properties file for the given filename, assigning an index in
+	 * the given key dictionary to each key not contained yet.
+	 * <p>Only called while holding the load monitor, so the dictionary has a
+	 * single writer and the next index is always its current size.
+	 */
+	private BundleFile loadFile(String filename, Map<String, Integer> keys) {
+		Resource resource = this.resourceLoader.getResource(filename + PROPERTIES_SUFFIX);
+		long lastModified = getLastModified(resource);
+		if (lastModified == -1 && !resource.exists()) {
+			return new BundleFile(resource, -1, null);
+		}
+		Properties props = new Properties();
+		try (InputStream inputStream = resource.getInputStream()) {
+			if (this.defaultEncoding != null) {
+				props.load(new InputStreamReader(inputStream, this.defaultEncoding));
+			}
+			else {
+				props.load(inputStream);
+			}
+		}
+		catch (IOException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Could not parse properties file [" + resource.getFilename() + "]", ex);
+			}
+			// Empty bundle for now, read again once the file changes
+			return new BundleFile(resource, lastModified, null);
+		}
+		Map<Integer, String> messagesByIndex = new HashMap<>(props.size() * 2);
+		for (String key : props.stringPropertyNames()) {
+			Integer index = keys.get(key);
+			if (index == null) {
+				index = keys.size();
+				keys.put(key, index);
+			}
+			messagesByIndex.put(index, props.getProperty(key));
+		}
+		String[] messages = new String[keys.size()];
+		messagesByIndex.forEach((index, message) -> messages[index] = message);
+		return new BundleFile(resource, lastModified, messages);
+	}
+
+	private static long getLastModified(Resource resource) {
+		try {
+			return resource.lastModified();
+		}
+		catch (IOException ex) {
+			// Not existing or not resolvable
+			return -1;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getName() + ": basenames=" + getBasenameSet();
+	}
+
+
+	/**
+	 * The messages of one properties file, indexed by key dictionary index,
+	 * {@code null} if the file does not exist or cannot be read.
+	 */
+	private record BundleFile(Resource resource, long lastModified, @Nullable String[] messages) {
+
+		@Nullable
+		String getMessage(int index) {
+			String[] messages = this.messages;
+			return (messages != null && index < messages.length ? messages[index] : null);
+		}
+	}
+
+
+	/**
+	 * The messages for one locale: the files of its fallback chain for all
+	 * basenames, in lookup order, with the messages compiled so far.
+	 */
+	private static final class LocaleMessages {
+
+		private final Locale locale;
+
+		private final Map<String, Integer> keys;
+
+		private final BundleFile[] files;
+
+		private final AtomicReferenceArray<CompiledMessage> messages;
+
+		LocaleMessages(Locale locale, Map<String, Integer> keys, BundleFile[] files) {
+			this.locale = locale;
+			this.keys = keys;
+			this.files = files;
+			this.messages = new AtomicReferenceArray<>(keys.size());
+		}
+
+		@Nullable
+		CompiledMessage resolve(String code) {
+			// Keys added to the dictionary after this locale was loaded
+			// do not occur in any of its files
+			Integer index = this.keys.get(code);
+			if (index == null || index >= this.messages.length()) {
+				return null;
+			}
+			CompiledMessage message = this.messages.get(index);
+			if (message == null) {
+				message = NO_MESSAGE;
+				for (BundleFile file : this.files) {
+					String text = file.getMessage(index);
+					if (text != null) {
+						message = new CompiledMessage(text, this.locale);
+						break;
+					}
+				}
+				if (!this.messages.compareAndSet(index, null, message)) {
+					message = this.messages.get(index);
+				}
+			}
+			return (message != NO_MESSAGE ? message : null);
+		}
+	}
+
+
+	/**
+	 * An immutable set of message tables: the shared key dictionary, the files
+	 * read so far by filename, and the messages per locale requested so far.
+	 * <p>The key dictionary itself is append-only and carried over from one set
+	 * of tables to the next: an index, once assigned, never changes, so tables
+	 * and locale messages built earlier keep resolving against it.
+	 */
+	private record MessageTables(Map<String, Integer> keys, Map<String, BundleFile> files,
+			Map<Locale, LocaleMessages> localeMessages) {
+
+		static MessageTables empty() {
+			return new MessageTables(new ConcurrentHashMap<>(), Map.of(), Map.of());
+		}
+	}
+
+
+	/**
+	 * Builder for the next {@link MessageTables}, appending new keys to the
+	 * shared key dictionary of the current tables.
+	 */
+	private final class TablesBuilder {
+
+		final Map<String, Integer> keys;
+
+		final Map<String, BundleFile> files;
+
+		final Map<Locale, LocaleMessages> localeMessages;
+
+		TablesBuilder(MessageTables tables, boolean keepLocaleMessages) {
+			this.keys = tables.keys();
+			this.files = new HashMap<>(tables.files());
+			this.localeMessages = (keepLocaleMessages ? new HashMap<>(tables.localeMessages()) : new HashMap<>());
+		}
+
+		LocaleMessages addLocaleMessages(Locale locale) {
+			List<BundleFile> chain = new ArrayList<>();
+			for (String basename : basenameSet) {
+				for (String filename : calculateAllFilenames(basename, locale)) {
+					BundleFile file = this.files.get(filename);
+					if (file == null) {
+						file = loadFile(filename, this.keys);
+						this.files.put(filename, file);
+					}
+					if (file.messages() != null) {
+						chain.add(file);
+					}
+				}
+			}
+			LocaleMessages messages = new LocaleMessages(locale, this.keys, chain.toArray(new BundleFile[0]));
+			this.localeMessages.put(locale, messages);
+			return messages;
+		}
+
+		MessageTables build() {
+			return new MessageTables(this.keys, Map.copyOf(this.files), Map.copyOf(this.localeMessages));
+		}
+	}
+
+}
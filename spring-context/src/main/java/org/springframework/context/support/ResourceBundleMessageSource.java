@@ -0,0 +1,384 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.Objects;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link org.springframework.context.MessageSource} implementation that
+ * accesses resource bundles using specified basenames. This class relies
+ * on the underlying JDK's {@link java.util.ResourceBundle} implementation
+ * for loading bundles, in combination with the JDK standard message parsing
+ * provided by {@link java.text.MessageFormat}.
+ *
+ * <p>For each locale, the resource bundles of all basenames are obtained once,
+ * including their fallback chain over more general locales and, if enabled,
+ * the system locale. Each message found in them is cached as a
+ * {@link CompiledMessage}: resolving a code again never goes back to
+ * {@code ResourceBundle} and its locks. Misses are not cached, so that
+ * arbitrary unknown codes cannot grow the cache; they are answered by the
+ * key sets of the bundles. Call {@link #clearCache()} to pick up changed bundles.
+ *
+ * <p>The basenames follow {@link java.util.ResourceBundle} conventions: essentially,
+ * a fully-qualified classpath location. If it doesn't contain a package qualifier
+ * (such as {@code org.mypackage}), it will be resolved from the classpath root.
+ * Note that the JDK's standard ResourceBundle treats dots as package separators:
+ * This means that "test.theme" is effectively equivalent to "test/theme".
+ *
+ * @author Rod Johnson
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see #setBasenames
+ * @see java.util.ResourceBundle
+ * @see java.text.MessageFormat
+ */
+public class ResourceBundleMessageSource extends AbstractMessageSource {
+
+	private static final Log logger = LogFactory.getLog(ResourceBundleMessageSource.class);
+
+
+	private final Set<String> basenameSet = new LinkedHashSet<>(4);
+
+	@Nullable
+	private String defaultEncoding;
+
+	private boolean fallbackToSystemLocale = true;
+
+	@Nullable
+	private ClassLoader bundleClassLoader;
+
+	private final ResourceBundle.Control control = new MessageSourceControl();
+
+	/** Cache to hold the bundles and the resolved messages per Locale. */
+	private final Map<Locale, LocaleMessages> cachedLocaleMessages = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Set a single basename, following {@link java.util.ResourceBundle} conventions:
+	 * essentially, a fully-qualified classpath location. If it doesn't contain a
+	 * package qualifier (such as {@code org.mypackage}), it will be resolved from
+	 * the classpath root.
+	 * <p>Messages will normally be held in the "/lib" or "/classes" directory of
+	 * a web application's WAR structure. They can also be held in jar files on
+	 * the class path.
+	 * <p>Note that ResourceBundle names are effectively classpath locations: As a
+	 * consequence, the JDK's standard ResourceBundle treats dots as package separators.
+	 * This means that "test.theme" is effectively equivalent to "test/theme".
+	 * @see #setBasenames
+	 * @see java.util.ResourceBundle#getBundle(String)
+	 */
+	public void setBasename(String basename) {
+		setBasenames(basename);
+	}
+
+	/**
+	 * Set an array of basenames, each following {@link java.util.ResourceBundle}
+	 * conventions: essentially, a fully-qualified classpath location. If it
+	 * doesn't contain a package qualifier (such as {@code org.mypackage}),
+	 * it will be resolved from the classpath root.
+	 * <p>The associated resource bundles will be checked sequentially
+	 * when resolving a message code. Note that message definitions in a
+	 * <i>previous</i> resource bundle will override ones in a later bundle,
+	 * due to the sequential lookup.
+	 * <p>Note: In contrast to {@link #addBasenames}, this replaces existing entries
+	 * with the given names and can therefore also be used to reset the configuration.
+	 * @see #setBasename
+	 * @see java.util.ResourceBundle#getBundle(String)
+	 */
+	public void setBasenames(String... basenames) {
+		synchronized (this.basenameSet) {
+			this.basenameSet.clear();
+			addBasenames(basenames);
+		}
+	}
+
+	/**
+	 * Add the specified basenames to the existing basename configuration.
+	 * <p>Note: If a given basename already exists, the position of its entry
+	 * will remain as in the original set. New entries will be added at the
+	 * end of the list, to be searched after existing basenames.
+	 * @see #setBasenames
+	 * @see java.util.ResourceBundle#getBundle(String)
+	 */
+	public void addBasenames(String... basenames) {
+		synchronized (this.basenameSet) {
+			for (String basename : basenames) {
+				Assert.hasText(basename, "Basename must not be empty");
+				this.basenameSet.add(basename.trim());
+			}
+			this.cachedLocaleMessages.clear();
+		}
+	}
+
+	/**
+	 * Return this {@code MessageSource}'s basename set, containing entries
+	 * in the order of registration.
+	 * <p>Calling code may introspect this set as well as add or remove entries.
+	 * @see #addBasenames
+	 */
+	public Set<String> getBasenameSet() {
+		return this.basenameSet;
+	}
+
+	/**
+	 * Set the default charset to use for parsing properties-based resource bundles.
+	 * <p>Default is none, using the {@code java.util.Properties}
+	 * default encoding: ISO-8859-1 or, as of Java 9, UTF-8 if valid.
+	 */
+	public void setDefaultEncoding(@Nullable String defaultEncoding) {
+		this.defaultEncoding = defaultEncoding;
+	}
+
+	/**
+	 * Return the default charset to use for parsing properties-based resource bundles.
+	 */
+	@Nullable
+	protected String getDefaultEncoding() {
+		return this.defaultEncoding;
+	}
+
+	/**
+	 * Set whether to fall back to the system Locale if no files for a specific
+	 * Locale have been found. Default is "true"; if this is turned off, the only
+	 * fallback will be the default file (e.g. "messages.properties" for
+	 * basename "messages").
+	 * <p>Falling back to the system Locale is the default behavior of
+	 * {@code java.util.ResourceBundle}. However, this is often not desirable
+	 * in an application server environment, where the system Locale is not
+	 * relevant to the application at all: set this flag to "false" in such
+	 * a scenario.
+	 */
+	public void setFallbackToSystemLocale(boolean fallbackToSystemLocale) {
+		this.fallbackToSystemLocale = fallbackToSystemLocale;
+	}
+
+	/**
+	 * Return whether to fall back to the system Locale if no files for a specific
+	 * Locale have been found.
+	 */
+	protected boolean isFallbackToSystemLocale() {
+		return this.fallbackToSystemLocale;
+	}
+
+	/**
+	 * Set the ClassLoader to load resource bundles with.
+	 * <p>Default is the thread context {@code ClassLoader}.
+	 */
+	public void setBundleClassLoader(ClassLoader classLoader) {
+		this.bundleClassLoader = classLoader;
+	}
+
+	/**
+	 * Return the ClassLoader to load resource bundles with.
+	 * <p>Default is the thread context {@code ClassLoader}.
+	 */
+	@Nullable
+	protected ClassLoader getBundleClassLoader() {
+		return (this.bundleClassLoader != null ? this.bundleClassLoader : ClassUtils.getDefaultClassLoader());
+	}
+
+	/**
+	 * Clear the cached bundles and messages, and the bundles cached by
+	 * {@code java.util.ResourceBundle} for the bundle ClassLoader, so that
+	 * bundles get loaded again on the next lookup.
+	 */
+	public void clearCache() {
+		this.cachedLocaleMessages.clear();
+		ClassLoader classLoader = getBundleClassLoader();
+		if (classLoader != null) {
+			ResourceBundle.clearCache(classLoader);
+		}
+	}
+
+
+	/**
+	 * Resolves the given message code against the resource bundles of the
+	 * given locale, in the order of the basenames, caching the outcome.
+	 */
+	@Override
+	@Nullable
+	protected CompiledMessage resolveCode(String code, Locale locale) {
+		return getLocaleMessages(locale).resolve(code);
+	}
+
+	private LocaleMessages getLocaleMessages(Locale locale) {
+		LocaleMessages localeMessages = this.cachedLocaleMessages.get(locale);
+		if (localeMessages == null) {
+			List<String> basenames;
+			synchronized (this.basenameSet) {
+				basenames = List.copyOf(this.basenameSet);
+			}
+			ResourceBundle[] bundles = basenames.stream()
+					.map(basename -> getResourceBundle(basename, locale))
+					.filter(Objects::nonNull)
+					.toArray(ResourceBundle[]::new);
+			localeMessages = new LocaleMessages(locale, bundles);
+			LocaleMessages existing = this.cachedLocaleMessages.putIfAbsent(locale, localeMessages);
+			if (existing != null) {
+				localeMessages = existing;
+			}
+		}
+		return localeMessages;
+	}
+
+	/**
+	 * Return a ResourceBundle for the given basename and Locale,
+	 * fetching it from the JDK's {@code ResourceBundle} cache.
+	 * @param basename the basename of the ResourceBundle
+	 * @param locale the Locale to find the ResourceBundle for
+	 * @return the resulting ResourceBundle, or {@code null} if none
+	 * found for the given basename and Locale
+	 */
+	@Nullable
+	protected ResourceBundle getResourceBundle(String basename, Locale locale) {
+		try {
+			return doGetBundle(basename, locale);
+		}
+		catch (MissingResourceException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("ResourceBundle [" + basename + "] not found for MessageSource: " + ex.getMessage());
+			}
+			// Assume bundle not found
+			// -> do NOT throw the exception to allow for checking parent message source.
+			return null;
+		}
+	}
+
+	/**
+	 * Obtain the resource bundle for the given basename and Locale.
+	 * @param basename the basename to look for
+	 * @param locale the Locale to look for
+	 * @return the corresponding ResourceBundle
+	 * @throws MissingResourceException if no matching bundle could be found
+	 * @see java.util.ResourceBundle#getBundle(String, Locale, ClassLoader, ResourceBundle.Control)
+	 */
+	protected ResourceBundle doGetBundle(String basename, Locale locale) throws MissingResourceException {
+		ClassLoader classLoader = getBundleClassLoader();
+		Assert.state(classLoader != null, "No bundle ClassLoader set");
+		return ResourceBundle.getBundle(basename, locale, classLoader, this.control);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getName() + ": basenames=" + this.basenameSet;
+	}
+
+
+	/**
+	 * The resource bundles for one locale, with the messages resolved so far.
+	 */
+	private static final class LocaleMessages {
+
+		private final Locale locale;
+
+		private final ResourceBundle[] bundles;
+
+		private final Map<String, CompiledMessage> messages = new ConcurrentHashMap<>(64);
+
+		LocaleMessages(Locale locale, ResourceBundle[] bundles) {
+			this.locale = locale;
+			this.bundles = bundles;
+		}
+
+		@Nullable
+		CompiledMessage resolve(String code) {
+			CompiledMessage message = this.messages.get(code);
+			if (message == null) {
+				message = findMessage(code);
+				if (message != null) {
+					CompiledMessage existing = this.messages.putIfAbsent(code, message);
+					if (existing != null) {
+						message = existing;
+					}
+				}
+			}
+			return message;
+		}
+
+		@Nullable
+		private CompiledMessage findMessage(String code) {
+			for (ResourceBundle bundle : this.bundles) {
+				if (bundle.containsKey(code)) {
+					try {
+						return new CompiledMessage(bundle.getString(code), this.locale);
+					}
+					catch (MissingResourceException | ClassCastException ex) {
+						// Not a String message: keep looking
+					}
+				}
+			}
+			// Not cached: containsKey answers a miss without locking
+			return null;
+		}
+	}
+
+
+	/**
+	 * Custom implementation of {@code ResourceBundle.Control}, adding support
+	 * for custom file encodings and deactivating the fallback to the system locale.
+	 */
+	private class MessageSourceControl extends ResourceBundle.Control {
+
+		@Override
+		@Nullable
+		public ResourceBundle newBundle(String baseName, Locale locale, String format, ClassLoader loader, boolean reload)
+				throws IllegalAccessException, InstantiationException, IOException {
+
+			// Special handling of default encoding
+			String encoding = getDefaultEncoding();
+			if (format.equals("java.properties") && encoding != null) {
+				String bundleName = toBundleName(baseName, locale);
+				String resourceName = toResourceName(bundleName, "properties");
+				InputStream inputStream = loader.getResourceAsStream(resourceName);
+				if (inputStream == null) {
+					return null;
+				}
+				try (InputStreamReader reader = new InputStreamReader(inputStream, encoding)) {
+					return new PropertyResourceBundle(reader);
+				}
+			}
+			// Delegate handling of "java.class" format to standard Control
+			return super.newBundle(baseName, locale, format, loader, reload);
+		}
+
+		@Override
+		@Nullable
+		public Locale getFallbackLocale(String baseName, Locale locale) {
+			return (isFallbackToSystemLocale() ? super.getFallbackLocale(baseName, locale) : null);
+		}
+	}
+
+}
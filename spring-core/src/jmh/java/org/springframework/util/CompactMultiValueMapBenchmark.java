@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link CompactMultiValueMap} against {@link LinkedMultiValueMap},
+ * using header-like data where most keys hold a single value.
+ * <p>Run with {@code -prof gc}: the {@code gc.alloc.rate.norm} of the
+ * {@code populate*} benchmarks approximates the memory footprint of a map.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class CompactMultiValueMapBenchmark {
+
+	@Benchmark
+	public MultiValueMap<String, String> populateLinked(HeaderData data) {
+		MultiValueMap<String, String> map = new LinkedMultiValueMap<>();
+		populate(map, data);
+		return map;
+	}
+
+	@Benchmark
+	public MultiValueMap<String, String> populateCompact(HeaderData data) {
+		MultiValueMap<String, String> map = new CompactMultiValueMap<>();
+		populate(map, data);
+		return map;
+	}
+
+	@Benchmark
+	public void getFirstLinked(PopulatedMaps maps, HeaderData data, Blackhole bh) {
+		for (String name : data.names) {
+			bh.consume(maps.linked.getFirst(name));
+		}
+	}
+
+	@Benchmark
+	public void getFirstCompact(PopulatedMaps maps, HeaderData data, Blackhole bh) {
+		for (String name : data.names) {
+			bh.consume(maps.compact.getFirst(name));
+		}
+	}
+
+	@Benchmark
+	public void iterateLinked(PopulatedMaps maps, Blackhole bh) {
+		for (Map.Entry<String, List<String>> entry : maps.linked.entrySet()) {
+			bh.consume(entry.getKey());
+			bh.consume(entry.getValue().get(0));
+		}
+	}
+
+	@Benchmark
+	public void iterateCompact(PopulatedMaps maps, Blackhole bh) {
+		for (Map.Entry<String, List<String>> entry : maps.compact.entrySet()) {
+			bh.consume(entry.getKey());
+			bh.consume(entry.getValue().get(0));
+		}
+	}
+
+	@Benchmark
+	public Object deepCopyLinked(PopulatedMaps maps) {
+		return maps.linked.deepCopy();
+	}
+
+	@Benchmark
+	public Object deepCopyCompact(PopulatedMaps maps) {
+		return maps.compact.deepCopy();
+	}
+
+	private static void populate(MultiValueMap<String, String> map, HeaderData data) {
+		String[] names = data.names;
+		String[] values = data.values;
+		for (int i = 0; i < names.length; i++) {
+			map.add(names[i], values[i]);
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class HeaderData {
+
+		@Param({"8", "32"})
+		public int keyCount;
+
+		@Param({"10"})
+		public int multiValuePercent;
+
+		public String[] names;
+
+		public String[] values;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			int repeated = this.keyCount * this.multiValuePercent / 100;
+			int total = this.keyCount + repeated;
+			this.names = new String[total];
+			this.values = new String[total];
+			for (int i = 0; i < total; i++) {
+				int key = (i < this.keyCount ? i : i - this.keyCount);
+				this.names[i] = "X-Header-" + key;
+				this.values[i] = "value-" + i;
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class PopulatedMaps {
+
+		public LinkedMultiValueMap<String, String> linked;
+
+		public CompactMultiValueMap<String, String> compact;
+
+		@Setup(Level.Trial)
+		public void setup(HeaderData data) {
+			this.linked = new LinkedMultiValueMap<>();
+			this.compact = new CompactMultiValueMap<>();
+			populate(this.linked, data);
+			populate(this.compact, data);
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for path and delimited list handling in {@link StringUtils},
+ * using typical resource paths and header-like values.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class StringUtilsBenchmark {
+
+	@Benchmark
+	public String cleanPath(PathState state) {
+		return StringUtils.cleanPath(state.path);
+	}
+
+	@Benchmark
+	public String[] tokenizeToStringArray(HeaderState state) {
+		return StringUtils.tokenizeToStringArray(state.header, ",");
+	}
+
+	@Benchmark
+	public String[] commaDelimitedListToStringArray(HeaderState state) {
+		return StringUtils.commaDelimitedListToStringArray(state.header);
+	}
+
+	@Benchmark
+	public Object commaDelimitedListToSet(HeaderState state) {
+		return StringUtils.commaDelimitedListToSet(state.header);
+	}
+
+	@Benchmark
+	public int delimitedListToReusedIndexArray(HeaderState state) {
+		return StringUtils.delimitedListToIndexArray(state.header, ",", state.bounds);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class PathState {
+
+		@Param({"classpath:org/springframework/core/io/Resource.class",
+				"file:/opt/app/config/application.properties",
+				"file:/opt/app/config/../lib/./application.properties"})
+		public String path;
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class HeaderState {
+
+		@Param({"gzip", "gzip, deflate, br", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8"})
+		public String header;
+
+		public int[] bounds = new int[16];
+	}
+
+}
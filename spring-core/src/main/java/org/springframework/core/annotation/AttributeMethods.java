@@ -19,6 +19,7 @@ package org.springframework.core.annotation;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectIntMap;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.annotation.Annotation;
@@ -43,6 +44,9 @@ final class AttributeMethods {
 	private static final Map<Class<? extends Annotation>, AttributeMethods> cache =
 			new ConcurrentReferenceHashMap<>();
 
+	/** Number of attributes up to which a name lookup is a plain linear scan. */
+	private static final int INDEX_BY_NAME_THRESHOLD = 8;
+
 	private static final Comparator<Method> methodComparator = (m1, m2) -> {
 		if (m1 != null && m2 != null) {
 			return m1.getName().compareTo(m2.getName());
@@ -58,6 +62,10 @@ final class AttributeMethods {
 
 	private final boolean[] canThrowTypeNotPresentException;
 
+	/** Attribute index per name, only built for annotation types with many attributes. */
+	@Nullable
+	private final ObjectIntMap<String> indexByName;
+
 	private final boolean hasDefaultValueMethod;
 
 	private final boolean hasNestedAnnotation;
@@ -83,6 +91,16 @@ final class AttributeMethods {
 		}
 		this.hasDefaultValueMethod = foundDefaultValueMethod;
 		this.hasNestedAnnotation = foundNestedAnnotation;
+		this.indexByName = (attributeMethods.length > INDEX_BY_NAME_THRESHOLD ?
+				buildIndexByName(attributeMethods) : null);
+	}
+
+	private static ObjectIntMap<String> buildIndexByName(Method[] attributeMethods) {
+		ObjectIntMap<String> indexByName = new ObjectIntMap<>(attributeMethods.length);
+		for (int i = 0; i < attributeMethods.length; i++) {
+			indexByName.putIfAbsent(attributeMethods[i].getName(), i);
+		}
+		return indexByName;
 	}
 
 
@@ -192,6 +210,9 @@ final class AttributeMethods {
 	 * @return the index of the attribute, or {@code -1}
 	 */
 	int indexOf(String name) {
+		if (this.indexByName != null) {
+			return this.indexByName.getOrDefault(name, -1);
+		}
 		for (int i = 0; i < this.attributeMethods.length; i++) {
 			if (this.attributeMethods[i].getName().equals(name)) {
 				return i;
@@ -93,6 +93,12 @@ public abstract class OrderUtils {
 	 */
 	@Nullable
 	public static Integer getOrder(AnnotatedElement element) {
+		if (element instanceof Class) {
+			Object cached = orderCache.get(element);
+			if (cached != null) {
+				return (cached instanceof Integer integer ? integer : null);
+			}
+		}
 		return getOrderFromAnnotations(element, MergedAnnotations.from(element, SearchStrategy.TYPE_HIERARCHY));
 	}
 
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-class table of {@link Property} descriptors, built once per bean class
+ * and shared from then on.
+ *
+ * <p>Each entry holds the {@code Property} together with its resolved
+ * {@link TypeDescriptor} (including merged annotations from the read method,
+ * write method and backing field) as well as {@link MethodHandle} accessors
+ * for the read and write methods. Getting or setting a named property is
+ * therefore a hash lookup plus a direct handle invocation, without any
+ * per-call introspection.
+ *
+ * <p>Properties are discovered from public JavaBeans-style accessor methods
+ * ({@code getFoo()}, {@code isFoo()}, {@code setFoo(..)}) as well as from
+ * record component accessors, without a dependency on {@code java.beans}.
+ *
+ * @since 6.1
+ * @see Property
+ * @see TypeDescriptor#TypeDescriptor(Property)
+ */
+public final class PropertyTable {
+
+	private static final Map<Class<?>, PropertyTable> tableCache = new ConcurrentReferenceHashMap<>(256);
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+
+	private final Class<?> beanClass;
+
+	private final Map<String, PropertyEntry> entries;
+
+	private final List<Property> properties;
+
+
+	private PropertyTable(Class<?> beanClass) {
+		this.beanClass = beanClass;
+		Map<String, PropertyEntry> entries = new HashMap<>();
+		List<Property> properties = new ArrayList<>();
+		for (Map.Entry<String, Method[]> accessors : findAccessors(beanClass).entrySet()) {
+			Method readMethod = accessors.getValue()[0];
+			Method writeMethod = accessors.getValue()[1];
+			Property property = new Property(beanClass, readMethod, writeMethod, accessors.getKey());
+			entries.put(property.getName(), new PropertyEntry(property));
+			properties.add(property);
+		}
+		this.entries = entries;
+		this.properties = Collections.unmodifiableList(properties);
+	}
+
+
+	/**
+	 * Return the bean class that this table describes.
+	 */
+	public Class<?> getBeanClass() {
+		return this.beanClass;
+	}
+
+	/**
+	 * Return all properties of the bean class, in discovery order.
+	 */
+	public List<Property> getProperties() {
+		return this.properties;
+	}
+
+	/**
+	 * Determine whether the bean class has a property of the given name.
+	 * @param name the name of the property
+	 */
+	public boolean hasProperty(String name) {
+		return this.entries.containsKey(name);
+	}
+
+	/**
+	 * Return the {@link Property} for the given name.
+	 * @param name the name of the property
+	 * @return the property, or {@code null} if none found
+	 */
+	@Nullable
+	public Property getProperty(String name) {
+		PropertyEntry entry = this.entries.get(name);
+		return (entry != null ? entry.property : null);
+	}
+
+	/**
+	 * Return the pre-resolved {@link TypeDescriptor} for the given property.
+	 * @param name the name of the property
+	 * @return the type descriptor, or {@code null} if no such property exists
+	 */
+	@Nullable
+	public TypeDescriptor getTypeDescriptor(String name) {
+		PropertyEntry entry = this.entries.get(name);
+		return (entry != null ? entry.typeDescriptor : null);
+	}
+
+	/**
+	 * Determine whether the given property has a read method.
+	 * @param name the name of the property
+	 */
+	public boolean isReadableProperty(String name) {
+		PropertyEntry entry = this.entries.get(name);
+		return (entry != null && entry.property.getReadMethod() != null);
+	}
+
+	/**
+	 * Determine whether the given property has a write method.
+	 * @param name the name of the property
+	 */
+	public boolean isWritableProperty(String name) {
+		PropertyEntry entry = this.entries.get(name);
+		return (entry != null && entry.property.getWriteMethod() != null);
+	}
+
+	/**
+	 * Read the current value of the given property on the given target.
+	 * @param target the bean instance to read from
+	 * @param name the name of the property
+	 * @return the current property value (may be {@code null})
+	 * @throws IllegalArgumentException if no readable property of that name exists
+	 */
+	@Nullable
+	public Object getPropertyValue(Object target, String name) {
+		Assert.notNull(target, "Target object must not be null");
+		return getRequiredEntry(name).getValue(target);
+	}
+
+	/**
+	 * Set the given value on the given property of the given target.
+	 * <p>No type conversion is applied: the value has to be assignable
+	 * to the property type already.
+	 * @param target the bean instance to write to
+	 * @param name the name of the property
+	 * @param value the new value (may be {@code null} for non-primitive properties)
+	 * @throws IllegalArgumentException if no writable property of that name exists,
+	 * or if the value is not assignable to the property type
+	 */
+	public void setPropertyValue(Object target, String name, @Nullable Object value) {
+		Assert.notNull(target, "Target object must not be null");
+		getRequiredEntry(name).setValue(target, value);
+	}
+
+	private PropertyEntry getRequiredEntry(String name) {
+		PropertyEntry entry = this.entries.get(name);
+		if (entry == null) {
+			throw new IllegalArgumentException(
+					"No property '" + name + "' found on class [" + this.beanClass.getName() + "]");
+		}
+		return entry;
+	}
+
+	@Override
+	public String toString() {
+		return "PropertyTable for [" + this.beanClass.getName() + "]: " + this.entries.keySet();
+	}
+
+
+	/**
+	 * Obtain the {@code PropertyTable} for the given bean class, building it
+	 * on first access.
+	 * @param beanClass the bean class to introspect
+	 * @return the shared property table (never {@code null})
+	 */
+	public static PropertyTable forClass(Class<?> beanClass) {
+		Assert.notNull(beanClass, "Bean class must not be null");
+		PropertyTable table = tableCache.get(beanClass);
+		if (table == null) {
+			table = new PropertyTable(beanClass);
+			PropertyTable existing = tableCache.putIfAbsent(beanClass, table);
+			if (existing != null) {
+				table = existing;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Clear the internal {@code PropertyTable} cache.
+	 */
+	public static void clearCache() {
+		tableCache.clear();
+	}
+
+	/**
+	 * Find read and write methods per property name, keyed in discovery order.
+	 * Each value is a two-element array of read method and write method.
+	 */
+	private static Map<String, Method[]> findAccessors(Class<?> beanClass) {
+		Map<String, Method[]> accessors = new LinkedHashMap<>();
+		if (beanClass.isRecord()) {
+			for (RecordComponent component : beanClass.getRecordComponents()) {
+				accessors.put(component.getName(), new Method[] {component.getAccessor(), null});
+			}
+		}
+		Method[] methods = beanClass.getMethods();
+		for (Method method : methods) {
+			String name = readPropertyName(method);
+			if (name != null) {
+				Method[] pair = accessors.computeIfAbsent(name, key -> new Method[2]);
+				if (pair[0] == null || pair[0].getReturnType().isAssignableFrom(method.getReturnType())) {
+					pair[0] = method;
+				}
+			}
+		}
+		for (Method method : methods) {
+			String name = writePropertyName(method);
+			if (name != null) {
+				Method[] pair = accessors.computeIfAbsent(name, key -> new Method[2]);
+				// Prefer a setter whose parameter type matches the getter's return type
+				if (pair[1] == null || (pair[0] != null &&
+						pair[0].getReturnType() == method.getParameterTypes()[0])) {
+					pair[1] = method;
+				}
+			}
+		}
+		return accessors;
+	}
+
+	@Nullable
+	private static String readPropertyName(Method method) {
+		if (!isCandidate(method) || method.getParameterCount() != 0 || method.getReturnType() == void.class) {
+			return null;
+		}
+		String methodName = method.getName();
+		if (methodName.startsWith("get") && methodName.length() > 3) {
+			return StringUtils.uncapitalize(methodName.substring(3));
+		}
+		if (methodName.startsWith("is") && methodName.length() > 2 && method.getReturnType() == boolean.class) {
+			return StringUtils.uncapitalize(methodName.substring(2));
+		}
+		return null;
+	}
+
+	@Nullable
+	private static String writePropertyName(Method method) {
+		if (!isCandidate(method) || method.getParameterCount() != 1) {
+			return null;
+		}
+		String methodName = method.getName();
+		if (methodName.startsWith("set") && methodName.length() > 3) {
+			return StringUtils.uncapitalize(methodName.substring(3));
+		}
+		return null;
+	}
+
+	private static boolean isCandidate(Method method) {
+		return (!Modifier.isStatic(method.getModifiers()) && !method.isBridge() && !method.isSynthetic() &&
+				method.getDeclaringClass() != Object.class);
+	}
+
+	@Nullable
+	private static MethodHandle unreflect(@Nullable Method method, MethodType type) {
+		if (method == null) {
+			return null;
+		}
+		try {
+			ReflectionUtils.makeAccessible(method);
+			return MethodHandles.lookup().unreflect(method).asType(type);
+		}
+		catch (IllegalAccessException | RuntimeException ex) {
+			// Not accessible through a handle (e.g. module restrictions):
+			// fall back to reflective invocation for this accessor.
+			return null;
+		}
+	}
+
+
+	/**
+	 * Precomputed metadata and accessor handles for a single {@link Property}.
+	 */
+	private static final class PropertyEntry {
+
+		final Property property;
+
+		final TypeDescriptor typeDescriptor;
+
+		@Nullable
+		private final MethodHandle getter;
+
+		@Nullable
+		private final MethodHandle setter;
+
+		@Nullable
+		private final Class<?> writeType;
+
+		private final boolean primitiveWriteType;
+
+		PropertyEntry(Property property) {
+			this.property = property;
+			this.typeDescriptor = new TypeDescriptor(property);
+			this.getter = unreflect(property.getReadMethod(), GETTER_TYPE);
+			this.setter = unreflect(property.getWriteMethod(), SETTER_TYPE);
+			Method writeMethod = property.getWriteMethod();
+			Class<?> writeType = (writeMethod != null ? writeMethod.getParameterTypes()[0] : null);
+			this.writeType = (writeType != null ? ClassUtils.resolvePrimitiveIfNecessary(writeType) : null);
+			this.primitiveWriteType = (writeType != null && writeType.isPrimitive());
+		}
+
+		@Nullable
+		Object getValue(Object target) {
+			Method readMethod = this.property.getReadMethod();
+			if (readMethod == null) {
+				throw new IllegalArgumentException("Property '" + this.property.getName() +
+						"' of class [" + this.property.getObjectType().getName() + "] is not readable");
+			}
+			if (this.getter == null) {
+				return ReflectionUtils.invokeMethod(readMethod, target);
+			}
+			try {
+				return this.getter.invokeExact(target);
+			}
+			catch (Throwable ex) {
+				ReflectionUtils.rethrowRuntimeException(ex);
+				return null;
+			}
+		}
+
+		void setValue(Object target, @Nullable Object value) {
+			Method writeMethod = this.property.getWriteMethod();
+			if (writeMethod == null || this.writeType == null) {
+				throw new IllegalArgumentException("Property '" + this.property.getName() +
+						"' of class [" + this.property.getObjectType().getName() + "] is not writable");
+			}
+			if (value == null ? this.primitiveWriteType : !this.writeType.isInstance(value)) {
+				throw new IllegalArgumentException("Value [" + value + "] is not assignable to property '" +
+						this.property.getName() + "' of type [" + writeMethod.getParameterTypes()[0].getName() + "]");
+			}
+			if (this.setter == null) {
+				ReflectionUtils.invokeMethod(writeMethod, target, value);
+				return;
+			}
+			try {
+				this.setter.invokeExact(target, value);
+			}
+			catch (Throwable ex) {
+				ReflectionUtils.rethrowRuntimeException(ex);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Abstract base class for {@link Environment} implementations. Supports the notion of
+ * reserved default profile names and enables specifying active and default profiles
+ * through the {@link #ACTIVE_PROFILES_PROPERTY_NAME} and
+ * {@link #DEFAULT_PROFILES_PROPERTY_NAME} properties.
+ *
+ * <p>Concrete subclasses differ primarily on which {@link PropertySource} objects they
+ * add by default. {@code AbstractEnvironment} adds none. Subclasses should contribute
+ * property sources through the protected {@link #customizePropertySources(MutablePropertySources)}
+ * hook, while clients should customize using {@link ConfigurableEnvironment#getPropertySources()}
+ * and working against the {@link MutablePropertySources} API.
+ *
+ * <p>Properties are resolved through a {@link PropertySourcesPropertyResolver},
+ * i.e. against a lookup snapshot that is rebuilt only once the property sources
+ * change. Active and default profiles are likewise determined once per version
+ * of the property sources, together with the outcome of each profile
+ * expression evaluated against them. Changing the profiles of this environment
+ * advances that version as well.
+ *
+ * @author Chris Beams
+ * @author Juergen Hoeller
+ * @author Phillip Webb
+ * @since 3.1
+ * @see ConfigurableEnvironment
+ * @see StandardEnvironment
+ */
+public abstract class AbstractEnvironment implements ConfigurableEnvironment {
+
+	/**
+	 * Name of the property to set to specify active profiles: {@value}.
+	 * <p>The value may be comma delimited.
+	 * <p>Note that certain shell environments such as Bash disallow the use of the period
+	 * character in variable names. Assuming that Spring's {@link SystemEnvironmentPropertySource}
+	 * is in use, this property may be specified as an environment variable as
+	 * {@code SPRING_PROFILES_ACTIVE}.
+	 * @see ConfigurableEnvironment#setActiveProfiles
+	 */
+	public static final String ACTIVE_PROFILES_PROPERTY_NAME = "spring.profiles.active";
+
+	/**
+	 * Name of the property to set to specify profiles active by default: {@value}.
+	 * <p>The value may be comma delimited.
+	 * @see ConfigurableEnvironment#setDefaultProfiles
+	 */
+	public static final String DEFAULT_PROFILES_PROPERTY_NAME = "spring.profiles.default";
+
+	/**
+	 * Name of the reserved default profile name: {@value}.
+	 * <p>If no default profile names are explicitly set and no active profile names
+	 * are explicitly set, this profile will automatically be activated by default.
+	 * @see #getReservedDefaultProfiles
+	 * @see ConfigurableEnvironment#setDefaultProfiles
+	 */
+	protected static final String RESERVED_DEFAULT_PROFILE_NAME = "default";
+
+
+	private final Set<String> activeProfiles = new LinkedHashSet<>();
+
+	private final Set<String> defaultProfiles = new LinkedHashSet<>(getReservedDefaultProfiles());
+
+	private final MutablePropertySources propertySources;
+
+	private final PropertySourcesPropertyResolver propertyResolver;
+
+	@Nullable
+	private volatile ProfileState profileState;
+
+
+	/**
+	 * Create a new {@code Environment} instance, calling back to
+	 * {@link #customizePropertySources(MutablePropertySources)} during construction to
+	 * allow subclasses to contribute or manipulate {@link PropertySource} instances as
+	 * appropriate.
+	 * @see #customizePropertySources(MutablePropertySources)
+	 */
+	public AbstractEnvironment() {
+		this(new MutablePropertySources());
+	}
+
+	/**
+	 * Create a new {@code Environment} instance with a specific
+	 * {@link MutablePropertySources} instance, calling back to
+	 * {@link #customizePropertySources(MutablePropertySources)} during
+	 * construction to allow subclasses to contribute or manipulate
+	 * {@link PropertySource} instances as appropriate.
+	 * @param propertySources property sources to use
+	 * @see #customizePropertySources(MutablePropertySources)
+	 */
+	protected AbstractEnvironment(MutablePropertySources propertySources) {
+		this.propertySources = propertySources;
+		this.propertyResolver = new PropertySourcesPropertyResolver(propertySources);
+		customizePropertySources(propertySources);
+	}
+
+
+	/**
+	 * Customize the set of {@link PropertySource} objects to be searched by this
+	 * {@code Environment} during calls to {@link #getProperty(String)} and related
+	 * methods.
+	 * <p>Subclasses that override this method are encouraged to add property
+	 * sources using {@link MutablePropertySources#addLast(PropertySource)} such that
+	 * further subclasses may call {@code super.customizePropertySources()} with
+	 * predictable results.
+	 * <p>The default implementation registers no property sources.
+	 * @see StandardEnvironment#customizePropertySources(MutablePropertySources)
+	 */
+	protected void customizePropertySources(MutablePropertySources propertySources) {
+	}
+
+	/**
+	 * Return the set of reserved default profile names. This implementation returns
+	 * {@value #RESERVED_DEFAULT_PROFILE_NAME}. Subclasses may override in order to
+	 * customize the set of reserved names.
+	 * @see #RESERVED_DEFAULT_PROFILE_NAME
+	 */
+	protected Set<String> getReservedDefaultProfiles() {
+		return Collections.singleton(RESERVED_DEFAULT_PROFILE_NAME);
+	}
+
+
+	//---------------------------------------------------------------------
+	// Implementation of ConfigurableEnvironment interface
+	//---------------------------------------------------------------------
+
+	@Override
+	public String[] getActiveProfiles() {
+		return StringUtils.toStringArray(currentProfileState().activeProfiles());
+	}
+
+	@Override
+	public void setActiveProfiles(String... profiles) {
+		Assert.notNull(profiles, "Profile array must not be null");
+		for (String profile : profiles) {
+			validateProfile(profile);
+		}
+		synchronized (this.activeProfiles) {
+			this.activeProfiles.clear();
+			Collections.addAll(this.activeProfiles, profiles);
+		}
+		this.propertySources.markChanged();
+	}
+
+	@Override
+	public void addActiveProfile(String profile) {
+		validateProfile(profile);
+		synchronized (this.activeProfiles) {
+			if (this.activeProfiles.isEmpty()) {
+				// Keep profiles activated through the property so far
+				this.activeProfiles.addAll(getPropertyProfiles(ACTIVE_PROFILES_PROPERTY_NAME));
+			}
+			this.activeProfiles.add(profile);
+		}
+		this.propertySources.markChanged();
+	}
+
+	@Override
+	public String[] getDefaultProfiles() {
+		return StringUtils.toStringArray(currentProfileState().defaultProfiles());
+	}
+
+	@Override
+	public void setDefaultProfiles(String... profiles) {
+		Assert.notNull(profiles, "Profile array must not be null");
+		for (String profile : profiles) {
+			validateProfile(profile);
+		}
+		synchronized (this.defaultProfiles) {
+			this.defaultProfiles.clear();
+			Collections.addAll(this.defaultProfiles, profiles);
+		}
+		this.propertySources.markChanged();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The outcome for a profile expression obtained through
+	 * {@link Profiles#of(String...)} is memoized until the profiles or the
+	 * property sources of this environment change.
+	 */
+	@Override
+	public boolean acceptsProfiles(Profiles profiles) {
+		Assert.notNull(profiles, "Profiles must not be null");
+		ProfileState state = currentProfileState();
+		if (profiles instanceof ProfilesParser.ParsedProfiles) {
+			Boolean matches = state.matches().get(profiles);
+			if (matches == null) {
+				matches = profiles.matches(state::isProfileActive);
+				state.matches().put(profiles, matches);
+			}
+			return matches;
+		}
+		return profiles.matches(state::isProfileActive);
+	}
+
+	/**
+	 * Validate the given profile, called internally prior to adding to the set of
+	 * active or default profiles.
+	 * <p>Subclasses may override to impose further restrictions on profile syntax.
+	 * @throws IllegalArgumentException if the profile is null, empty, whitespace-only or
+	 * begins with the profile NOT operator (!).
+	 * @see #setActiveProfiles
+	 * @see #addActiveProfile
+	 * @see #setDefaultProfiles
+	 */
+	protected void validateProfile(String profile) {
+		if (!StringUtils.hasText(profile)) {
+			throw new IllegalArgumentException("Invalid profile [" + profile + "]: must contain text");
+		}
+		if (profile.charAt(0) == '!') {
+			throw new IllegalArgumentException("Invalid profile [" + profile + "]: must not begin with ! operator");
+		}
+	}
+
+	@Override
+	public MutablePropertySources getPropertySources() {
+		return this.propertySources;
+	}
+
+	@Override
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	public Map<String, Object> getSystemProperties() {
+		return (Map) System.getProperties();
+	}
+
+	@Override
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	public Map<String, Object> getSystemEnvironment() {
+		return (Map) System.getenv();
+	}
+
+
+	private ProfileState currentProfileState() {
+		long version = this.propertySources.getVersion();
+		ProfileState state = this.profileState;
+		if (state == null || state.version() != version) {
+			state = new ProfileState(version, determineActiveProfiles(), determineDefaultProfiles(),
+					new ConcurrentHashMap<>());
+			this.profileState = state;
+		}
+		return state;
+	}
+
+	/**
+	 * Return the explicitly set active profiles or, if none, the ones
+	 * specified through the {@link #ACTIVE_PROFILES_PROPERTY_NAME} property.
+	 */
+	private Set<String> determineActiveProfiles() {
+		synchronized (this.activeProfiles) {
+			if (!this.activeProfiles.isEmpty()) {
+				return Collections.unmodifiableSet(new LinkedHashSet<>(this.activeProfiles));
+			}
+		}
+		return getPropertyProfiles(ACTIVE_PROFILES_PROPERTY_NAME);
+	}
+
+	/**
+	 * Return the explicitly set default profiles or, if still the reserved
+	 * ones, the ones specified through the {@link #DEFAULT_PROFILES_PROPERTY_NAME}
+	 * property, if any.
+	 */
+	private Set<String> determineDefaultProfiles() {
+		synchronized (this.defaultProfiles) {
+			if (!this.defaultProfiles.equals(getReservedDefaultProfiles())) {
+				return Collections.unmodifiableSet(new LinkedHashSet<>(this.defaultProfiles));
+			}
+		}
+		Set<String> propertyProfiles = getPropertyProfiles(DEFAULT_PROFILES_PROPERTY_NAME);
+		return (!propertyProfiles.isEmpty() ? propertyProfiles : getReservedDefaultProfiles());
+	}
+
+	private Set<String> getPropertyProfiles(String propertyName) {
+		String profiles = getProperty(propertyName);
+		if (!StringUtils.hasText(profiles)) {
+			return Collections.emptySet();
+		}
+		Set<String> result = new LinkedHashSet<>();
+		for (String profile : StringUtils.commaDelimitedListToStringArray(StringUtils.trimAllWhitespace(profiles))) {
+			validateProfile(profile);
+			result.add(profile);
+		}
+		return Collections.unmodifiableSet(result);
+	}
+
+
+	//---------------------------------------------------------------------
+	// Implementation of PropertyResolver interface
+	//---------------------------------------------------------------------
+
+	@Override
+	public boolean containsProperty(String key) {
+		return this.propertyResolver.containsProperty(key);
+	}
+
+	@Override
+	@Nullable
+	public String getProperty(String key) {
+		return this.propertyResolver.getProperty(key);
+	}
+
+	@Override
+	public String getProperty(String key, String defaultValue) {
+		return this.propertyResolver.getProperty(key, defaultValue);
+	}
+
+	@Override
+	@Nullable
+	public <T> T getProperty(String key, Class<T> targetType) {
+		return this.propertyResolver.getProperty(key, targetType);
+	}
+
+	@Override
+	public <T> T getProperty(String key, Class<T> targetType, T defaultValue) {
+		return this.propertyResolver.getProperty(key, targetType, defaultValue);
+	}
+
+	@Override
+	public String getRequiredProperty(String key) throws IllegalStateException {
+		return this.propertyResolver.getRequiredProperty(key);
+	}
+
+	@Override
+	public <T> T getRequiredProperty(String key, Class<T> targetType) throws IllegalStateException {
+		return this.propertyResolver.getRequiredProperty(key, targetType);
+	}
+
+	@Override
+	public String resolvePlaceholders(String text) {
+		return this.propertyResolver.resolvePlaceholders(text);
+	}
+
+	@Override
+	public String resolveRequiredPlaceholders(String text) throws IllegalArgumentException {
+		return this.propertyResolver.resolveRequiredPlaceholders(text);
+	}
+
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {activeProfiles=" + this.activeProfiles +
+				", defaultProfiles=" + this.defaultProfiles + ", propertySources=" + this.propertySources + "}";
+	}
+
+
+	/**
+	 * Active and default profiles for one version of the property sources,
+	 * with the memoized outcome of evaluated profile expressions.
+	 */
+	private record ProfileState(long version, Set<String> activeProfiles, Set<String> defaultProfiles,
+			Map<Profiles, Boolean> matches) {
+
+		boolean isProfileActive(String profile) {
+			return (this.activeProfiles.contains(profile) ||
+					(this.activeProfiles.isEmpty() && this.defaultProfiles.contains(profile)));
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.Map;
+
+/**
+ * Configuration interface to be implemented by most if not all {@link Environment} types.
+ * Provides facilities for setting active and default profiles and manipulating underlying
+ * property sources.
+ *
+ * <p>Property sources may be removed, reordered, or replaced; and additional
+ * property sources may be added using the {@link MutablePropertySources}
+ * instance returned from {@link #getPropertySources()}.
+ *
+ * @author Chris Beams
+ * @since 3.1
+ * @see StandardEnvironment
+ * @see org.springframework.context.ConfigurableApplicationContext#getEnvironment
+ */
+public interface ConfigurableEnvironment extends Environment {
+
+	/**
+	 * Specify the set of profiles active for this {@code Environment}.
+	 * <p>Any existing active profiles will be replaced with the given arguments; call
+	 * with zero arguments to clear the current set of active profiles.
+	 * @throws IllegalArgumentException if any profile is null, empty or whitespace-only
+	 * @see #addActiveProfile
+	 * @see #setDefaultProfiles
+	 */
+	void setActiveProfiles(String... profiles);
+
+	/**
+	 * Add a profile to the current set of active profiles.
+	 * @throws IllegalArgumentException if the profile is null, empty or whitespace-only
+	 * @see #setActiveProfiles
+	 */
+	void addActiveProfile(String profile);
+
+	/**
+	 * Specify the set of profiles to be made active by default if no other profiles
+	 * are explicitly made active through {@link #setActiveProfiles}.
+	 * @throws IllegalArgumentException if any profile is null, empty or whitespace-only
+	 * @see AbstractEnvironment#DEFAULT_PROFILES_PROPERTY_NAME
+	 */
+	void setDefaultProfiles(String... profiles);
+
+	/**
+	 * Return the property sources for this {@code Environment} in mutable form,
+	 * allowing for manipulation of the set of {@link PropertySource} objects that should
+	 * be searched when resolving properties against this {@code Environment} object.
+	 * @see MutablePropertySources#addFirst
+	 * @see MutablePropertySources#addLast
+	 */
+	MutablePropertySources getPropertySources();
+
+	/**
+	 * Return the value of {@link System#getProperties()}.
+	 */
+	Map<String, Object> getSystemProperties();
+
+	/**
+	 * Return the value of {@link System#getenv()}.
+	 */
+	Map<String, Object> getSystemEnvironment();
+
+}
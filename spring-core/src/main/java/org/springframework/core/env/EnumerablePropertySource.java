@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import org.springframework.util.ObjectUtils;
+
+/**
+ * A {@link PropertySource} implementation capable of interrogating its
+ * underlying source object to enumerate all possible property name/value
+ * pairs. Exposes the {@link #getPropertyNames()} method to allow callers
+ * to introspect available properties without having to access the underlying
+ * source object. This also facilitates a more efficient implementation of
+ * {@link #containsProperty(String)}, in that it can call {@link #getPropertyNames()}
+ * and iterate through the returned array rather than attempting a call to
+ * {@link #getProperty(String)} which may be more expensive. Implementations may
+ * consider caching the result of {@link #getPropertyNames()} to fully exploit this
+ * performance opportunity.
+ *
+ * @author Chris Beams
+ * @author Juergen Hoeller
+ * @since 3.1
+ * @param <T> the source type
+ */
+public abstract class EnumerablePropertySource<T> extends PropertySource<T> {
+
+	/**
+	 * Create a new {@code EnumerablePropertySource} with the given name and source object.
+	 * @param name the associated name
+	 * @param source the source object
+	 */
+	public EnumerablePropertySource(String name, T source) {
+		super(name, source);
+	}
+
+
+	/**
+	 * Return whether this {@code PropertySource} contains a property with the given name.
+	 * <p>This implementation checks for the presence of the given name within the
+	 * {@link #getPropertyNames()} array.
+	 * @param name the name of the property to find
+	 */
+	@Override
+	public boolean containsProperty(String name) {
+		return ObjectUtils.containsElement(getPropertyNames(), name);
+	}
+
+	/**
+	 * Return the names of all properties contained by the
+	 * {@linkplain #getSource() source} object (never {@code null}).
+	 */
+	public abstract String[] getPropertyNames();
+
+}
@@ -1,4 +1,102 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
 package org.springframework.core.env;
 
+/**
+ * Interface representing the environment in which the current application is running.
+ * Models two key aspects of the application environment: <em>profiles</em> and
+ * <em>properties</em>. Methods related to property access are exposed via the
+ * {@link PropertyResolver} superinterface.
+ *
+ * <p>A <em>profile</em> is a named, logical group of bean definitions to be registered
+ * with the container only if the given profile is <em>active</em>. The role of the
+ * {@code Environment} object with relation to profiles is in determining which profiles
+ * (if any) are currently {@linkplain #getActiveProfiles active}, and which profiles (if
+ * any) should be {@linkplain #getDefaultProfiles active by default}.
+ *
+ * <p><em>Properties</em> play an important role in almost all applications, and may
+ * originate from a variety of sources: properties files, JVM system properties, system
+ * environment variables, and so on. The role of the {@code Environment} object with
+ * relation to properties is to provide the user with a convenient service interface
+ * for configuring property sources and resolving properties from them.
+ *
+ * @author Chris Beams
+ * @author Phillip Webb
+ * @author Sam Brannen
+ * @since 3.1
+ * @see PropertyResolver
+ * @see EnvironmentCapable
+ * @see ConfigurableEnvironment
+ * @see AbstractEnvironment
+ * @see StandardEnvironment
+ */
 public interface Environment extends PropertyResolver {
+
+	/**
+	 * Return the set of profiles explicitly made active for this environment.
+	 * <p>Profiles may be activated by setting {@linkplain
+	 * AbstractEnvironment#ACTIVE_PROFILES_PROPERTY_NAME "spring.profiles.active"}
+	 * as a system property or by calling {@link ConfigurableEnvironment#setActiveProfiles(String...)}.
+	 * <p>If no profiles have explicitly been specified as active, then any
+	 * {@linkplain #getDefaultProfiles() default profiles} will automatically be activated.
+	 * @see #getDefaultProfiles
+	 * @see ConfigurableEnvironment#setActiveProfiles
+	 * @see AbstractEnvironment#ACTIVE_PROFILES_PROPERTY_NAME
+	 */
+	String[] getActiveProfiles();
+
+	/**
+	 * Return the set of profiles to be active by default when no active profiles have
+	 * been set explicitly.
+	 * @see #getActiveProfiles
+	 * @see ConfigurableEnvironment#setDefaultProfiles
+	 * @see AbstractEnvironment#DEFAULT_PROFILES_PROPERTY_NAME
+	 */
+	String[] getDefaultProfiles();
+
+	/**
+	 * Determine whether one of the given profile expressions matches the
+	 * {@linkplain #getActiveProfiles() active profiles} &mdash; or in the case
+	 * of no explicit active profiles, whether one of the given profile expressions
+	 * matches the {@linkplain #getDefaultProfiles() default profiles}.
+	 * <p>Profile expressions allow for complex, boolean profile logic to be
+	 * expressed &mdash; for example {@code "p1 & p2"}, {@code "(p1 & p2) | p3"},
+	 * etc. See {@link Profiles#of(String...)} for details on the supported
+	 * expression syntax.
+	 * <p>This method is a convenient shortcut for
+	 * {@code env.acceptsProfiles(Profiles.of(profileExpressions))}.
+	 * @see Profiles#of(String...)
+	 * @see #acceptsProfiles(Profiles)
+	 */
+	default boolean matchesProfiles(String... profileExpressions) {
+		return acceptsProfiles(Profiles.of(profileExpressions));
+	}
+
+	/**
+	 * Determine whether the given {@link Profiles} predicate matches the
+	 * {@linkplain #getActiveProfiles() active profiles} &mdash; or in the case
+	 * of no explicit active profiles, whether the given {@code Profiles} predicate
+	 * matches the {@linkplain #getDefaultProfiles() default profiles}.
+	 * <p>If you wish provide profile expressions directly as strings, use
+	 * {@link #matchesProfiles(String...)} instead.
+	 * @since 5.1
+	 * @see #matchesProfiles(String...)
+	 * @see Profiles#of(String...)
+	 */
+	boolean acceptsProfiles(Profiles profiles);
+
 }
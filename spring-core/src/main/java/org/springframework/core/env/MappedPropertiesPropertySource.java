@@ -0,0 +1,606 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceChangeListener;
+import org.springframework.core.io.support.ResourceChangeSet;
+import org.springframework.core.io.support.ResourceWatcher;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link PropertySource} that reads a file in {@link java.util.Properties} format
+ * through a read-only memory mapping, for property files too large to be loaded
+ * eagerly into a {@code Properties} object.
+ *
+ * <p>On first use, the file is mapped and scanned once to build a compact index:
+ * a hash table over the offsets of each key and value in the mapped file. Keys
+ * and values are only decoded when looked up, according to the full
+ * {@code Properties} syntax including comments, line continuations and escapes.
+ * As with {@code Properties}, a key defined several times has its last value.
+ *
+ * <p>{@link #refresh()} maps the file again if its size or last-modified time
+ * has changed, replacing the index atomically: lookups in progress complete
+ * against the previous mapping. Refreshes may be triggered by a
+ * {@link ResourceWatcher} through {@link #watch(ResourceWatcher)}.
+ *
+ * <p><b>A changed file must be replaced through a rename, never modified in
+ * place.</b> A mapping reflects the file's current content: until the next
+ * refresh, lookups would see partially written content, and reading a mapping
+ * beyond the end of a file truncated in place raises a fault that the JVM
+ * reports as an {@link InternalError}, possibly at a later point in the
+ * reading thread, so that it cannot be recovered from reliably.
+ *
+ * <p>Resolvers look up the properties of this source on first use rather than
+ * flattening them into their snapshot upfront, so that properties that are
+ * never read are never decoded.
+ *
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see PropertiesPropertySource
+ */
+public class MappedPropertiesPropertySource extends EnumerablePropertySource<Resource> {
+
+	private static final Log logger = LogFactory.getLog(MappedPropertiesPropertySource.class);
+
+	private final Path path;
+
+	private final boolean utf8;
+
+	private final Object indexMonitor = new Object();
+
+	@Nullable
+	private volatile Index index;
+
+	private final ResourceChangeListener changeListener = this::onChange;
+
+
+	/**
+	 * Create a new {@code MappedPropertiesPropertySource} for the given file,
+	 * encoded in ISO-8859-1 as by {@link java.util.Properties#load(java.io.InputStream)}.
+	 * @param name the associated name
+	 * @param resource the properties file
+	 */
+	public MappedPropertiesPropertySource(String name, Resource resource) {
+		this(name, resource, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Create a new {@code MappedPropertiesPropertySource} for the given file.
+	 * @param name the associated name
+	 * @param resource the properties file
+	 * @param charset the encoding of the file: ISO-8859-1 (or US-ASCII) or UTF-8
+	 */
+	public MappedPropertiesPropertySource(String name, Resource resource, Charset charset) {
+		super(name, resource);
+		Assert.isTrue(charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.US_ASCII) ||
+				charset.equals(StandardCharsets.UTF_8), () -> "Unsupported charset " + charset);
+		try {
+			this.path = resource.getFile().toPath();
+		}
+		catch (IOException ex) {
+			throw new IllegalArgumentException("Resource must be resolvable to a file: " + resource, ex);
+		}
+		this.utf8 = charset.equals(StandardCharsets.UTF_8);
+	}
+
+
+	@Override
+	@Nullable
+	public Object getProperty(String name) {
+		Index index = getIndex();
+		int entry = index.find(name);
+		return (entry != -1 ? index.getValue(entry) : null);
+	}
+
+	@Override
+	public boolean containsProperty(String name) {
+		return (getIndex().find(name) != -1);
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		return getIndex().getKeys();
+	}
+
+	/**
+	 * Return the number of properties in the file.
+	 */
+	public int size() {
+		return getIndex().size;
+	}
+
+	/**
+	 * Map the file again if its size or last-modified time has changed since it
+	 * has been mapped, and signal a change to resolvers. Does nothing if the file
+	 * has not been mapped yet.
+	 * @return {@code true} if the file has been mapped again, {@code false} otherwise
+	 * @throws IllegalStateException if the file cannot be mapped, in which case
+	 * the previous mapping remains in use
+	 */
+	public boolean refresh() {
+		synchronized (this.indexMonitor) {
+			Index index = this.index;
+			if (index == null || index.isCurrent(this.path)) {
+				return false;
+			}
+			this.index = loadIndex();
+		}
+		markChanged();
+		return true;
+	}
+
+	/**
+	 * Watch the file with the given watcher, {@linkplain #refresh() refreshing}
+	 * this property source whenever it reports a change of the file.
+	 * @param watcher the watcher to register with
+	 * @throws IOException if the file cannot be watched
+	 * @see #unwatch(ResourceWatcher)
+	 */
+	public void watch(ResourceWatcher watcher) throws IOException {
+		watcher.addListener(this.changeListener);
+		watcher.watch(this.source);
+	}
+
+	/**
+	 * Stop watching the file with the given watcher.
+	 * @param watcher the watcher registered with through {@link #watch(ResourceWatcher)}
+	 * @throws IOException if the file cannot be unwatched
+	 */
+	public void unwatch(ResourceWatcher watcher) throws IOException {
+		watcher.removeListener(this.changeListener);
+		watcher.unwatch(this.source);
+	}
+
+	private void onChange(ResourceChangeSet changes) {
+		if (changes.contains(this.source)) {
+			try {
+				if (refresh() && logger.isDebugEnabled()) {
+					logger.debug("Mapped properties file [" + this.path + "] again after change");
+				}
+			}
+			catch (IllegalStateException ex) {
+				logger.warn("Keeping previous mapping of properties file [" + this.path + "]", ex);
+			}
+		}
+	}
+
+	private Index getIndex() {
+		Index index = this.index;
+		if (index == null) {
+			synchronized (this.indexMonitor) {
+				index = this.index;
+				if (index == null) {
+					index = loadIndex();
+					this.index = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	private Index loadIndex() {
+		try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+			// State determined before mapping: a concurrent change is detected on the next refresh
+			FileTime lastModified = Files.getLastModifiedTime(this.path);
+			long size = channel.size();
+			Assert.state(size <= Integer.MAX_VALUE, () -> "Properties file [" + this.path + "] too large to map");
+			ByteBuffer data = (size > 0 ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : ByteBuffer.allocate(0));
+			return new Index(data, size, lastModified, this.utf8);
+		}
+		catch (IOException | IllegalArgumentException ex) {
+			throw new IllegalStateException("Cannot map properties file [" + this.path + "]", ex);
+		}
+	}
+
+
+	private static boolean isWhitespace(byte b) {
+		return (b == ' ' || b == '\t' || b == '\f');
+	}
+
+	private static boolean isLineBreak(byte b) {
+		return (b == '\r' || b == '\n');
+	}
+
+
+	/**
+	 * Index over the keys and values of one mapping of the file.
+	 */
+	private static final class Index {
+
+		private static final int ENTRY_SIZE = 4;
+
+		final ByteBuffer data;
+
+		final long fileSize;
+
+		final FileTime lastModified;
+
+		final boolean utf8;
+
+		/** Key start, key end, value start and value end offset per entry. */
+		int[] entries = new int[ENTRY_SIZE * 64];
+
+		int[] hashes = new int[64];
+
+		/** Entries whose key contains escapes or non-ASCII bytes. */
+		final BitSet encodedKeys = new BitSet();
+
+		/** Open-addressing table of entry index + 1, 0 for an empty slot. */
+		int[] table = new int[128];
+
+		int size;
+
+		Index(ByteBuffer data, long fileSize, FileTime lastModified, boolean utf8) {
+			this.data = data;
+			this.fileSize = fileSize;
+			this.lastModified = lastModified;
+			this.utf8 = utf8;
+			parse();
+		}
+
+		boolean isCurrent(Path path) {
+			try {
+				return (Files.size(path) == this.fileSize && Files.getLastModifiedTime(path).equals(this.lastModified));
+			}
+			catch (IOException ex) {
+				return false;
+			}
+		}
+
+		int find(String key) {
+			int hash = key.hashCode();
+			int mask = this.table.length - 1;
+			for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+				int entry = this.table[slot] - 1;
+				if (entry == -1) {
+					return -1;
+				}
+				if (this.hashes[entry] == hash && keyEquals(entry, key)) {
+					return entry;
+				}
+			}
+		}
+
+		String getValue(int entry) {
+			int offset = entry * ENTRY_SIZE;
+			return decode(this.entries[offset + 2], this.entries[offset + 3]);
+		}
+
+		String[] getKeys() {
+			String[] keys = new String[this.size];
+			for (int i = 0; i < this.size; i++) {
+				keys[i] = getKey(i);
+			}
+			return keys;
+		}
+
+		private String getKey(int entry) {
+			int offset = entry * ENTRY_SIZE;
+			return decode(this.entries[offset], this.entries[offset + 1]);
+		}
+
+		private boolean keyEquals(int entry, String key) {
+			if (this.encodedKeys.get(entry)) {
+				return getKey(entry).equals(key);
+			}
+			int offset = entry * ENTRY_SIZE;
+			int start = this.entries[offset];
+			int length = this.entries[offset + 1] - start;
+			if (length != key.length()) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (this.data.get(start + i) != key.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Scan the logical lines of the file, following the rules of
+		 * {@link java.util.Properties#load(java.io.Reader)}.
+		 */
+		private void parse() {
+			ByteBuffer data = this.data;
+			int limit = data.limit();
+			int pos = 0;
+			while (pos < limit) {
+				byte b = data.get(pos);
+				if (isWhitespace(b) || isLineBreak(b)) {
+					pos++;
+					continue;
+				}
+				if (b == '\\' && pos + 2 < limit && isLineBreak(data.get(pos + 1))) {
+					// Continuation before any key character: the logical line may
+					// still turn out to be blank or a comment (unless the file ends
+					// with the line break, which Properties reads as an empty key)
+					pos = skipLineBreak(pos + 1, limit);
+					continue;
+				}
+				if (b == '#' || b == '!') {
+					while (pos < limit && !isLineBreak(data.get(pos))) {
+						pos++;
+					}
+					continue;
+				}
+				int keyStart = pos;
+				boolean encoded = false;
+				while (pos < limit) {
+					b = data.get(pos);
+					if (b == '\\') {
+						encoded = true;
+						pos = skipEscape(pos, limit);
+						continue;
+					}
+					if (b == '=' || b == ':' || isWhitespace(b) || isLineBreak(b)) {
+						break;
+					}
+					encoded |= (b < 0);
+					pos++;
+				}
+				int keyEnd = pos;
+				pos = skipWhitespace(pos, limit);
+				if (pos < limit && (data.get(pos) == '=' || data.get(pos) == ':')) {
+					pos = skipWhitespace(pos + 1, limit);
+				}
+				int valueStart = pos;
+				while (pos < limit) {
+					b = data.get(pos);
+					if (b == '\\') {
+						pos = skipEscape(pos, limit);
+						continue;
+					}
+					if (isLineBreak(b)) {
+						break;
+					}
+					pos++;
+				}
+				add(keyStart, keyEnd, encoded, valueStart, pos);
+			}
+		}
+
+		private void add(int keyStart, int keyEnd, boolean encoded, int valueStart, int valueEnd) {
+			int entry = this.size;
+			if (entry == this.hashes.length) {
+				this.hashes = Arrays.copyOf(this.hashes, entry * 2);
+				this.entries = Arrays.copyOf(this.entries, entry * 2 * ENTRY_SIZE);
+			}
+			int offset = entry * ENTRY_SIZE;
+			this.entries[offset] = keyStart;
+			this.entries[offset + 1] = keyEnd;
+			this.entries[offset + 2] = valueStart;
+			this.entries[offset + 3] = valueEnd;
+			this.encodedKeys.set(entry, encoded);
+			int hash;
+			if (encoded) {
+				hash = getKey(entry).hashCode();
+			}
+			else {
+				// Same as String.hashCode() for the ASCII characters of the key
+				hash = 0;
+				for (int i = keyStart; i < keyEnd; i++) {
+					hash = 31 * hash + this.data.get(i);
+				}
+			}
+			int existing = findDuplicate(entry, hash);
+			if (existing != -1) {
+				// Later definition of the same key wins, as with java.util.Properties
+				int existingOffset = existing * ENTRY_SIZE;
+				System.arraycopy(this.entries, offset, this.entries, existingOffset, ENTRY_SIZE);
+				this.encodedKeys.set(existing, encoded);
+				return;
+			}
+			this.hashes[entry] = hash;
+			this.size++;
+			if (this.size * 2 > this.table.length) {
+				rehash();
+			}
+			else {
+				insert(entry, hash);
+			}
+		}
+
+		private int findDuplicate(int newEntry, int hash) {
+			int mask = this.table.length - 1;
+			for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+				int entry = this.table[slot] - 1;
+				if (entry == -1) {
+					return -1;
+				}
+				if (this.hashes[entry] == hash && keyEquals(entry, newEntry)) {
+					return entry;
+				}
+			}
+		}
+
+		private boolean keyEquals(int entry, int otherEntry) {
+			if (this.encodedKeys.get(entry) || this.encodedKeys.get(otherEntry)) {
+				return getKey(entry).equals(getKey(otherEntry));
+			}
+			int start = this.entries[entry * ENTRY_SIZE];
+			int otherStart = this.entries[otherEntry * ENTRY_SIZE];
+			int length = this.entries[entry * ENTRY_SIZE + 1] - start;
+			if (length != this.entries[otherEntry * ENTRY_SIZE + 1] - otherStart) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (this.data.get(start + i) != this.data.get(otherStart + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void insert(int entry, int hash) {
+			int mask = this.table.length - 1;
+			int slot = spread(hash) & mask;
+			while (this.table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			this.table[slot] = entry + 1;
+		}
+
+		private void rehash() {
+			this.table = new int[this.table.length * 2];
+			for (int entry = 0; entry < this.size; entry++) {
+				insert(entry, this.hashes[entry]);
+			}
+		}
+
+		private static int spread(int hash) {
+			return (hash ^ (hash >>> 16));
+		}
+
+		/**
+		 * Skip the escape sequence at the given backslash, including a line break
+		 * and the indentation of the continuation line, and validating a
+		 * {@code \\u} escape as {@code Properties} does on load.
+		 */
+		private int skipEscape(int pos, int limit) {
+			if (pos + 1 >= limit) {
+				return limit;
+			}
+			byte next = this.data.get(pos + 1);
+			if (next == 'u') {
+				return decodeUnicode(pos + 2, limit, null);
+			}
+			return (isLineBreak(next) ? skipLineBreak(pos + 1, limit) : pos + 2);
+		}
+
+		private int skipLineBreak(int pos, int limit) {
+			if (this.data.get(pos++) == '\r' && pos < limit && this.data.get(pos) == '\n') {
+				pos++;
+			}
+			while (pos < limit && isWhitespace(this.data.get(pos))) {
+				pos++;
+			}
+			return pos;
+		}
+
+		private int skipWhitespace(int pos, int limit) {
+			while (pos < limit) {
+				byte b = this.data.get(pos);
+				if (isWhitespace(b)) {
+					pos++;
+				}
+				else if (b == '\\' && pos + 1 < limit && isLineBreak(this.data.get(pos + 1))) {
+					pos = skipLineBreak(pos + 1, limit);
+				}
+				else {
+					break;
+				}
+			}
+			return pos;
+		}
+
+		/**
+		 * Decode the given range of the file, resolving escapes and line continuations.
+		 */
+		private String decode(int start, int end) {
+			ByteBuffer data = this.data;
+			StringBuilder result = new StringBuilder(end - start);
+			int pos = start;
+			while (pos < end) {
+				byte b = data.get(pos);
+				if (b == '\\') {
+					if (pos + 1 >= end) {
+						break;
+					}
+					byte next = data.get(pos + 1);
+					if (isLineBreak(next)) {
+						pos = skipLineBreak(pos + 1, end);
+					}
+					else if (next == 'u') {
+						pos = decodeUnicode(pos + 2, end, result);
+					}
+					else if (next < 0) {
+						// Escaped non-ASCII character: decoded as such
+						pos++;
+					}
+					else {
+						result.append(switch (next) {
+							case 't' -> '\t';
+							case 'n' -> '\n';
+							case 'r' -> '\r';
+							case 'f' -> '\f';
+							default -> (char) next;
+						});
+						pos += 2;
+					}
+				}
+				else if (b >= 0 || !this.utf8) {
+					result.append((char) (b & 0xFF));
+					pos++;
+				}
+				else {
+					int runEnd = pos + 1;
+					while (runEnd < end && data.get(runEnd) < 0) {
+						runEnd++;
+					}
+					byte[] bytes = new byte[runEnd - pos];
+					data.get(pos, bytes);
+					result.append(new String(bytes, StandardCharsets.UTF_8));
+					pos = runEnd;
+				}
+			}
+			return result.toString();
+		}
+
+		/**
+		 * Decode the four hex digits of a {@code \\u} escape, which may be split
+		 * by line continuations, appending the character to the given result, if any.
+		 * @return the position after the last digit
+		 */
+		private int decodeUnicode(int pos, int end, @Nullable StringBuilder result) {
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				while (pos + 1 < end && this.data.get(pos) == '\\' && isLineBreak(this.data.get(pos + 1))) {
+					pos = skipLineBreak(pos + 1, end);
+				}
+				int digit = (pos < end ? Character.digit(this.data.get(pos), 16) : -1);
+				if (digit == -1) {
+					throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+				}
+				value = (value << 4) + digit;
+				pos++;
+			}
+			if (result != null) {
+				result.append((char) value);
+			}
+			return pos;
+		}
+	}
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Ordered collection of {@link PropertySource} objects, searched in order
+ * of precedence by {@link PropertySourcesPropertyResolver}.
+ *
+ * <p>Where mention is made of <em>precedence</em> in methods such as {@link #addFirst}
+ * and {@link #addLast}, this is with regard to the order in which property sources
+ * will be searched when resolving a given property with a {@link PropertyResolver}.
+ *
+ * <p>Every structural modification, and every {@link PropertySource#markChanged()}
+ * of a contained source, advances the {@linkplain #getVersion() version} of this
+ * collection, which tells resolvers to rebuild their lookup snapshot.
+ *
+ * @author Chris Beams
+ * @author Juergen Hoeller
+ * @since 3.1
+ */
+public class MutablePropertySources implements Iterable<PropertySource<?>> {
+
+	private final List<PropertySource<?>> propertySourceList = new CopyOnWriteArrayList<>();
+
+	private final AtomicLong version = new AtomicLong();
+
+	private final Runnable changeListener = this::markChanged;
+
+
+	/**
+	 * Create a new {@link MutablePropertySources} object.
+	 */
+	public MutablePropertySources() {
+	}
+
+
+	@Override
+	public Iterator<PropertySource<?>> iterator() {
+		return this.propertySourceList.iterator();
+	}
+
+	@Override
+	public Spliterator<PropertySource<?>> spliterator() {
+		return Spliterators.spliterator(this.propertySourceList, 0);
+	}
+
+	/**
+	 * Return a sequential {@link Stream} containing the property sources.
+	 */
+	public Stream<PropertySource<?>> stream() {
+		return this.propertySourceList.stream();
+	}
+
+	/**
+	 * Return whether a property source with the given name is contained.
+	 * @param name the {@linkplain PropertySource#getName() name of the property source} to find
+	 */
+	public boolean contains(String name) {
+		for (PropertySource<?> propertySource : this.propertySourceList) {
+			if (propertySource.getName().equals(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return the property source with the given name, {@code null} if not found.
+	 * @param name the {@linkplain PropertySource#getName() name of the property source} to find
+	 */
+	@Nullable
+	public PropertySource<?> get(String name) {
+		for (PropertySource<?> propertySource : this.propertySourceList) {
+			if (propertySource.getName().equals(name)) {
+				return propertySource;
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Add the given property source object with highest precedence.
+	 */
+	public void addFirst(PropertySource<?> propertySource) {
+		synchronized (this.propertySourceList) {
+			removeIfPresent(propertySource);
+			this.propertySourceList.add(0, propertySource);
+			added(propertySource);
+		}
+	}
+
+	/**
+	 * Add the given property source object with lowest precedence.
+	 */
+	public void addLast(PropertySource<?> propertySource) {
+		synchronized (this.propertySourceList) {
+			removeIfPresent(propertySource);
+			this.propertySourceList.add(propertySource);
+			added(propertySource);
+		}
+	}
+
+	/**
+	 * Add the given property source object with precedence immediately higher
+	 * than the named relative property source.
+	 */
+	public void addBefore(String relativePropertySourceName, PropertySource<?> propertySource) {
+		assertLegalRelativeAddition(relativePropertySourceName, propertySource);
+		synchronized (this.propertySourceList) {
+			removeIfPresent(propertySource);
+			int index = assertPresentAndGetIndex(relativePropertySourceName);
+			this.propertySourceList.add(index, propertySource);
+			added(propertySource);
+		}
+	}
+
+	/**
+	 * Add the given property source object with precedence immediately lower
+	 * than the named relative property source.
+	 */
+	public void addAfter(String relativePropertySourceName, PropertySource<?> propertySource) {
+		assertLegalRelativeAddition(relativePropertySourceName, propertySource);
+		synchronized (this.propertySourceList) {
+			removeIfPresent(propertySource);
+			int index = assertPresentAndGetIndex(relativePropertySourceName);
+			this.propertySourceList.add(index + 1, propertySource);
+			added(propertySource);
+		}
+	}
+
+	/**
+	 * Return the precedence of the given property source, {@code -1} if not found.
+	 */
+	public int precedenceOf(PropertySource<?> propertySource) {
+		return this.propertySourceList.indexOf(propertySource);
+	}
+
+	/**
+	 * Remove and return the property source with the given name, {@code null} if not found.
+	 * @param name the name of the property source to find and remove
+	 */
+	@Nullable
+	public PropertySource<?> remove(String name) {
+		synchronized (this.propertySourceList) {
+			int index = this.propertySourceList.indexOf(PropertySourceName.of(name));
+			if (index == -1) {
+				return null;
+			}
+			PropertySource<?> removed = this.propertySourceList.remove(index);
+			removed(removed);
+			return removed;
+		}
+	}
+
+	/**
+	 * Replace the property source with the given name with the given property source object.
+	 * @param name the name of the property source to find and replace
+	 * @param propertySource the replacement property source
+	 * @throws IllegalArgumentException if no property source with the given name is present
+	 * @see #contains
+	 */
+	public void replace(String name, PropertySource<?> propertySource) {
+		synchronized (this.propertySourceList) {
+			int index = assertPresentAndGetIndex(name);
+			PropertySource<?> replaced = this.propertySourceList.set(index, propertySource);
+			replaced.removeChangeListener(this.changeListener);
+			added(propertySource);
+		}
+	}
+
+	/**
+	 * Return the number of {@link PropertySource} objects contained.
+	 */
+	public int size() {
+		return this.propertySourceList.size();
+	}
+
+	/**
+	 * Return the current version of this collection, advanced on every change
+	 * to the contained property sources or their content.
+	 */
+	public long getVersion() {
+		return this.version.get();
+	}
+
+	/**
+	 * Advance the {@linkplain #getVersion() version} of this collection,
+	 * invalidating the snapshots of resolvers over it.
+	 * @see PropertySource#markChanged()
+	 */
+	public void markChanged() {
+		this.version.incrementAndGet();
+	}
+
+	@Override
+	public String toString() {
+		return this.propertySourceList.toString();
+	}
+
+
+	private void added(PropertySource<?> propertySource) {
+		propertySource.addChangeListener(this.changeListener);
+		markChanged();
+	}
+
+	private void removed(PropertySource<?> propertySource) {
+		propertySource.removeChangeListener(this.changeListener);
+		markChanged();
+	}
+
+	/**
+	 * Ensure that the given property source is not being added relative to itself.
+	 */
+	protected void assertLegalRelativeAddition(String relativePropertySourceName, PropertySource<?> propertySource) {
+		String newPropertySourceName = propertySource.getName();
+		if (relativePropertySourceName.equals(newPropertySourceName)) {
+			throw new IllegalArgumentException(
+					"PropertySource named '" + newPropertySourceName + "' cannot be added relative to itself");
+		}
+	}
+
+	/**
+	 * Remove the given property source if it is present.
+	 */
+	protected void removeIfPresent(PropertySource<?> propertySource) {
+		int index = this.propertySourceList.indexOf(propertySource);
+		if (index != -1) {
+			// The stored instance is only equal by name: detach from that one
+			PropertySource<?> removed = this.propertySourceList.remove(index);
+			removed.removeChangeListener(this.changeListener);
+		}
+	}
+
+	/**
+	 * Assert that the named property source is present and return its index.
+	 * @param name {@linkplain PropertySource#getName() name of the property source} to find
+	 * @throws IllegalArgumentException if the named property source is not present
+	 */
+	private int assertPresentAndGetIndex(String name) {
+		int index = this.propertySourceList.indexOf(PropertySourceName.of(name));
+		if (index == -1) {
+			throw new IllegalArgumentException("PropertySource named '" + name + "' does not exist");
+		}
+		return index;
+	}
+
+
+	/**
+	 * Lookup key for a property source by name, relying on the name-based
+	 * {@link PropertySource#equals} semantics.
+	 */
+	private static final class PropertySourceName extends PropertySource<Object> {
+
+		private static final Object NO_SOURCE = new Object();
+
+		private PropertySourceName(String name) {
+			super(name, NO_SOURCE);
+		}
+
+		static PropertySourceName of(String name) {
+			return new PropertySourceName(name);
+		}
+
+		@Override
+		@Nullable
+		public Object getProperty(String name) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * A text containing {@code ${...}} placeholders, parsed once into an immutable
+ * sequence of segments: literal text, and placeholders consisting of a key
+ * and an optional default value separated by {@code ':'}, both of which may
+ * in turn contain placeholders, as in {@code ${app.home:${user.home}}/logs}.
+ *
+ * <p>Templates are obtained through {@link #of(String)}, which caches them
+ * per text, so that resolving the same text again only concatenates the
+ * literal segments with the values looked up for the keys.
+ *
+ * <p>A text with an unterminated placeholder prefix keeps it as literal text.
+ *
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see PropertyResolver#resolvePlaceholders
+ * @see PropertyResolver#resolveRequiredPlaceholders
+ */
+public final class PlaceholderTemplate {
+
+	/** Prefix for property placeholders: "${". */
+	public static final String PLACEHOLDER_PREFIX = "${";
+
+	/** Suffix for property placeholders: "}". */
+	public static final String PLACEHOLDER_SUFFIX = "}";
+
+	/** Value separator for property placeholders: ":". */
+	public static final String VALUE_SEPARATOR = ":";
+
+	private static final char SIMPLE_PREFIX = '{';
+
+	private static final char SUFFIX = '}';
+
+	private static final char SEPARATOR = ':';
+
+	private static final Segment[] NO_SEGMENTS = new Segment[0];
+
+	private static final Map<String, PlaceholderTemplate> cache = new ConcurrentReferenceHashMap<>(256);
+
+
+	private final String text;
+
+	private final Segment[] segments;
+
+	private final boolean hasPlaceholders;
+
+
+	private PlaceholderTemplate(String text) {
+		this.text = text;
+		this.segments = parse(text, 0, text.length());
+		this.hasPlaceholders = (this.segments.length > 1 ||
+				(this.segments.length == 1 && this.segments[0] instanceof Placeholder));
+	}
+
+
+	/**
+	 * Return the template for the given text, parsing it on first use.
+	 * @param text the text to parse
+	 * @return the corresponding template (never {@code null})
+	 */
+	public static PlaceholderTemplate of(String text) {
+		Assert.notNull(text, "Text must not be null");
+		PlaceholderTemplate template = cache.get(text);
+		if (template == null) {
+			template = new PlaceholderTemplate(text);
+			cache.put(text, template);
+		}
+		return template;
+	}
+
+	/**
+	 * Return the text this template has been parsed from.
+	 */
+	public String getText() {
+		return this.text;
+	}
+
+	/**
+	 * Return whether the text contains any placeholder, i.e. whether
+	 * {@link #resolve} may return anything but the original text.
+	 */
+	public boolean hasPlaceholders() {
+		return this.hasPlaceholders;
+	}
+
+	/**
+	 * Resolve the placeholders of this template, using default values where
+	 * the resolver returns {@code null} for a key.
+	 * <p>The values returned by the resolver are inserted as-is: a resolver
+	 * for values that may themselves contain placeholders has to resolve them.
+	 * @param resolver the lookup for placeholder keys
+	 * @param ignoreUnresolvable whether to keep placeholders without value
+	 * and default as they are, rather than throwing an exception
+	 * @return the resolved text
+	 * @throws IllegalArgumentException if a placeholder cannot be resolved
+	 * and {@code ignoreUnresolvable} is {@code false}
+	 */
+	public String resolve(PlaceholderResolver resolver, boolean ignoreUnresolvable) {
+		Assert.notNull(resolver, "PlaceholderResolver must not be null");
+		if (!this.hasPlaceholders) {
+			return this.text;
+		}
+		if (this.segments.length == 1) {
+			return resolvePlaceholder((Placeholder) this.segments[0], resolver, ignoreUnresolvable);
+		}
+		StringBuilder result = new StringBuilder(this.text.length() + 16);
+		appendTo(result, this.segments, resolver, ignoreUnresolvable);
+		return result.toString();
+	}
+
+	private void appendTo(StringBuilder result, Segment[] segments,
+			PlaceholderResolver resolver, boolean ignoreUnresolvable) {
+
+		for (Segment segment : segments) {
+			if (segment instanceof Literal literal) {
+				result.append(literal.text());
+			}
+			else {
+				result.append(resolvePlaceholder((Placeholder) segment, resolver, ignoreUnresolvable));
+			}
+		}
+	}
+
+	private String resolvePlaceholder(Placeholder placeholder, PlaceholderResolver resolver, boolean ignoreUnresolvable) {
+		String key = (placeholder.simpleKey() != null ? placeholder.simpleKey() :
+				resolveSegments(placeholder.key(), resolver, ignoreUnresolvable));
+		String value = resolver.resolvePlaceholder(key);
+		if (value == null && placeholder.defaultValue() != null) {
+			value = resolveSegments(placeholder.defaultValue(), resolver, ignoreUnresolvable);
+		}
+		if (value == null) {
+			if (!ignoreUnresolvable) {
+				throw new IllegalArgumentException(
+						"Could not resolve placeholder '" + key + "' in value \"" + this.text + "\"");
+			}
+			value = placeholder.text();
+		}
+		return value;
+	}
+
+	private String resolveSegments(Segment[] segments, PlaceholderResolver resolver, boolean ignoreUnresolvable) {
+		if (segments.length == 0) {
+			return "";
+		}
+		if (segments.length == 1 && segments[0] instanceof Literal literal) {
+			return literal.text();
+		}
+		StringBuilder result = new StringBuilder();
+		appendTo(result, segments, resolver, ignoreUnresolvable);
+		return result.toString();
+	}
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof PlaceholderTemplate that && this.text.equals(that.text)));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.text.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.text;
+	}
+
+
+	/**
+	 * Parse the given range of the text into segments.
+	 */
+	private static Segment[] parse(String text, int start, int end) {
+		List<Segment> segments = null;
+		int position = start;
+		while (position < end) {
+			int prefixIndex = text.indexOf(PLACEHOLDER_PREFIX, position);
+			if (prefixIndex == -1 || prefixIndex >= end) {
+				break;
+			}
+			int bodyIndex = prefixIndex + PLACEHOLDER_PREFIX.length();
+			int suffixIndex = findSuffixOrSeparator(text, bodyIndex, end, false);
+			if (suffixIndex == -1) {
+				break;
+			}
+			if (segments == null) {
+				segments = new ArrayList<>(4);
+			}
+			if (prefixIndex > position) {
+				segments.add(new Literal(text.substring(position, prefixIndex)));
+			}
+			int separatorIndex = findSuffixOrSeparator(text, bodyIndex, suffixIndex, true);
+			Segment[] key = parse(text, bodyIndex, (separatorIndex != -1 ? separatorIndex : suffixIndex));
+			Segment[] defaultValue = (separatorIndex != -1 ? parse(text, separatorIndex + 1, suffixIndex) : null);
+			segments.add(new Placeholder(text.substring(prefixIndex, suffixIndex + 1), key, defaultValue));
+			position = suffixIndex + 1;
+		}
+		if (segments == null) {
+			return (start < end ? new Segment[] {new Literal(text.substring(start, end))} : NO_SEGMENTS);
+		}
+		if (position < end) {
+			segments.add(new Literal(text.substring(position, end)));
+		}
+		return segments.toArray(NO_SEGMENTS);
+	}
+
+	/**
+	 * Find the suffix, or the value separator, at the outermost nesting level
+	 * of a placeholder body, treating any brace as nesting like the suffix.
+	 */
+	private static int findSuffixOrSeparator(String text, int start, int end, boolean separator) {
+		int nesting = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c == SIMPLE_PREFIX) {
+				nesting++;
+			}
+			else if (c == SUFFIX) {
+				if (nesting == 0) {
+					return (separator ? -1 : i);
+				}
+				nesting--;
+			}
+			else if (separator && c == SEPARATOR && nesting == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Strategy for looking up the value of a placeholder key.
+	 */
+	@FunctionalInterface
+	public interface PlaceholderResolver {
+
+		/**
+		 * Return the value for the given placeholder key,
+		 * or {@code null} if there is none.
+		 * @param key the key of the placeholder to resolve
+		 */
+		@Nullable
+		String resolvePlaceholder(String key);
+	}
+
+
+	private sealed interface Segment permits Literal, Placeholder {
+	}
+
+
+	private record Literal(String text) implements Segment {
+	}
+
+
+	/**
+	 * A placeholder with its original text, the segments of its key and
+	 * of its optional default value, and its key if that is plain text.
+	 */
+	private record Placeholder(String text, Segment[] key, @Nullable Segment[] defaultValue, @Nullable String simpleKey)
+			implements Segment {
+
+		Placeholder(String text, Segment[] key, @Nullable Segment[] defaultValue) {
+			this(text, key, defaultValue, (key.length == 0 ? "" :
+					key.length == 1 && key[0] instanceof Literal literal ? literal.text() : null));
+		}
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Abstract base class representing a source of name/value property pairs.
+ * The underlying {@linkplain #getSource() source object} may be of any type
+ * {@code T} that encapsulates properties. Examples include {@link java.util.Properties}
+ * objects, {@link java.util.Map} objects, and system environment variables.
+ *
+ * <p>{@code PropertySource} objects are not typically used in isolation, but
+ * rather through a {@link MutablePropertySources} object, which aggregates
+ * property sources in priority order, and in conjunction with a
+ * {@link PropertySourcesPropertyResolver} implementation that can perform
+ * precedence-based searches across the set of {@code PropertySources}.
+ *
+ * <p>Resolvers take a snapshot of the properties they have looked up. A
+ * property source whose content changes after it has been added must
+ * therefore call {@link #markChanged()}, which invalidates the snapshots of
+ * all resolvers over a {@code MutablePropertySources} containing it.
+ *
+ * <p>{@code PropertySource} identity is determined not based on the content
+ * of encapsulated properties, but rather based on the {@link #getName() name}
+ * of the {@code PropertySource} alone.
+ *
+ * @author Chris Beams
+ * @author Juergen Hoeller
+ * @since 3.1
+ * @param <T> the source type
+ * @see MutablePropertySources
+ * @see PropertySourcesPropertyResolver
+ */
+public abstract class PropertySource<T> {
+
+	protected final String name;
+
+	protected final T source;
+
+	private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+
+	/**
+	 * Create a new {@code PropertySource} with the given name and source object.
+	 * @param name the associated name
+	 * @param source the source object
+	 */
+	public PropertySource(String name, T source) {
+		Assert.hasText(name, "Property source name must contain at least one character");
+		Assert.notNull(source, "Property source must not be null");
+		this.name = name;
+		this.source = source;
+	}
+
+
+	/**
+	 * Return the name of this {@code PropertySource}.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Return the underlying source object for this {@code PropertySource}.
+	 */
+	public T getSource() {
+		return this.source;
+	}
+
+	/**
+	 * Return whether this {@code PropertySource} contains the given name.
+	 * <p>This implementation simply checks for a {@code null} return value
+	 * from {@link #getProperty(String)}. Subclasses may wish to implement
+	 * a more efficient algorithm if possible.
+	 * @param name the property name to find
+	 */
+	public boolean containsProperty(String name) {
+		return (getProperty(name) != null);
+	}
+
+	/**
+	 * Return the value associated with the given name,
+	 * or {@code null} if not found.
+	 * @param name the property to find
+	 */
+	@Nullable
+	public abstract Object getProperty(String name);
+
+	/**
+	 * Signal that the properties of this source have changed, so that
+	 * resolvers over it take a new snapshot on their next lookup.
+	 * <p>To be called after modifying the underlying source object,
+	 * or by subclasses that reload their content.
+	 */
+	public void markChanged() {
+		for (Runnable listener : this.changeListeners) {
+			listener.run();
+		}
+	}
+
+	/**
+	 * Register a callback for {@link #markChanged()}.
+	 */
+	void addChangeListener(Runnable listener) {
+		this.changeListeners.add(listener);
+	}
+
+	/**
+	 * Remove a callback registered through {@link #addChangeListener}.
+	 */
+	void removeChangeListener(Runnable listener) {
+		this.changeListeners.remove(listener);
+	}
+
+
+	/**
+	 * This {@code PropertySource} object is equal to the given object if:
+	 * <ul>
+	 * <li>they are the same instance
+	 * <li>the {@code name} properties for both objects are equal
+	 * </ul>
+	 * <p>No properties other than {@code name} are evaluated.
+	 */
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof PropertySource<?> that &&
+				ObjectUtils.nullSafeEquals(getName(), that.getName())));
+	}
+
+	/**
+	 * Return a hash code derived from the {@code name} property
+	 * of this {@code PropertySource} object.
+	 */
+	@Override
+	public int hashCode() {
+		return ObjectUtils.nullSafeHashCode(getName());
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {name='" + getName() + "'}";
+	}
+
+}
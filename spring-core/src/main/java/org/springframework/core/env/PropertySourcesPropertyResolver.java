@@ -0,0 +1,462 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link PropertyResolver} implementation that resolves property values against
+ * an underlying set of {@link PropertySource PropertySources}, searched in order.
+ *
+ * <p>Lookups go through an immutable-per-version snapshot: a hash table from
+ * property name to resolved entry, initially populated by flattening the
+ * leading map-based and {@link SnapshotPropertySource snapshot} property
+ * sources (first source wins), and extended with
+ * the outcome of every further lookup, including misses up to a fixed number
+ * per snapshot, so that lookups of arbitrary keys (e.g. placeholders in user
+ * input) cannot grow the snapshot without bounds. Once a key has been
+ * looked up, reading it again &mdash; as a {@code String} or, through a
+ * per-key conversion cache, as the type it was last requested as &mdash; is a
+ * single hash lookup. The snapshot is rebuilt when the
+ * {@linkplain MutablePropertySources#getVersion() version} of the property
+ * sources changes, i.e. when a source is added, removed or replaced, or
+ * {@linkplain PropertySource#markChanged() signals a change} of its content.
+ *
+ * <p>{@code String} property values may contain {@code ${...}} placeholders,
+ * which are resolved through {@link PlaceholderTemplate} when the value is
+ * first read from a snapshot. The resolved value is kept with the entry, so
+ * circular references among property definitions are detected once, while
+ * resolving, rather than on every read.
+ *
+ * <p>Property values are converted by type: {@code String}, primitives and
+ * their wrappers, {@code BigInteger}/{@code BigDecimal}, enums, {@code Class},
+ * and any type with a static {@code valueOf}/{@code of}/{@code from}/{@code parse}
+ * factory method or a constructor taking a single {@code String}.
+ *
+ * @author Chris Beams
+ * @author Juergen Hoeller
+ * @since 3.1
+ * @see PropertySource
+ * @see MutablePropertySources
+ * @see AbstractEnvironment
+ */
+public class PropertySourcesPropertyResolver implements PropertyResolver {
+
+	private static final String[] FACTORY_METHOD_NAMES = {"valueOf", "of", "from", "parse"};
+
+	private static final Map<Class<?>, Function<String, Object>> converters = new ConcurrentReferenceHashMap<>(64);
+
+	/** Maximum number of misses remembered per snapshot. */
+	private static final int MAX_CACHED_MISSES = 1024;
+
+	private static final ThreadLocal<Set<String>> keysInResolution = ThreadLocal.withInitial(HashSet::new);
+
+
+	private final MutablePropertySources propertySources;
+
+	private volatile boolean ignoreUnresolvableNestedPlaceholders;
+
+	@Nullable
+	private volatile Snapshot snapshot;
+
+
+	/**
+	 * Create a new resolver against the given property sources.
+	 * @param propertySources the set of {@link PropertySource} objects to use
+	 */
+	public PropertySourcesPropertyResolver(MutablePropertySources propertySources) {
+		Assert.notNull(propertySources, "MutablePropertySources must not be null");
+		this.propertySources = propertySources;
+	}
+
+
+	/**
+	 * Return the property sources this resolver searches.
+	 */
+	public MutablePropertySources getPropertySources() {
+		return this.propertySources;
+	}
+
+	/**
+	 * Set whether to ignore unresolvable placeholders nested within the value of a
+	 * given property, passing them through unchanged, rather than throwing an
+	 * {@link IllegalArgumentException} when reading the property.
+	 * <p>The default is {@code false}.
+	 */
+	public void setIgnoreUnresolvableNestedPlaceholders(boolean ignoreUnresolvableNestedPlaceholders) {
+		this.ignoreUnresolvableNestedPlaceholders = ignoreUnresolvableNestedPlaceholders;
+		clearSnapshot();
+	}
+
+	@Override
+	public boolean containsProperty(String key) {
+		return (getEntry(key).value != null);
+	}
+
+	@Override
+	@Nullable
+	public String getProperty(String key) {
+		return getResolvedValue(key, getEntry(key));
+	}
+
+	@Override
+	public String getProperty(String key, String defaultValue) {
+		String value = getProperty(key);
+		return (value != null ? value : defaultValue);
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T getProperty(String key, Class<T> targetType) {
+		Assert.notNull(targetType, "Target type must not be null");
+		Entry entry = getEntry(key);
+		if (targetType == String.class) {
+			return (T) getResolvedValue(key, entry);
+		}
+		Object value = (entry.value instanceof String ? getResolvedValue(key, entry) : entry.value);
+		return entry.getValue(key, value, targetType);
+	}
+
+	@Override
+	public <T> T getProperty(String key, Class<T> targetType, T defaultValue) {
+		T value = getProperty(key, targetType);
+		return (value != null ? value : defaultValue);
+	}
+
+	@Override
+	public String getRequiredProperty(String key) throws IllegalStateException {
+		String value = getProperty(key);
+		if (value == null) {
+			throw new IllegalStateException("Required key '" + key + "' not found");
+		}
+		return value;
+	}
+
+	@Override
+	public <T> T getRequiredProperty(String key, Class<T> targetType) throws IllegalStateException {
+		T value = getProperty(key, targetType);
+		if (value == null) {
+			throw new IllegalStateException("Required key '" + key + "' not found");
+		}
+		return value;
+	}
+
+	@Override
+	public String resolvePlaceholders(String text) {
+		return PlaceholderTemplate.of(text).resolve(this::getProperty, true);
+	}
+
+	@Override
+	public String resolveRequiredPlaceholders(String text) throws IllegalArgumentException {
+		return PlaceholderTemplate.of(text).resolve(this::getProperty, false);
+	}
+
+	/**
+	 * Discard the current snapshot, so that the next lookup takes a new one.
+	 * <p>Not needed after changes signalled through
+	 * {@link PropertySource#markChanged()} or {@link MutablePropertySources}.
+	 */
+	public void clearSnapshot() {
+		this.snapshot = null;
+	}
+
+
+	private Entry getEntry(String key) {
+		Assert.notNull(key, "Key must not be null");
+		Snapshot snapshot = currentSnapshot();
+		Entry entry = snapshot.entries.get(key);
+		if (entry == null) {
+			// Not resolved against this snapshot yet: search the sources, then remember the outcome
+			entry = findEntry(key);
+			if (entry == Entry.MISSING && snapshot.missCount.incrementAndGet() > MAX_CACHED_MISSES) {
+				// Too many distinct misses already: search the sources again on the next lookup
+				return entry;
+			}
+			Entry existing = snapshot.entries.putIfAbsent(key, entry);
+			if (existing != null) {
+				entry = existing;
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Return the {@code String} form of the given entry's value, with nested
+	 * placeholders resolved on first access and kept with the entry.
+	 */
+	@Nullable
+	private String getResolvedValue(String key, Entry entry) {
+		String resolvedValue = entry.resolvedValue;
+		if (resolvedValue != null || entry.stringValue == null) {
+			return resolvedValue;
+		}
+		PlaceholderTemplate template = (entry.value instanceof String ? PlaceholderTemplate.of(entry.stringValue) : null);
+		if (template == null || !template.hasPlaceholders()) {
+			resolvedValue = entry.stringValue;
+		}
+		else {
+			Set<String> keys = keysInResolution.get();
+			if (!keys.add(key)) {
+				throw new IllegalArgumentException("Circular placeholder reference '" + key + "' in property definitions");
+			}
+			try {
+				resolvedValue = template.resolve(this::getProperty, this.ignoreUnresolvableNestedPlaceholders);
+			}
+			finally {
+				keys.remove(key);
+			}
+		}
+		entry.resolvedValue = resolvedValue;
+		return resolvedValue;
+	}
+
+	private Snapshot currentSnapshot() {
+		long version = this.propertySources.getVersion();
+		Snapshot snapshot = this.snapshot;
+		if (snapshot == null || snapshot.version != version) {
+			// Stamped with the version read before flattening: a concurrent change triggers another rebuild
+			snapshot = new Snapshot(version, flatten());
+			this.snapshot = snapshot;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Flatten the leading map-based and snapshot property sources, which hold
+	 * exactly the properties they enumerate. Flattening stops at the first
+	 * other source, since it may shadow the properties of any later source.
+	 */
+	private Map<String, Entry> flatten() {
+		Map<String, Entry> entries = new ConcurrentHashMap<>(256);
+		for (PropertySource<?> propertySource : this.propertySources) {
+			if (!isFlattenable(propertySource)) {
+				break;
+			}
+			EnumerablePropertySource<?> enumerablePropertySource = (EnumerablePropertySource<?>) propertySource;
+			for (String name : enumerablePropertySource.getPropertyNames()) {
+				if (!entries.containsKey(name)) {
+					Object value = enumerablePropertySource.getProperty(name);
+					if (value != null) {
+						entries.put(name, new Entry(value));
+					}
+				}
+			}
+		}
+		return entries;
+	}
+
+	private static boolean isFlattenable(PropertySource<?> propertySource) {
+		return ((propertySource instanceof MapPropertySource &&
+				!(propertySource instanceof SystemEnvironmentPropertySource)) ||
+				propertySource instanceof SnapshotPropertySource);
+	}
+
+	private Entry findEntry(String key) {
+		for (PropertySource<?> propertySource : this.propertySources) {
+			Object value = propertySource.getProperty(key);
+			if (value != null) {
+				return new Entry(value);
+			}
+		}
+		return Entry.MISSING;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T convertValue(String key, Object value, Class<T> targetType) {
+		Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(targetType);
+		if (type.isInstance(value)) {
+			return (T) value;
+		}
+		Function<String, Object> converter = converters.computeIfAbsent(type, PropertySourcesPropertyResolver::createConverter);
+		try {
+			return (T) converter.apply(value.toString());
+		}
+		catch (RuntimeException ex) {
+			throw new IllegalArgumentException("Cannot convert value [" + value + "] of property '" + key +
+					"' to type [" + targetType.getName() + "]", ex);
+		}
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Function<String, Object> createConverter(Class<?> type) {
+		if (type == String.class) {
+			return value -> value;
+		}
+		if (type == Boolean.class) {
+			return PropertySourcesPropertyResolver::toBoolean;
+		}
+		if (type == Character.class) {
+			return value -> {
+				Assert.isTrue(value.length() == 1, "Can only convert a String with length of 1 to a Character");
+				return value.charAt(0);
+			};
+		}
+		if (type == Integer.class) {
+			return value -> (isHexNumber(value) ? Integer.decode(value.trim()) : Integer.valueOf(value.trim()));
+		}
+		if (type == Long.class) {
+			return value -> (isHexNumber(value) ? Long.decode(value.trim()) : Long.valueOf(value.trim()));
+		}
+		if (type == Short.class) {
+			return value -> (isHexNumber(value) ? Short.decode(value.trim()) : Short.valueOf(value.trim()));
+		}
+		if (type == Byte.class) {
+			return value -> (isHexNumber(value) ? Byte.decode(value.trim()) : Byte.valueOf(value.trim()));
+		}
+		if (type == Double.class) {
+			return value -> Double.valueOf(value.trim());
+		}
+		if (type == Float.class) {
+			return value -> Float.valueOf(value.trim());
+		}
+		if (type == BigInteger.class) {
+			return value -> new BigInteger(value.trim());
+		}
+		if (type == BigDecimal.class) {
+			return value -> new BigDecimal(value.trim());
+		}
+		if (type.isEnum()) {
+			return value -> Enum.valueOf((Class) type, value.trim());
+		}
+		if (type == Class.class) {
+			return value -> {
+				try {
+					return ClassUtils.forName(value.trim(), ClassUtils.getDefaultClassLoader());
+				}
+				catch (ClassNotFoundException | LinkageError ex) {
+					throw new IllegalArgumentException("Class [" + value + "] not found", ex);
+				}
+			};
+		}
+		for (String methodName : FACTORY_METHOD_NAMES) {
+			for (Class<?> parameterType : new Class<?>[] {String.class, CharSequence.class}) {
+				Method factoryMethod = ReflectionUtils.findMethod(type, methodName, parameterType);
+				if (factoryMethod != null && Modifier.isStatic(factoryMethod.getModifiers()) &&
+						type.isAssignableFrom(factoryMethod.getReturnType())) {
+					ReflectionUtils.makeAccessible(factoryMethod);
+					return value -> ReflectionUtils.invokeMethod(factoryMethod, null, value);
+				}
+			}
+		}
+		try {
+			Constructor<?> constructor = type.getConstructor(String.class);
+			return value -> {
+				try {
+					return constructor.newInstance(value);
+				}
+				catch (ReflectiveOperationException ex) {
+					throw new IllegalArgumentException("Failed to instantiate " + type.getName(), ex);
+				}
+			};
+		}
+		catch (NoSuchMethodException ex) {
+			return value -> {
+				throw new IllegalArgumentException("No conversion from String to " + type.getName());
+			};
+		}
+	}
+
+	private static Boolean toBoolean(String value) {
+		String trimmed = value.trim().toLowerCase();
+		return switch (trimmed) {
+			case "true", "on", "yes", "1" -> Boolean.TRUE;
+			case "false", "off", "no", "0" -> Boolean.FALSE;
+			default -> throw new IllegalArgumentException("Invalid boolean value '" + value + "'");
+		};
+	}
+
+	private static boolean isHexNumber(String value) {
+		String trimmed = value.trim();
+		int index = (trimmed.startsWith("-") ? 1 : 0);
+		return (trimmed.startsWith("0x", index) || trimmed.startsWith("0X", index) || trimmed.startsWith("#", index));
+	}
+
+
+	/**
+	 * The resolved entries for one version of the property sources.
+	 */
+	private record Snapshot(long version, Map<String, Entry> entries, AtomicInteger missCount) {
+
+		Snapshot(long version, Map<String, Entry> entries) {
+			this(version, entries, new AtomicInteger());
+		}
+	}
+
+
+	/**
+	 * A resolved property: its value, or none for a miss, with its
+	 * {@code String} form, that form with nested placeholders resolved,
+	 * and the conversion last requested.
+	 */
+	private static final class Entry {
+
+		static final Entry MISSING = new Entry(null);
+
+		@Nullable
+		final Object value;
+
+		@Nullable
+		final String stringValue;
+
+		@Nullable
+		volatile String resolvedValue;
+
+		@Nullable
+		private volatile Converted converted;
+
+		Entry(@Nullable Object value) {
+			this.value = value;
+			this.stringValue = (value != null ? value.toString() : null);
+		}
+
+		@Nullable
+		@SuppressWarnings("unchecked")
+		<T> T getValue(String key, @Nullable Object value, Class<T> targetType) {
+			if (value == null) {
+				return null;
+			}
+			Converted converted = this.converted;
+			if (converted == null || converted.targetType != targetType) {
+				converted = new Converted(targetType, convertValue(key, value, targetType));
+				this.converted = converted;
+			}
+			return (T) converted.value;
+		}
+	}
+
+
+	private record Converted(Class<?> targetType, Object value) {
+	}
+
+}
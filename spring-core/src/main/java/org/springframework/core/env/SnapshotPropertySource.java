@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link PropertySource} that serves an immutable snapshot of the properties
+ * obtained from a {@code Map} supplier, such as {@link System#getProperties()}.
+ * Reads never lock: they only dereference the current snapshot.
+ *
+ * <p>The snapshot is taken on construction and replaced atomically on
+ * {@link #refresh()}, which may be called on demand or
+ * {@linkplain #scheduleRefresh periodically}. A refresh that finds the supplied
+ * properties changed {@linkplain #markChanged() signals a change} to resolvers.
+ *
+ * <p>Entries with a non-{@code String} key or a {@code null} value are
+ * not included in the snapshot.
+ *
+ * @author Juergen Hoeller
+ * @since 6.1
+ * @see StandardEnvironment
+ */
+public class SnapshotPropertySource extends EnumerablePropertySource<Supplier<? extends Map<?, ?>>> {
+
+	private static final Log logger = LogFactory.getLog(SnapshotPropertySource.class);
+
+	/** Serializes refreshes, so that a newer snapshot is never replaced by an older one. */
+	private final Object refreshMonitor = new Object();
+
+	private volatile Snapshot snapshot;
+
+
+	/**
+	 * Create a new {@code SnapshotPropertySource} with the given name,
+	 * taking an initial snapshot of the supplied properties.
+	 * @param name the associated name
+	 * @param source the supplier of the current properties
+	 */
+	public SnapshotPropertySource(String name, Supplier<? extends Map<?, ?>> source) {
+		super(name, source);
+		this.snapshot = takeSnapshot();
+	}
+
+
+	/**
+	 * Create a {@code SnapshotPropertySource} for the JVM system properties.
+	 * @param name the associated name
+	 * @see System#getProperties()
+	 */
+	public static SnapshotPropertySource forSystemProperties(String name) {
+		return new SnapshotPropertySource(name, System::getProperties);
+	}
+
+	/**
+	 * Create a {@code SnapshotPropertySource} for the environment variables
+	 * of the current process.
+	 * <p>Note that the returned source only finds properties by their exact
+	 * variable name; see {@link SystemEnvironmentPropertySource} for lookups
+	 * of variants such as {@code FOO_BAR} for {@code foo.bar}.
+	 * @param name the associated name
+	 * @see System#getenv()
+	 */
+	public static SnapshotPropertySource forSystemEnvironment(String name) {
+		return new SnapshotPropertySource(name, System::getenv);
+	}
+
+
+	@Override
+	@Nullable
+	public Object getProperty(String name) {
+		return this.snapshot.properties().get(name);
+	}
+
+	@Override
+	public boolean containsProperty(String name) {
+		return this.snapshot.properties().containsKey(name);
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		return this.snapshot.names().clone();
+	}
+
+	/**
+	 * Take a new snapshot of the supplied properties, replacing the current
+	 * one and signalling a change if any property has been added, removed
+	 * or modified in the meantime.
+	 * <p>Concurrent refreshes are serialized, each taking its snapshot
+	 * after the previous one has been installed.
+	 * @return {@code true} if the properties have changed, {@code false} otherwise
+	 */
+	public boolean refresh() {
+		synchronized (this.refreshMonitor) {
+			Snapshot snapshot = takeSnapshot();
+			if (snapshot.properties().equals(this.snapshot.properties())) {
+				return false;
+			}
+			this.snapshot = snapshot;
+		}
+		markChanged();
+		return true;
+	}
+
+	/**
+	 * Schedule a {@link #refresh()} at the given interval on the given scheduler.
+	 * @param scheduler the scheduler to run refreshes on
+	 * @param interval the interval between refreshes
+	 * @return a handle for cancelling the scheduled refreshes
+	 */
+	public ScheduledFuture<?> scheduleRefresh(ScheduledExecutorService scheduler, Duration interval) {
+		Assert.notNull(scheduler, "ScheduledExecutorService must not be null");
+		Assert.isTrue(interval != null && !interval.isNegative() && !interval.isZero(), "Interval must be positive");
+		long nanos = interval.toNanos();
+		return scheduler.scheduleWithFixedDelay(this::refreshQuietly, nanos, nanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void refreshQuietly() {
+		try {
+			if (refresh() && logger.isDebugEnabled()) {
+				logger.debug("Refreshed properties of " + this);
+			}
+		}
+		catch (RuntimeException ex) {
+			// Keep the current snapshot and try again on the next run
+			logger.warn("Failed to refresh properties of " + this, ex);
+		}
+	}
+
+	private Snapshot takeSnapshot() {
+		Map<?, ?> source = this.source.get();
+		Assert.state(source != null, "Property supplier returned null");
+		if (source instanceof Properties properties) {
+			// Copied under the lock of the Properties object, for a consistent snapshot
+			source = (Map<?, ?>) properties.clone();
+		}
+		Map<String, Object> properties = new HashMap<>((int) (source.size() / 0.75f) + 1);
+		source.forEach((key, value) -> {
+			if (key instanceof String name && value != null) {
+				properties.put(name, value);
+			}
+		});
+		return new Snapshot(Map.copyOf(properties), StringUtils.toStringArray(properties.keySet()));
+	}
+
+
+	/**
+	 * An immutable copy of the supplied properties, with their names.
+	 */
+	private record Snapshot(Map<String, Object> properties, String[] names) {
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+/**
+ * {@link Environment} implementation suitable for use in 'standard' (i.e. non-web)
+ * applications.
+ *
+ * <p>In addition to the usual functions of a {@link ConfigurableEnvironment} such as
+ * property resolution and profile-related operations, this implementation configures two
+ * default property sources, to be searched in the following order:
+ * <ul>
+ * <li>{@linkplain AbstractEnvironment#getSystemProperties() system properties}
+ * <li>{@linkplain AbstractEnvironment#getSystemEnvironment() system environment variables}
+ * </ul>
+ *
+ * That is, if the key "xyz" is present both in the JVM system properties as well as in
+ * the set of environment variables for the current process, the value of key "xyz" from
+ * system properties will return from a call to {@code environment.getProperty("xyz")}.
+ * This ordering is chosen by default because system properties are per-JVM, while
+ * environment variables may be the same across many JVMs on a given system. Giving
+ * system properties precedence allows for overriding of environment variables on a
+ * per-JVM basis.
+ *
+ * <p>These default property sources may be removed, reordered, or replaced; and
+ * additional property sources may be added using the {@link MutablePropertySources}
+ * instance available from {@link #getPropertySources()}.
+ *
+ * <p>System properties are served from an immutable
+ * {@linkplain SnapshotPropertySource snapshot}, so that concurrent lookups never
+ * contend on the underlying {@link java.util.Properties}: a system property set
+ * afterwards becomes visible once the system properties source is
+ * {@linkplain SnapshotPropertySource#refresh() refreshed}. Environment variables
+ * are fixed for the lifetime of the JVM and are read as-is.
+ *
+ * @author Chris Beams
+ * @author Phillip Webb
+ * @since 3.1
+ * @see ConfigurableEnvironment
+ * @see SnapshotPropertySource
+ * @see SystemEnvironmentPropertySource
+ */
+public class StandardEnvironment extends AbstractEnvironment {
+
+	/** System environment property source name: {@value}. */
+	public static final String SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME = "systemEnvironment";
+
+	/** JVM system properties property source name: {@value}. */
+	public static final String SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME = "systemProperties";
+
+
+	/**
+	 * Create a new {@code StandardEnvironment} instance with a default
+	 * {@link MutablePropertySources} instance.
+	 */
+	public StandardEnvironment() {
+	}
+
+	/**
+	 * Create a new {@code StandardEnvironment} instance with a specific
+	 * {@link MutablePropertySources} instance.
+	 * @param propertySources property sources to use
+	 */
+	protected StandardEnvironment(MutablePropertySources propertySources) {
+		super(propertySources);
+	}
+
+
+	/**
+	 * Customize the set of property sources with those appropriate for any standard
+	 * Java environment:
+	 * <ul>
+	 * <li>{@value #SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME}
+	 * <li>{@value #SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME}
+	 * </ul>
+	 * <p>Properties present in {@value #SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME} will
+	 * take precedence over those in {@value #SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME}.
+	 * @see AbstractEnvironment#customizePropertySources(MutablePropertySources)
+	 * @see #getSystemProperties()
+	 * @see #getSystemEnvironment()
+	 */
+	@Override
+	protected void customizePropertySources(MutablePropertySources propertySources) {
+		propertySources.addLast(
+				new SnapshotPropertySource(SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME, this::getSystemProperties));
+		propertySources.addLast(
+				new SystemEnvironmentPropertySource(SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME, getSystemEnvironment()));
+	}
+
+}
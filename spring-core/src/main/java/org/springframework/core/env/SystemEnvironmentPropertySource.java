@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Specialization of {@link MapPropertySource} designed for use with
+ * {@linkplain AbstractEnvironment#getSystemEnvironment() system environment variables}.
+ * Compensates for constraints in Bash and other shells that do not allow for variables
+ * containing the period character and/or hyphen character; also allows for uppercase
+ * variations on property names for more idiomatic shell use.
+ *
+ * <p>For example, a call to {@code getProperty("foo.bar")} will attempt to find a value
+ * for the original property or any 'equivalent' property, returning the first found:
+ * <ul>
+ * <li>{@code foo.bar} - the original name</li>
+ * <li>{@code foo_bar} - with underscores for periods (if any)</li>
+ * <li>{@code FOO.BAR} - original, with upper case</li>
+ * <li>{@code FOO_BAR} - with underscores and upper case</li>
+ * </ul>
+ * Any hyphen variant of the above would work as well, or even mix dot/hyphen variants.
+ *
+ * <p>Since a property may thus be found under a name that is not among its
+ * {@linkplain #getPropertyNames() property names}, resolvers do not flatten
+ * this source into their snapshot upfront but look up each name on first use.
+ *
+ * @author Chris Beams
+ * @author Juergen Hoeller
+ * @since 3.1
+ * @see StandardEnvironment
+ * @see AbstractEnvironment#getSystemEnvironment()
+ */
+public class SystemEnvironmentPropertySource extends MapPropertySource {
+
+	/**
+	 * Create a new {@code SystemEnvironmentPropertySource} with the given name and
+	 * delegating to the given {@code MapPropertySource}.
+	 */
+	public SystemEnvironmentPropertySource(String name, Map<String, Object> source) {
+		super(name, source);
+	}
+
+
+	/**
+	 * Return {@code true} if a property with the given name or any underscore/uppercase variant
+	 * thereof exists in this property source.
+	 */
+	@Override
+	public boolean containsProperty(String name) {
+		return (getProperty(name) != null);
+	}
+
+	/**
+	 * This implementation returns the value of a property with the given name or
+	 * any underscore/uppercase variant thereof, or {@code null} if none exists.
+	 */
+	@Override
+	@Nullable
+	public Object getProperty(String name) {
+		String actualName = resolvePropertyName(name);
+		return super.getProperty(actualName);
+	}
+
+	/**
+	 * Check to see if this property source contains a property with the given name, or
+	 * any underscore / uppercase variation thereof. Return the resolved name if one is
+	 * found or otherwise the original name. Never returns {@code null}.
+	 */
+	protected final String resolvePropertyName(String name) {
+		String resolvedName = checkPropertyName(name);
+		if (resolvedName != null) {
+			return resolvedName;
+		}
+		String uppercasedName = name.toUpperCase();
+		if (!name.equals(uppercasedName)) {
+			resolvedName = checkPropertyName(uppercasedName);
+			if (resolvedName != null) {
+				return resolvedName;
+			}
+		}
+		return name;
+	}
+
+	@Nullable
+	private String checkPropertyName(String name) {
+		// Check name as-is
+		if (this.source.containsKey(name)) {
+			return name;
+		}
+		// Check name with just dots replaced
+		String noDotName = name.replace('.', '_');
+		if (!name.equals(noDotName) && this.source.containsKey(noDotName)) {
+			return noDotName;
+		}
+		// Check name with just hyphens replaced
+		String noHyphenName = name.replace('-', '_');
+		if (!name.equals(noHyphenName) && this.source.containsKey(noHyphenName)) {
+			return noHyphenName;
+		}
+		// Check name with dots and hyphens replaced
+		String noDotNoHyphenName = noDotName.replace('-', '_');
+		if (!noDotName.equals(noDotNoHyphenName) && this.source.containsKey(noDotNoHyphenName)) {
+			return noDotNoHyphenName;
+		}
+		// Give up
+		return null;
+	}
+
+}
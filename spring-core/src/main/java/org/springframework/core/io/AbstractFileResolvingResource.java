@@ -0,0 +1,251 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io;
+
+import org.springframework.util.JarFileCache;
+import org.springframework.util.ResourceUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.jar.JarEntry;
+
+/**
+ * Abstract base class for resources which resolve URLs into File references,
+ * such as {@link UrlResource} or {@link ClassPathResource}.
+ *
+ * <p>Detects the "file" protocol for URLs and answers existence, length and
+ * last-modified checks from the file system in that case. Entries of jar files
+ * in the file system are read and checked through the shared
+ * {@link JarFileCache}, reusing open jar files; other URLs are checked through
+ * their {@link URLConnection}.
+ *
+ * @author Juergen Hoeller
+ * @since 3.0
+ */
+public abstract class AbstractFileResolvingResource extends AbstractResource {
+
+	@Override
+	public boolean exists() {
+		try {
+			URL url = getURL();
+			if (ResourceUtils.isFileURL(url)) {
+				// Proceed with file system resolution
+				return getFile().exists();
+			}
+			else if (JarFileCache.getSharedInstance().supports(url)) {
+				return JarFileCache.getSharedInstance().exists(url);
+			}
+			else {
+				// Try a URL connection content-length header
+				URLConnection con = url.openConnection();
+				customizeConnection(con);
+				HttpURLConnection httpCon = (con instanceof HttpURLConnection huc ? huc : null);
+				if (httpCon != null) {
+					int code = httpCon.getResponseCode();
+					if (code == HttpURLConnection.HTTP_OK) {
+						return true;
+					}
+					else if (code == HttpURLConnection.HTTP_NOT_FOUND) {
+						return false;
+					}
+				}
+				if (con.getContentLengthLong() > 0) {
+					return true;
+				}
+				if (httpCon != null) {
+					// No HTTP OK status, and no content-length header: give up
+					httpCon.disconnect();
+					return false;
+				}
+				else {
+					// Fall back to stream existence: can we open the stream?
+					getInputStream().close();
+					return true;
+				}
+			}
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean isReadable() {
+		try {
+			URL url = getURL();
+			if (ResourceUtils.isFileURL(url)) {
+				// Proceed with file system resolution
+				File file = getFile();
+				return (file.canRead() && !file.isDirectory());
+			}
+			return exists();
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean isFile() {
+		try {
+			return ResourceUtils.isFileURL(getURL());
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * This implementation returns a File reference for the underlying class path
+	 * resource, provided that it refers to a file in the file system.
+	 * @see org.springframework.util.ResourceUtils#getFile(java.net.URL, String)
+	 */
+	@Override
+	public File getFile() throws IOException {
+		return ResourceUtils.getFile(getURL(), getDescription());
+	}
+
+	/**
+	 * This implementation returns a FileChannel for the given URI-identified
+	 * resource, provided that it refers to a file in the file system.
+	 */
+	@Override
+	public ReadableByteChannel readableChannel() throws IOException {
+		if (!isFile()) {
+			return super.readableChannel();
+		}
+		try {
+			return FileChannel.open(getFile().toPath(), StandardOpenOption.READ);
+		}
+		catch (NoSuchFileException ex) {
+			throw new FileNotFoundException(ex.getMessage());
+		}
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		URL url = getURL();
+		if (ResourceUtils.isFileURL(url)) {
+			// Proceed with file system resolution
+			File file = getFile();
+			long length = file.length();
+			if (length == 0L && !file.exists()) {
+				throw new FileNotFoundException(getDescription() +
+						" cannot be resolved in the file system for checking its content length");
+			}
+			return length;
+		}
+		else if (JarFileCache.getSharedInstance().supports(url)) {
+			return getJarEntry(url).getSize();
+		}
+		else {
+			// Try a URL connection content-length header
+			URLConnection con = url.openConnection();
+			customizeConnection(con);
+			return con.getContentLengthLong();
+		}
+	}
+
+	@Override
+	public long lastModified() throws IOException {
+		URL url = getURL();
+		if (ResourceUtils.isFileURL(url)) {
+			// Proceed with file system resolution
+			try {
+				return super.lastModified();
+			}
+			catch (FileNotFoundException ex) {
+				// Defensively fall back to URL connection check instead
+			}
+		}
+		else if (JarFileCache.getSharedInstance().supports(url)) {
+			// Same as a JarURLConnection: the jar file's timestamp
+			getJarEntry(url);
+			return ResourceUtils.getFile(ResourceUtils.extractJarFileURL(url)).lastModified();
+		}
+		// Try a URL connection last-modified header
+		URLConnection con = url.openConnection();
+		customizeConnection(con);
+		long lastModified = con.getLastModified();
+		if (lastModified == 0 && con.getContentLengthLong() <= 0) {
+			throw new FileNotFoundException(getDescription() +
+					" cannot be resolved in the file system for checking its last-modified timestamp");
+		}
+		return lastModified;
+	}
+
+	/**
+	 * Open an {@link InputStream} for the given URL.
+	 * <p>Entries of jar files in the file system are read through the shared
+	 * {@link JarFileCache}; other URLs through their {@link URLConnection}.
+	 * @param url the URL to open
+	 * @return the content stream
+	 * @throws IOException if the stream could not be opened
+	 * @see JarFileCache#getInputStream(URL)
+	 * @see ResourceUtils#useCachesIfNecessary(URLConnection)
+	 */
+	protected InputStream openStream(URL url) throws IOException {
+		if (JarFileCache.getSharedInstance().supports(url)) {
+			return JarFileCache.getSharedInstance().getInputStream(url);
+		}
+		URLConnection con = url.openConnection();
+		ResourceUtils.useCachesIfNecessary(con);
+		try {
+			return con.getInputStream();
+		}
+		catch (IOException ex) {
+			// Close the HTTP connection (if applicable).
+			if (con instanceof HttpURLConnection httpCon) {
+				httpCon.disconnect();
+			}
+			throw ex;
+		}
+	}
+
+	private JarEntry getJarEntry(URL url) throws IOException {
+		JarEntry entry = JarFileCache.getSharedInstance().getJarEntry(url);
+		if (entry == null) {
+			throw new FileNotFoundException(getDescription() + " cannot be resolved in its jar file");
+		}
+		return entry;
+	}
+
+	/**
+	 * Customize the given {@link URLConnection} before checking the resource's
+	 * existence, content length or last-modified timestamp.
+	 * <p>Calls {@link ResourceUtils#useCachesIfNecessary(URLConnection)} and
+	 * switches HTTP connections to {@code HEAD} requests for metadata checks.
+	 * @param con the URLConnection to customize
+	 * @throws IOException if thrown from URLConnection methods
+	 */
+	protected void customizeConnection(URLConnection con) throws IOException {
+		ResourceUtils.useCachesIfNecessary(con);
+		if (con instanceof HttpURLConnection httpCon) {
+			httpCon.setRequestMethod("HEAD");
+		}
+	}
+
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+
+/**
+ * {@link Resource} implementation for class path resources. Uses either a
+ * given {@link ClassLoader} or a given {@link Class} for loading resources.
+ *
+ * <p>Supports resolution as {@code java.io.File} if the class path
+ * resource resides in the file system, but not for resources in a JAR.
+ * Always supports resolution as {@code java.net.URL}.
+ *
+ * <p>The class loader lookup is performed once and its outcome is cached
+ * in this handle: a resource found in the file system is looked up again
+ * once its last-modified timestamp changes (e.g. when it gets deleted),
+ * a resource found in a JAR is assumed to stay in place, and a resource
+ * that could not be found is looked up again after
+ * {@link #NOT_FOUND_RECHECK_MILLIS}. Reusing a handle (as
+ * {@link DefaultResourceLoader} does per location) therefore avoids
+ * repeated class path scans.
+ *
+ * @author Juergen Hoeller
+ * @author Sam Brannen
+ * @since 28.12.2003
+ * @see ClassLoader#getResourceAsStream(String)
+ * @see ClassLoader#getResource(String)
+ * @see Class#getResourceAsStream(String)
+ * @see Class#getResource(String)
+ */
+public class ClassPathResource extends AbstractFileResolvingResource {
+
+	/**
+	 * Interval after which a resource that could not be found gets
+	 * looked up in the class loader again: {@value} milliseconds.
+	 */
+	public static final long NOT_FOUND_RECHECK_MILLIS = 1000;
+
+
+	/**
+	 * Internal representation of the original path supplied by the user,
+	 * used for creating relative paths and resolving URLs and InputStreams.
+	 */
+	private final String path;
+
+	private final String absolutePath;
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	@Nullable
+	private final Class<?> clazz;
+
+	@Nullable
+	private volatile Resolution resolution;
+
+
+	/**
+	 * Create a new {@code ClassPathResource} for {@code ClassLoader} usage.
+	 * <p>A leading slash will be removed, as the {@code ClassLoader} resource
+	 * access methods will not accept it.
+	 * <p>The default class loader will be used for loading the resource.
+	 * @param path the absolute path within the class path
+	 * @see ClassUtils#getDefaultClassLoader()
+	 */
+	public ClassPathResource(String path) {
+		this(path, (ClassLoader) null);
+	}
+
+	/**
+	 * Create a new {@code ClassPathResource} for {@code ClassLoader} usage.
+	 * <p>A leading slash will be removed, as the {@code ClassLoader} resource
+	 * access methods will not accept it.
+	 * @param path the absolute path within the class path
+	 * @param classLoader the class loader to load the resource with,
+	 * or {@code null} for the thread context class loader
+	 * @see ClassLoader#getResourceAsStream(String)
+	 */
+	public ClassPathResource(String path, @Nullable ClassLoader classLoader) {
+		Assert.notNull(path, "Path must not be null");
+		String pathToUse = StringUtils.cleanPath(path);
+		if (pathToUse.startsWith("/")) {
+			pathToUse = pathToUse.substring(1);
+		}
+		this.path = pathToUse;
+		this.absolutePath = pathToUse;
+		this.classLoader = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		this.clazz = null;
+	}
+
+	/**
+	 * Create a new {@code ClassPathResource} for {@code Class} usage.
+	 * <p>The path can be relative to the given class, or absolute within
+	 * the class path via a leading slash.
+	 * @param path relative or absolute path within the class path
+	 * @param clazz the class to load resources with
+	 * @see java.lang.Class#getResourceAsStream
+	 */
+	public ClassPathResource(String path, @Nullable Class<?> clazz) {
+		Assert.notNull(path, "Path must not be null");
+		this.path = StringUtils.cleanPath(path);
+
+		String absolutePath = this.path;
+		if (clazz != null && !absolutePath.startsWith("/")) {
+			absolutePath = ClassUtils.classPackageAsResourcePath(clazz) + "/" + absolutePath;
+		}
+		else if (absolutePath.startsWith("/")) {
+			absolutePath = absolutePath.substring(1);
+		}
+		this.absolutePath = absolutePath;
+
+		this.classLoader = null;
+		this.clazz = clazz;
+	}
+
+
+	/**
+	 * Return the <em>absolute path</em> for this resource, as a
+	 * {@linkplain StringUtils#cleanPath(String) cleaned} resource path within
+	 * the class path.
+	 * <p>The path returned by this method does not have a leading slash.
+	 */
+	public final String getPath() {
+		return this.absolutePath;
+	}
+
+	/**
+	 * Return the {@link ClassLoader} that this resource will be obtained from.
+	 */
+	@Nullable
+	public final ClassLoader getClassLoader() {
+		return (this.clazz != null ? this.clazz.getClassLoader() : this.classLoader);
+	}
+
+
+	/**
+	 * This implementation checks for the resolution of a resource URL.
+	 * @see ClassLoader#getResource(String)
+	 * @see Class#getResource(String)
+	 */
+	@Override
+	public boolean exists() {
+		return (resolve().url != null);
+	}
+
+	/**
+	 * This implementation checks for the resolution of a resource URL upfront,
+	 * then proceeding with {@link AbstractFileResolvingResource}'s length check.
+	 */
+	@Override
+	public boolean isReadable() {
+		Resolution resolution = resolve();
+		if (resolution.url == null) {
+			return false;
+		}
+		if (resolution.file != null) {
+			return (resolution.file.canRead() && !resolution.file.isDirectory());
+		}
+		return super.isReadable();
+	}
+
+	@Override
+	public boolean isFile() {
+		return (resolve().file != null);
+	}
+
+	/**
+	 * This implementation opens an InputStream for the underlying class path
+	 * resource, if available.
+	 * @see ClassLoader#getResourceAsStream(String)
+	 * @see Class#getResourceAsStream(String)
+	 */
+	@Override
+	public InputStream getInputStream() throws IOException {
+		Resolution resolution = resolve();
+		if (resolution.file != null) {
+			try {
+				return Files.newInputStream(resolution.file.toPath());
+			}
+			catch (NoSuchFileException ex) {
+				this.resolution = null;
+				throw new FileNotFoundException(getDescription() + " cannot be opened because it does not exist");
+			}
+		}
+		InputStream is = (resolution.url != null ? openClassLoaderStream() : null);
+		if (is == null) {
+			throw new FileNotFoundException(getDescription() + " cannot be opened because it does not exist");
+		}
+		return is;
+	}
+
+	/**
+	 * This implementation returns a URL for the underlying class path resource,
+	 * if available.
+	 * @see ClassLoader#getResource(String)
+	 * @see Class#getResource(String)
+	 */
+	@Override
+	public URL getURL() throws IOException {
+		URL url = resolve().url;
+		if (url == null) {
+			throw new FileNotFoundException(getDescription() + " cannot be resolved to URL because it does not exist");
+		}
+		return url;
+	}
+
+	/**
+	 * This implementation returns the cached File reference for a class path
+	 * resource in the file system.
+	 */
+	@Override
+	public File getFile() throws IOException {
+		File file = resolve().file;
+		return (file != null ? file : super.getFile());
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		Resolution resolution = resolve();
+		if (resolution.file != null && resolution.lastModified != 0) {
+			return resolution.file.length();
+		}
+		return super.contentLength();
+	}
+
+	@Override
+	public long lastModified() throws IOException {
+		Resolution resolution = resolve();
+		if (resolution.file != null && resolution.lastModified != 0) {
+			return resolution.lastModified;
+		}
+		return super.lastModified();
+	}
+
+	/**
+	 * This implementation creates a ClassPathResource, applying the given path
+	 * relative to the path used to create this descriptor.
+	 * @see StringUtils#applyRelativePath(String, String)
+	 */
+	@Override
+	public Resource createRelative(String relativePath) {
+		String pathToUse = StringUtils.applyRelativePath(this.path, relativePath);
+		return (this.clazz != null ? new ClassPathResource(pathToUse, this.clazz) :
+				new ClassPathResource(pathToUse, this.classLoader));
+	}
+
+	/**
+	 * This implementation returns the name of the file that this class path
+	 * resource refers to.
+	 * @see StringUtils#getFilename(String)
+	 */
+	@Override
+	@Nullable
+	public String getFilename() {
+		return StringUtils.getFilename(this.absolutePath);
+	}
+
+	/**
+	 * This implementation returns a description that includes
+	 * the absolute class path location.
+	 */
+	@Override
+	public String getDescription() {
+		return "class path resource [" + this.absolutePath + "]";
+	}
+
+
+	/**
+	 * Resolve a URL for the underlying class path resource.
+	 * @return the resolved URL, or {@code null} if not resolvable
+	 */
+	@Nullable
+	protected URL resolveURL() {
+		try {
+			if (this.clazz != null) {
+				return this.clazz.getResource(this.path);
+			}
+			else if (this.classLoader != null) {
+				return this.classLoader.getResource(this.absolutePath);
+			}
+			else {
+				return ClassLoader.getSystemResource(this.absolutePath);
+			}
+		}
+		catch (IllegalArgumentException ex) {
+			// Should not happen according to the JDK's contract:
+			// see https://github.com/openjdk/jdk/pull/2662
+			return null;
+		}
+	}
+
+	@Nullable
+	private InputStream openClassLoaderStream() {
+		if (this.clazz != null) {
+			return this.clazz.getResourceAsStream(this.path);
+		}
+		else if (this.classLoader != null) {
+			return this.classLoader.getResourceAsStream(this.absolutePath);
+		}
+		else {
+			return ClassLoader.getSystemResourceAsStream(this.absolutePath);
+		}
+	}
+
+	/**
+	 * Return the cached resolution outcome, resolving the URL again
+	 * if the cached outcome is no longer valid.
+	 */
+	private Resolution resolve() {
+		Resolution resolution = this.resolution;
+		if (resolution == null || !resolution.isValid()) {
+			resolution = Resolution.of(resolveURL());
+			this.resolution = resolution;
+		}
+		return resolution;
+	}
+
+
+	/**
+	 * This implementation compares the underlying class path locations and
+	 * associated class and/or class loader.
+	 */
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof ClassPathResource that &&
+				this.absolutePath.equals(that.absolutePath) &&
+				ObjectUtils.nullSafeEquals(getClassLoader(), that.getClassLoader())));
+	}
+
+	/**
+	 * This implementation returns the hash code of the underlying
+	 * class path location.
+	 */
+	@Override
+	public int hashCode() {
+		return this.absolutePath.hashCode();
+	}
+
+
+	/**
+	 * Outcome of a class loader lookup: the resource URL (or {@code null} if
+	 * not found) plus the data needed to decide whether it is still valid.
+	 */
+	private static final class Resolution {
+
+		@Nullable
+		final URL url;
+
+		/** The resource file, if the URL points into the file system. */
+		@Nullable
+		final File file;
+
+		/** The file's last-modified timestamp at resolution time. */
+		final long lastModified;
+
+		final long resolvedAt;
+
+		private Resolution(@Nullable URL url, @Nullable File file, long lastModified) {
+			this.url = url;
+			this.file = file;
+			this.lastModified = lastModified;
+			this.resolvedAt = System.currentTimeMillis();
+		}
+
+		static Resolution of(@Nullable URL url) {
+			if (url != null && ResourceUtils.isFileURL(url)) {
+				try {
+					File file = ResourceUtils.getFile(url);
+					return new Resolution(url, file, file.lastModified());
+				}
+				catch (FileNotFoundException ex) {
+					// Not resolvable to a File: treat like any other URL
+				}
+			}
+			return new Resolution(url, null, 0);
+		}
+
+		boolean isValid() {
+			if (this.url == null) {
+				return (System.currentTimeMillis() - this.resolvedAt < NOT_FOUND_RECHECK_MILLIS);
+			}
+			if (this.file != null) {
+				return (this.file.lastModified() == this.lastModified);
+			}
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * {@link Resource} decorator that serves the content of a small resource from
+ * a {@link ResourceContentCache}.
+ *
+ * <p>{@link #getInputStream()} and {@link #readableChannel()} read from a
+ * read-only view of the cached content, so repeated reads of the same
+ * resource perform no I/O as long as the cached entry is valid. Resources
+ * that cannot be cached (see {@link ResourceContentCache#getContent}) are
+ * read from the underlying resource. All other methods delegate to the
+ * underlying resource.
+ *
+ * @since 6.1
+ * @see DefaultResourceLoader#setContentCache
+ */
+public class ContentCachingResource extends AbstractResource {
+
+	private final Resource delegate;
+
+	private final ResourceContentCache contentCache;
+
+	/** The delegate's URI, resolved once as cache key. */
+	@Nullable
+	private volatile URI cacheKey;
+
+	/**
+	 * Until when the delegate is known to have no URI, i.e. not to be cacheable:
+	 * a missing resource may appear later, as with {@link ClassPathResource}.
+	 */
+	private volatile long uncacheableUntil;
+
+
+	/**
+	 * Create a new {@code ContentCachingResource}.
+	 * @param delegate the resource to cache the content of
+	 * @param contentCache the cache to keep the content in
+	 */
+	public ContentCachingResource(Resource delegate, ResourceContentCache contentCache) {
+		Assert.notNull(delegate, "Delegate Resource must not be null");
+		Assert.notNull(contentCache, "ResourceContentCache must not be null");
+		this.delegate = delegate;
+		this.contentCache = contentCache;
+	}
+
+
+	/**
+	 * Return the underlying resource.
+	 */
+	public final Resource getDelegate() {
+		return this.delegate;
+	}
+
+	/**
+	 * Return the content of this resource as a read-only {@link ByteBuffer}
+	 * view of the cached content.
+	 * @return a read-only view of the content, or {@code null} if the
+	 * resource cannot be cached (rechecked after
+	 * {@link ClassPathResource#NOT_FOUND_RECHECK_MILLIS})
+	 * @throws IOException if the content cannot be read
+	 * @see ResourceContentCache#getContent(Resource)
+	 */
+	@Nullable
+	public ByteBuffer getContentAsByteBuffer() throws IOException {
+		URI uri = this.cacheKey;
+		if (uri == null) {
+			long uncacheableUntil = this.uncacheableUntil;
+			if (uncacheableUntil != 0 && System.currentTimeMillis() < uncacheableUntil) {
+				return null;
+			}
+			try {
+				uri = this.delegate.getURI();
+			}
+			catch (IOException ex) {
+				this.uncacheableUntil = System.currentTimeMillis() + ClassPathResource.NOT_FOUND_RECHECK_MILLIS;
+				return null;
+			}
+			this.cacheKey = uri;
+		}
+		return this.contentCache.getContent(uri, this.delegate);
+	}
+
+	/**
+	 * This implementation returns a stream over the cached content,
+	 * or the stream of the underlying resource if it cannot be cached.
+	 */
+	@Override
+	public InputStream getInputStream() throws IOException {
+		ByteBuffer content = getContentAsByteBuffer();
+		return (content != null ? new ByteBufferInputStream(content) : this.delegate.getInputStream());
+	}
+
+	/**
+	 * This implementation returns a {@link SeekableByteChannel} over the
+	 * cached content, or the channel of the underlying resource if it
+	 * cannot be cached.
+	 */
+	@Override
+	public ReadableByteChannel readableChannel() throws IOException {
+		ByteBuffer content = getContentAsByteBuffer();
+		return (content != null ? new ByteBufferChannel(content) : this.delegate.readableChannel());
+	}
+
+	@Override
+	public boolean exists() {
+		return this.delegate.exists();
+	}
+
+	@Override
+	public boolean isReadable() {
+		return this.delegate.isReadable();
+	}
+
+	@Override
+	public boolean isFile() {
+		return this.delegate.isFile();
+	}
+
+	@Override
+	public URL getURL() throws IOException {
+		return this.delegate.getURL();
+	}
+
+	@Override
+	public URI getURI() throws IOException {
+		return this.delegate.getURI();
+	}
+
+	@Override
+	public File getFile() throws IOException {
+		return this.delegate.getFile();
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		return this.delegate.contentLength();
+	}
+
+	@Override
+	public long lastModified() throws IOException {
+		return this.delegate.lastModified();
+	}
+
+	/**
+	 * This implementation decorates the relative resource of the underlying
+	 * resource, sharing this resource's cache.
+	 */
+	@Override
+	public Resource createRelative(String relativePath) throws IOException {
+		return new ContentCachingResource(this.delegate.createRelative(relativePath), this.contentCache);
+	}
+
+	@Override
+	@Nullable
+	public String getFilename() {
+		return this.delegate.getFilename();
+	}
+
+	@Override
+	public String getDescription() {
+		return this.delegate.getDescription();
+	}
+
+
+	/**
+	 * This implementation compares the underlying resources.
+	 */
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof ContentCachingResource that &&
+				this.delegate.equals(that.delegate)));
+	}
+
+	/**
+	 * This implementation returns the hash code of the underlying resource.
+	 */
+	@Override
+	public int hashCode() {
+		return this.delegate.hashCode();
+	}
+
+
+	/**
+	 * {@link InputStream} over a view of cached content.
+	 */
+	private static final class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer content;
+
+		ByteBufferInputStream(ByteBuffer content) {
+			this.content = content;
+		}
+
+		@Override
+		public int read() {
+			return (this.content.hasRemaining() ? this.content.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!this.content.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(len, this.content.remaining());
+			this.content.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public long skip(long n) {
+			int count = (int) Math.max(0, Math.min(n, this.content.remaining()));
+			this.content.position(this.content.position() + count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return this.content.remaining();
+		}
+	}
+
+
+	/**
+	 * Read-only {@link SeekableByteChannel} over a view of cached content.
+	 */
+	private static final class ByteBufferChannel implements SeekableByteChannel {
+
+		private final ByteBuffer content;
+
+		private volatile boolean open = true;
+
+		ByteBufferChannel(ByteBuffer content) {
+			this.content = content;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			ensureOpen();
+			if (!this.content.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(dst.remaining(), this.content.remaining());
+			int position = this.content.position();
+			dst.put(dst.position(), this.content, position, count);
+			dst.position(dst.position() + count);
+			this.content.position(position + count);
+			return count;
+		}
+
+		@Override
+		public int write(ByteBuffer src) {
+			throw new NonWritableChannelException();
+		}
+
+		@Override
+		public long position() throws IOException {
+			ensureOpen();
+			return this.content.position();
+		}
+
+		@Override
+		public SeekableByteChannel position(long newPosition) throws IOException {
+			ensureOpen();
+			Assert.isTrue(newPosition >= 0, "Position must not be negative");
+			this.content.position((int) Math.min(newPosition, this.content.limit()));
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			ensureOpen();
+			return this.content.limit();
+		}
+
+		@Override
+		public SeekableByteChannel truncate(long size) {
+			throw new NonWritableChannelException();
+		}
+
+		@Override
+		public boolean isOpen() {
+			return this.open;
+		}
+
+		@Override
+		public void close() {
+			this.open = false;
+		}
+
+		private void ensureOpen() throws ClosedChannelException {
+			if (!this.open) {
+				throw new ClosedChannelException();
+			}
+		}
+	}
+
+}
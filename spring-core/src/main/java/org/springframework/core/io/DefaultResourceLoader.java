@@ -1,4 +1,202 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
 package org.springframework.core.io;
 
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ResourceUtils;
+
+import java.net.MalformedURLException;
+import java.util.Map;
+
+/**
+ * Default implementation of the {@link ResourceLoader} interface.
+ * Used by resource editors, and serves as base class for
+ * {@link org.springframework.context.support.AbstractApplicationContext}.
+ * Can also be used standalone.
+ *
+ * <p>Will return a {@link UrlResource} if the location value is a URL,
+ * and a {@link ClassPathResource} if it is a non-URL path or a
+ * "classpath:" pseudo-URL.
+ *
+ * <p>Resource handles are cached per location, so repeated lookups of the
+ * same location return the same handle. Since {@link ClassPathResource}
+ * caches the outcome of its class loader lookup, including a "does not
+ * exist" outcome for a limited time, repeated existence checks and URL
+ * resolution do not go back to the class loader as long as the underlying
+ * resource is unchanged. The cache holds soft references and can be
+ * cleared through {@link #clearResourceCache()}.
+ *
+ * <p>With a {@link #setContentCache ResourceContentCache} set, returned
+ * handles are {@link ContentCachingResource} decorators, serving the content
+ * of small resources from memory.
+ *
+ * @author Juergen Hoeller
+ * @since 10.03.2004
+ * @see ClassPathResource#NOT_FOUND_RECHECK_MILLIS
+ * @see #setContentCache
+ */
 public class DefaultResourceLoader implements ResourceLoader {
+
+	@Nullable
+	private ClassLoader classLoader;
+
+	private final Map<String, Resource> resourceCache = new ConcurrentReferenceHashMap<>(256);
+
+	@Nullable
+	private ResourceContentCache contentCache;
+
+
+	/**
+	 * Create a new DefaultResourceLoader.
+	 * <p>ClassLoader access will happen using the thread context class loader
+	 * at the time of actual resource access (since 5.3). For more control, pass
+	 * a specific ClassLoader to {@link #DefaultResourceLoader(ClassLoader)}.
+	 * @see java.lang.Thread#getContextClassLoader()
+	 */
+	public DefaultResourceLoader() {
+	}
+
+	/**
+	 * Create a new DefaultResourceLoader.
+	 * @param classLoader the ClassLoader to load class path resources with, or {@code null}
+	 * for using the thread context class loader at the time of actual resource access
+	 */
+	public DefaultResourceLoader(@Nullable ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+
+	/**
+	 * Specify the ClassLoader to load class path resources with, or {@code null}
+	 * for using the thread context class loader at the time of actual resource access.
+	 * <p>The default is that ClassLoader access will happen using the thread context
+	 * class loader at the time of actual resource access (since 5.3).
+	 * <p>Clears the resource cache, since cached class path resources are bound
+	 * to the previous ClassLoader.
+	 */
+	public void setClassLoader(@Nullable ClassLoader classLoader) {
+		this.classLoader = classLoader;
+		clearResourceCache();
+	}
+
+	/**
+	 * Return the ClassLoader to load class path resources with.
+	 * <p>Will get passed to ClassPathResource's constructor for all
+	 * ClassPathResource objects created by this resource loader.
+	 * @see ClassPathResource
+	 */
+	@Override
+	@Nullable
+	public ClassLoader getClassLoader() {
+		return (this.classLoader != null ? this.classLoader : ClassUtils.getDefaultClassLoader());
+	}
+
+	/**
+	 * Specify a cache for the content of small resources, or {@code null}
+	 * for reading every resource from its source (the default).
+	 * <p>Resources returned by {@link #getResource} are then decorated as
+	 * {@link ContentCachingResource}, so that repeated reads of the same
+	 * resource are served from memory as long as it is unchanged.
+	 * <p>Clears the resource cache, since cached handles are bound to the
+	 * previous content cache.
+	 * @see ResourceContentCache
+	 */
+	public void setContentCache(@Nullable ResourceContentCache contentCache) {
+		this.contentCache = contentCache;
+		clearResourceCache();
+	}
+
+	/**
+	 * Return the cache for the content of small resources, if any.
+	 */
+	@Nullable
+	public ResourceContentCache getContentCache() {
+		return this.contentCache;
+	}
+
+	/**
+	 * Clear all resource handles cached in this resource loader,
+	 * forcing the next lookup of each location to create a new handle.
+	 */
+	public void clearResourceCache() {
+		this.resourceCache.clear();
+	}
+
+
+	@Override
+	public Resource getResource(String location) {
+		Assert.notNull(location, "Location must not be null");
+		ClassLoader classLoader = getClassLoader();
+		ResourceContentCache contentCache = this.contentCache;
+		Resource resource = this.resourceCache.get(location);
+		Resource target = (resource instanceof ContentCachingResource ccr ? ccr.getDelegate() : resource);
+		if (target instanceof ClassPathResource cpr && cpr.getClassLoader() != classLoader) {
+			// Thread context class loader changed since the handle was created
+			resource = null;
+		}
+		if (resource == null) {
+			resource = resolveResource(location, classLoader);
+			if (contentCache != null) {
+				resource = new ContentCachingResource(resource, contentCache);
+			}
+			this.resourceCache.put(location, resource);
+		}
+		return resource;
+	}
+
+	/**
+	 * Create a new resource handle for the given location.
+	 * @param location the resource location
+	 * @param classLoader the ClassLoader for class path resources
+	 * @return the corresponding resource handle
+	 */
+	private Resource resolveResource(String location, @Nullable ClassLoader classLoader) {
+		if (location.startsWith("/")) {
+			return getResourceByPath(location);
+		}
+		else if (location.startsWith(CLASSPATH_URL_PREFIX)) {
+			return new ClassPathResource(location.substring(CLASSPATH_URL_PREFIX.length()), classLoader);
+		}
+		else {
+			try {
+				// Try to parse the location as a URL...
+				return new UrlResource(ResourceUtils.toURL(location));
+			}
+			catch (MalformedURLException ex) {
+				// No URL -> resolve as resource path.
+				return getResourceByPath(location);
+			}
+		}
+	}
+
+	/**
+	 * Return a Resource handle for the resource at the given path.
+	 * <p>The default implementation supports class path locations. This should
+	 * be appropriate for standalone implementations but can be overridden,
+	 * e.g. for implementations targeted at a Servlet container.
+	 * @param path the path to the resource
+	 * @return the corresponding Resource handle
+	 * @see ClassPathResource
+	 */
+	protected Resource getResourceByPath(String path) {
+		return new ClassPathResource(path, getClassLoader());
+	}
+
 }
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * {@link Resource} implementation for a file in the file system whose content
+ * is served from a read-only memory mapping of that file.
+ *
+ * <p>The file is mapped on first access to its content and the mapping is
+ * shared by all streams, channels and buffers obtained from this resource,
+ * so reading never copies the content into an intermediate heap buffer. The
+ * mapping is replaced once the file's size or last-modified timestamp changes.
+ * Files larger than 1 GB are mapped in several regions.
+ *
+ * <p>{@link #readableChannel()} returns a {@link SeekableByteChannel} over the
+ * mapping, and {@link #getContentAsByteBuffer()} a read-only view of it.
+ * {@link #contentLength()} and {@link #lastModified()} are answered from the
+ * file attributes without opening the file.
+ *
+ * <p>A mapping is released by the garbage collector once it is no longer
+ * referenced; on some platforms, a mapped file cannot be deleted before that.
+ *
+ * @since 6.1
+ * @see FileChannel#map
+ */
+public class MappedFileResource extends AbstractResource {
+
+	/** Maximum size of a single mapped region. */
+	static final int REGION_SIZE = 1 << 30;
+
+
+	private final Path path;
+
+	private final String pathString;
+
+	@Nullable
+	private volatile Mapping mapping;
+
+
+	/**
+	 * Create a new {@code MappedFileResource} for the given file.
+	 * @param file a File handle
+	 */
+	public MappedFileResource(File file) {
+		this(file.toPath());
+	}
+
+	/**
+	 * Create a new {@code MappedFileResource} for the given path.
+	 * @param path a Path handle
+	 */
+	public MappedFileResource(Path path) {
+		Assert.notNull(path, "Path must not be null");
+		this.path = path;
+		this.pathString = StringUtils.cleanPath(path.toString());
+	}
+
+	/**
+	 * Create a new {@code MappedFileResource} for the given file path.
+	 * @param path a file path
+	 */
+	public MappedFileResource(String path) {
+		Assert.notNull(path, "Path must not be null");
+		this.path = Path.of(path);
+		this.pathString = StringUtils.cleanPath(path);
+	}
+
+
+	/**
+	 * Return the file path for this resource.
+	 */
+	public final String getPath() {
+		return this.pathString;
+	}
+
+	/**
+	 * This implementation checks whether the underlying file exists.
+	 */
+	@Override
+	public boolean exists() {
+		return Files.exists(this.path);
+	}
+
+	/**
+	 * This implementation checks whether the underlying file is marked as
+	 * readable (and corresponds to an actual file with content, not to a directory).
+	 */
+	@Override
+	public boolean isReadable() {
+		return (Files.isReadable(this.path) && !Files.isDirectory(this.path));
+	}
+
+	@Override
+	public boolean isFile() {
+		return true;
+	}
+
+	/**
+	 * This implementation returns a stream over the memory mapping.
+	 */
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return Channels.newInputStream(readableChannel());
+	}
+
+	/**
+	 * This implementation returns a read-only {@link SeekableByteChannel}
+	 * over the memory mapping, positioned at the start of the content.
+	 */
+	@Override
+	public ReadableByteChannel readableChannel() throws IOException {
+		return new MappedChannel(getMapping());
+	}
+
+	/**
+	 * Return the content of this resource as a read-only {@link ByteBuffer}
+	 * that shares the memory mapping of the underlying file.
+	 * <p>Each call returns an independent view with its own position and limit.
+	 * @return a read-only view of the mapped content
+	 * @throws IOException if the file cannot be mapped, or if it is larger
+	 * than a single {@code ByteBuffer} can address
+	 */
+	public ByteBuffer getContentAsByteBuffer() throws IOException {
+		Mapping mapping = getMapping();
+		if (mapping.regions.length > 1) {
+			throw new IOException(getDescription() + " is too large to be exposed as a single ByteBuffer: " +
+					mapping.size + " bytes");
+		}
+		return mapping.regions[0].duplicate();
+	}
+
+	/**
+	 * This implementation returns the size of the underlying file,
+	 * without opening it.
+	 */
+	@Override
+	public long contentLength() throws IOException {
+		try {
+			return Files.size(this.path);
+		}
+		catch (NoSuchFileException ex) {
+			throw new FileNotFoundException(ex.getMessage());
+		}
+	}
+
+	/**
+	 * This implementation returns the last-modified time of the underlying file.
+	 */
+	@Override
+	public long lastModified() throws IOException {
+		try {
+			return Files.getLastModifiedTime(this.path).toMillis();
+		}
+		catch (NoSuchFileException ex) {
+			throw new FileNotFoundException(ex.getMessage());
+		}
+	}
+
+	@Override
+	public URL getURL() throws IOException {
+		return this.path.toUri().toURL();
+	}
+
+	@Override
+	public URI getURI() throws IOException {
+		return this.path.toUri();
+	}
+
+	@Override
+	public File getFile() {
+		return this.path.toFile();
+	}
+
+	/**
+	 * This implementation creates a {@code MappedFileResource}, applying the
+	 * given path relative to the path of the underlying file of this resource.
+	 */
+	@Override
+	public Resource createRelative(String relativePath) {
+		String pathToUse = StringUtils.applyRelativePath(this.pathString, relativePath);
+		return new MappedFileResource(pathToUse);
+	}
+
+	@Override
+	@Nullable
+	public String getFilename() {
+		Path fileName = this.path.getFileName();
+		return (fileName != null ? fileName.toString() : null);
+	}
+
+	@Override
+	public String getDescription() {
+		return "mapped file [" + this.path.toAbsolutePath() + "]";
+	}
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof MappedFileResource that &&
+				this.pathString.equals(that.pathString)));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.pathString.hashCode();
+	}
+
+
+	/**
+	 * Return the current mapping, (re-)mapping the file if it has not been
+	 * mapped yet or if it changed since it was mapped.
+	 */
+	private Mapping getMapping() throws IOException {
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(this.path, BasicFileAttributes.class);
+		}
+		catch (NoSuchFileException ex) {
+			throw new FileNotFoundException(getDescription() + " cannot be opened because it does not exist");
+		}
+		if (attributes.isDirectory()) {
+			throw new FileNotFoundException(getDescription() + " cannot be opened because it is a directory");
+		}
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		Mapping mapping = this.mapping;
+		if (mapping == null || mapping.size != attributes.size() || mapping.lastModified != lastModified) {
+			mapping = Mapping.map(this.path, lastModified);
+			this.mapping = mapping;
+		}
+		return mapping;
+	}
+
+
+	/**
+	 * Read-only mapped regions of a file, as of a given last-modified timestamp.
+	 */
+	private static final class Mapping {
+
+		final ByteBuffer[] regions;
+
+		final long size;
+
+		final long lastModified;
+
+		private Mapping(ByteBuffer[] regions, long size, long lastModified) {
+			this.regions = regions;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+
+		static Mapping map(Path path, long lastModified) throws IOException {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				long size = channel.size();
+				int regionCount = (int) Math.max((size + REGION_SIZE - 1) / REGION_SIZE, 1);
+				ByteBuffer[] regions = new ByteBuffer[regionCount];
+				for (int i = 0; i < regionCount; i++) {
+					long position = (long) i * REGION_SIZE;
+					long regionSize = Math.min(REGION_SIZE, size - position);
+					regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize).asReadOnlyBuffer();
+				}
+				return new Mapping(regions, size, lastModified);
+			}
+		}
+	}
+
+
+	/**
+	 * Read-only {@link SeekableByteChannel} over a {@link Mapping}.
+	 */
+	private static final class MappedChannel implements SeekableByteChannel {
+
+		private final Mapping mapping;
+
+		/** Per-channel views of the mapped regions, created on first use. */
+		private final ByteBuffer[] views;
+
+		private long position;
+
+		private volatile boolean open = true;
+
+		MappedChannel(Mapping mapping) {
+			this.mapping = mapping;
+			this.views = new ByteBuffer[mapping.regions.length];
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			ensureOpen();
+			if (this.position >= this.mapping.size) {
+				return -1;
+			}
+			int total = 0;
+			while (dst.hasRemaining() && this.position < this.mapping.size) {
+				int regionIndex = (int) (this.position / REGION_SIZE);
+				int offset = (int) (this.position % REGION_SIZE);
+				ByteBuffer view = this.views[regionIndex];
+				if (view == null) {
+					view = this.mapping.regions[regionIndex].duplicate();
+					this.views[regionIndex] = view;
+				}
+				int count = Math.min(dst.remaining(), view.capacity() - offset);
+				view.limit(offset + count).position(offset);
+				dst.put(view);
+				this.position += count;
+				total += count;
+			}
+			return total;
+		}
+
+		@Override
+		public int write(ByteBuffer src) {
+			throw new NonWritableChannelException();
+		}
+
+		@Override
+		public long position() throws IOException {
+			ensureOpen();
+			return this.position;
+		}
+
+		@Override
+		public SeekableByteChannel position(long newPosition) throws IOException {
+			ensureOpen();
+			Assert.isTrue(newPosition >= 0, "Position must not be negative");
+			this.position = newPosition;
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			ensureOpen();
+			return this.mapping.size;
+		}
+
+		@Override
+		public SeekableByteChannel truncate(long size) {
+			throw new NonWritableChannelException();
+		}
+
+		@Override
+		public boolean isOpen() {
+			return this.open;
+		}
+
+		@Override
+		public void close() {
+			this.open = false;
+		}
+
+		private void ensureOpen() throws ClosedChannelException {
+			if (!this.open) {
+				throw new ClosedChannelException();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory cache for the content of small resources, keyed by
+ * resource {@link URI}.
+ *
+ * <p>The content of a resource no larger than the configured maximum content
+ * length is read once and kept as a byte array; {@link #getContent(Resource)}
+ * then serves it as a read-only {@link ByteBuffer} view, without any further
+ * I/O or copying. At most the configured number of entries is kept, evicting
+ * the least recently used entry beyond that.
+ *
+ * <p>A cached entry is revalidated against the resource's
+ * {@link Resource#lastModified() lastModified} and
+ * {@link Resource#contentLength() contentLength} once the
+ * {@linkplain #setRevalidateInterval revalidate interval} has passed since
+ * its last validation, and reloaded if either of them changed.
+ *
+ * <p>A resource found to exceed the maximum content length is remembered as
+ * well, without its content: until its next revalidation, further requests
+ * for it return {@code null} right away, without accessing the resource.
+ *
+ * @since 6.1
+ * @see ContentCachingResource
+ * @see DefaultResourceLoader#setContentCache
+ */
+public class ResourceContentCache {
+
+	/** Default maximum number of cached resources: {@value}. */
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+
+	/** Default maximum content length of a cached resource, in bytes: {@value}. */
+	public static final int DEFAULT_MAX_CONTENT_LENGTH = 64 * 1024;
+
+	/** Default interval between revalidations of an entry, in milliseconds: {@value}. */
+	public static final long DEFAULT_REVALIDATE_INTERVAL = 1000;
+
+
+	private final int maxEntries;
+
+	private final int maxContentLength;
+
+	private volatile long revalidateInterval = DEFAULT_REVALIDATE_INTERVAL;
+
+	/** Cached content by resource URI, in least-recently-used order. */
+	private final Map<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+
+	/**
+	 * Create a new {@code ResourceContentCache} with default limits.
+	 * @see #DEFAULT_MAX_ENTRIES
+	 * @see #DEFAULT_MAX_CONTENT_LENGTH
+	 */
+	public ResourceContentCache() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_CONTENT_LENGTH);
+	}
+
+	/**
+	 * Create a new {@code ResourceContentCache}.
+	 * @param maxEntries the maximum number of resources to cache
+	 * @param maxContentLength the maximum content length of a cached resource,
+	 * in bytes; larger resources are not cached
+	 */
+	public ResourceContentCache(int maxEntries, int maxContentLength) {
+		Assert.isTrue(maxEntries > 0, "Max entries must be positive");
+		Assert.isTrue(maxContentLength >= 0, "Max content length must not be negative");
+		this.maxEntries = maxEntries;
+		this.maxContentLength = maxContentLength;
+	}
+
+
+	/**
+	 * Set the interval after which a cached entry is revalidated against the
+	 * resource's last-modified timestamp and content length, in milliseconds.
+	 * <p>Default is {@value #DEFAULT_REVALIDATE_INTERVAL}. A value of 0
+	 * revalidates on every access; a negative value never revalidates.
+	 */
+	public void setRevalidateInterval(long revalidateInterval) {
+		this.revalidateInterval = revalidateInterval;
+	}
+
+	/**
+	 * Return the interval after which a cached entry is revalidated.
+	 */
+	public long getRevalidateInterval() {
+		return this.revalidateInterval;
+	}
+
+	/**
+	 * Return the maximum content length of a cached resource, in bytes.
+	 */
+	public int getMaxContentLength() {
+		return this.maxContentLength;
+	}
+
+	/**
+	 * Return the content of the given resource as a read-only view of the
+	 * cached content, loading or reloading it if necessary.
+	 * <p>Returns {@code null} for a resource that cannot be cached: one that
+	 * has no URI, exceeds the maximum content length, or whose last-modified
+	 * timestamp or content length cannot be determined (e.g. since it does
+	 * not exist). The caller should read such a resource directly.
+	 * @param resource the resource to obtain the content for
+	 * @return a read-only view of the content, positioned at its start,
+	 * or {@code null} if the resource cannot be cached
+	 * @throws IOException if the content of the resource cannot be read
+	 */
+	@Nullable
+	public ByteBuffer getContent(Resource resource) throws IOException {
+		Assert.notNull(resource, "Resource must not be null");
+		URI uri;
+		try {
+			uri = resource.getURI();
+		}
+		catch (IOException ex) {
+			return null;
+		}
+		return getContent(uri, resource);
+	}
+
+	/**
+	 * Return the content of the given resource, cached under the given URI.
+	 * @param uri the URI of the resource, as cache key
+	 * @param resource the resource to obtain the content for
+	 * @see #getContent(Resource)
+	 */
+	@Nullable
+	ByteBuffer getContent(URI uri, Resource resource) throws IOException {
+		Entry entry;
+		synchronized (this.entries) {
+			entry = this.entries.get(uri);
+		}
+		long now = System.currentTimeMillis();
+		if (entry != null && !entry.needsRevalidation(now, this.revalidateInterval)) {
+			return entry.view();
+		}
+
+		long lastModified;
+		long contentLength;
+		try {
+			// Determine the metadata before reading: a concurrent change is detected on the next revalidation
+			lastModified = resource.lastModified();
+			contentLength = resource.contentLength();
+		}
+		catch (IOException ex) {
+			evict(uri, entry);
+			return null;
+		}
+		if (entry != null && entry.lastModified == lastModified && entry.contentLength == contentLength) {
+			entry.validatedAt = now;
+			return entry.view();
+		}
+		if (contentLength > this.maxContentLength) {
+			store(uri, new Entry(null, lastModified, contentLength, now));
+			return null;
+		}
+
+		byte[] content;
+		try (InputStream inputStream = resource.getInputStream()) {
+			content = inputStream.readNBytes(this.maxContentLength + 1);
+		}
+		if (content.length > this.maxContentLength) {
+			// Longer than its reported content length
+			store(uri, new Entry(null, lastModified, contentLength, now));
+			return null;
+		}
+		Entry loaded = new Entry(content, lastModified, contentLength, now);
+		store(uri, loaded);
+		return loaded.view();
+	}
+
+	private void store(URI uri, Entry entry) {
+		synchronized (this.entries) {
+			this.entries.put(uri, entry);
+			if (this.entries.size() > this.maxEntries) {
+				this.entries.remove(this.entries.keySet().iterator().next());
+			}
+		}
+	}
+
+	private void evict(URI uri, @Nullable Entry entry) {
+		if (entry != null) {
+			synchronized (this.entries) {
+				this.entries.remove(uri, entry);
+			}
+		}
+	}
+
+	/**
+	 * Return the number of currently cached resources, including resources
+	 * remembered as exceeding the maximum content length.
+	 */
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	/**
+	 * Remove all cached content.
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+
+	/**
+	 * Cached content of a resource, with the metadata it was loaded for;
+	 * without content if the resource exceeds the maximum content length.
+	 */
+	private static final class Entry {
+
+		@Nullable
+		private final ByteBuffer content;
+
+		final long lastModified;
+
+		final long contentLength;
+
+		volatile long validatedAt;
+
+		Entry(@Nullable byte[] content, long lastModified, long contentLength, long validatedAt) {
+			this.content = (content != null ? ByteBuffer.wrap(content).asReadOnlyBuffer() : null);
+			this.lastModified = lastModified;
+			this.contentLength = contentLength;
+			this.validatedAt = validatedAt;
+		}
+
+		boolean needsRevalidation(long now, long revalidateInterval) {
+			return (revalidateInterval >= 0 && now - this.validatedAt >= revalidateInterval);
+		}
+
+		@Nullable
+		ByteBuffer view() {
+			ByteBuffer content = this.content;
+			return (content != null ? content.duplicate() : null);
+		}
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link Resource} implementation for {@code java.net.URL} locators.
+ * Supports resolution as a {@code URL} and also as a {@code File} in
+ * case of the {@code "file:"} protocol.
+ *
+ * @author Juergen Hoeller
+ * @since 28.12.2003
+ * @see java.net.URL
+ */
+public class UrlResource extends AbstractFileResolvingResource {
+
+	/**
+	 * Original URI, if available; used for URI and File access.
+	 */
+	@Nullable
+	private final URI uri;
+
+	/**
+	 * Original URL, used for actual access.
+	 */
+	private final URL url;
+
+	/**
+	 * Cleaned URL String (with normalized path), used for comparisons.
+	 */
+	@Nullable
+	private volatile String cleanedUrl;
+
+
+	/**
+	 * Create a new {@code UrlResource} based on the given URL object.
+	 * @param url a URL
+	 */
+	public UrlResource(URL url) {
+		Assert.notNull(url, "URL must not be null");
+		this.uri = null;
+		this.url = url;
+	}
+
+	/**
+	 * Create a new {@code UrlResource} based on the given URI object.
+	 * @param uri a URI
+	 * @throws MalformedURLException if the given URL path is not valid
+	 */
+	public UrlResource(URI uri) throws MalformedURLException {
+		Assert.notNull(uri, "URI must not be null");
+		this.uri = uri;
+		this.url = uri.toURL();
+	}
+
+	/**
+	 * Create a new {@code UrlResource} based on a URL path.
+	 * @param path a URL path
+	 * @throws MalformedURLException if the given URL path is not valid
+	 * @see ResourceUtils#toURL(String)
+	 */
+	public UrlResource(String path) throws MalformedURLException {
+		Assert.notNull(path, "Path must not be null");
+		this.uri = null;
+		this.url = ResourceUtils.toURL(path);
+		this.cleanedUrl = StringUtils.cleanPath(path);
+	}
+
+
+	/**
+	 * Lazily determine a cleaned URL for the given original URL.
+	 */
+	private String getCleanedUrl() {
+		String cleanedUrl = this.cleanedUrl;
+		if (cleanedUrl != null) {
+			return cleanedUrl;
+		}
+		String originalPath = (this.uri != null ? this.uri : this.url).toString();
+		cleanedUrl = StringUtils.cleanPath(originalPath);
+		this.cleanedUrl = cleanedUrl;
+		return cleanedUrl;
+	}
+
+	/**
+	 * This implementation opens an InputStream for the given URL.
+	 * @see java.net.URL#openConnection()
+	 * @see ResourceUtils#useCachesIfNecessary(java.net.URLConnection)
+	 */
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return openStream(this.url);
+	}
+
+	/**
+	 * This implementation returns the underlying URL reference.
+	 */
+	@Override
+	public URL getURL() {
+		return this.url;
+	}
+
+	/**
+	 * This implementation returns the underlying URI directly,
+	 * if possible.
+	 */
+	@Override
+	public URI getURI() throws IOException {
+		if (this.uri != null) {
+			return this.uri;
+		}
+		try {
+			return ResourceUtils.toURI(this.url);
+		}
+		catch (URISyntaxException ex) {
+			throw new IOException("Invalid URI [" + this.url + "]", ex);
+		}
+	}
+
+	/**
+	 * This implementation returns a File reference for the underlying URL/URI,
+	 * provided that it refers to a file in the file system.
+	 * @see ResourceUtils#getFile(java.net.URL, String)
+	 */
+	@Override
+	public File getFile() throws IOException {
+		if (this.uri != null) {
+			return ResourceUtils.getFile(this.uri, getDescription());
+		}
+		return super.getFile();
+	}
+
+	/**
+	 * This implementation creates a {@code UrlResource}, delegating to
+	 * {@link ResourceUtils#toRelativeURL(URL, String)} for the relative path.
+	 */
+	@Override
+	public Resource createRelative(String relativePath) throws MalformedURLException {
+		if (relativePath.startsWith("/")) {
+			relativePath = relativePath.substring(1);
+		}
+		return new UrlResource(ResourceUtils.toRelativeURL(this.url, relativePath));
+	}
+
+	/**
+	 * This implementation returns the URL-decoded name of the file that this
+	 * URL refers to.
+	 * @see java.net.URL#getPath()
+	 * @see java.net.URLDecoder#decode(String, java.nio.charset.Charset)
+	 */
+	@Override
+	@Nullable
+	public String getFilename() {
+		String filename = StringUtils.getFilename(this.url.getPath());
+		return (filename != null ? StringUtils.uriDecode(filename, StandardCharsets.UTF_8) : null);
+	}
+
+	/**
+	 * This implementation returns a description that includes the URL.
+	 */
+	@Override
+	public String getDescription() {
+		return "URL [" + (this.uri != null ? this.uri : this.url) + "]";
+	}
+
+
+	/**
+	 * This implementation compares the underlying URL references.
+	 */
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof UrlResource that &&
+				getCleanedUrl().equals(that.getCleanedUrl())));
+	}
+
+	/**
+	 * This implementation returns the hash code of the underlying URL reference.
+	 */
+	@Override
+	public int hashCode() {
+		return getCleanedUrl().hashCode();
+	}
+
+}
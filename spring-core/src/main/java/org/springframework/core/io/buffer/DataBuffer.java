@@ -0,0 +1,252 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Basic abstraction over byte buffers.
+ *
+ * <p>{@code DataBuffer}s have a separate {@linkplain #readPosition() read} and
+ * {@linkplain #writePosition() write} position, as opposed to {@code ByteBuffer}'s
+ * single {@linkplain ByteBuffer#position() position}. As such, the {@code DataBuffer}
+ * does not require a {@linkplain ByteBuffer#flip() flip} to read after writing. In general,
+ * the following invariant holds for the read and write positions, and the capacity:
+ *
+ * <blockquote>
+ * {@code 0} {@code <=}
+ * <i>readPosition</i> {@code <=}
+ * <i>writePosition</i> {@code <=}
+ * <i>capacity</i>
+ * </blockquote>
+ *
+ * <p>The {@linkplain #capacity() capacity} of a {@code DataBuffer} is expanded on demand,
+ * similar to {@code StringBuilder}.
+ *
+ * <p>The main purpose of the {@code DataBuffer} abstraction is to provide a convenient wrapper
+ * around {@link ByteBuffer} which is similar to Netty's {@link io.netty.buffer.ByteBuf} but
+ * can also be used on non-Netty platforms.
+ *
+ * @author Arjen Poutsma
+ * @author Brian Clozel
+ * @since 6.1
+ * @see DataBufferFactory
+ */
+public interface DataBuffer {
+
+	/**
+	 * Return the {@link DataBufferFactory} that created this buffer.
+	 * @return the creating buffer factory
+	 */
+	DataBufferFactory factory();
+
+	/**
+	 * Return the index of the first byte in this buffer that matches
+	 * the given value, starting at the given index.
+	 * @param value the byte to look for
+	 * @param fromIndex the index to start the search from
+	 * @return the index of the first matching byte, or {@code -1} if none found
+	 */
+	int indexOf(byte value, int fromIndex);
+
+	/**
+	 * Return the number of bytes that can be read from this data buffer.
+	 * @return the readable byte count
+	 */
+	int readableByteCount();
+
+	/**
+	 * Return the number of bytes that can be written to this data buffer.
+	 * @return the writable byte count
+	 */
+	int writableByteCount();
+
+	/**
+	 * Return the number of bytes that this buffer can contain.
+	 * @return the capacity
+	 */
+	int capacity();
+
+	/**
+	 * Ensure that the current buffer has enough {@link #writableByteCount()}
+	 * to write the amount of data given as an argument. If not, the missing
+	 * capacity will be added to the buffer.
+	 * @param capacity the writable capacity to check for
+	 * @return this buffer
+	 */
+	DataBuffer ensureWritable(int capacity);
+
+	/**
+	 * Return the position from which this buffer will read.
+	 * @return the read position
+	 */
+	int readPosition();
+
+	/**
+	 * Set the position from which this buffer will read.
+	 * @param readPosition the new read position
+	 * @return this buffer
+	 * @throws IndexOutOfBoundsException if {@code readPosition} is smaller than 0
+	 * or greater than {@link #writePosition()}
+	 */
+	DataBuffer readPosition(int readPosition);
+
+	/**
+	 * Return the position to which this buffer will write.
+	 * @return the write position
+	 */
+	int writePosition();
+
+	/**
+	 * Set the position to which this buffer will write.
+	 * @param writePosition the new write position
+	 * @return this buffer
+	 * @throws IndexOutOfBoundsException if {@code writePosition} is smaller than
+	 * {@link #readPosition()} or greater than {@link #capacity()}
+	 */
+	DataBuffer writePosition(int writePosition);
+
+	/**
+	 * Read a single byte at the given index from this data buffer.
+	 * @param index the index at which the byte will be read
+	 * @return the byte at the given index
+	 * @throws IndexOutOfBoundsException when {@code index} is out of bounds
+	 */
+	byte getByte(int index);
+
+	/**
+	 * Read a single byte from the current reading position from this data buffer.
+	 * @return the byte at this buffer's current reading position
+	 */
+	byte read();
+
+	/**
+	 * Read this buffer's data into the specified destination, starting at the current
+	 * reading position of this buffer.
+	 * @param destination the array into which the bytes are to be written
+	 * @return this buffer
+	 */
+	DataBuffer read(byte[] destination);
+
+	/**
+	 * Read at most {@code length} bytes of this buffer into the specified destination,
+	 * starting at the current reading position of this buffer.
+	 * @param destination the array into which the bytes are to be written
+	 * @param offset the index within {@code destination} of the first byte to be written
+	 * @param length the maximum number of bytes to be written in {@code destination}
+	 * @return this buffer
+	 */
+	DataBuffer read(byte[] destination, int offset, int length);
+
+	/**
+	 * Write a single byte into this buffer at the current writing position.
+	 * @param b the byte to be written
+	 * @return this buffer
+	 */
+	DataBuffer write(byte b);
+
+	/**
+	 * Write the given source into this buffer, starting at the current writing position
+	 * of this buffer.
+	 * @param source the bytes to be written into this buffer
+	 * @return this buffer
+	 */
+	DataBuffer write(byte[] source);
+
+	/**
+	 * Write at most {@code length} bytes of the given source into this buffer, starting
+	 * at the current writing position of this buffer.
+	 * @param source the bytes to be written into this buffer
+	 * @param offset the index within {@code source} to start writing from
+	 * @param length the maximum number of bytes to be written from {@code source}
+	 * @return this buffer
+	 */
+	DataBuffer write(byte[] source, int offset, int length);
+
+	/**
+	 * Write one or more {@code ByteBuffer} to this buffer, starting at the current
+	 * writing position.
+	 * @param buffers the byte buffers to write into this buffer
+	 * @return this buffer
+	 */
+	DataBuffer write(ByteBuffer... buffers);
+
+	/**
+	 * Write the given {@code CharSequence} using the given {@code Charset},
+	 * starting at the current writing position.
+	 * @param charSequence the char sequence to write into this buffer
+	 * @param charset the charset to encode the char sequence with
+	 * @return this buffer
+	 */
+	default DataBuffer write(CharSequence charSequence, Charset charset) {
+		return write(charset.encode(charSequence.toString()));
+	}
+
+	/**
+	 * Expose this buffer's readable bytes as a {@link ByteBuffer}. Data between
+	 * this {@code DataBuffer} and the returned {@code ByteBuffer} is shared;
+	 * though changes in the returned buffer's {@linkplain ByteBuffer#position() position}
+	 * will not be reflected in the reading nor writing position of this data buffer.
+	 * @return this data buffer as a byte buffer
+	 */
+	default ByteBuffer asByteBuffer() {
+		return asByteBuffer(readPosition(), readableByteCount());
+	}
+
+	/**
+	 * Expose a subsequence of this buffer's bytes as a {@link ByteBuffer}. Data between
+	 * this {@code DataBuffer} and the returned {@code ByteBuffer} is shared;
+	 * though changes in the returned buffer's {@linkplain ByteBuffer#position() position}
+	 * will not be reflected in the reading nor writing position of this data buffer.
+	 * <p>The range may extend into the writable part of this buffer, up to its
+	 * {@linkplain #capacity() capacity}: writing into such a view and then
+	 * advancing the {@linkplain #writePosition(int) write position} accordingly
+	 * fills this buffer without an intermediate copy.
+	 * @param index the index at which to start the byte buffer
+	 * @param length the length of the returned byte buffer
+	 * @return this data buffer as a byte buffer
+	 */
+	ByteBuffer asByteBuffer(int index, int length);
+
+	/**
+	 * Expose this buffer's data as an {@link InputStream}. Both data and read position are
+	 * shared between the returned stream and this data buffer.
+	 * @return this data buffer as an input stream
+	 */
+	InputStream asInputStream();
+
+	/**
+	 * Return this buffer's data as a String using the specified charset.
+	 * @param charset the character set to use
+	 * @return a string representation of all this buffers data
+	 */
+	default String toString(Charset charset) {
+		return toString(readPosition(), readableByteCount(), charset);
+	}
+
+	/**
+	 * Return a part of this buffer's data as a String using the specified charset.
+	 * @param index the index at which to start the string
+	 * @param length the number of bytes to use for the string
+	 * @param charset the charset to use
+	 * @return a string representation of a part of this buffers data
+	 */
+	String toString(int index, int length, Charset charset);
+
+}
@@ -0,0 +1,664 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channel;
+import java.nio.channels.Channels;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import io.netty.buffer.ByteBuf;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Utility class for working with {@link DataBuffer DataBuffers}.
+ *
+ * <p>The {@code read} and {@code transfer} methods fill buffers straight from
+ * a {@link ReadableByteChannel}, writing into the buffer's memory without an
+ * intermediate {@code byte[]}. Combined with a pooled
+ * {@link NettyDataBufferFactory}, reading a {@link Resource} then neither
+ * allocates heap arrays nor new buffer memory per read.
+ *
+ * <p>The {@code Flux}-returning {@code read} variants require Reactor. They
+ * stream a resource as a sequence of buffers, reading the next chunk only
+ * when downstream demand allows it.
+ *
+ * @author Arjen Poutsma
+ * @author Brian Clozel
+ * @since 6.1
+ */
+public abstract class DataBufferUtils {
+
+	private static final boolean nettyPresent = ClassUtils.isPresent(
+			"io.netty.buffer.ByteBuf", DataBufferUtils.class.getClassLoader());
+
+	/** Default buffer size for reading a resource of unknown length: {@value}. */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+
+	//---------------------------------------------------------------------
+	// Reading
+	//---------------------------------------------------------------------
+
+	/**
+	 * Read from the given channel into the writable part of the given buffer,
+	 * advancing its {@linkplain DataBuffer#writePosition() write position}.
+	 * <p>Reads at most {@link DataBuffer#writableByteCount()} bytes, directly
+	 * into the buffer's memory.
+	 * @param channel the channel to read from
+	 * @param dataBuffer the buffer to fill
+	 * @return the number of bytes read, possibly zero, or {@code -1} if the
+	 * channel has reached end-of-stream
+	 * @throws IOException in case of I/O errors
+	 */
+	public static int read(ReadableByteChannel channel, DataBuffer dataBuffer) throws IOException {
+		Assert.notNull(channel, "ReadableByteChannel must not be null");
+		Assert.notNull(dataBuffer, "DataBuffer must not be null");
+		int writable = dataBuffer.writableByteCount();
+		if (writable == 0) {
+			return 0;
+		}
+		int writePosition = dataBuffer.writePosition();
+		if (nettyPresent && dataBuffer instanceof NettyDataBuffer nettyDataBuffer &&
+				!NettyDelegate.exposesMemory(nettyDataBuffer)) {
+			// Composite buffer: the NIO view would be a copy
+			return NettyDelegate.read(channel, nettyDataBuffer, writable);
+		}
+		ByteBuffer target = dataBuffer.asByteBuffer(writePosition, writable);
+		int read = channel.read(target);
+		if (read > 0) {
+			dataBuffer.writePosition(writePosition + read);
+		}
+		return read;
+	}
+
+	/**
+	 * Read the entire content of the given resource into a single buffer.
+	 * <p>The buffer is sized upfront for resources in the file system, and
+	 * filled straight from the resource's {@linkplain Resource#readableChannel()
+	 * channel}. The caller is responsible for releasing the returned buffer.
+	 * @param resource the resource to read
+	 * @param bufferFactory the factory to allocate the buffer with
+	 * @return a buffer with the content of the resource
+	 * @throws IOException in case of I/O errors
+	 */
+	public static DataBuffer readFully(Resource resource, DataBufferFactory bufferFactory) throws IOException {
+		Assert.notNull(resource, "Resource must not be null");
+		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
+		int initialCapacity = DEFAULT_BUFFER_SIZE;
+		if (resource.isFile()) {
+			long contentLength = resource.contentLength();
+			Assert.isTrue(contentLength < Integer.MAX_VALUE, () -> resource + " is too large to be read into a single buffer");
+			initialCapacity = (int) contentLength + 1;
+		}
+		DataBuffer dataBuffer = bufferFactory.allocateBuffer(initialCapacity);
+		try (ReadableByteChannel channel = resource.readableChannel()) {
+			while (read(channel, dataBuffer) != -1) {
+				if (dataBuffer.writableByteCount() == 0) {
+					dataBuffer.ensureWritable(DEFAULT_BUFFER_SIZE);
+				}
+			}
+			return dataBuffer;
+		}
+		catch (IOException | RuntimeException ex) {
+			release(dataBuffer);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Transfer the content of the given resource to the given channel,
+	 * through a single buffer of the given size that is filled from the
+	 * resource's {@linkplain Resource#readableChannel() channel} and drained
+	 * into the target channel until the resource is exhausted. The buffer is
+	 * accessed through one shared {@link ByteBuffer} view throughout.
+	 * <p>With a pooled {@link DataBufferFactory}, the buffer is taken from and
+	 * returned to the pool, so that serving a resource does not allocate.
+	 * @param resource the resource to read
+	 * @param channel the channel to write to
+	 * @param bufferFactory the factory to allocate the buffer with
+	 * @param bufferSize the size of the buffer
+	 * @return the number of bytes transferred
+	 * @throws IOException in case of I/O errors
+	 */
+	public static long transfer(Resource resource, WritableByteChannel channel,
+			DataBufferFactory bufferFactory, int bufferSize) throws IOException {
+
+		Assert.notNull(resource, "Resource must not be null");
+		Assert.notNull(channel, "WritableByteChannel must not be null");
+		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be > 0");
+		DataBuffer dataBuffer = bufferFactory.allocateBuffer(bufferSize);
+		try (ReadableByteChannel source = resource.readableChannel()) {
+			// One view on the buffer's memory for the entire transfer: no allocation per chunk
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer(0, dataBuffer.capacity());
+			long transferred = 0;
+			while (source.read(byteBuffer.clear()) != -1) {
+				byteBuffer.flip();
+				while (byteBuffer.hasRemaining()) {
+					transferred += channel.write(byteBuffer);
+				}
+			}
+			return transferred;
+		}
+		finally {
+			release(dataBuffer);
+		}
+	}
+
+	/**
+	 * Transfer the content of the given resource to the given stream.
+	 * @param resource the resource to read
+	 * @param outputStream the stream to write to
+	 * @param bufferFactory the factory to allocate the buffer with
+	 * @param bufferSize the size of the buffer
+	 * @return the number of bytes transferred
+	 * @throws IOException in case of I/O errors
+	 * @see #transfer(Resource, WritableByteChannel, DataBufferFactory, int)
+	 */
+	public static long transfer(Resource resource, OutputStream outputStream,
+			DataBufferFactory bufferFactory, int bufferSize) throws IOException {
+
+		Assert.notNull(outputStream, "OutputStream must not be null");
+		return transfer(resource, Channels.newChannel(outputStream), bufferFactory, bufferSize);
+	}
+
+
+	//---------------------------------------------------------------------
+	// Reactive reading
+	//---------------------------------------------------------------------
+
+	/**
+	 * Read the given {@code Resource} into a {@code Flux} of {@code DataBuffer}s.
+	 * @param resource the resource to read from
+	 * @param bufferFactory the factory to create data buffers with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of data buffers read from the given resource
+	 * @see #read(Resource, long, long, DataBufferFactory, int)
+	 */
+	public static Flux<DataBuffer> read(Resource resource, DataBufferFactory bufferFactory, int bufferSize) {
+		return read(resource, 0, Long.MAX_VALUE, bufferFactory, bufferSize);
+	}
+
+	/**
+	 * Read the given {@code Resource} into a {@code Flux} of {@code DataBuffer}s,
+	 * starting at the given position.
+	 * @param resource the resource to read from
+	 * @param position the position to start reading from
+	 * @param bufferFactory the factory to create data buffers with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of data buffers read from the given resource
+	 * @see #read(Resource, long, long, DataBufferFactory, int)
+	 */
+	public static Flux<DataBuffer> read(
+			Resource resource, long position, DataBufferFactory bufferFactory, int bufferSize) {
+
+		return read(resource, position, Long.MAX_VALUE, bufferFactory, bufferSize);
+	}
+
+	/**
+	 * Read the given range of the given {@code Resource} into a {@code Flux}
+	 * of {@code DataBuffer}s.
+	 * <p>Resources in the file system are read through an
+	 * {@link AsynchronousFileChannel}, so that no thread is held while a read
+	 * is pending. Any other resource is read from its
+	 * {@linkplain Resource#readableChannel() channel} on
+	 * {@link Schedulers#boundedElastic()}.
+	 * <p>A chunk is only read once there is demand for it: each data buffer
+	 * is allocated right before it is filled, and holds at most
+	 * {@code bufferSize} bytes. Data buffers must be
+	 * {@linkplain #release(DataBuffer) released} by the consumer.
+	 * @param resource the resource to read from
+	 * @param position the position to start reading from
+	 * @param count the maximum number of bytes to read
+	 * @param bufferFactory the factory to create data buffers with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of data buffers read from the given range of the resource
+	 */
+	public static Flux<DataBuffer> read(Resource resource, long position, long count,
+			DataBufferFactory bufferFactory, int bufferSize) {
+
+		Assert.notNull(resource, "Resource must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(count >= 0, "'count' must be >= 0");
+		try {
+			if (resource.isFile()) {
+				File file = resource.getFile();
+				return readAsynchronousFileChannel(
+						() -> AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ),
+						position, count, bufferFactory, bufferSize);
+			}
+		}
+		catch (IOException ignore) {
+			// fallback to resource.readableChannel(), below
+		}
+		return readByteChannel(resource::readableChannel, position, count, bufferFactory, bufferSize)
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Obtain an {@code AsynchronousFileChannel} from the given supplier, and
+	 * read it into a {@code Flux} of {@code DataBuffer}s, starting at the given
+	 * position. Closes the channel when the Flux is terminated.
+	 * @param channelSupplier the supplier for the channel to read from
+	 * @param position the position to start reading from
+	 * @param bufferFactory the factory to create data buffers with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of data buffers read from the given channel
+	 */
+	public static Flux<DataBuffer> readAsynchronousFileChannel(Callable<AsynchronousFileChannel> channelSupplier,
+			long position, DataBufferFactory bufferFactory, int bufferSize) {
+
+		return readAsynchronousFileChannel(channelSupplier, position, Long.MAX_VALUE, bufferFactory, bufferSize);
+	}
+
+	private static Flux<DataBuffer> readAsynchronousFileChannel(Callable<AsynchronousFileChannel> channelSupplier,
+			long position, long count, DataBufferFactory bufferFactory, int bufferSize) {
+
+		Assert.notNull(channelSupplier, "'channelSupplier' must not be null");
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be > 0");
+
+		Flux<DataBuffer> flux = Flux.using(channelSupplier,
+				channel -> Flux.create(sink -> {
+					ReadCompletionHandler handler =
+							new ReadCompletionHandler(channel, sink, position, count, bufferFactory, bufferSize);
+					sink.onCancel(handler::cancel);
+					sink.onRequest(handler::request);
+				}),
+				channel -> {
+					// Do not close channel from here, rather wait for the current read callback
+					// and then complete after releasing the DataBuffer.
+				});
+
+		return flux.doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+	}
+
+	/**
+	 * Obtain a {@link ReadableByteChannel} from the given supplier, and read
+	 * it into a {@code Flux} of {@code DataBuffer}s. Closes the channel when
+	 * the Flux is terminated.
+	 * <p>Reads block the subscribing thread; use {@code subscribeOn} with a
+	 * scheduler suited for blocking work where needed.
+	 * @param channelSupplier the supplier for the channel to read from
+	 * @param bufferFactory the factory to create data buffers with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of data buffers read from the given channel
+	 */
+	public static Flux<DataBuffer> readByteChannel(
+			Callable<ReadableByteChannel> channelSupplier, DataBufferFactory bufferFactory, int bufferSize) {
+
+		return readByteChannel(channelSupplier, 0, Long.MAX_VALUE, bufferFactory, bufferSize);
+	}
+
+	/**
+	 * Obtain an {@link InputStream} from the given supplier, and read it into
+	 * a {@code Flux} of {@code DataBuffer}s. Closes the input stream when the
+	 * Flux is terminated.
+	 * <p>Reads block the subscribing thread; use {@code subscribeOn} with a
+	 * scheduler suited for blocking work where needed.
+	 * @param inputStreamSupplier the supplier for the input stream to read from
+	 * @param bufferFactory the factory to create data buffers with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of data buffers read from the given input stream
+	 */
+	public static Flux<DataBuffer> readInputStream(
+			Callable<InputStream> inputStreamSupplier, DataBufferFactory bufferFactory, int bufferSize) {
+
+		Assert.notNull(inputStreamSupplier, "'inputStreamSupplier' must not be null");
+		return readByteChannel(() -> Channels.newChannel(inputStreamSupplier.call()), bufferFactory, bufferSize);
+	}
+
+	private static Flux<DataBuffer> readByteChannel(Callable<ReadableByteChannel> channelSupplier,
+			long position, long count, DataBufferFactory bufferFactory, int bufferSize) {
+
+		Assert.notNull(channelSupplier, "'channelSupplier' must not be null");
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be > 0");
+
+		return Flux.using(channelSupplier,
+				channel -> Flux.generate(new ReadableByteChannelGenerator(
+						channel, position, count, bufferFactory, bufferSize)),
+				DataBufferUtils::closeChannel);
+	}
+
+	static void closeChannel(@Nullable Channel channel) {
+		if (channel != null && channel.isOpen()) {
+			try {
+				channel.close();
+			}
+			catch (IOException ignored) {
+			}
+		}
+	}
+
+
+	//---------------------------------------------------------------------
+	// Writing
+	//---------------------------------------------------------------------
+
+	/**
+	 * Write the readable bytes of the given buffer to the given channel,
+	 * advancing its {@linkplain DataBuffer#readPosition() read position}.
+	 * @param dataBuffer the buffer to write
+	 * @param channel the channel to write to
+	 * @return the number of bytes written
+	 * @throws IOException in case of I/O errors
+	 */
+	public static int write(DataBuffer dataBuffer, WritableByteChannel channel) throws IOException {
+		Assert.notNull(dataBuffer, "DataBuffer must not be null");
+		Assert.notNull(channel, "WritableByteChannel must not be null");
+		ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+		int length = byteBuffer.remaining();
+		while (byteBuffer.hasRemaining()) {
+			channel.write(byteBuffer);
+		}
+		dataBuffer.readPosition(dataBuffer.readPosition() + length);
+		return length;
+	}
+
+
+	//---------------------------------------------------------------------
+	// Various
+	//---------------------------------------------------------------------
+
+	/**
+	 * Retain the given data buffer, if it is a {@link PooledDataBuffer}.
+	 * @param dataBuffer the data buffer to retain
+	 * @return the retained buffer
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends DataBuffer> T retain(T dataBuffer) {
+		if (dataBuffer instanceof PooledDataBuffer pooledDataBuffer) {
+			return (T) pooledDataBuffer.retain();
+		}
+		else {
+			return dataBuffer;
+		}
+	}
+
+	/**
+	 * Release the given data buffer, if it is a {@link PooledDataBuffer} and
+	 * has been {@linkplain PooledDataBuffer#isAllocated() allocated}.
+	 * @param dataBuffer the data buffer to release
+	 * @return {@code true} if the buffer was released; {@code false} otherwise.
+	 */
+	public static boolean release(@Nullable DataBuffer dataBuffer) {
+		if (dataBuffer instanceof PooledDataBuffer pooledDataBuffer && pooledDataBuffer.isAllocated()) {
+			try {
+				return pooledDataBuffer.release();
+			}
+			catch (IllegalStateException ex) {
+				// Avoid dependency on Netty: IllegalReferenceCountException
+				return false;
+			}
+		}
+		return false;
+	}
+
+
+	private static class ReadableByteChannelGenerator implements Consumer<SynchronousSink<DataBuffer>> {
+
+		private final ReadableByteChannel channel;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int bufferSize;
+
+		private long skip;
+
+		private long remaining;
+
+		ReadableByteChannelGenerator(ReadableByteChannel channel, long position, long count,
+				DataBufferFactory dataBufferFactory, int bufferSize) {
+
+			this.channel = channel;
+			this.skip = position;
+			this.remaining = count;
+			this.dataBufferFactory = dataBufferFactory;
+			this.bufferSize = bufferSize;
+		}
+
+		@Override
+		public void accept(SynchronousSink<DataBuffer> sink) {
+			int size = (int) Math.min(this.bufferSize, this.remaining);
+			if (size == 0) {
+				sink.complete();
+				return;
+			}
+			DataBuffer dataBuffer = this.dataBufferFactory.allocateBuffer(size);
+			boolean release = true;
+			try {
+				ByteBuffer byteBuffer = dataBuffer.asByteBuffer(0, size);
+				if (this.skip > 0 && !skip(byteBuffer)) {
+					sink.complete();
+					return;
+				}
+				int read = this.channel.read(byteBuffer);
+				if (read >= 0) {
+					dataBuffer.writePosition(read);
+					this.remaining -= read;
+					release = false;
+					sink.next(dataBuffer);
+				}
+				else {
+					sink.complete();
+				}
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+			finally {
+				if (release) {
+					release(dataBuffer);
+				}
+			}
+		}
+
+		/**
+		 * Advance the channel to the start position, seeking where supported
+		 * and reading past the skipped bytes (through the given scratch buffer)
+		 * otherwise.
+		 * @return {@code false} if the channel ended before the start position
+		 */
+		private boolean skip(ByteBuffer scratch) throws IOException {
+			if (this.channel instanceof SeekableByteChannel seekableChannel) {
+				seekableChannel.position(seekableChannel.position() + this.skip);
+				this.skip = 0;
+				return true;
+			}
+			while (this.skip > 0) {
+				scratch.clear().limit((int) Math.min(scratch.capacity(), this.skip));
+				int read = this.channel.read(scratch);
+				if (read == -1) {
+					return false;
+				}
+				this.skip -= read;
+			}
+			scratch.clear();
+			return true;
+		}
+	}
+
+
+	private static class ReadCompletionHandler implements CompletionHandler<Integer, ReadCompletionHandler.Attachment> {
+
+		private final AsynchronousFileChannel channel;
+
+		private final FluxSink<DataBuffer> sink;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int bufferSize;
+
+		private final AtomicReference<State> state = new AtomicReference<>(State.IDLE);
+
+		// Only accessed by the single read in flight, guarded by the state transitions
+		private long position;
+
+		private long remaining;
+
+		ReadCompletionHandler(AsynchronousFileChannel channel, FluxSink<DataBuffer> sink,
+				long position, long count, DataBufferFactory dataBufferFactory, int bufferSize) {
+
+			this.channel = channel;
+			this.sink = sink;
+			this.position = position;
+			this.remaining = count;
+			this.dataBufferFactory = dataBufferFactory;
+			this.bufferSize = bufferSize;
+		}
+
+		/**
+		 * Invoked when Reactive Streams consumer signals demand.
+		 */
+		public void request(long n) {
+			tryRead();
+		}
+
+		/**
+		 * Invoked when Reactive Streams consumer cancels.
+		 */
+		public void cancel() {
+			this.state.getAndSet(State.DISPOSED);
+
+			// According java.nio.channels.AsynchronousChannel "if an I/O operation is outstanding
+			// on the channel and the channel's close method is invoked, then the I/O operation
+			// fails with the exception AsynchronousCloseException". That should invoke the failed
+			// callback below and the current DataBuffer should be released.
+
+			closeChannel(this.channel);
+		}
+
+		private void tryRead() {
+			if (this.sink.requestedFromDownstream() > 0 && this.state.compareAndSet(State.IDLE, State.READING)) {
+				read();
+			}
+		}
+
+		private void read() {
+			int size = (int) Math.min(this.bufferSize, this.remaining);
+			if (size == 0) {
+				closeChannel(this.channel);
+				this.state.set(State.DISPOSED);
+				this.sink.complete();
+				return;
+			}
+			DataBuffer dataBuffer = this.dataBufferFactory.allocateBuffer(size);
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer(0, size);
+			Attachment attachment = new Attachment(byteBuffer, dataBuffer);
+			this.channel.read(byteBuffer, this.position, attachment, this);
+		}
+
+		@Override
+		public void completed(Integer read, Attachment attachment) {
+			DataBuffer dataBuffer = attachment.dataBuffer();
+
+			if (this.state.get() == State.DISPOSED) {
+				release(dataBuffer);
+				closeChannel(this.channel);
+				return;
+			}
+
+			if (read == -1) {
+				release(dataBuffer);
+				closeChannel(this.channel);
+				this.state.set(State.DISPOSED);
+				this.sink.complete();
+				return;
+			}
+
+			this.position += read;
+			this.remaining -= read;
+			dataBuffer.writePosition(read);
+			this.sink.next(dataBuffer);
+
+			// Stay in READING mode if there is demand
+			if (this.sink.requestedFromDownstream() > 0) {
+				read();
+				return;
+			}
+
+			// Release READING mode and then try again in case of concurrent "request"
+			if (this.state.compareAndSet(State.READING, State.IDLE)) {
+				tryRead();
+			}
+		}
+
+		@Override
+		public void failed(Throwable ex, Attachment attachment) {
+			release(attachment.dataBuffer());
+
+			closeChannel(this.channel);
+			this.state.set(State.DISPOSED);
+			this.sink.error(ex);
+		}
+
+
+		private enum State {
+
+			IDLE, READING, DISPOSED
+		}
+
+
+		private record Attachment(ByteBuffer byteBuffer, DataBuffer dataBuffer) {
+		}
+	}
+
+
+	/**
+	 * Inner class to avoid a hard dependency on Netty at runtime.
+	 */
+	private static class NettyDelegate {
+
+		static boolean exposesMemory(NettyDataBuffer dataBuffer) {
+			return (dataBuffer.getNativeBuffer().nioBufferCount() == 1);
+		}
+
+		static int read(ReadableByteChannel channel, NettyDataBuffer dataBuffer, int length) throws IOException {
+			ByteBuf byteBuf = dataBuffer.getNativeBuffer();
+			ByteBuffer target = ByteBuffer.allocate(length);
+			int read = channel.read(target);
+			if (read > 0) {
+				byteBuf.writeBytes(target.flip());
+			}
+			return read;
+		}
+	}
+
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Default implementation of the {@link DataBuffer} interface that uses a
+ * {@link ByteBuffer} internally, with separate read and write positions.
+ * Constructed using the {@link DefaultDataBufferFactory}.
+ *
+ * <p>Inspired by Netty's {@code ByteBuf}. Introduced so that non-Netty runtimes
+ * (i.e. Servlet) do not require Netty on the classpath.
+ *
+ * @author Arjen Poutsma
+ * @author Juergen Hoeller
+ * @author Brian Clozel
+ * @since 6.1
+ * @see DefaultDataBufferFactory
+ */
+public class DefaultDataBuffer implements DataBuffer {
+
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE;
+
+	private static final int CAPACITY_THRESHOLD = 1024 * 1024 * 4;
+
+
+	private final DefaultDataBufferFactory dataBufferFactory;
+
+	private ByteBuffer byteBuffer;
+
+	private int capacity;
+
+	private int readPosition;
+
+	private int writePosition;
+
+
+	DefaultDataBuffer(DefaultDataBufferFactory dataBufferFactory, ByteBuffer byteBuffer) {
+		Assert.notNull(dataBufferFactory, "DefaultDataBufferFactory must not be null");
+		Assert.notNull(byteBuffer, "ByteBuffer must not be null");
+		this.dataBufferFactory = dataBufferFactory;
+		ByteBuffer slice = byteBuffer.slice();
+		this.byteBuffer = slice;
+		this.capacity = slice.remaining();
+	}
+
+
+	/**
+	 * Directly exposes the native {@code ByteBuffer} that this buffer is based
+	 * on also updating the {@code ByteBuffer's} position and limit to match
+	 * the current {@link #readPosition()} and {@link #readableByteCount()}.
+	 * @return the wrapped byte buffer
+	 */
+	public ByteBuffer getNativeBuffer() {
+		this.byteBuffer.position(this.readPosition);
+		this.byteBuffer.limit(this.writePosition);
+		return this.byteBuffer;
+	}
+
+	@Override
+	public DefaultDataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(byte value, int fromIndex) {
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int i = fromIndex; i < this.writePosition; i++) {
+			if (this.byteBuffer.get(i) == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public int writableByteCount() {
+		return this.capacity - this.writePosition;
+	}
+
+	@Override
+	public int readPosition() {
+		return this.readPosition;
+	}
+
+	@Override
+	public DefaultDataBuffer readPosition(int readPosition) {
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.writePosition;
+	}
+
+	@Override
+	public DefaultDataBuffer writePosition(int writePosition) {
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= this.capacity, "'writePosition' %d must be <= %d",
+				writePosition, this.capacity);
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public int capacity() {
+		return this.capacity;
+	}
+
+	@Override
+	public DefaultDataBuffer ensureWritable(int length) {
+		if (length > writableByteCount()) {
+			int newCapacity = calculateCapacity(this.writePosition + length);
+			setCapacity(newCapacity);
+		}
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d", index, this.writePosition - 1);
+		return this.byteBuffer.get(index);
+	}
+
+	@Override
+	public byte read() {
+		assertIndex(this.readPosition <= this.writePosition - 1, "readPosition %d must be <= %d",
+				this.readPosition, this.writePosition - 1);
+		int pos = this.readPosition;
+		byte b = this.byteBuffer.get(pos);
+		this.readPosition = pos + 1;
+		return b;
+	}
+
+	@Override
+	public DefaultDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "Byte array must not be null");
+		read(destination, 0, destination.length);
+		return this;
+	}
+
+	@Override
+	public DefaultDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "Byte array must not be null");
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+		this.byteBuffer.get(this.readPosition, destination, offset, length);
+		this.readPosition += length;
+		return this;
+	}
+
+	@Override
+	public DefaultDataBuffer write(byte b) {
+		ensureWritable(1);
+		int pos = this.writePosition;
+		this.byteBuffer.put(pos, b);
+		this.writePosition = pos + 1;
+		return this;
+	}
+
+	@Override
+	public DefaultDataBuffer write(byte[] source) {
+		Assert.notNull(source, "Byte array must not be null");
+		write(source, 0, source.length);
+		return this;
+	}
+
+	@Override
+	public DefaultDataBuffer write(byte[] source, int offset, int length) {
+		Assert.notNull(source, "Byte array must not be null");
+		ensureWritable(length);
+		this.byteBuffer.put(this.writePosition, source, offset, length);
+		this.writePosition += length;
+		return this;
+	}
+
+	@Override
+	public DefaultDataBuffer write(ByteBuffer... buffers) {
+		if (buffers.length > 0) {
+			int capacity = 0;
+			for (ByteBuffer buffer : buffers) {
+				capacity += buffer.remaining();
+			}
+			ensureWritable(capacity);
+			for (ByteBuffer buffer : buffers) {
+				int length = buffer.remaining();
+				this.byteBuffer.put(this.writePosition, buffer, buffer.position(), length);
+				buffer.position(buffer.position() + length);
+				this.writePosition += length;
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		return this.byteBuffer.slice(index, length);
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new DefaultDataBufferInputStream();
+	}
+
+	@Override
+	public String toString(int index, int length, Charset charset) {
+		checkIndex(index, length);
+		Assert.notNull(charset, "Charset must not be null");
+		byte[] bytes;
+		int offset;
+		if (this.byteBuffer.hasArray()) {
+			bytes = this.byteBuffer.array();
+			offset = this.byteBuffer.arrayOffset() + index;
+		}
+		else {
+			bytes = new byte[length];
+			offset = 0;
+			this.byteBuffer.get(index, bytes, 0, length);
+		}
+		return new String(bytes, offset, length, charset);
+	}
+
+	/**
+	 * Calculate the capacity of the buffer.
+	 * @see io.netty.buffer.AbstractByteBufAllocator#calculateNewCapacity(int, int)
+	 */
+	private int calculateCapacity(int neededCapacity) {
+		Assert.isTrue(neededCapacity >= 0, "'neededCapacity' must be >= 0");
+		if (neededCapacity == CAPACITY_THRESHOLD) {
+			return CAPACITY_THRESHOLD;
+		}
+		else if (neededCapacity > CAPACITY_THRESHOLD) {
+			int newCapacity = neededCapacity / CAPACITY_THRESHOLD * CAPACITY_THRESHOLD;
+			if (newCapacity > MAX_CAPACITY - CAPACITY_THRESHOLD) {
+				newCapacity = MAX_CAPACITY;
+			}
+			else {
+				newCapacity += CAPACITY_THRESHOLD;
+			}
+			return newCapacity;
+		}
+		else {
+			int newCapacity = 64;
+			while (newCapacity < neededCapacity) {
+				newCapacity <<= 1;
+			}
+			return Math.min(newCapacity, MAX_CAPACITY);
+		}
+	}
+
+	private void setCapacity(int newCapacity) {
+		Assert.isTrue(newCapacity >= 0, () -> String.format("'newCapacity' %d must be >= 0", newCapacity));
+		ByteBuffer newBuffer = allocate(newCapacity, this.byteBuffer.isDirect());
+		newBuffer.put(0, this.byteBuffer, 0, Math.min(this.writePosition, newCapacity));
+		this.byteBuffer = newBuffer;
+		this.capacity = newCapacity;
+		this.writePosition = Math.min(this.writePosition, newCapacity);
+		this.readPosition = Math.min(this.readPosition, this.writePosition);
+	}
+
+	private static ByteBuffer allocate(int capacity, boolean direct) {
+		return (direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+	}
+
+	private void checkIndex(int index, int length) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index <= this.capacity, "index %d must be <= %d", index, this.capacity);
+		assertIndex(length <= this.capacity - index, "length %d must be <= %d", length, this.capacity - index);
+	}
+
+	private static void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof DefaultDataBuffer that &&
+				this.readPosition == that.readPosition &&
+				this.writePosition == that.writePosition &&
+				this.byteBuffer.equals(that.byteBuffer)));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.byteBuffer.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("DefaultDataBuffer (r: %d, w: %d, c: %d)",
+				this.readPosition, this.writePosition, this.capacity);
+	}
+
+
+	private class DefaultDataBufferInputStream extends InputStream {
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return (available() > 0 ? DefaultDataBuffer.this.read() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) throws IOException {
+			int available = available();
+			if (available > 0) {
+				len = Math.min(len, available);
+				DefaultDataBuffer.this.read(bytes, off, len);
+				return len;
+			}
+			else {
+				return -1;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Implementation of the {@code DataBuffer} interface that wraps a Netty 4
+ * {@link ByteBuf}. Typically constructed with {@link NettyDataBufferFactory}.
+ *
+ * @author Arjen Poutsma
+ * @author Brian Clozel
+ * @since 6.1
+ */
+public class NettyDataBuffer implements PooledDataBuffer {
+
+	private final ByteBuf byteBuf;
+
+	private final NettyDataBufferFactory dataBufferFactory;
+
+
+	/**
+	 * Create a new {@code NettyDataBuffer} based on the given {@code ByteBuf}.
+	 * @param byteBuf the buffer to base this buffer on
+	 */
+	NettyDataBuffer(ByteBuf byteBuf, NettyDataBufferFactory dataBufferFactory) {
+		Assert.notNull(byteBuf, "ByteBuf must not be null");
+		Assert.notNull(dataBufferFactory, "NettyDataBufferFactory must not be null");
+		this.byteBuf = byteBuf;
+		this.dataBufferFactory = dataBufferFactory;
+	}
+
+
+	/**
+	 * Directly exposes the native {@code ByteBuf} that this buffer is based on.
+	 * @return the wrapped byte buffer
+	 */
+	public ByteBuf getNativeBuffer() {
+		return this.byteBuf;
+	}
+
+	@Override
+	public NettyDataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(byte value, int fromIndex) {
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.byteBuf.writerIndex()) {
+			return -1;
+		}
+		return this.byteBuf.indexOf(fromIndex, this.byteBuf.writerIndex(), value);
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.byteBuf.readableBytes();
+	}
+
+	@Override
+	public int writableByteCount() {
+		return this.byteBuf.writableBytes();
+	}
+
+	@Override
+	public int readPosition() {
+		return this.byteBuf.readerIndex();
+	}
+
+	@Override
+	public NettyDataBuffer readPosition(int readPosition) {
+		this.byteBuf.readerIndex(readPosition);
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.byteBuf.writerIndex();
+	}
+
+	@Override
+	public NettyDataBuffer writePosition(int writePosition) {
+		this.byteBuf.writerIndex(writePosition);
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		return this.byteBuf.getByte(index);
+	}
+
+	@Override
+	public int capacity() {
+		return this.byteBuf.capacity();
+	}
+
+	@Override
+	public NettyDataBuffer ensureWritable(int capacity) {
+		this.byteBuf.ensureWritable(capacity);
+		return this;
+	}
+
+	@Override
+	public byte read() {
+		return this.byteBuf.readByte();
+	}
+
+	@Override
+	public NettyDataBuffer read(byte[] destination) {
+		this.byteBuf.readBytes(destination);
+		return this;
+	}
+
+	@Override
+	public NettyDataBuffer read(byte[] destination, int offset, int length) {
+		this.byteBuf.readBytes(destination, offset, length);
+		return this;
+	}
+
+	@Override
+	public NettyDataBuffer write(byte b) {
+		this.byteBuf.writeByte(b);
+		return this;
+	}
+
+	@Override
+	public NettyDataBuffer write(byte[] source) {
+		this.byteBuf.writeBytes(source);
+		return this;
+	}
+
+	@Override
+	public NettyDataBuffer write(byte[] source, int offset, int length) {
+		this.byteBuf.writeBytes(source, offset, length);
+		return this;
+	}
+
+	@Override
+	public NettyDataBuffer write(ByteBuffer... buffers) {
+		if (buffers.length > 0) {
+			for (ByteBuffer buffer : buffers) {
+				this.byteBuf.writeBytes(buffer);
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public NettyDataBuffer write(CharSequence charSequence, Charset charset) {
+		Assert.notNull(charSequence, "CharSequence must not be null");
+		Assert.notNull(charset, "Charset must not be null");
+		this.byteBuf.writeCharSequence(charSequence, charset);
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>For a non-composite {@code ByteBuf}, as allocated by a
+	 * {@link NettyDataBufferFactory}, the returned buffer shares its memory.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		return this.byteBuf.nioBuffer(index, length);
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new ByteBufInputStream(this.byteBuf);
+	}
+
+	@Override
+	public String toString(int index, int length, Charset charset) {
+		Assert.notNull(charset, "Charset must not be null");
+		return this.byteBuf.toString(index, length, charset);
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return this.byteBuf.refCnt() > 0;
+	}
+
+	@Override
+	public NettyDataBuffer retain() {
+		return new NettyDataBuffer(this.byteBuf.retain(), this.dataBufferFactory);
+	}
+
+	@Override
+	public boolean release() {
+		return this.byteBuf.release();
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof NettyDataBuffer that &&
+				this.byteBuf.equals(that.byteBuf)));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.byteBuf.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.byteBuf.toString();
+	}
+
+}
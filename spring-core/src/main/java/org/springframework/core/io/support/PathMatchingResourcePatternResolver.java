@@ -0,0 +1,707 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.UrlResource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link ResourcePatternResolver} implementation that is able to resolve a
+ * specified resource location path into one or more matching Resources.
+ *
+ * <p>The source path may be a simple path which has a one-to-one mapping to a
+ * target {@link Resource}, or alternatively may contain the special
+ * "{@code classpath*:}" prefix and/or internal Ant-style path patterns
+ * (matched using Spring's {@link AntPathMatcher} utility). Both of the latter
+ * are effectively wildcards.
+ *
+ * <h3>Wildcards in Path Patterns</h3>
+ * <p>The pattern is split into a root directory path without wildcards and a
+ * sub-pattern. The root directory is resolved into one or more resources
+ * (every class path root containing it, in case of "{@code classpath*:}"),
+ * and the sub-pattern is then matched against the content of each root:
+ * <ul>
+ * <li>Directories in the file system are walked recursively, skipping
+ * sub-directories that the sub-pattern cannot match.
+ * <li>Jar files are looked up in a sorted index of their entry names, so the
+ * entries below the root directory are found with a binary search. The index
+ * is built once per jar file through a zip {@link FileSystem} and shared by
+ * all resolvers; it is rebuilt once the jar file's size or last-modified
+ * timestamp changes.
+ * </ul>
+ * All roots, and all sub-directories of a root directory, are scanned in
+ * parallel on a {@link ForkJoinPool} (by default the
+ * {@linkplain ForkJoinPool#commonPool() common pool}). The result is ordered
+ * as if the roots were scanned one after the other.
+ *
+ * <h3>Caching</h3>
+ * <p>The result of a "{@code classpath*:}" location or a "{@code classpath:}"
+ * pattern is memoized per location pattern until the class path changes,
+ * i.e. until the class loader or the URLs of any {@link URLClassLoader} in
+ * its hierarchy or the "java.class.path" system property change. Resources
+ * added to or removed from an unchanged class path are only picked up after
+ * {@link #clearCache()}.
+ *
+ * @author Juergen Hoeller
+ * @author Colin Sampaleanu
+ * @author Marius Bogoevici
+ * @author Costin Leau
+ * @author Phillip Webb
+ * @author Sam Brannen
+ * @since 1.0.2
+ * @see #CLASSPATH_ALL_URL_PREFIX
+ * @see org.springframework.util.AntPathMatcher
+ * @see org.springframework.core.io.ResourceLoader#getResource(String)
+ * @see ClassLoader#getResources(String)
+ */
+public class PathMatchingResourcePatternResolver implements ResourcePatternResolver {
+
+	private static final Log logger = LogFactory.getLog(PathMatchingResourcePatternResolver.class);
+
+	private static final Resource[] EMPTY_RESOURCE_ARRAY = new Resource[0];
+
+	/** Sorted entry name indexes of jar files, keyed by absolute jar file path. */
+	private static final Map<String, JarEntryIndex> jarEntryIndexCache = new ConcurrentReferenceHashMap<>(64);
+
+
+	private final ResourceLoader resourceLoader;
+
+	private PathMatcher pathMatcher = new AntPathMatcher();
+
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+	private final Map<String, CachedResources> resourcesCache = new ConcurrentReferenceHashMap<>(64);
+
+
+	/**
+	 * Create a {@code PathMatchingResourcePatternResolver} with a
+	 * {@link DefaultResourceLoader}.
+	 * <p>ClassLoader access will happen via the thread context class loader.
+	 * @see DefaultResourceLoader
+	 */
+	public PathMatchingResourcePatternResolver() {
+		this.resourceLoader = new DefaultResourceLoader();
+	}
+
+	/**
+	 * Create a {@code PathMatchingResourcePatternResolver} with the supplied
+	 * {@link ResourceLoader}.
+	 * <p>ClassLoader access will happen via the thread context class loader.
+	 * @param resourceLoader the {@code ResourceLoader} to load root directories
+	 * and actual resources with
+	 */
+	public PathMatchingResourcePatternResolver(ResourceLoader resourceLoader) {
+		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
+		this.resourceLoader = resourceLoader;
+	}
+
+	/**
+	 * Create a {@code PathMatchingResourcePatternResolver} with a
+	 * {@link DefaultResourceLoader} and the supplied {@link ClassLoader}.
+	 * @param classLoader the ClassLoader to load class path resources with,
+	 * or {@code null} for using the thread context class loader
+	 * at the time of actual resource access
+	 * @see DefaultResourceLoader
+	 */
+	public PathMatchingResourcePatternResolver(@Nullable ClassLoader classLoader) {
+		this.resourceLoader = new DefaultResourceLoader(classLoader);
+	}
+
+
+	/**
+	 * Return the {@link ResourceLoader} that this pattern resolver works with.
+	 */
+	public ResourceLoader getResourceLoader() {
+		return this.resourceLoader;
+	}
+
+	@Override
+	@Nullable
+	public ClassLoader getClassLoader() {
+		return getResourceLoader().getClassLoader();
+	}
+
+	/**
+	 * Set the {@link PathMatcher} implementation to use for this
+	 * resource pattern resolver.
+	 * <p>Default is {@link AntPathMatcher}.
+	 * @see AntPathMatcher
+	 */
+	public void setPathMatcher(PathMatcher pathMatcher) {
+		Assert.notNull(pathMatcher, "PathMatcher must not be null");
+		this.pathMatcher = pathMatcher;
+		clearCache();
+	}
+
+	/**
+	 * Return the {@link PathMatcher} that this resource pattern resolver uses.
+	 */
+	public PathMatcher getPathMatcher() {
+		return this.pathMatcher;
+	}
+
+	/**
+	 * Set the {@link ForkJoinPool} to scan class path roots and directories on.
+	 * <p>Default is the {@linkplain ForkJoinPool#commonPool() common pool}.
+	 * A dedicated pool avoids competing with other users of the common pool
+	 * for blocking file system access.
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		Assert.notNull(forkJoinPool, "ForkJoinPool must not be null");
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Clear the memoized results of class path pattern resolution,
+	 * forcing the next resolution of each pattern to scan the class path again.
+	 */
+	public void clearCache() {
+		this.resourcesCache.clear();
+	}
+
+
+	@Override
+	public Resource getResource(String location) {
+		return getResourceLoader().getResource(location);
+	}
+
+	@Override
+	public Resource[] getResources(String locationPattern) throws IOException {
+		Assert.notNull(locationPattern, "Location pattern must not be null");
+		if (!isCacheable(locationPattern)) {
+			return doGetResources(locationPattern);
+		}
+		ClassPathState classPathState = ClassPathState.of(getClassLoader());
+		CachedResources cached = this.resourcesCache.get(locationPattern);
+		if (cached == null || !cached.classPathState.equals(classPathState)) {
+			cached = new CachedResources(doGetResources(locationPattern), classPathState);
+			this.resourcesCache.put(locationPattern, cached);
+		}
+		return cached.resources.clone();
+	}
+
+	private boolean isCacheable(String locationPattern) {
+		return (locationPattern.startsWith(CLASSPATH_ALL_URL_PREFIX) ||
+				(locationPattern.startsWith(CLASSPATH_URL_PREFIX) &&
+						getPathMatcher().isPattern(locationPattern.substring(CLASSPATH_URL_PREFIX.length()))));
+	}
+
+	private Resource[] doGetResources(String locationPattern) throws IOException {
+		if (locationPattern.startsWith(CLASSPATH_ALL_URL_PREFIX)) {
+			// a class path resource (multiple resources for same name possible)
+			String locationPatternWithoutPrefix = locationPattern.substring(CLASSPATH_ALL_URL_PREFIX.length());
+			if (getPathMatcher().isPattern(locationPatternWithoutPrefix)) {
+				// a class path resource pattern
+				return findPathMatchingResources(locationPattern);
+			}
+			else {
+				// all class path resources with the given name
+				return findAllClassPathResources(locationPatternWithoutPrefix);
+			}
+		}
+		else {
+			// Only look for a pattern after a prefix here
+			int prefixEnd = locationPattern.indexOf(':') + 1;
+			if (getPathMatcher().isPattern(locationPattern.substring(prefixEnd))) {
+				// a file pattern
+				return findPathMatchingResources(locationPattern);
+			}
+			else {
+				// a single resource with the given name
+				return new Resource[] {getResourceLoader().getResource(locationPattern)};
+			}
+		}
+	}
+
+	/**
+	 * Find all class location resources with the given location via the ClassLoader.
+	 * @param location the absolute path within the class path
+	 * @return the result as Resource array
+	 * @throws IOException in case of I/O errors
+	 * @see java.lang.ClassLoader#getResources
+	 */
+	protected Resource[] findAllClassPathResources(String location) throws IOException {
+		String path = (location.startsWith("/") ? location.substring(1) : location);
+		Set<Resource> result = doFindAllClassPathResources(path);
+		if (logger.isTraceEnabled()) {
+			logger.trace("Resolved class path location [" + path + "] to resources " + result);
+		}
+		return result.toArray(EMPTY_RESOURCE_ARRAY);
+	}
+
+	/**
+	 * Find all class path resources with the given path via the configured
+	 * {@link #getClassLoader() ClassLoader}.
+	 * @param path the absolute path within the class path (never a leading slash)
+	 * @return a mutable Set of matching Resource instances
+	 * @throws IOException in case of I/O errors
+	 */
+	protected Set<Resource> doFindAllClassPathResources(String path) throws IOException {
+		Set<Resource> result = new LinkedHashSet<>(16);
+		ClassLoader cl = getClassLoader();
+		Enumeration<URL> resourceUrls = (cl != null ? cl.getResources(path) : ClassLoader.getSystemResources(path));
+		while (resourceUrls.hasMoreElements()) {
+			result.add(new UrlResource(resourceUrls.nextElement()));
+		}
+		if (!StringUtils.hasLength(path)) {
+			// The above result is likely to be incomplete, i.e. only containing file system references.
+			// We need to have pointers to each of the jar files on the class path as well...
+			addAllClassLoaderJarRoots(cl, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Search all {@link URLClassLoader} URLs and the "java.class.path" entries
+	 * for jar file references and add each to the given set of resources in
+	 * the form of a pointer to the root of the jar file content.
+	 * @param classLoader the ClassLoader to search (including its ancestors)
+	 * @param result the set of resources to add jar roots to
+	 */
+	protected void addAllClassLoaderJarRoots(@Nullable ClassLoader classLoader, Set<Resource> result) {
+		for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+			if (cl instanceof URLClassLoader urlClassLoader) {
+				for (URL url : urlClassLoader.getURLs()) {
+					if (ResourceUtils.isJarFileURL(url)) {
+						addJarRoot(ResourceUtils.JAR_URL_PREFIX + url + ResourceUtils.JAR_URL_SEPARATOR, result);
+					}
+				}
+			}
+		}
+		String javaClassPath = System.getProperty("java.class.path");
+		for (String path : StringUtils.delimitedListToStringArray(javaClassPath, File.pathSeparator)) {
+			if (path.toLowerCase().endsWith(ResourceUtils.JAR_FILE_EXTENSION)) {
+				File file = new File(path).getAbsoluteFile();
+				addJarRoot(ResourceUtils.JAR_URL_PREFIX + file.toURI() + ResourceUtils.JAR_URL_SEPARATOR, result);
+			}
+		}
+	}
+
+	private void addJarRoot(String jarRootUrl, Set<Resource> result) {
+		try {
+			UrlResource jarResource = new UrlResource(ResourceUtils.toURL(jarRootUrl));
+			if (jarResource.exists()) {
+				result.add(jarResource);
+			}
+		}
+		catch (MalformedURLException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Cannot search for matching files underneath [" + jarRootUrl +
+						"] because it cannot be converted to a valid 'jar:' URL: " + ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Find all resources that match the given location pattern via the
+	 * Ant-style PathMatcher, scanning all root directories in parallel.
+	 * @param locationPattern the location pattern to match
+	 * @return the result as Resource array
+	 * @throws IOException in case of I/O errors
+	 */
+	protected Resource[] findPathMatchingResources(String locationPattern) throws IOException {
+		String rootDirPath = determineRootDir(locationPattern);
+		String subPattern = locationPattern.substring(rootDirPath.length());
+		Resource[] rootDirResources = getResources(rootDirPath);
+		List<ForkJoinTask<Set<Resource>>> scans = new ArrayList<>(rootDirResources.length);
+		for (Resource rootDirResource : rootDirResources) {
+			scans.add(this.forkJoinPool.submit(() -> scanRootDirectory(rootDirResource, subPattern)));
+		}
+		Set<Resource> result = new LinkedHashSet<>(64);
+		for (ForkJoinTask<Set<Resource>> scan : scans) {
+			try {
+				result.addAll(scan.join());
+			}
+			catch (UncheckedIOException ex) {
+				throw ex.getCause();
+			}
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Resolved location pattern [" + locationPattern + "] to resources " + result);
+		}
+		return result.toArray(EMPTY_RESOURCE_ARRAY);
+	}
+
+	/**
+	 * Determine the root directory for the given location.
+	 * <p>Used for determining the starting point for file matching, resolving the
+	 * root directory location and passing the remainder of the location to
+	 * the sub-pattern matching.
+	 * <p>Will return "/WEB-INF/" for the location "/WEB-INF/*.xml", for example.
+	 * @param location the location to check
+	 * @return the part of the location that denotes the root directory
+	 */
+	protected String determineRootDir(String location) {
+		int prefixEnd = location.indexOf(':') + 1;
+		int rootDirEnd = location.length();
+		while (rootDirEnd > prefixEnd && getPathMatcher().isPattern(location.substring(prefixEnd, rootDirEnd))) {
+			rootDirEnd = location.lastIndexOf('/', rootDirEnd - 2) + 1;
+		}
+		if (rootDirEnd == 0) {
+			rootDirEnd = prefixEnd;
+		}
+		return location.substring(0, rootDirEnd);
+	}
+
+	private Set<Resource> scanRootDirectory(Resource rootDirResource, String subPattern) {
+		try {
+			URL rootDirUrl = rootDirResource.getURL();
+			if (ResourceUtils.isJarURL(rootDirUrl)) {
+				return doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern);
+			}
+			if (ResourceUtils.isFileURL(rootDirUrl)) {
+				return doFindPathMatchingFileResources(rootDirResource, subPattern);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Skipping unsupported root directory " + rootDirResource);
+			}
+			return new LinkedHashSet<>();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Find all resources in jar files that match the given location pattern
+	 * via the Ant-style PathMatcher.
+	 * <p>Entries of jar files in the file system are looked up in the shared
+	 * jar entry index; other jar URLs are enumerated through a
+	 * {@link JarURLConnection}.
+	 * @param rootDirResource the root directory as Resource
+	 * @param rootDirUrl the pre-resolved root directory URL
+	 * @param subPattern the sub pattern to match (below the root directory)
+	 * @return a mutable Set of matching Resource instances
+	 * @throws IOException in case of I/O errors
+	 */
+	protected Set<Resource> doFindPathMatchingJarResources(Resource rootDirResource, URL rootDirUrl, String subPattern)
+			throws IOException {
+
+		String urlFile = rootDirUrl.getFile();
+		int separatorIndex = urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR);
+		if (separatorIndex != -1 && urlFile.startsWith(ResourceUtils.FILE_URL_PREFIX)) {
+			String rootEntryPath = urlFile.substring(separatorIndex + ResourceUtils.JAR_URL_SEPARATOR.length());
+			if (!rootEntryPath.contains(ResourceUtils.JAR_URL_SEPARATOR)) {
+				File jarFile;
+				try {
+					jarFile = ResourceUtils.getFile(ResourceUtils.extractJarFileURL(rootDirUrl));
+				}
+				catch (IOException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Skipping invalid jar class path entry [" + urlFile + "]");
+					}
+					return new LinkedHashSet<>();
+				}
+				String[] entryNames = getJarEntryIndex(jarFile).entryNames;
+				return findMatchingEntries(rootDirUrl, normalizeRootEntryPath(rootEntryPath), subPattern, entryNames);
+			}
+		}
+
+		// Nested or remote jar: enumerate the entries through the URL connection
+		URLConnection con = rootDirUrl.openConnection();
+		if (!(con instanceof JarURLConnection jarCon)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Skipping jar root without JarURLConnection: " + rootDirResource);
+			}
+			return new LinkedHashSet<>();
+		}
+		ResourceUtils.useCachesIfNecessary(jarCon);
+		JarFile jarFile = jarCon.getJarFile();
+		try {
+			JarEntry jarEntry = jarCon.getJarEntry();
+			String rootEntryPath = (jarEntry != null ? jarEntry.getName() : "");
+			List<String> entryNames = new ArrayList<>();
+			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+				entryNames.add(entries.nextElement().getName());
+			}
+			String[] sortedNames = StringUtils.sortStringArray(StringUtils.toStringArray(entryNames));
+			return findMatchingEntries(rootDirUrl, normalizeRootEntryPath(rootEntryPath), subPattern, sortedNames);
+		}
+		finally {
+			if (!jarCon.getUseCaches()) {
+				jarFile.close();
+			}
+		}
+	}
+
+	private static String normalizeRootEntryPath(String rootEntryPath) {
+		return (StringUtils.hasLength(rootEntryPath) && !rootEntryPath.endsWith("/") ? rootEntryPath + "/" : rootEntryPath);
+	}
+
+	private Set<Resource> findMatchingEntries(URL rootDirUrl, String rootEntryPath, String subPattern,
+			String[] sortedEntryNames) throws MalformedURLException {
+
+		Set<Resource> result = new LinkedHashSet<>(8);
+		PathMatcher pathMatcher = getPathMatcher();
+		// All entries below the root entry path are adjacent in the sorted index
+		int fromIndex = Arrays.binarySearch(sortedEntryNames, rootEntryPath);
+		if (fromIndex < 0) {
+			fromIndex = -(fromIndex + 1);
+		}
+		for (int i = fromIndex; i < sortedEntryNames.length && sortedEntryNames[i].startsWith(rootEntryPath); i++) {
+			String relativePath = sortedEntryNames[i].substring(rootEntryPath.length());
+			if (pathMatcher.match(subPattern, relativePath)) {
+				result.add(new UrlResource(ResourceUtils.toRelativeURL(rootDirUrl, relativePath)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the entry index for the given jar file, building it if the jar
+	 * file has not been indexed yet or has changed since it was indexed.
+	 */
+	private static JarEntryIndex getJarEntryIndex(File jarFile) throws IOException {
+		Path jarPath = jarFile.toPath().toAbsolutePath();
+		String key = jarPath.toString();
+		BasicFileAttributes attributes = Files.readAttributes(jarPath, BasicFileAttributes.class);
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		JarEntryIndex index = jarEntryIndexCache.get(key);
+		if (index == null || index.size != attributes.size() || index.lastModified != lastModified) {
+			index = JarEntryIndex.build(jarPath, attributes.size(), lastModified);
+			jarEntryIndexCache.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Find all resources in the file system that match the given location
+	 * pattern via the Ant-style PathMatcher, walking sub-directories in parallel.
+	 * @param rootDirResource the root directory as Resource
+	 * @param subPattern the sub pattern to match (below the root directory)
+	 * @return a mutable Set of matching Resource instances
+	 * @throws IOException in case of I/O errors
+	 */
+	protected Set<Resource> doFindPathMatchingFileResources(Resource rootDirResource, String subPattern)
+			throws IOException {
+
+		File rootDir = rootDirResource.getFile().getAbsoluteFile();
+		if (!rootDir.isDirectory()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Skipping search for files matching pattern [" + subPattern + "]: directory [" +
+						rootDir + "] does not exist or is not a directory");
+			}
+			return new LinkedHashSet<>();
+		}
+		String pattern = (subPattern.startsWith("/") ? subPattern.substring(1) : subPattern);
+		List<Resource> matches = new DirectoryScan(rootDir, "", pattern, getPathMatcher()).invoke();
+		return new LinkedHashSet<>(matches);
+	}
+
+
+	/**
+	 * Memoized result of a class path pattern, with the class path state it
+	 * was resolved against.
+	 */
+	private record CachedResources(Resource[] resources, ClassPathState classPathState) {
+	}
+
+
+	/**
+	 * Identifies a class path by its class loader and the class path entries
+	 * visible through {@link URLClassLoader URLClassLoaders} and the
+	 * "java.class.path" system property.
+	 */
+	private record ClassPathState(int classLoaderId, int urlsHash, @Nullable String javaClassPath) {
+
+		static ClassPathState of(@Nullable ClassLoader classLoader) {
+			int urlsHash = 1;
+			for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+				if (cl instanceof URLClassLoader urlClassLoader) {
+					for (URL url : urlClassLoader.getURLs()) {
+						// Hash the String form: URL.hashCode() may resolve host names
+						urlsHash = 31 * urlsHash + url.toString().hashCode();
+					}
+				}
+			}
+			return new ClassPathState(System.identityHashCode(classLoader), urlsHash,
+					System.getProperty("java.class.path"));
+		}
+	}
+
+
+	/**
+	 * Sorted names of all entries of a jar file, as of a given size and
+	 * last-modified timestamp of that file. Directory names end with "/".
+	 */
+	private static final class JarEntryIndex {
+
+		final String[] entryNames;
+
+		final long size;
+
+		final long lastModified;
+
+		private JarEntryIndex(String[] entryNames, long size, long lastModified) {
+			this.entryNames = entryNames;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+
+		static JarEntryIndex build(Path jarPath, long size, long lastModified) throws IOException {
+			List<String> entryNames = new ArrayList<>(256);
+			try (FileSystem zipFileSystem = FileSystems.newFileSystem(jarPath, (ClassLoader) null)) {
+				Path root = zipFileSystem.getPath("/");
+				Files.walkFileTree(root, new SimpleFileVisitor<>() {
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+						if (!dir.equals(root)) {
+							String name = entryName(dir);
+							entryNames.add(name.endsWith("/") ? name : name + "/");
+						}
+						return FileVisitResult.CONTINUE;
+					}
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+						entryNames.add(entryName(file));
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			}
+			String[] sortedNames = StringUtils.toStringArray(entryNames);
+			Arrays.sort(sortedNames);
+			return new JarEntryIndex(sortedNames, size, lastModified);
+		}
+
+		private static String entryName(Path path) {
+			String name = path.toString();
+			return (name.startsWith("/") ? name.substring(1) : name);
+		}
+	}
+
+
+	/**
+	 * Scans a directory for files matching a pattern, forking a sub-task for
+	 * every sub-directory that the pattern can match below. Matches are
+	 * returned in the order of a sequential depth-first walk with sorted
+	 * directory listings.
+	 */
+	@SuppressWarnings("serial")
+	private static final class DirectoryScan extends RecursiveTask<List<Resource>> {
+
+		private final File dir;
+
+		/** Path of the directory relative to the root directory, ending with "/" unless empty. */
+		private final String relativePath;
+
+		private final String pattern;
+
+		private final PathMatcher pathMatcher;
+
+		DirectoryScan(File dir, String relativePath, String pattern, PathMatcher pathMatcher) {
+			this.dir = dir;
+			this.relativePath = relativePath;
+			this.pattern = pattern;
+			this.pathMatcher = pathMatcher;
+		}
+
+		@Override
+		protected List<Resource> compute() {
+			File[] files = this.dir.listFiles();
+			if (files == null) {
+				// Not readable
+				return List.of();
+			}
+			Arrays.sort(files);
+			// Either a matching Resource or a DirectoryScan, in listing order
+			List<Object> entries = new ArrayList<>(files.length);
+			List<DirectoryScan> subScans = new ArrayList<>();
+			for (File file : files) {
+				String path = this.relativePath + file.getName();
+				if (file.isDirectory()) {
+					if (this.pathMatcher.matchStart(this.pattern, path + "/")) {
+						DirectoryScan subScan = new DirectoryScan(file, path + "/", this.pattern, this.pathMatcher);
+						subScans.add(subScan);
+						entries.add(subScan);
+					}
+				}
+				else if (this.pathMatcher.match(this.pattern, path)) {
+					entries.add(fileResource(file));
+				}
+			}
+			if (subScans.isEmpty()) {
+				return castToResources(entries);
+			}
+			invokeAll(subScans);
+			List<Resource> result = new ArrayList<>();
+			for (Object entry : entries) {
+				if (entry instanceof DirectoryScan subScan) {
+					result.addAll(subScan.join());
+				}
+				else {
+					result.add((Resource) entry);
+				}
+			}
+			return result;
+		}
+
+		private static Resource fileResource(File file) {
+			try {
+				return new UrlResource(file.toURI());
+			}
+			catch (MalformedURLException ex) {
+				throw new IllegalStateException("Cannot convert file to URL: " + file, ex);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private static List<Resource> castToResources(List<Object> entries) {
+			return (List<Resource>) (List<?>) entries;
+		}
+	}
+
+}
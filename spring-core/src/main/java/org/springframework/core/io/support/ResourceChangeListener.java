@@ -0,0 +1,36 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+/**
+ * Callback interface for changes to resources watched by a {@link ResourceWatcher}.
+ *
+ * @since 6.1
+ * @see ResourceWatcher#addListener
+ */
+@FunctionalInterface
+public interface ResourceChangeListener {
+
+	/**
+	 * Handle the given set of changed resources.
+	 * <p>Invoked on the watcher thread, once per debounce window with changes;
+	 * implementations should hand off expensive work.
+	 * @param changes the resources that changed, never empty
+	 */
+	void onChange(ResourceChangeSet changes);
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Immutable set of watched resources that changed within one debounce window
+ * of a {@link ResourceWatcher}, each with the net {@link Kind} of its change.
+ *
+ * @since 6.1
+ * @see ResourceChangeListener
+ */
+public final class ResourceChangeSet {
+
+	/**
+	 * The kind of change of a resource.
+	 */
+	public enum Kind {
+
+		/** The resource did not exist before and exists now. */
+		CREATED,
+
+		/** The resource existed before and its content changed. */
+		MODIFIED,
+
+		/** The resource existed before and does not exist anymore. */
+		DELETED
+	}
+
+
+	private final Map<Resource, Kind> changes;
+
+
+	ResourceChangeSet(Map<Resource, Kind> changes) {
+		Assert.notNull(changes, "Changes must not be null");
+		this.changes = Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+	}
+
+
+	/**
+	 * Return the changed resources, in the order their first change was observed.
+	 */
+	public Set<Resource> getResources() {
+		return this.changes.keySet();
+	}
+
+	/**
+	 * Return the kind of change of the given resource.
+	 * @param resource the resource to check
+	 * @return the kind of change, or {@code null} if the resource did not change
+	 */
+	@Nullable
+	public Kind getKind(Resource resource) {
+		return this.changes.get(resource);
+	}
+
+	/**
+	 * Determine whether the given resource changed.
+	 */
+	public boolean contains(Resource resource) {
+		return this.changes.containsKey(resource);
+	}
+
+	/**
+	 * Return the number of changed resources.
+	 */
+	public int size() {
+		return this.changes.size();
+	}
+
+	@Override
+	public String toString() {
+		return "ResourceChangeSet " + this.changes;
+	}
+
+}
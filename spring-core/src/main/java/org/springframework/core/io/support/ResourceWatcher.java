@@ -0,0 +1,430 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Watches a set of file-backed {@link Resource Resources} for changes, based on
+ * a {@link WatchService} for the directories that contain them.
+ *
+ * <p>Changes are collected on a dedicated daemon thread and debounced: a burst
+ * of file system events is published as a single {@link ResourceChangeSet} once
+ * no further event arrived for the {@linkplain #setDebounceDelay debounce delay},
+ * or at the latest after {@value #MAX_DEBOUNCE_FACTOR} times that delay. Each
+ * published change reflects the net effect on the file, compared by existence,
+ * size and last-modified timestamp against the state published before; events
+ * without such an effect are not published.
+ *
+ * <p>Detecting a change does not involve {@link Resource#lastModified()} and
+ * does not open any connection. Only resources that resolve to a file in the
+ * default file system can be watched.
+ *
+ * <p>Typical usage:
+ * <pre class="code">
+ * ResourceWatcher watcher = new ResourceWatcher();
+ * watcher.addListener(changes -&gt; reload(changes.getResources()));
+ * watcher.watch(resource);
+ * watcher.start();
+ * ...
+ * watcher.close();
+ * </pre>
+ *
+ * <p>Note that the latency of change detection depends on the platform's
+ * {@code WatchService} implementation, which may fall back to polling.
+ *
+ * @since 6.1
+ * @see ResourceChangeListener
+ */
+public class ResourceWatcher implements Closeable {
+
+	/** Default debounce delay in milliseconds: {@value}. */
+	public static final long DEFAULT_DEBOUNCE_DELAY = 200;
+
+	/** Factor of the debounce delay after which pending changes are published regardless. */
+	public static final int MAX_DEBOUNCE_FACTOR = 10;
+
+	private static final Log logger = LogFactory.getLog(ResourceWatcher.class);
+
+
+	private final WatchService watchService;
+
+	private final List<ResourceChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+	private volatile long debounceDelay = DEFAULT_DEBOUNCE_DELAY;
+
+	/** Watched files by absolute path; also guards {@link #directories}. */
+	private final Map<Path, WatchedFile> files = new HashMap<>();
+
+	/** Registered directories by path. */
+	private final Map<Path, WatchedDirectory> directories = new HashMap<>();
+
+	@Nullable
+	private Thread watcherThread;
+
+	private volatile boolean running;
+
+	// Pending changes, only accessed by the watcher thread
+
+	private final Set<Path> pendingFiles = new LinkedHashSet<>();
+
+	private long firstPendingEvent;
+
+	private long lastPendingEvent;
+
+
+	/**
+	 * Create a new {@code ResourceWatcher} on the default file system.
+	 * @throws IOException if the {@code WatchService} cannot be created
+	 */
+	public ResourceWatcher() throws IOException {
+		this.watchService = FileSystems.getDefault().newWatchService();
+	}
+
+
+	/**
+	 * Set the delay in milliseconds without further events after which a
+	 * burst of changes is published.
+	 * <p>Default is {@value #DEFAULT_DEBOUNCE_DELAY}.
+	 */
+	public void setDebounceDelay(long debounceDelay) {
+		Assert.isTrue(debounceDelay >= 0, "Debounce delay must not be negative");
+		this.debounceDelay = debounceDelay;
+	}
+
+	/**
+	 * Return the debounce delay in milliseconds.
+	 */
+	public long getDebounceDelay() {
+		return this.debounceDelay;
+	}
+
+	/**
+	 * Add a listener to be notified of changes.
+	 * @param listener the listener to add
+	 */
+	public void addListener(ResourceChangeListener listener) {
+		Assert.notNull(listener, "ResourceChangeListener must not be null");
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Remove the given listener.
+	 * @param listener the listener to remove
+	 */
+	public void removeListener(ResourceChangeListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Start watching the given resource.
+	 * <p>The resource does not need to exist, but its parent directory does.
+	 * Watching an already watched resource has no effect.
+	 * @param resource the resource to watch
+	 * @throws java.io.FileNotFoundException if the resource cannot be resolved
+	 * to a file in the file system
+	 * @throws IOException if the parent directory cannot be watched
+	 */
+	public void watch(Resource resource) throws IOException {
+		Assert.notNull(resource, "Resource must not be null");
+		Path file = toPath(resource);
+		Path directory = file.getParent();
+		Assert.state(directory != null, () -> "No parent directory for " + resource);
+		synchronized (this.files) {
+			if (this.files.containsKey(file)) {
+				return;
+			}
+			WatchedDirectory watchedDirectory = this.directories.get(directory);
+			if (watchedDirectory == null) {
+				WatchKey key = directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+				watchedDirectory = new WatchedDirectory(directory, key);
+				this.directories.put(directory, watchedDirectory);
+			}
+			watchedDirectory.fileCount++;
+			this.files.put(file, new WatchedFile(resource, FileState.of(file)));
+		}
+	}
+
+	/**
+	 * Stop watching the given resource.
+	 * @param resource the resource to stop watching
+	 * @throws java.io.FileNotFoundException if the resource cannot be resolved
+	 * to a file in the file system
+	 */
+	public void unwatch(Resource resource) throws IOException {
+		Assert.notNull(resource, "Resource must not be null");
+		Path file = toPath(resource);
+		synchronized (this.files) {
+			if (this.files.remove(file) == null) {
+				return;
+			}
+			WatchedDirectory watchedDirectory = this.directories.get(file.getParent());
+			if (watchedDirectory != null && --watchedDirectory.fileCount == 0) {
+				watchedDirectory.key.cancel();
+				this.directories.remove(watchedDirectory.path);
+			}
+		}
+	}
+
+	/**
+	 * Return the currently watched resources.
+	 */
+	public Set<Resource> getWatchedResources() {
+		Set<Resource> resources = new LinkedHashSet<>();
+		synchronized (this.files) {
+			for (WatchedFile watchedFile : this.files.values()) {
+				resources.add(watchedFile.resource);
+			}
+		}
+		return resources;
+	}
+
+	/**
+	 * Start the watcher thread, if not started yet.
+	 */
+	public synchronized void start() {
+		Assert.state(this.watcherThread == null || this.running, "ResourceWatcher has been closed");
+		if (this.watcherThread == null) {
+			this.running = true;
+			Thread thread = new Thread(this::run, "resource-watcher");
+			thread.setDaemon(true);
+			this.watcherThread = thread;
+			thread.start();
+		}
+	}
+
+	/**
+	 * Stop the watcher thread and release the {@code WatchService}.
+	 * Pending changes are discarded.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		this.running = false;
+		this.watchService.close();
+		synchronized (this.files) {
+			this.files.clear();
+			this.directories.clear();
+		}
+	}
+
+
+	private void run() {
+		try {
+			while (this.running) {
+				WatchKey key;
+				if (this.pendingFiles.isEmpty()) {
+					key = this.watchService.take();
+				}
+				else {
+					long delay = this.debounceDelay;
+					long deadline = Math.min(this.lastPendingEvent + delay,
+							this.firstPendingEvent + delay * MAX_DEBOUNCE_FACTOR);
+					long wait = deadline - System.currentTimeMillis();
+					if (wait <= 0) {
+						publishPendingChanges();
+						continue;
+					}
+					key = this.watchService.poll(wait, TimeUnit.MILLISECONDS);
+				}
+				if (key != null) {
+					collectEvents(key);
+					key.reset();
+				}
+			}
+		}
+		catch (ClosedWatchServiceException ex) {
+			// closed: exit
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void collectEvents(WatchKey key) {
+		List<WatchEvent<?>> events = key.pollEvents();
+		boolean wasEmpty = this.pendingFiles.isEmpty();
+		boolean pending = false;
+		synchronized (this.files) {
+			WatchedDirectory watchedDirectory = this.directories.get((Path) key.watchable());
+			if (watchedDirectory == null || watchedDirectory.key != key) {
+				return;
+			}
+			for (WatchEvent<?> event : events) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					// Events lost: check every file in the directory
+					for (Path file : this.files.keySet()) {
+						if (watchedDirectory.path.equals(file.getParent())) {
+							this.pendingFiles.add(file);
+							pending = true;
+						}
+					}
+				}
+				else if (event.context() instanceof Path name) {
+					Path file = watchedDirectory.path.resolve(name);
+					if (this.files.containsKey(file)) {
+						this.pendingFiles.add(file);
+						pending = true;
+					}
+				}
+			}
+		}
+		if (pending) {
+			long now = System.currentTimeMillis();
+			if (wasEmpty) {
+				this.firstPendingEvent = now;
+			}
+			this.lastPendingEvent = now;
+		}
+	}
+
+	private void publishPendingChanges() {
+		Map<Resource, ResourceChangeSet.Kind> changes = new LinkedHashMap<>();
+		List<Path> files = new ArrayList<>(this.pendingFiles);
+		this.pendingFiles.clear();
+		for (Path file : files) {
+			FileState state = FileState.of(file);
+			synchronized (this.files) {
+				WatchedFile watchedFile = this.files.get(file);
+				if (watchedFile != null) {
+					ResourceChangeSet.Kind kind = watchedFile.state.changeTo(state);
+					if (kind != null) {
+						changes.put(watchedFile.resource, kind);
+					}
+					watchedFile.state = state;
+				}
+			}
+		}
+		if (!changes.isEmpty()) {
+			ResourceChangeSet changeSet = new ResourceChangeSet(changes);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Publishing " + changeSet);
+			}
+			for (ResourceChangeListener listener : this.listeners) {
+				try {
+					listener.onChange(changeSet);
+				}
+				catch (Throwable ex) {
+					logger.warn("ResourceChangeListener failed to handle " + changeSet, ex);
+				}
+			}
+		}
+	}
+
+	private static Path toPath(Resource resource) throws IOException {
+		return resource.getFile().toPath().toAbsolutePath().normalize();
+	}
+
+
+	/**
+	 * A watched directory, with the number of watched files in it.
+	 */
+	private static final class WatchedDirectory {
+
+		final Path path;
+
+		final WatchKey key;
+
+		int fileCount;
+
+		WatchedDirectory(Path path, WatchKey key) {
+			this.path = path;
+			this.key = key;
+		}
+	}
+
+
+	/**
+	 * A watched file, with the state published for it last.
+	 */
+	private static final class WatchedFile {
+
+		final Resource resource;
+
+		FileState state;
+
+		WatchedFile(Resource resource, FileState state) {
+			this.resource = resource;
+			this.state = state;
+		}
+	}
+
+
+	/**
+	 * Existence, size and last-modified timestamp of a file.
+	 */
+	private record FileState(boolean exists, long size, long lastModified) {
+
+		static final FileState MISSING = new FileState(false, -1, -1);
+
+		static FileState of(Path file) {
+			try {
+				BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				return new FileState(true, attributes.size(), attributes.lastModifiedTime().toMillis());
+			}
+			catch (NoSuchFileException ex) {
+				return MISSING;
+			}
+			catch (IOException ex) {
+				// Unreadable: treat as missing until readable again
+				return MISSING;
+			}
+		}
+
+		@Nullable
+		ResourceChangeSet.Kind changeTo(FileState newState) {
+			if (this.exists && !newState.exists) {
+				return ResourceChangeSet.Kind.DELETED;
+			}
+			else if (!this.exists && newState.exists) {
+				return ResourceChangeSet.Kind.CREATED;
+			}
+			else if (this.exists && !equals(newState)) {
+				return ResourceChangeSet.Kind.MODIFIED;
+			}
+			return null;
+		}
+	}
+
+}
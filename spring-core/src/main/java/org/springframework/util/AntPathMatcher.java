@@ -0,0 +1,325 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Map;
+
+/**
+ * {@link PathMatcher} implementation for Ant-style path patterns.
+ *
+ * <p>The mapping matches URLs using the following rules:<br>
+ * <ul>
+ * <li>{@code ?} matches one character</li>
+ * <li>{@code *} matches zero or more characters</li>
+ * <li>{@code **} matches zero or more <em>directories</em> in a path</li>
+ * </ul>
+ *
+ * <h3>Examples</h3>
+ * <ul>
+ * <li>{@code com/t?st.jsp} &mdash; matches {@code com/test.jsp} but also
+ * {@code com/tast.jsp} or {@code com/txst.jsp}</li>
+ * <li>{@code com/*.jsp} &mdash; matches all {@code .jsp} files in the
+ * {@code com} directory</li>
+ * <li><code>com/&#42;&#42;/test.jsp</code> &mdash; matches all {@code test.jsp}
+ * files underneath the {@code com} path</li>
+ * <li><code>org/&#42;&#42;/servlet/bla.jsp</code> &mdash; matches
+ * {@code org/springframework/servlet/bla.jsp} but also
+ * {@code org/springframework/testing/servlet/bla.jsp} and {@code org/servlet/bla.jsp}</li>
+ * </ul>
+ *
+ * <p>Segments are matched without regular expressions, and tokenized
+ * patterns are cached, so matching the same pattern against many paths
+ * (as during class path scanning) only tokenizes the path itself.
+ * URI template variables ({@code {name}}) are not supported.
+ *
+ * @author Alef Arendsen
+ * @author Juergen Hoeller
+ * @author Rob Harrop
+ * @author Arjen Poutsma
+ * @since 16.07.2003
+ */
+public class AntPathMatcher implements PathMatcher {
+
+	/** Default path separator: "/". */
+	public static final String DEFAULT_PATH_SEPARATOR = "/";
+
+	private static final String[] NO_TOKENS = new String[0];
+
+
+	private final String pathSeparator;
+
+	private boolean caseSensitive = true;
+
+	private boolean trimTokens = false;
+
+	private final Map<String, String[]> tokenizedPatternCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	/**
+	 * Create a new instance with the {@link #DEFAULT_PATH_SEPARATOR}.
+	 */
+	public AntPathMatcher() {
+		this.pathSeparator = DEFAULT_PATH_SEPARATOR;
+	}
+
+	/**
+	 * A convenient, alternative constructor to use with a custom path separator.
+	 * @param pathSeparator the path separator to use, must not be {@code null}.
+	 */
+	public AntPathMatcher(String pathSeparator) {
+		Assert.notNull(pathSeparator, "'pathSeparator' is required");
+		this.pathSeparator = pathSeparator;
+	}
+
+
+	/**
+	 * Specify whether to perform pattern matching in a case-sensitive fashion.
+	 * <p>Default is {@code true}. Switch this to {@code false} for case-insensitive matching.
+	 */
+	public void setCaseSensitive(boolean caseSensitive) {
+		this.caseSensitive = caseSensitive;
+	}
+
+	/**
+	 * Specify whether to trim tokenized paths and patterns.
+	 * <p>Default is {@code false}.
+	 */
+	public void setTrimTokens(boolean trimTokens) {
+		this.trimTokens = trimTokens;
+		this.tokenizedPatternCache.clear();
+	}
+
+
+	@Override
+	public boolean isPattern(String path) {
+		return (path != null && (path.indexOf('*') != -1 || path.indexOf('?') != -1));
+	}
+
+	@Override
+	public boolean match(String pattern, String path) {
+		return doMatch(pattern, path, true);
+	}
+
+	@Override
+	public boolean matchStart(String pattern, String path) {
+		return doMatch(pattern, path, false);
+	}
+
+	/**
+	 * Actually match the given {@code path} against the given {@code pattern}.
+	 * @param pattern the pattern to match against
+	 * @param path the path to test
+	 * @param fullMatch whether a full pattern match is required (else a pattern match
+	 * as far as the given base path goes is sufficient)
+	 * @return {@code true} if the supplied {@code path} matched, {@code false} if it didn't
+	 */
+	protected boolean doMatch(String pattern, String path, boolean fullMatch) {
+		if (path == null || path.startsWith(this.pathSeparator) != pattern.startsWith(this.pathSeparator)) {
+			return false;
+		}
+
+		String[] pattDirs = tokenizePattern(pattern);
+		String[] pathDirs = tokenizePath(path);
+		int pattIdxStart = 0;
+		int pattIdxEnd = pattDirs.length - 1;
+		int pathIdxStart = 0;
+		int pathIdxEnd = pathDirs.length - 1;
+
+		// Match all elements up to the first **
+		while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+			String pattDir = pattDirs[pattIdxStart];
+			if ("**".equals(pattDir)) {
+				break;
+			}
+			if (!matchStrings(pattDir, pathDirs[pathIdxStart])) {
+				return false;
+			}
+			pattIdxStart++;
+			pathIdxStart++;
+		}
+
+		if (pathIdxStart > pathIdxEnd) {
+			// Path is exhausted, only match if rest of pattern is * or **'s
+			if (pattIdxStart > pattIdxEnd) {
+				return (pattern.endsWith(this.pathSeparator) == path.endsWith(this.pathSeparator));
+			}
+			if (!fullMatch) {
+				return true;
+			}
+			if (pattIdxStart == pattIdxEnd && pattDirs[pattIdxStart].equals("*") &&
+					path.endsWith(this.pathSeparator)) {
+				return true;
+			}
+			return onlyDoubleWildcards(pattDirs, pattIdxStart, pattIdxEnd);
+		}
+		else if (pattIdxStart > pattIdxEnd) {
+			// String not exhausted, but pattern is. Failure.
+			return false;
+		}
+		else if (!fullMatch && "**".equals(pattDirs[pattIdxStart])) {
+			// Path start definitely matches due to "**" part in pattern.
+			return true;
+		}
+
+		// Up to last '**'
+		while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+			String pattDir = pattDirs[pattIdxEnd];
+			if (pattDir.equals("**")) {
+				break;
+			}
+			if (!matchStrings(pattDir, pathDirs[pathIdxEnd])) {
+				return false;
+			}
+			if (pattIdxEnd == (pattDirs.length - 1) &&
+					pattern.endsWith(this.pathSeparator) != path.endsWith(this.pathSeparator)) {
+				return false;
+			}
+			pattIdxEnd--;
+			pathIdxEnd--;
+		}
+		if (pathIdxStart > pathIdxEnd) {
+			// String is exhausted
+			return onlyDoubleWildcards(pattDirs, pattIdxStart, pattIdxEnd);
+		}
+
+		while (pattIdxStart != pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+			int patIdxTmp = -1;
+			for (int i = pattIdxStart + 1; i <= pattIdxEnd; i++) {
+				if (pattDirs[i].equals("**")) {
+					patIdxTmp = i;
+					break;
+				}
+			}
+			if (patIdxTmp == pattIdxStart + 1) {
+				// '**/**' situation, so skip one
+				pattIdxStart++;
+				continue;
+			}
+			// Find the pattern between pattIdxStart & patIdxTmp in str between
+			// pathIdxStart & pathIdxEnd
+			int patLength = (patIdxTmp - pattIdxStart - 1);
+			int strLength = (pathIdxEnd - pathIdxStart + 1);
+			int foundIdx = -1;
+
+			strLoop:
+			for (int i = 0; i <= strLength - patLength; i++) {
+				for (int j = 0; j < patLength; j++) {
+					String subPat = pattDirs[pattIdxStart + j + 1];
+					String subStr = pathDirs[pathIdxStart + i + j];
+					if (!matchStrings(subPat, subStr)) {
+						continue strLoop;
+					}
+				}
+				foundIdx = pathIdxStart + i;
+				break;
+			}
+
+			if (foundIdx == -1) {
+				return false;
+			}
+
+			pattIdxStart = patIdxTmp;
+			pathIdxStart = foundIdx + patLength;
+		}
+
+		return onlyDoubleWildcards(pattDirs, pattIdxStart, pattIdxEnd);
+	}
+
+	private static boolean onlyDoubleWildcards(String[] pattDirs, int from, int to) {
+		for (int i = from; i <= to; i++) {
+			if (!pattDirs[i].equals("**")) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tokenize the given path pattern into parts, based on this matcher's settings.
+	 * <p>Caches the tokenized form, since the same patterns are typically
+	 * matched against many paths.
+	 * @param pattern the pattern to tokenize
+	 * @return the tokenized pattern parts
+	 */
+	protected String[] tokenizePattern(String pattern) {
+		String[] tokenized = this.tokenizedPatternCache.get(pattern);
+		if (tokenized == null) {
+			tokenized = tokenizePath(pattern);
+			this.tokenizedPatternCache.put(pattern, tokenized);
+		}
+		return tokenized;
+	}
+
+	/**
+	 * Tokenize the given path into parts, based on this matcher's settings.
+	 * @param path the path to tokenize
+	 * @return the tokenized path parts
+	 */
+	protected String[] tokenizePath(String path) {
+		String[] tokens = StringUtils.tokenizeToStringArray(path, this.pathSeparator, this.trimTokens, true);
+		return (tokens.length > 0 ? tokens : NO_TOKENS);
+	}
+
+	/**
+	 * Test whether a string matches against a pattern segment, where
+	 * {@code '*'} means zero or more characters and {@code '?'} means
+	 * one and only one character.
+	 * @param pattern the pattern segment to match against
+	 * @param str the string which must be matched against the pattern
+	 * @return {@code true} if the string matches against the pattern
+	 */
+	private boolean matchStrings(String pattern, String str) {
+		int patternLength = pattern.length();
+		int strLength = str.length();
+		int p = 0;
+		int s = 0;
+		int starIdx = -1;
+		int starMatch = 0;
+		while (s < strLength) {
+			if (p < patternLength) {
+				char pc = pattern.charAt(p);
+				if (pc == '*') {
+					// Remember the wildcard position and first try to match it as empty
+					starIdx = p++;
+					starMatch = s;
+					continue;
+				}
+				if (pc == '?' || charsEqual(pc, str.charAt(s))) {
+					p++;
+					s++;
+					continue;
+				}
+			}
+			if (starIdx == -1) {
+				return false;
+			}
+			// Let the last wildcard consume one more character
+			p = starIdx + 1;
+			s = ++starMatch;
+		}
+		while (p < patternLength && pattern.charAt(p) == '*') {
+			p++;
+		}
+		return (p == patternLength);
+	}
+
+	private boolean charsEqual(char c1, char c2) {
+		return (c1 == c2 || (!this.caseSensitive &&
+				Character.toLowerCase(c1) == Character.toLowerCase(c2)));
+	}
+
+}
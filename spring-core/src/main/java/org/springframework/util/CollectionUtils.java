@@ -110,6 +110,50 @@ public abstract class CollectionUtils {
         return (int) Math.ceil(expectedSize / (double) DEFAULT_LOAD_FACTOR);
     }
 
+    /**
+     * Instantiate a new {@link IntObjectMap} with primitive {@code int} keys
+     * and a capacity that can accommodate the specified number of elements
+     * without any immediate resize/rehash operations to be expected.
+     * @param expectedSize the expected number of elements
+     * @since 6.1
+     * @see #newHashMap(int)
+     */
+    public static <V> IntObjectMap<V> newIntObjectMap(int expectedSize) {
+        return new IntObjectMap<>(expectedSize);
+    }
+
+    /**
+     * Instantiate a new {@link ObjectIntMap} with primitive {@code int} values
+     * and a capacity that can accommodate the specified number of elements
+     * without any immediate resize/rehash operations to be expected.
+     * @param expectedSize the expected number of elements
+     * @since 6.1
+     * @see #newHashMap(int)
+     */
+    public static <K> ObjectIntMap<K> newObjectIntMap(int expectedSize) {
+        return new ObjectIntMap<>(expectedSize);
+    }
+
+    /**
+     * Instantiate a new {@link IntList} with the given initial capacity.
+     * @param initialCapacity the initial capacity
+     * @since 6.1
+     */
+    public static IntList newIntList(int initialCapacity) {
+        return new IntList(initialCapacity);
+    }
+
+    /**
+     * Instantiate a new {@link LongSet} with a capacity that can accommodate
+     * the specified number of elements without any immediate resize/rehash
+     * operations to be expected.
+     * @param expectedSize the expected number of elements
+     * @since 6.1
+     */
+    public static LongSet newLongSet(int expectedSize) {
+        return new LongSet(expectedSize);
+    }
+
     /**
      * Convert the supplied array into a List. A primitive array gets converted
      * into a List of the appropriate wrapper type.
@@ -0,0 +1,799 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Compact implementation of {@link MultiValueMap} for maps in which most keys
+ * hold a single value, such as header-like and attribute maps.
+ *
+ * <p>Entries are kept in insertion order in parallel key and value arrays,
+ * indexed by an open-addressing hash table of entry positions. A key with a
+ * single value stores that value inline; only a second value for the same key
+ * inflates the entry to a value array. In contrast to {@link LinkedMultiValueMap},
+ * there is no map entry object and no {@code ArrayList} per key.
+ *
+ * <p>The {@code List} returned from {@link #get(Object)} is a live view of the
+ * values for that key: changes to the view are reflected in this map and vice
+ * versa. {@link #put(Object, List)} copies the given values rather than keeping
+ * a reference to the given {@code List}.
+ *
+ * <p>This Map implementation is not thread-safe. It is primarily designed
+ * for data structures exposed from request objects, for use in a single thread only.
+ *
+ * @since 6.1
+ * @param <K> the key type
+ * @param <V> the value element type
+ * @see LinkedMultiValueMap
+ */
+public class CompactMultiValueMap<K, V> extends AbstractMap<K, List<V>>
+		implements MultiValueMap<K, V>, Serializable, Cloneable {
+
+	private static final long serialVersionUID = 4863727392813557340L;
+
+	/** Stand-in for a {@code null} key in the key array. */
+	private static final Object NULL_KEY = new Object();
+
+	/** Marker for a removed entry in the key array. */
+	private static final Object REMOVED = new Object();
+
+	private static final int DEFAULT_CAPACITY = 8;
+
+
+	/** Keys in insertion order (masked for {@code null}), or {@link #REMOVED}. */
+	private transient Object[] keys;
+
+	/** Values per entry: a single value inline, or a {@link Values} holder. */
+	private transient Object[] values;
+
+	/** Spread hash code per entry. */
+	private transient int[] hashes;
+
+	/** Open-addressing index: entry position plus one, or {@code 0} if empty. */
+	private transient int[] table;
+
+	/** Number of used entry positions, including removed ones. */
+	private transient int count;
+
+	private transient int size;
+
+	/** Incremented whenever entries are added or removed. */
+	private transient int modCount;
+
+	/** Incremented whenever entry positions move. */
+	private transient int layoutVersion;
+
+	@Nullable
+	private transient Set<Entry<K, List<V>>> entrySet;
+
+
+	/**
+	 * Create a new, empty {@code CompactMultiValueMap}.
+	 */
+	public CompactMultiValueMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a new, empty {@code CompactMultiValueMap} that can accommodate the
+	 * specified number of keys without any immediate resize/rehash operations.
+	 * @param expectedSize the expected number of keys
+	 */
+	public CompactMultiValueMap(int expectedSize) {
+		Assert.isTrue(expectedSize >= 0, "Expected size must not be negative");
+		init(Math.max(expectedSize, 1));
+	}
+
+	/**
+	 * Copy constructor: Create a new {@code CompactMultiValueMap} with the same
+	 * mappings as the specified Map. The value lists are copied.
+	 * @param otherMap the Map whose mappings are to be placed in this Map
+	 */
+	public CompactMultiValueMap(Map<K, List<V>> otherMap) {
+		this(otherMap.size());
+		putAll(otherMap);
+	}
+
+	private void init(int capacity) {
+		this.keys = new Object[capacity];
+		this.values = new Object[capacity];
+		this.hashes = new int[capacity];
+		this.table = new int[OpenHashing.tableSizeFor(capacity)];
+	}
+
+
+	// MultiValueMap implementation
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V getFirst(K key) {
+		int pos = findEntry(maskNull(key));
+		if (pos < 0) {
+			return null;
+		}
+		Object value = this.values[pos];
+		if (value instanceof Values multi) {
+			return (multi.size > 0 ? (V) multi.elements[0] : null);
+		}
+		return (V) value;
+	}
+
+	@Override
+	public void add(K key, @Nullable V value) {
+		Object maskedKey = maskNull(key);
+		int pos = findEntry(maskedKey);
+		if (pos < 0) {
+			addEntry(maskedKey, value);
+		}
+		else {
+			insertValue(pos, valueCount(pos), value);
+		}
+	}
+
+	@Override
+	public void addAll(K key, List<? extends V> values) {
+		Object maskedKey = maskNull(key);
+		int pos = findEntry(maskedKey);
+		if (pos < 0) {
+			addEntry(maskedKey, toStoredValue(values));
+		}
+		else {
+			for (V value : values) {
+				insertValue(pos, valueCount(pos), value);
+			}
+		}
+	}
+
+	@Override
+	public void addAll(MultiValueMap<K, V> values) {
+		for (Entry<K, List<V>> entry : values.entrySet()) {
+			addAll(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	public void addIfAbsent(K key, @Nullable V value) {
+		Object maskedKey = maskNull(key);
+		if (findEntry(maskedKey) < 0) {
+			addEntry(maskedKey, value);
+		}
+	}
+
+	@Override
+	public void set(K key, @Nullable V value) {
+		Object maskedKey = maskNull(key);
+		int pos = findEntry(maskedKey);
+		if (pos < 0) {
+			addEntry(maskedKey, value);
+		}
+		else {
+			this.values[pos] = value;
+		}
+	}
+
+	@Override
+	public void setAll(Map<K, V> values) {
+		values.forEach(this::set);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<K, V> toSingleValueMap() {
+		Map<K, V> singleValueMap = CollectionUtils.newLinkedHashMap(this.size);
+		for (int pos = 0; pos < this.count; pos++) {
+			Object key = this.keys[pos];
+			if (key != REMOVED) {
+				Object value = this.values[pos];
+				if (!(value instanceof Values multi)) {
+					singleValueMap.put((K) unmaskNull(key), (V) value);
+				}
+				else if (multi.size > 0) {
+					singleValueMap.put((K) unmaskNull(key), (V) multi.elements[0]);
+				}
+			}
+		}
+		return singleValueMap;
+	}
+
+
+	// Map implementation
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (this.size == 0);
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key) {
+		return (findEntry(maskNull(key)) >= 0);
+	}
+
+	@Override
+	@Nullable
+	public List<V> get(@Nullable Object key) {
+		int pos = findEntry(maskNull(key));
+		return (pos >= 0 ? new ValueList(this.keys[pos], pos) : null);
+	}
+
+	@Override
+	@Nullable
+	public List<V> put(K key, List<V> value) {
+		Object maskedKey = maskNull(key);
+		int pos = findEntry(maskedKey);
+		if (pos < 0) {
+			addEntry(maskedKey, toStoredValue(value));
+			return null;
+		}
+		List<V> previous = copyValues(pos);
+		this.values[pos] = toStoredValue(value);
+		return previous;
+	}
+
+	@Override
+	@Nullable
+	public List<V> remove(@Nullable Object key) {
+		int pos = findEntry(maskNull(key));
+		if (pos < 0) {
+			return null;
+		}
+		List<V> previous = copyValues(pos);
+		removeEntry(pos);
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.keys, 0, this.count, null);
+		Arrays.fill(this.values, 0, this.count, null);
+		Arrays.fill(this.table, 0);
+		this.count = 0;
+		this.size = 0;
+		this.modCount++;
+		this.layoutVersion++;
+	}
+
+	@Override
+	public Set<Entry<K, List<V>>> entrySet() {
+		Set<Entry<K, List<V>>> entrySet = this.entrySet;
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+			this.entrySet = entrySet;
+		}
+		return entrySet;
+	}
+
+
+	/**
+	 * Create a deep copy of this Map.
+	 * <p>Single values are shared, value arrays of keys with multiple values are
+	 * copied, so the copy can be modified independently of this Map.
+	 * @return a copy of this Map, including a copy of each value-holding entry
+	 * @see #clone()
+	 */
+	public CompactMultiValueMap<K, V> deepCopy() {
+		CompactMultiValueMap<K, V> copy = new CompactMultiValueMap<>(0);
+		copy.keys = Arrays.copyOf(this.keys, this.keys.length);
+		copy.values = Arrays.copyOf(this.values, this.values.length);
+		copy.hashes = this.hashes.clone();
+		copy.table = this.table.clone();
+		copy.count = this.count;
+		copy.size = this.size;
+		for (int pos = 0; pos < copy.count; pos++) {
+			if (copy.values[pos] instanceof Values multi) {
+				copy.values[pos] = new Values(Arrays.copyOf(multi.elements, multi.elements.length), multi.size);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Create a regular copy of this Map.
+	 * <p>Since single values are stored inline, this is equivalent to
+	 * {@link #deepCopy()}: a copy never shares value storage with this Map.
+	 * @return a copy of this Map
+	 * @see #deepCopy()
+	 */
+	@Override
+	public CompactMultiValueMap<K, V> clone() {
+		return deepCopy();
+	}
+
+
+	// Entry storage
+
+	private int findEntry(Object maskedKey) {
+		int hash = OpenHashing.mix(maskedKey.hashCode());
+		int mask = this.table.length - 1;
+		int index = hash & mask;
+		int slot;
+		while ((slot = this.table[index]) != 0) {
+			int pos = slot - 1;
+			if (this.hashes[pos] == hash) {
+				Object key = this.keys[pos];
+				if (key == maskedKey || key.equals(maskedKey)) {
+					return pos;
+				}
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private int addEntry(Object maskedKey, @Nullable Object storedValue) {
+		if (this.count == this.keys.length) {
+			// Reclaim removed positions if there are many, otherwise grow
+			rebuild(this.count - this.size > (this.count >> 1) ?
+					this.keys.length : this.keys.length << 1);
+		}
+		int pos = this.count++;
+		int hash = OpenHashing.mix(maskedKey.hashCode());
+		this.keys[pos] = maskedKey;
+		this.values[pos] = storedValue;
+		this.hashes[pos] = hash;
+		int mask = this.table.length - 1;
+		int index = hash & mask;
+		while (this.table[index] != 0) {
+			index = (index + 1) & mask;
+		}
+		this.table[index] = pos + 1;
+		this.size++;
+		this.modCount++;
+		return pos;
+	}
+
+	private void removeEntry(int pos) {
+		int mask = this.table.length - 1;
+		int gap = this.hashes[pos] & mask;
+		while (this.table[gap] != pos + 1) {
+			gap = (gap + 1) & mask;
+		}
+		int candidate = gap;
+		while (true) {
+			candidate = (candidate + 1) & mask;
+			int slot = this.table[candidate];
+			if (slot == 0) {
+				break;
+			}
+			int home = this.hashes[slot - 1] & mask;
+			if (OpenHashing.canShift(gap, candidate, home)) {
+				this.table[gap] = slot;
+				gap = candidate;
+			}
+		}
+		this.table[gap] = 0;
+		this.keys[pos] = REMOVED;
+		this.values[pos] = null;
+		if (pos == this.count - 1) {
+			this.keys[pos] = null;
+			this.count--;
+		}
+		this.size--;
+		this.modCount++;
+	}
+
+	/**
+	 * Compact the entry arrays into the given capacity, dropping removed
+	 * entries, and rebuild the hash index.
+	 */
+	private void rebuild(int capacity) {
+		Object[] oldKeys = this.keys;
+		Object[] oldValues = this.values;
+		int[] oldHashes = this.hashes;
+		int oldCount = this.count;
+		init(capacity);
+		int mask = this.table.length - 1;
+		int pos = 0;
+		for (int i = 0; i < oldCount; i++) {
+			Object key = oldKeys[i];
+			if (key != REMOVED) {
+				this.keys[pos] = key;
+				this.values[pos] = oldValues[i];
+				int hash = oldHashes[i];
+				this.hashes[pos] = hash;
+				int index = hash & mask;
+				while (this.table[index] != 0) {
+					index = (index + 1) & mask;
+				}
+				this.table[index] = pos + 1;
+				pos++;
+			}
+		}
+		this.count = pos;
+		this.layoutVersion++;
+	}
+
+
+	// Value storage
+
+	private int valueCount(int pos) {
+		return (this.values[pos] instanceof Values multi ? multi.size : 1);
+	}
+
+	@Nullable
+	private Object valueAt(int pos, int index) {
+		return (this.values[pos] instanceof Values multi ? multi.elements[index] : this.values[pos]);
+	}
+
+	private void insertValue(int pos, int index, @Nullable Object value) {
+		Object current = this.values[pos];
+		if (current instanceof Values multi) {
+			if (multi.size == 0 && index == 0) {
+				this.values[pos] = value;
+			}
+			else {
+				multi.insert(index, value);
+			}
+		}
+		else {
+			Object[] elements = (index == 0 ? new Object[] {value, current} : new Object[] {current, value});
+			this.values[pos] = new Values(elements, 2);
+		}
+	}
+
+	@Nullable
+	private Object removeValue(int pos, int index) {
+		Object current = this.values[pos];
+		if (current instanceof Values multi) {
+			return multi.remove(index);
+		}
+		this.values[pos] = new Values(new Object[0], 0);
+		return current;
+	}
+
+	@Nullable
+	private Object toStoredValue(List<? extends V> values) {
+		Object[] elements = values.toArray();
+		return (elements.length == 1 ? elements[0] : new Values(elements, elements.length));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<V> copyValues(int pos) {
+		Object value = this.values[pos];
+		if (value instanceof Values multi) {
+			List<V> result = new ArrayList<>(multi.size);
+			for (int i = 0; i < multi.size; i++) {
+				result.add((V) multi.elements[i]);
+			}
+			return result;
+		}
+		List<V> result = new ArrayList<>(1);
+		result.add((V) value);
+		return result;
+	}
+
+	private static Object maskNull(@Nullable Object key) {
+		return (key != null ? key : NULL_KEY);
+	}
+
+	@Nullable
+	private static Object unmaskNull(Object key) {
+		return (key != NULL_KEY ? key : null);
+	}
+
+
+	// Serialization support
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(this.size);
+		for (int pos = 0; pos < this.count; pos++) {
+			Object key = this.keys[pos];
+			if (key != REMOVED) {
+				out.writeObject(unmaskNull(key));
+				int valueCount = valueCount(pos);
+				out.writeInt(valueCount);
+				for (int i = 0; i < valueCount; i++) {
+					out.writeObject(valueAt(pos, i));
+				}
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int size = in.readInt();
+		init(Math.max(size, 1));
+		for (int i = 0; i < size; i++) {
+			Object maskedKey = maskNull(in.readObject());
+			int valueCount = in.readInt();
+			Object storedValue;
+			if (valueCount == 1) {
+				storedValue = in.readObject();
+			}
+			else {
+				Object[] elements = new Object[valueCount];
+				for (int j = 0; j < valueCount; j++) {
+					elements[j] = in.readObject();
+				}
+				storedValue = new Values(elements, valueCount);
+			}
+			addEntry(maskedKey, storedValue);
+		}
+	}
+
+
+	/**
+	 * Inflated value storage for a key with zero or multiple values.
+	 */
+	private static final class Values {
+
+		Object[] elements;
+
+		int size;
+
+		Values(Object[] elements, int size) {
+			this.elements = elements;
+			this.size = size;
+		}
+
+		void insert(int index, @Nullable Object value) {
+			if (this.size == this.elements.length) {
+				this.elements = Arrays.copyOf(this.elements, this.size + Math.max(this.size >> 1, 2));
+			}
+			System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+			this.elements[index] = value;
+			this.size++;
+		}
+
+		@Nullable
+		Object remove(int index) {
+			Object previous = this.elements[index];
+			System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+			this.elements[--this.size] = null;
+			return previous;
+		}
+	}
+
+
+	/**
+	 * Live {@code List} view of the values for a single key. The entry position
+	 * is cached and looked up again by key whenever positions may have moved.
+	 */
+	private final class ValueList extends AbstractList<V> implements RandomAccess {
+
+		private final Object maskedKey;
+
+		private int pos;
+
+		private int layoutVersion;
+
+		ValueList(Object maskedKey, int pos) {
+			this.maskedKey = maskedKey;
+			this.pos = pos;
+			this.layoutVersion = CompactMultiValueMap.this.layoutVersion;
+		}
+
+		private int resolve() {
+			if (this.layoutVersion != CompactMultiValueMap.this.layoutVersion ||
+					this.pos < 0 || this.pos >= count || keys[this.pos] != this.maskedKey) {
+				this.pos = findEntry(this.maskedKey);
+				this.layoutVersion = CompactMultiValueMap.this.layoutVersion;
+			}
+			return this.pos;
+		}
+
+		@Override
+		public int size() {
+			int pos = resolve();
+			return (pos >= 0 ? valueCount(pos) : 0);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V get(int index) {
+			int pos = resolve();
+			Objects.checkIndex(index, (pos >= 0 ? valueCount(pos) : 0));
+			return (V) valueAt(pos, index);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V set(int index, V element) {
+			int pos = resolve();
+			Objects.checkIndex(index, (pos >= 0 ? valueCount(pos) : 0));
+			Object previous;
+			if (values[pos] instanceof Values multi) {
+				previous = multi.elements[index];
+				multi.elements[index] = element;
+			}
+			else {
+				previous = values[pos];
+				values[pos] = element;
+			}
+			return (V) previous;
+		}
+
+		@Override
+		public void add(int index, V element) {
+			int pos = resolve();
+			if (pos < 0) {
+				// Key was removed from the map: re-add it with this value
+				Objects.checkIndex(index, 1);
+				this.pos = addEntry(this.maskedKey, element);
+				this.layoutVersion = CompactMultiValueMap.this.layoutVersion;
+			}
+			else {
+				if (index < 0 || index > valueCount(pos)) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + valueCount(pos));
+				}
+				insertValue(pos, index, element);
+			}
+			this.modCount++;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V remove(int index) {
+			int pos = resolve();
+			Objects.checkIndex(index, (pos >= 0 ? valueCount(pos) : 0));
+			this.modCount++;
+			return (V) removeValue(pos, index);
+		}
+	}
+
+
+	/**
+	 * Entry set view, iterating in insertion order.
+	 */
+	private final class EntrySet extends AbstractSet<Entry<K, List<V>>> {
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public void clear() {
+			CompactMultiValueMap.this.clear();
+		}
+
+		@Override
+		public Iterator<Entry<K, List<V>>> iterator() {
+			return new EntryIterator();
+		}
+	}
+
+
+	private final class EntryIterator implements Iterator<Entry<K, List<V>>> {
+
+		private int next;
+
+		private int last = -1;
+
+		private int expectedModCount = modCount;
+
+		EntryIterator() {
+			advance();
+		}
+
+		private void advance() {
+			while (this.next < count && keys[this.next] == REMOVED) {
+				this.next++;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return (this.next < count);
+		}
+
+		@Override
+		public Entry<K, List<V>> next() {
+			if (modCount != this.expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (this.next >= count) {
+				throw new NoSuchElementException();
+			}
+			this.last = this.next++;
+			advance();
+			return new EntryView(this.last);
+		}
+
+		@Override
+		public void remove() {
+			if (this.last < 0) {
+				throw new IllegalStateException();
+			}
+			if (modCount != this.expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			removeEntry(this.last);
+			this.last = -1;
+			this.expectedModCount = modCount;
+		}
+	}
+
+
+	private final class EntryView implements Entry<K, List<V>> {
+
+		private final Object maskedKey;
+
+		private final int pos;
+
+		@Nullable
+		private ValueList value;
+
+		EntryView(int pos) {
+			this.maskedKey = keys[pos];
+			this.pos = pos;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public K getKey() {
+			return (K) unmaskNull(this.maskedKey);
+		}
+
+		@Override
+		public List<V> getValue() {
+			ValueList value = this.value;
+			if (value == null) {
+				value = new ValueList(this.maskedKey, this.pos);
+				this.value = value;
+			}
+			return value;
+		}
+
+		@Override
+		public List<V> setValue(List<V> value) {
+			return put(getKey(), value);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof Map.Entry<?, ?> that &&
+					Objects.equals(getKey(), that.getKey()) && getValue().equals(that.getValue())));
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(getKey()) ^ getValue().hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Thread-safe implementation of {@link MultiValueMap} that wraps a
+ * {@link ConcurrentHashMap}, storing multiple values in a
+ * {@link CopyOnWriteArrayList}.
+ *
+ * <p>Designed for shared registries that are read by many threads and
+ * updated rarely: reads never block, {@link #add}, {@link #addAll(Object, List)},
+ * {@link #addIfAbsent}, {@link #set} and {@link #removeValue} are atomic per key,
+ * and a value list handed out by {@link #get} can be traversed while writers
+ * keep modifying it. The conditional and computing {@code Map} methods are
+ * atomic as well, delegating to the {@code ConcurrentHashMap}; any value list
+ * passed in or returned by a function is stored as a thread-safe copy, which
+ * is also what {@link #computeIfAbsent} and its siblings return. Iteration
+ * over the map is weakly consistent, as defined
+ * by {@link ConcurrentHashMap}, and never throws
+ * {@link java.util.ConcurrentModificationException}.
+ *
+ * <p>{@code null} keys are not supported; {@code null} values are.
+ *
+ * @since 6.1
+ * @param <K> the key type
+ * @param <V> the value element type
+ * @see LinkedMultiValueMap
+ */
+public class ConcurrentMultiValueMap<K, V> extends MultiValueMapAdapter<K, V> {
+
+	private static final long serialVersionUID = -2313146585432764387L;
+
+
+	private final ConcurrentMap<K, List<V>> targetMap;
+
+
+	/**
+	 * Create a new, empty {@code ConcurrentMultiValueMap}.
+	 */
+	public ConcurrentMultiValueMap() {
+		this(new ConcurrentHashMap<>());
+	}
+
+	/**
+	 * Create a new, empty {@code ConcurrentMultiValueMap} that can accommodate
+	 * the specified number of keys without any immediate resize operations.
+	 * @param expectedSize the expected number of keys
+	 */
+	public ConcurrentMultiValueMap(int expectedSize) {
+		this(new ConcurrentHashMap<>(expectedSize));
+	}
+
+	/**
+	 * Copy constructor: Create a new {@code ConcurrentMultiValueMap} with the
+	 * same mappings as the specified Map, copying each value list.
+	 * @param otherMap the Map whose mappings are to be placed in this Map
+	 */
+	public ConcurrentMultiValueMap(Map<K, List<V>> otherMap) {
+		this(new ConcurrentHashMap<>(Math.max(otherMap.size(), 16)));
+		putAll(otherMap);
+	}
+
+	private ConcurrentMultiValueMap(ConcurrentMap<K, List<V>> targetMap) {
+		super(targetMap);
+		this.targetMap = targetMap;
+	}
+
+
+	// MultiValueMap implementation
+
+	@Override
+	@Nullable
+	public V getFirst(K key) {
+		List<V> values = this.targetMap.get(key);
+		if (values == null) {
+			return null;
+		}
+		// Snapshot iterator: safe against concurrent removal of the first value
+		Iterator<V> it = values.iterator();
+		return (it.hasNext() ? it.next() : null);
+	}
+
+	@Override
+	public void add(K key, @Nullable V value) {
+		this.targetMap.compute(key, (k, values) -> {
+			if (values == null) {
+				values = new CopyOnWriteArrayList<>();
+			}
+			values.add(value);
+			return values;
+		});
+	}
+
+	@Override
+	public void addAll(K key, List<? extends V> values) {
+		this.targetMap.compute(key, (k, currentValues) -> {
+			if (currentValues == null) {
+				return new CopyOnWriteArrayList<>(values);
+			}
+			currentValues.addAll(values);
+			return currentValues;
+		});
+	}
+
+	@Override
+	public void addIfAbsent(K key, @Nullable V value) {
+		this.targetMap.computeIfAbsent(key, k -> newValueList(value));
+	}
+
+	@Override
+	public void set(K key, @Nullable V value) {
+		this.targetMap.put(key, newValueList(value));
+	}
+
+	/**
+	 * Atomically remove the given value from the values of the given key,
+	 * removing the key altogether once it has no values left.
+	 * @param key the key
+	 * @param value the value to remove
+	 * @return {@code true} if the value was present
+	 */
+	public boolean removeValue(K key, @Nullable V value) {
+		boolean[] removed = new boolean[1];
+		this.targetMap.computeIfPresent(key, (k, values) -> {
+			removed[0] = values.remove(value);
+			return (values.isEmpty() ? null : values);
+		});
+		return removed[0];
+	}
+
+	@Override
+	public Map<K, V> toSingleValueMap() {
+		Map<K, V> singleValueMap = CollectionUtils.newLinkedHashMap(this.targetMap.size());
+		this.targetMap.forEach((key, values) -> {
+			Iterator<V> it = values.iterator();
+			if (it.hasNext()) {
+				singleValueMap.put(key, it.next());
+			}
+		});
+		return singleValueMap;
+	}
+
+
+	// Map implementation
+
+	/**
+	 * Map the given key to a thread-safe copy of the given values.
+	 */
+	@Override
+	@Nullable
+	public List<V> put(K key, List<V> value) {
+		return this.targetMap.put(key, new CopyOnWriteArrayList<>(value));
+	}
+
+	@Override
+	public void putAll(Map<? extends K, ? extends List<V>> map) {
+		map.forEach(this::put);
+	}
+
+	@Override
+	@Nullable
+	public List<V> putIfAbsent(K key, List<V> value) {
+		return this.targetMap.putIfAbsent(key, toValueList(value));
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		return this.targetMap.remove(key, value);
+	}
+
+	@Override
+	public boolean replace(K key, List<V> oldValue, List<V> newValue) {
+		return this.targetMap.replace(key, oldValue, toValueList(newValue));
+	}
+
+	@Override
+	@Nullable
+	public List<V> replace(K key, List<V> value) {
+		return this.targetMap.replace(key, toValueList(value));
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super K, ? super List<V>, ? extends List<V>> function) {
+		this.targetMap.replaceAll((key, values) -> toValueList(function.apply(key, values)));
+	}
+
+	@Override
+	public List<V> computeIfAbsent(K key, Function<? super K, ? extends List<V>> mappingFunction) {
+		return this.targetMap.computeIfAbsent(key, k -> toNullableValueList(mappingFunction.apply(k)));
+	}
+
+	@Override
+	@Nullable
+	public List<V> computeIfPresent(K key, BiFunction<? super K, ? super List<V>, ? extends List<V>> remappingFunction) {
+		return this.targetMap.computeIfPresent(key, (k, values) -> toNullableValueList(remappingFunction.apply(k, values)));
+	}
+
+	@Override
+	@Nullable
+	public List<V> compute(K key, BiFunction<? super K, ? super List<V>, ? extends List<V>> remappingFunction) {
+		return this.targetMap.compute(key, (k, values) -> toNullableValueList(remappingFunction.apply(k, values)));
+	}
+
+	@Override
+	@Nullable
+	public List<V> merge(K key, List<V> value, BiFunction<? super List<V>, ? super List<V>, ? extends List<V>> remappingFunction) {
+		return this.targetMap.merge(key, toValueList(value),
+				(values, newValues) -> toNullableValueList(remappingFunction.apply(values, newValues)));
+	}
+
+	/**
+	 * Return a view of the mappings whose entries store a thread-safe copy
+	 * of any value list passed to {@link Map.Entry#setValue}.
+	 */
+	@Override
+	public Set<Entry<K, List<V>>> entrySet() {
+		return new EntrySet();
+	}
+
+
+	/**
+	 * Create a deep copy of this Map.
+	 * @return a copy of this Map, including a copy of each value-holding List entry
+	 */
+	public ConcurrentMultiValueMap<K, V> deepCopy() {
+		ConcurrentMultiValueMap<K, V> copy = new ConcurrentMultiValueMap<>(this.targetMap.size());
+		this.targetMap.forEach(copy::put);
+		return copy;
+	}
+
+	/**
+	 * Return the given values as a thread-safe list, as is if already one.
+	 */
+	private static <V> List<V> toValueList(List<V> values) {
+		Assert.notNull(values, "Value list must not be null");
+		return (values instanceof CopyOnWriteArrayList ? values : new CopyOnWriteArrayList<>(values));
+	}
+
+	@Nullable
+	private static <V> List<V> toNullableValueList(@Nullable List<V> values) {
+		return (values != null ? toValueList(values) : null);
+	}
+
+	private static <V> List<V> newValueList(@Nullable V value) {
+		List<V> values = new CopyOnWriteArrayList<>();
+		values.add(value);
+		return values;
+	}
+
+
+	/**
+	 * Entry set view over the target map, wrapping value lists on write.
+	 */
+	private class EntrySet extends AbstractSet<Entry<K, List<V>>> {
+
+		private final Set<Entry<K, List<V>>> targetEntries = targetMap.entrySet();
+
+		@Override
+		public Iterator<Entry<K, List<V>>> iterator() {
+			Iterator<Entry<K, List<V>>> it = this.targetEntries.iterator();
+			return new Iterator<>() {
+				@Override
+				public boolean hasNext() {
+					return it.hasNext();
+				}
+				@Override
+				public Entry<K, List<V>> next() {
+					return new ValueListEntry(it.next());
+				}
+				@Override
+				public void remove() {
+					it.remove();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return this.targetEntries.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return this.targetEntries.contains(o);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			return this.targetEntries.remove(o);
+		}
+
+		@Override
+		public void clear() {
+			this.targetEntries.clear();
+		}
+	}
+
+
+	/**
+	 * Entry that writes through to the target map with a thread-safe value list.
+	 */
+	private class ValueListEntry implements Entry<K, List<V>> {
+
+		private final Entry<K, List<V>> targetEntry;
+
+		ValueListEntry(Entry<K, List<V>> targetEntry) {
+			this.targetEntry = targetEntry;
+		}
+
+		@Override
+		public K getKey() {
+			return this.targetEntry.getKey();
+		}
+
+		@Override
+		public List<V> getValue() {
+			return this.targetEntry.getValue();
+		}
+
+		@Override
+		public List<V> setValue(List<V> value) {
+			return this.targetEntry.setValue(toValueList(value));
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return this.targetEntry.equals(other);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.targetEntry.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return this.targetEntry.toString();
+		}
+	}
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Growable list of primitive {@code int} values, backed by a single
+ * {@code int[]} array.
+ *
+ * <p>Compared to an {@code ArrayList<Integer>}, this avoids boxing the
+ * elements and keeps them contiguous in memory.
+ *
+ * <p>This List implementation is not thread-safe.
+ *
+ * @since 6.1
+ * @see CollectionUtils#newIntList(int)
+ */
+public class IntList {
+
+	private static final int[] EMPTY_ELEMENTS = {};
+
+	private static final int DEFAULT_CAPACITY = 8;
+
+
+	private int[] elements;
+
+	private int size;
+
+
+	/**
+	 * Create a new, empty {@code IntList}.
+	 */
+	public IntList() {
+		this.elements = EMPTY_ELEMENTS;
+	}
+
+	/**
+	 * Create a new, empty {@code IntList} with the given initial capacity.
+	 * @param initialCapacity the initial capacity
+	 */
+	public IntList(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "Initial capacity must not be negative");
+		this.elements = (initialCapacity > 0 ? new int[initialCapacity] : EMPTY_ELEMENTS);
+	}
+
+
+	/**
+	 * Return the number of elements in this list.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return {@code true} if this list contains no elements.
+	 */
+	public boolean isEmpty() {
+		return (this.size == 0);
+	}
+
+	/**
+	 * Return the element at the given index.
+	 * @param index the index of the element
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public int get(int index) {
+		Objects.checkIndex(index, this.size);
+		return this.elements[index];
+	}
+
+	/**
+	 * Replace the element at the given index.
+	 * @param index the index of the element
+	 * @param value the new value
+	 * @return the previous value
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public int set(int index, int value) {
+		Objects.checkIndex(index, this.size);
+		int previous = this.elements[index];
+		this.elements[index] = value;
+		return previous;
+	}
+
+	/**
+	 * Append the given value to the end of this list.
+	 * @param value the value to add
+	 */
+	public void add(int value) {
+		if (this.size == this.elements.length) {
+			grow(this.size + 1);
+		}
+		this.elements[this.size++] = value;
+	}
+
+	/**
+	 * Append all elements of the given list to the end of this list.
+	 * @param other the list whose elements to add
+	 */
+	public void addAll(IntList other) {
+		int count = other.size;
+		if (this.size + count > this.elements.length) {
+			grow(this.size + count);
+		}
+		System.arraycopy(other.elements, 0, this.elements, this.size, count);
+		this.size += count;
+	}
+
+	/**
+	 * Remove the element at the given index, shifting subsequent elements
+	 * to the left.
+	 * @param index the index of the element
+	 * @return the removed value
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public int removeAt(int index) {
+		Objects.checkIndex(index, this.size);
+		int previous = this.elements[index];
+		int moved = this.size - index - 1;
+		if (moved > 0) {
+			System.arraycopy(this.elements, index + 1, this.elements, index, moved);
+		}
+		this.size--;
+		return previous;
+	}
+
+	/**
+	 * Return the index of the first occurrence of the given value,
+	 * or {@code -1} if this list does not contain it.
+	 * @param value the value to find
+	 */
+	public int indexOf(int value) {
+		for (int i = 0; i < this.size; i++) {
+			if (this.elements[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Return {@code true} if this list contains the given value.
+	 * @param value the value to find
+	 */
+	public boolean contains(int value) {
+		return (indexOf(value) >= 0);
+	}
+
+	/**
+	 * Remove all elements from this list, retaining its capacity.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Sort the elements of this list into ascending order.
+	 */
+	public void sort() {
+		Arrays.sort(this.elements, 0, this.size);
+	}
+
+	/**
+	 * Return the elements of this list as a new array.
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(this.elements, this.size);
+	}
+
+	/**
+	 * Return a sequential {@link IntStream} over the elements of this list.
+	 */
+	public IntStream stream() {
+		return Arrays.stream(this.elements, 0, this.size);
+	}
+
+	/**
+	 * Perform the given action for each element of this list, in order.
+	 * @param action the action to perform
+	 */
+	public void forEach(IntConsumer action) {
+		for (int i = 0; i < this.size; i++) {
+			action.accept(this.elements[i]);
+		}
+	}
+
+	private void grow(int minCapacity) {
+		int newCapacity = Math.max(Math.max(minCapacity, DEFAULT_CAPACITY), this.elements.length + (this.elements.length >> 1));
+		this.elements = Arrays.copyOf(this.elements, newCapacity);
+	}
+
+
+	/**
+	 * Create a new {@code IntList} holding a copy of the given values.
+	 * @param values the initial values
+	 */
+	public static IntList of(int... values) {
+		IntList list = new IntList(values.length);
+		System.arraycopy(values, 0, list.elements, 0, values.length);
+		list.size = values.length;
+		return list;
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof IntList that &&
+				Arrays.equals(this.elements, 0, this.size, that.elements, 0, that.size)));
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int i = 0; i < this.size; i++) {
+			hash = 31 * hash + this.elements[i];
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < this.size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(this.elements[i]);
+		}
+		return sb.append(']').toString();
+	}
+
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Map from primitive {@code int} keys to object values, using open addressing
+ * with linear probing over parallel key and value arrays.
+ *
+ * <p>Compared to a {@code HashMap<Integer, V>}, this avoids boxing the keys
+ * and allocating an entry object per mapping. {@code null} values are not
+ * supported, since an empty slot is marked by a {@code null} value.
+ *
+ * <p>This Map implementation is not thread-safe. Instances that are fully
+ * populated before being safely published may be read concurrently.
+ *
+ * @since 6.1
+ * @param <V> the value type
+ * @see CollectionUtils#newIntObjectMap(int)
+ */
+public class IntObjectMap<V> {
+
+	private int[] keys;
+
+	private Object[] values;
+
+	private int size;
+
+	private int threshold;
+
+
+	/**
+	 * Create a new, empty {@code IntObjectMap} with a default initial capacity.
+	 */
+	public IntObjectMap() {
+		this(8);
+	}
+
+	/**
+	 * Create a new, empty {@code IntObjectMap} that can accommodate the specified
+	 * number of elements without any immediate resize/rehash operations.
+	 * @param expectedSize the expected number of elements
+	 */
+	public IntObjectMap(int expectedSize) {
+		int capacity = OpenHashing.tableSizeFor(expectedSize);
+		this.keys = new int[capacity];
+		this.values = new Object[capacity];
+		this.threshold = OpenHashing.thresholdFor(capacity);
+	}
+
+
+	/**
+	 * Return the number of mappings in this map.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return {@code true} if this map contains no mappings.
+	 */
+	public boolean isEmpty() {
+		return (this.size == 0);
+	}
+
+	/**
+	 * Return {@code true} if this map contains a mapping for the given key.
+	 * @param key the key to check
+	 */
+	public boolean containsKey(int key) {
+		return (indexOf(key) >= 0);
+	}
+
+	/**
+	 * Return the value mapped to the given key.
+	 * @param key the key to look up
+	 * @return the mapped value, or {@code null} if none
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int index = indexOf(key);
+		return (index >= 0 ? (V) this.values[index] : null);
+	}
+
+	/**
+	 * Return the value mapped to the given key, or the given default value.
+	 * @param key the key to look up
+	 * @param defaultValue the value to return if there is no mapping
+	 */
+	public V getOrDefault(int key, V defaultValue) {
+		V value = get(key);
+		return (value != null ? value : defaultValue);
+	}
+
+	/**
+	 * Map the given key to the given value.
+	 * @param key the key
+	 * @param value the value (never {@code null})
+	 * @return the previously mapped value, or {@code null} if none
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		Assert.notNull(value, "Value must not be null");
+		int mask = this.keys.length - 1;
+		int index = OpenHashing.mix(key) & mask;
+		Object existing;
+		while ((existing = this.values[index]) != null) {
+			if (this.keys[index] == key) {
+				this.values[index] = value;
+				return (V) existing;
+			}
+			index = (index + 1) & mask;
+		}
+		insertAt(index, key, value);
+		return null;
+	}
+
+	/**
+	 * Map the given key to the given value unless a mapping already exists.
+	 * @param key the key
+	 * @param value the value (never {@code null})
+	 * @return the existing value, or {@code null} if the given value was added
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V putIfAbsent(int key, V value) {
+		Assert.notNull(value, "Value must not be null");
+		int mask = this.keys.length - 1;
+		int index = OpenHashing.mix(key) & mask;
+		Object existing;
+		while ((existing = this.values[index]) != null) {
+			if (this.keys[index] == key) {
+				return (V) existing;
+			}
+			index = (index + 1) & mask;
+		}
+		insertAt(index, key, value);
+		return null;
+	}
+
+	/**
+	 * Return the value mapped to the given key, computing and adding it
+	 * through the given function if there is no mapping yet.
+	 * @param key the key
+	 * @param mappingFunction the function to compute a value (must not return {@code null})
+	 * @return the existing or computed value
+	 */
+	@SuppressWarnings("unchecked")
+	public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+		int index = indexOf(key);
+		if (index >= 0) {
+			return (V) this.values[index];
+		}
+		V value = mappingFunction.apply(key);
+		put(key, value);
+		return value;
+	}
+
+	/**
+	 * Remove the mapping for the given key.
+	 * @param key the key
+	 * @return the previously mapped value, or {@code null} if none
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		Object existing = this.values[index];
+		removeAt(index);
+		return (V) existing;
+	}
+
+	/**
+	 * Remove all mappings from this map, retaining its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(this.values, null);
+		this.size = 0;
+	}
+
+	/**
+	 * Return the keys of this map, in no particular order.
+	 */
+	public int[] keys() {
+		int[] result = new int[this.size];
+		int count = 0;
+		for (int i = 0; i < this.values.length; i++) {
+			if (this.values[i] != null) {
+				result[count++] = this.keys[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Perform the given action for each mapping in this map, in no particular order.
+	 * @param action the action to perform
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(EntryConsumer<? super V> action) {
+		for (int i = 0; i < this.values.length; i++) {
+			Object value = this.values[i];
+			if (value != null) {
+				action.accept(this.keys[i], (V) value);
+			}
+		}
+	}
+
+
+	private int indexOf(int key) {
+		int mask = this.keys.length - 1;
+		int index = OpenHashing.mix(key) & mask;
+		while (this.values[index] != null) {
+			if (this.keys[index] == key) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void insertAt(int index, int key, Object value) {
+		this.keys[index] = key;
+		this.values[index] = value;
+		if (++this.size > this.threshold) {
+			resize();
+		}
+	}
+
+	private void removeAt(int index) {
+		int mask = this.keys.length - 1;
+		int gap = index;
+		int candidate = index;
+		while (true) {
+			candidate = (candidate + 1) & mask;
+			if (this.values[candidate] == null) {
+				break;
+			}
+			int home = OpenHashing.mix(this.keys[candidate]) & mask;
+			if (OpenHashing.canShift(gap, candidate, home)) {
+				this.keys[gap] = this.keys[candidate];
+				this.values[gap] = this.values[candidate];
+				gap = candidate;
+			}
+		}
+		this.values[gap] = null;
+		this.size--;
+	}
+
+	private void resize() {
+		int[] oldKeys = this.keys;
+		Object[] oldValues = this.values;
+		int capacity = oldKeys.length << 1;
+		int mask = capacity - 1;
+		this.keys = new int[capacity];
+		this.values = new Object[capacity];
+		this.threshold = OpenHashing.thresholdFor(capacity);
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int index = OpenHashing.mix(oldKeys[i]) & mask;
+				while (this.values[index] != null) {
+					index = (index + 1) & mask;
+				}
+				this.keys[index] = oldKeys[i];
+				this.values[index] = oldValues[i];
+			}
+		}
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof IntObjectMap<?> that) || this.size != that.size) {
+			return false;
+		}
+		for (int i = 0; i < this.values.length; i++) {
+			Object value = this.values[i];
+			if (value != null && !value.equals(that.get(this.keys[i]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int i = 0; i < this.values.length; i++) {
+			Object value = this.values[i];
+			if (value != null) {
+				hash += this.keys[i] ^ value.hashCode();
+			}
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		forEach((key, value) -> {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(key).append('=').append(value);
+		});
+		return sb.append('}').toString();
+	}
+
+
+	/**
+	 * Callback for {@link #forEach(EntryConsumer)}.
+	 * @param <V> the value type
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer<V> {
+
+		/**
+		 * Perform this action on the given mapping.
+		 * @param key the key
+		 * @param value the value
+		 */
+		void accept(int key, V value);
+	}
+
+}
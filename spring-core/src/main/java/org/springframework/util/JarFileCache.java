@@ -0,0 +1,438 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Cache of open {@link JarFile} handles for jar files in the file system,
+ * keyed by archive location.
+ *
+ * <p>{@link java.net.JarURLConnection} with {@code useCaches=false} (see
+ * {@link ResourceUtils#useCachesIfNecessary}) opens the jar file, and thereby
+ * parses its central directory, for every single entry access. This cache
+ * keeps a bounded number of jar files open instead, so that repeated access
+ * to entries of the same jar reuses the parsed central directory.
+ *
+ * <p>Handles are reference-counted: {@link #acquire} hands out a {@link Lease}
+ * that must be closed after use. A jar file is closed once it has been
+ * removed from the cache &mdash; on eviction of the least recently used jar
+ * beyond the maximum size, on {@link #clear()}, or because the jar file
+ * changed in the file system &mdash; and all of its leases have been closed.
+ *
+ * <p>Only "jar:file:" URLs pointing to a top-level jar file are supported,
+ * see {@link #supports(URL)}; nested archives are left to the
+ * {@code JarURLConnection}.
+ *
+ * @since 6.1
+ * @see ResourceUtils#extractJarFileURL(URL)
+ */
+public class JarFileCache {
+
+	/** Default maximum number of jar files kept open: {@value}. */
+	public static final int DEFAULT_MAX_SIZE = 128;
+
+	private static final JarFileCache sharedInstance = new JarFileCache(DEFAULT_MAX_SIZE);
+
+
+	private final int maxSize;
+
+	/** Cached jar files by absolute path, in least-recently-used order. */
+	private final Map<String, CachedJarFile> jarFiles = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** Number of registered users, see {@link #registerUser()}. */
+	private final AtomicInteger userCount = new AtomicInteger();
+
+
+	/**
+	 * Create a new {@code JarFileCache}.
+	 * @param maxSize the maximum number of jar files to keep open
+	 */
+	public JarFileCache(int maxSize) {
+		Assert.isTrue(maxSize > 0, "Max size must be positive");
+		this.maxSize = maxSize;
+	}
+
+
+	/**
+	 * Return the shared {@code JarFileCache} instance, as used for jar URLs by
+	 * {@link org.springframework.core.io.AbstractFileResolvingResource}.
+	 * <p>The shared instance serves the entire JVM: application contexts
+	 * {@linkplain #registerUser() register} with it, and it gets cleared
+	 * once the last of them has been closed.
+	 */
+	public static JarFileCache getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Determine whether the given URL refers to an entry (or the root) of a
+	 * jar file in the file system, and can therefore be served by this cache.
+	 * @param url the URL to check
+	 */
+	public boolean supports(URL url) {
+		if (!ResourceUtils.URL_PROTOCOL_JAR.equals(url.getProtocol())) {
+			return false;
+		}
+		String urlFile = url.getFile();
+		int separatorIndex = urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR);
+		return (separatorIndex != -1 && urlFile.startsWith(ResourceUtils.FILE_URL_PREFIX) &&
+				urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR, separatorIndex + 1) == -1);
+	}
+
+	/**
+	 * Acquire a lease on the open jar file that the given jar URL points into.
+	 * @param jarUrl a "jar:file:" URL, as accepted by {@link #supports(URL)}
+	 * @return the lease, to be closed after use
+	 * @throws FileNotFoundException if the jar file does not exist
+	 * @throws IOException if the jar file cannot be opened
+	 */
+	public Lease acquire(URL jarUrl) throws IOException {
+		Assert.isTrue(supports(jarUrl), () -> "Not a jar file URL: " + jarUrl);
+		return acquire(ResourceUtils.getFile(ResourceUtils.extractJarFileURL(jarUrl)));
+	}
+
+	/**
+	 * Acquire a lease on the given jar file, opening it if necessary.
+	 * @param jarFile the jar file in the file system
+	 * @return the lease, to be closed after use
+	 * @throws FileNotFoundException if the jar file does not exist
+	 * @throws IOException if the jar file cannot be opened
+	 */
+	public Lease acquire(File jarFile) throws IOException {
+		File file = jarFile.getAbsoluteFile();
+		String key = file.getPath();
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+		}
+		catch (NoSuchFileException ex) {
+			throw new FileNotFoundException("Jar file [" + key + "] does not exist");
+		}
+		long size = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+
+		CachedJarFile cached;
+		List<JarFile> toClose = new ArrayList<>(1);
+		synchronized (this.jarFiles) {
+			cached = acquireCached(key, size, lastModified, toClose);
+		}
+		if (cached == null) {
+			// Open outside the lock: parsing the central directory may take a while
+			CachedJarFile opened = new CachedJarFile(new JarFile(file), size, lastModified);
+			synchronized (this.jarFiles) {
+				cached = acquireCached(key, size, lastModified, toClose);
+				if (cached == null) {
+					cached = opened;
+					cached.refCount++;
+					this.jarFiles.put(key, cached);
+					evictIfNecessary(toClose);
+				}
+				else {
+					// Opened concurrently by another thread
+					toClose.add(opened.jarFile);
+				}
+			}
+		}
+		closeQuietly(toClose);
+		return new Lease(cached);
+	}
+
+	/**
+	 * Open a stream for the entry that the given jar URL points to, keeping
+	 * the jar file leased until the stream is closed.
+	 * @param jarUrl a "jar:file:" URL, as accepted by {@link #supports(URL)}
+	 * @return the entry content
+	 * @throws FileNotFoundException if the jar file or the entry does not exist
+	 * @throws IOException if the jar file cannot be read
+	 */
+	public InputStream getInputStream(URL jarUrl) throws IOException {
+		Lease lease = acquire(jarUrl);
+		try {
+			String entryName = extractEntryName(jarUrl);
+			JarEntry entry = lease.getJarFile().getJarEntry(entryName);
+			if (entry == null) {
+				throw new FileNotFoundException("JAR entry " + entryName + " not found in " +
+						lease.getJarFile().getName());
+			}
+			return new LeasedInputStream(lease.getJarFile().getInputStream(entry), lease);
+		}
+		catch (IOException | RuntimeException ex) {
+			lease.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Determine whether the jar file that the given jar URL points into exists
+	 * and contains the entry it points to (if any).
+	 * @param jarUrl a "jar:file:" URL, as accepted by {@link #supports(URL)}
+	 */
+	public boolean exists(URL jarUrl) {
+		try (Lease lease = acquire(jarUrl)) {
+			String entryName = extractEntryName(jarUrl);
+			return (entryName.isEmpty() || lease.getJarFile().getJarEntry(entryName) != null);
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Look up the entry that the given jar URL points to.
+	 * @param jarUrl a "jar:file:" URL, as accepted by {@link #supports(URL)}
+	 * @return the entry, or {@code null} if the jar file does not contain it
+	 * @throws FileNotFoundException if the jar file does not exist
+	 * @throws IOException if the jar file cannot be read
+	 */
+	@Nullable
+	public JarEntry getJarEntry(URL jarUrl) throws IOException {
+		try (Lease lease = acquire(jarUrl)) {
+			return lease.getJarFile().getJarEntry(extractEntryName(jarUrl));
+		}
+	}
+
+	/**
+	 * Return the number of jar files currently held by this cache.
+	 */
+	public int size() {
+		synchronized (this.jarFiles) {
+			return this.jarFiles.size();
+		}
+	}
+
+	/**
+	 * Register a user of this cache, such as an application context, which
+	 * needs to {@linkplain #unregisterUser() unregister} once it is done.
+	 * @see #unregisterUser()
+	 */
+	public void registerUser() {
+		this.userCount.incrementAndGet();
+	}
+
+	/**
+	 * Unregister a user of this cache, {@linkplain #clear() clearing} the
+	 * cache if it was the last registered one.
+	 * @see #registerUser()
+	 */
+	public void unregisterUser() {
+		int remaining = this.userCount.decrementAndGet();
+		Assert.state(remaining >= 0, "No user registered with JarFileCache");
+		if (remaining == 0) {
+			clear();
+		}
+	}
+
+	/**
+	 * Remove all jar files from this cache, closing each of them as soon as
+	 * it is no longer leased.
+	 */
+	public void clear() {
+		List<JarFile> toClose = new ArrayList<>();
+		synchronized (this.jarFiles) {
+			for (CachedJarFile cached : this.jarFiles.values()) {
+				retire(cached, toClose);
+			}
+			this.jarFiles.clear();
+		}
+		closeQuietly(toClose);
+	}
+
+
+	/**
+	 * Lease the cached jar file for the given key if it is still current,
+	 * retiring it otherwise. Must be called while holding the lock.
+	 */
+	@Nullable
+	private CachedJarFile acquireCached(String key, long size, long lastModified, List<JarFile> toClose) {
+		CachedJarFile cached = this.jarFiles.get(key);
+		if (cached == null) {
+			return null;
+		}
+		if (cached.size != size || cached.lastModified != lastModified) {
+			this.jarFiles.remove(key);
+			retire(cached, toClose);
+			return null;
+		}
+		cached.refCount++;
+		return cached;
+	}
+
+	private void evictIfNecessary(List<JarFile> toClose) {
+		Iterator<CachedJarFile> it = this.jarFiles.values().iterator();
+		while (this.jarFiles.size() > this.maxSize && it.hasNext()) {
+			CachedJarFile eldest = it.next();
+			it.remove();
+			retire(eldest, toClose);
+		}
+	}
+
+	private static void retire(CachedJarFile cached, List<JarFile> toClose) {
+		cached.retired = true;
+		if (cached.refCount == 0) {
+			toClose.add(cached.jarFile);
+		}
+	}
+
+	private void release(CachedJarFile cached) {
+		boolean close;
+		synchronized (this.jarFiles) {
+			cached.refCount--;
+			close = (cached.retired && cached.refCount == 0);
+		}
+		if (close) {
+			closeQuietly(List.of(cached.jarFile));
+		}
+	}
+
+	private static String extractEntryName(URL jarUrl) throws MalformedURLException {
+		String urlFile = jarUrl.getFile();
+		int separatorIndex = urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR);
+		if (separatorIndex == -1) {
+			throw new MalformedURLException("No " + ResourceUtils.JAR_URL_SEPARATOR + " in jar URL " + jarUrl);
+		}
+		String entryName = urlFile.substring(separatorIndex + ResourceUtils.JAR_URL_SEPARATOR.length());
+		return StringUtils.uriDecode(entryName, StandardCharsets.UTF_8);
+	}
+
+	private static void closeQuietly(List<JarFile> jarFiles) {
+		for (JarFile jarFile : jarFiles) {
+			try {
+				jarFile.close();
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+	}
+
+
+	/**
+	 * An open jar file with the file attributes it was opened for.
+	 * Reference count and retired flag are guarded by the cache's lock.
+	 */
+	private static final class CachedJarFile {
+
+		final JarFile jarFile;
+
+		final long size;
+
+		final long lastModified;
+
+		int refCount;
+
+		boolean retired;
+
+		CachedJarFile(JarFile jarFile, long size, long lastModified) {
+			this.jarFile = jarFile;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+	}
+
+
+	/**
+	 * A lease on an open {@link JarFile}: the jar file stays open at least
+	 * until the lease is closed.
+	 */
+	public final class Lease implements Closeable {
+
+		private final CachedJarFile cached;
+
+		private boolean released;
+
+		private Lease(CachedJarFile cached) {
+			this.cached = cached;
+		}
+
+		/**
+		 * Return the leased jar file.
+		 * <p>Must not be closed by the caller, and must not be used after
+		 * the lease has been closed.
+		 */
+		public JarFile getJarFile() {
+			return this.cached.jarFile;
+		}
+
+		/**
+		 * Return the jar file's last-modified timestamp at the time it was opened.
+		 */
+		public long getLastModified() {
+			return this.cached.lastModified;
+		}
+
+		/**
+		 * Release this lease. Subsequent calls have no effect.
+		 */
+		@Override
+		public void close() {
+			synchronized (this) {
+				if (this.released) {
+					return;
+				}
+				this.released = true;
+			}
+			release(this.cached);
+		}
+	}
+
+
+	/**
+	 * Entry stream that releases its jar file lease when closed.
+	 */
+	private static final class LeasedInputStream extends FilterInputStream {
+
+		private final Lease lease;
+
+		LeasedInputStream(InputStream in, Lease lease) {
+			super(in);
+			this.lease = lease;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				this.lease.close();
+			}
+		}
+	}
+
+}
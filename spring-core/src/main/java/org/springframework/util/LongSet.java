@@ -0,0 +1,275 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Set of primitive {@code long} values, using open addressing with linear
+ * probing over a single {@code long[]} table.
+ *
+ * <p>Compared to a {@code HashSet<Long>}, this avoids boxing the elements
+ * as well as the backing map's entry objects. The value {@code 0} marks an
+ * empty slot and is therefore tracked separately.
+ *
+ * <p>This Set implementation is not thread-safe. Instances that are fully
+ * populated before being safely published may be read concurrently.
+ *
+ * @since 6.1
+ * @see CollectionUtils#newLongSet(int)
+ */
+public class LongSet {
+
+	private long[] table;
+
+	private boolean containsZero;
+
+	private int size;
+
+	private int threshold;
+
+
+	/**
+	 * Create a new, empty {@code LongSet} with a default initial capacity.
+	 */
+	public LongSet() {
+		this(8);
+	}
+
+	/**
+	 * Create a new, empty {@code LongSet} that can accommodate the specified
+	 * number of elements without any immediate resize/rehash operations.
+	 * @param expectedSize the expected number of elements
+	 */
+	public LongSet(int expectedSize) {
+		int capacity = OpenHashing.tableSizeFor(expectedSize);
+		this.table = new long[capacity];
+		this.threshold = OpenHashing.thresholdFor(capacity);
+	}
+
+
+	/**
+	 * Return the number of elements in this set.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return {@code true} if this set contains no elements.
+	 */
+	public boolean isEmpty() {
+		return (this.size == 0);
+	}
+
+	/**
+	 * Return {@code true} if this set contains the given value.
+	 * @param value the value to check
+	 */
+	public boolean contains(long value) {
+		if (value == 0) {
+			return this.containsZero;
+		}
+		return (this.table[slotFor(value)] != 0);
+	}
+
+	/**
+	 * Add the given value to this set.
+	 * @param value the value to add
+	 * @return {@code true} if the value was added, {@code false} if it was
+	 * already present
+	 */
+	public boolean add(long value) {
+		if (value == 0) {
+			if (this.containsZero) {
+				return false;
+			}
+			this.containsZero = true;
+			this.size++;
+			return true;
+		}
+		int index = slotFor(value);
+		if (this.table[index] != 0) {
+			return false;
+		}
+		this.table[index] = value;
+		if (++this.size > this.threshold) {
+			resize();
+		}
+		return true;
+	}
+
+	/**
+	 * Remove the given value from this set.
+	 * @param value the value to remove
+	 * @return {@code true} if the value was present
+	 */
+	public boolean remove(long value) {
+		if (value == 0) {
+			if (!this.containsZero) {
+				return false;
+			}
+			this.containsZero = false;
+			this.size--;
+			return true;
+		}
+		int index = slotFor(value);
+		if (this.table[index] == 0) {
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	/**
+	 * Remove all elements from this set, retaining its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(this.table, 0);
+		this.containsZero = false;
+		this.size = 0;
+	}
+
+	/**
+	 * Return the elements of this set as an array, in no particular order.
+	 */
+	public long[] toArray() {
+		long[] result = new long[this.size];
+		int count = 0;
+		if (this.containsZero) {
+			count++;
+		}
+		for (long value : this.table) {
+			if (value != 0) {
+				result[count++] = value;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Perform the given action for each element in this set, in no particular order.
+	 * @param action the action to perform
+	 */
+	public void forEach(LongConsumer action) {
+		if (this.containsZero) {
+			action.accept(0);
+		}
+		for (long value : this.table) {
+			if (value != 0) {
+				action.accept(value);
+			}
+		}
+	}
+
+
+	/**
+	 * Return the slot holding the given non-zero value, or the empty slot
+	 * where it belongs.
+	 */
+	private int slotFor(long value) {
+		int mask = this.table.length - 1;
+		int index = OpenHashing.mix(value) & mask;
+		long existing;
+		while ((existing = this.table[index]) != 0) {
+			if (existing == value) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private void removeAt(int index) {
+		int mask = this.table.length - 1;
+		int gap = index;
+		int candidate = index;
+		while (true) {
+			candidate = (candidate + 1) & mask;
+			long value = this.table[candidate];
+			if (value == 0) {
+				break;
+			}
+			int home = OpenHashing.mix(value) & mask;
+			if (OpenHashing.canShift(gap, candidate, home)) {
+				this.table[gap] = value;
+				gap = candidate;
+			}
+		}
+		this.table[gap] = 0;
+		this.size--;
+	}
+
+	private void resize() {
+		long[] oldTable = this.table;
+		int capacity = oldTable.length << 1;
+		int mask = capacity - 1;
+		this.table = new long[capacity];
+		this.threshold = OpenHashing.thresholdFor(capacity);
+		for (long value : oldTable) {
+			if (value != 0) {
+				int index = OpenHashing.mix(value) & mask;
+				while (this.table[index] != 0) {
+					index = (index + 1) & mask;
+				}
+				this.table[index] = value;
+			}
+		}
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof LongSet that) || this.size != that.size || this.containsZero != that.containsZero) {
+			return false;
+		}
+		for (long value : this.table) {
+			if (value != 0 && !that.contains(value)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (long value : this.table) {
+			hash += Long.hashCode(value);
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		forEach(value -> {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(value);
+		});
+		return sb.append(']').toString();
+	}
+
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Arrays;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Map from object keys to primitive {@code int} values, using open addressing
+ * with linear probing over parallel key and value arrays.
+ *
+ * <p>Compared to a {@code HashMap<K, Integer>}, this avoids boxing the values
+ * and allocating an entry object per mapping. {@code null} keys are not
+ * supported, since an empty slot is marked by a {@code null} key. Lookups
+ * for absent keys return a caller-supplied default value.
+ *
+ * <p>This Map implementation is not thread-safe. Instances that are fully
+ * populated before being safely published may be read concurrently.
+ *
+ * @since 6.1
+ * @param <K> the key type
+ * @see CollectionUtils#newObjectIntMap(int)
+ */
+public class ObjectIntMap<K> {
+
+	private Object[] keys;
+
+	private int[] values;
+
+	private int size;
+
+	private int threshold;
+
+
+	/**
+	 * Create a new, empty {@code ObjectIntMap} with a default initial capacity.
+	 */
+	public ObjectIntMap() {
+		this(8);
+	}
+
+	/**
+	 * Create a new, empty {@code ObjectIntMap} that can accommodate the specified
+	 * number of elements without any immediate resize/rehash operations.
+	 * @param expectedSize the expected number of elements
+	 */
+	public ObjectIntMap(int expectedSize) {
+		int capacity = OpenHashing.tableSizeFor(expectedSize);
+		this.keys = new Object[capacity];
+		this.values = new int[capacity];
+		this.threshold = OpenHashing.thresholdFor(capacity);
+	}
+
+
+	/**
+	 * Return the number of mappings in this map.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return {@code true} if this map contains no mappings.
+	 */
+	public boolean isEmpty() {
+		return (this.size == 0);
+	}
+
+	/**
+	 * Return {@code true} if this map contains a mapping for the given key.
+	 * @param key the key to check
+	 */
+	public boolean containsKey(@Nullable Object key) {
+		return (key != null && indexOf(key) >= 0);
+	}
+
+	/**
+	 * Return the value mapped to the given key, or the given default value.
+	 * @param key the key to look up
+	 * @param defaultValue the value to return if there is no mapping
+	 */
+	public int getOrDefault(@Nullable Object key, int defaultValue) {
+		if (key == null) {
+			return defaultValue;
+		}
+		int index = indexOf(key);
+		return (index >= 0 ? this.values[index] : defaultValue);
+	}
+
+	/**
+	 * Map the given key to the given value, replacing any existing mapping.
+	 * @param key the key (never {@code null})
+	 * @param value the value
+	 */
+	public void put(K key, int value) {
+		Assert.notNull(key, "Key must not be null");
+		int index = slotFor(key);
+		if (this.keys[index] != null) {
+			this.values[index] = value;
+		}
+		else {
+			insertAt(index, key, value);
+		}
+	}
+
+	/**
+	 * Map the given key to the given value unless a mapping already exists.
+	 * @param key the key (never {@code null})
+	 * @param value the value
+	 * @return {@code true} if the mapping was added, {@code false} if the key
+	 * was already mapped
+	 */
+	public boolean putIfAbsent(K key, int value) {
+		Assert.notNull(key, "Key must not be null");
+		int index = slotFor(key);
+		if (this.keys[index] != null) {
+			return false;
+		}
+		insertAt(index, key, value);
+		return true;
+	}
+
+	/**
+	 * Add the given delta to the value mapped to the given key, starting
+	 * from {@code 0} if there is no mapping yet.
+	 * @param key the key (never {@code null})
+	 * @param delta the amount to add
+	 * @return the new value
+	 */
+	public int addTo(K key, int delta) {
+		Assert.notNull(key, "Key must not be null");
+		int index = slotFor(key);
+		if (this.keys[index] != null) {
+			return (this.values[index] += delta);
+		}
+		insertAt(index, key, delta);
+		return delta;
+	}
+
+	/**
+	 * Remove the mapping for the given key.
+	 * @param key the key
+	 * @return {@code true} if a mapping was removed
+	 */
+	public boolean remove(@Nullable Object key) {
+		if (key == null) {
+			return false;
+		}
+		int index = indexOf(key);
+		if (index < 0) {
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	/**
+	 * Remove all mappings from this map, retaining its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(this.keys, null);
+		this.size = 0;
+	}
+
+	/**
+	 * Perform the given action for each mapping in this map, in no particular order.
+	 * @param action the action to perform
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(EntryConsumer<? super K> action) {
+		for (int i = 0; i < this.keys.length; i++) {
+			Object key = this.keys[i];
+			if (key != null) {
+				action.accept((K) key, this.values[i]);
+			}
+		}
+	}
+
+
+	private int indexOf(Object key) {
+		int index = slotFor(key);
+		return (this.keys[index] != null ? index : -1);
+	}
+
+	/**
+	 * Return the slot holding the given key, or the empty slot where it belongs.
+	 */
+	private int slotFor(Object key) {
+		int mask = this.keys.length - 1;
+		int index = OpenHashing.mix(key.hashCode()) & mask;
+		Object existing;
+		while ((existing = this.keys[index]) != null) {
+			if (existing == key || existing.equals(key)) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private void insertAt(int index, Object key, int value) {
+		this.keys[index] = key;
+		this.values[index] = value;
+		if (++this.size > this.threshold) {
+			resize();
+		}
+	}
+
+	private void removeAt(int index) {
+		int mask = this.keys.length - 1;
+		int gap = index;
+		int candidate = index;
+		while (true) {
+			candidate = (candidate + 1) & mask;
+			Object key = this.keys[candidate];
+			if (key == null) {
+				break;
+			}
+			int home = OpenHashing.mix(key.hashCode()) & mask;
+			if (OpenHashing.canShift(gap, candidate, home)) {
+				this.keys[gap] = key;
+				this.values[gap] = this.values[candidate];
+				gap = candidate;
+			}
+		}
+		this.keys[gap] = null;
+		this.size--;
+	}
+
+	private void resize() {
+		Object[] oldKeys = this.keys;
+		int[] oldValues = this.values;
+		int capacity = oldKeys.length << 1;
+		int mask = capacity - 1;
+		this.keys = new Object[capacity];
+		this.values = new int[capacity];
+		this.threshold = OpenHashing.thresholdFor(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			Object key = oldKeys[i];
+			if (key != null) {
+				int index = OpenHashing.mix(key.hashCode()) & mask;
+				while (this.keys[index] != null) {
+					index = (index + 1) & mask;
+				}
+				this.keys[index] = key;
+				this.values[index] = oldValues[i];
+			}
+		}
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof ObjectIntMap<?> that) || this.size != that.size) {
+			return false;
+		}
+		for (int i = 0; i < this.keys.length; i++) {
+			Object key = this.keys[i];
+			if (key != null) {
+				int index = that.indexOf(key);
+				if (index < 0 || that.values[index] != this.values[i]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int i = 0; i < this.keys.length; i++) {
+			Object key = this.keys[i];
+			if (key != null) {
+				hash += key.hashCode() ^ this.values[i];
+			}
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		forEach((key, value) -> {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(key).append('=').append(value);
+		});
+		return sb.append('}').toString();
+	}
+
+
+	/**
+	 * Callback for {@link #forEach(EntryConsumer)}.
+	 * @param <K> the key type
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer<K> {
+
+		/**
+		 * Perform this action on the given mapping.
+		 * @param key the key
+		 * @param value the value
+		 */
+		void accept(K key, int value);
+	}
+
+}
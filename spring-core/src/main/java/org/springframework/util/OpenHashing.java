@@ -0,0 +1,84 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+/**
+ * Internal helpers shared by the open-addressing collections in this package:
+ * hash spreading and power-of-two table sizing for linear probing.
+ *
+ * @since 6.1
+ * @see IntObjectMap
+ * @see ObjectIntMap
+ * @see LongSet
+ */
+abstract class OpenHashing {
+
+	/** Maximum fill ratio before a table gets doubled. */
+	static final float LOAD_FACTOR = 0.75f;
+
+	private static final int MIN_CAPACITY = 4;
+
+	private static final int MAX_CAPACITY = 1 << 30;
+
+
+	/**
+	 * Spread the bits of the given hash code so that sequential keys
+	 * do not cluster in adjacent slots.
+	 */
+	static int mix(int hash) {
+		int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Spread the bits of the given {@code long} key.
+	 */
+	static int mix(long key) {
+		return mix((int) (key ^ (key >>> 32)));
+	}
+
+	/**
+	 * Return the power-of-two table capacity that holds the given number
+	 * of entries without exceeding the {@link #LOAD_FACTOR}.
+	 */
+	static int tableSizeFor(int expectedSize) {
+		Assert.isTrue(expectedSize >= 0, "Expected size must not be negative");
+		long required = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+		if (required >= MAX_CAPACITY) {
+			return MAX_CAPACITY;
+		}
+		int capacity = Integer.highestOneBit((int) required - 1) << 1;
+		return Math.max(capacity, MIN_CAPACITY);
+	}
+
+	/**
+	 * Return the resize threshold for a table of the given capacity.
+	 */
+	static int thresholdFor(int capacity) {
+		return (capacity == MAX_CAPACITY ? MAX_CAPACITY - 1 : (int) (capacity * LOAD_FACTOR));
+	}
+
+	/**
+	 * Determine whether the entry in slot {@code candidate}, whose preferred
+	 * slot is {@code home}, may be shifted back into the freed {@code gap}
+	 * during backward-shift deletion.
+	 */
+	static boolean canShift(int gap, int candidate, int home) {
+		return (gap <= candidate ? (home <= gap || home > candidate) : (home <= gap && home > candidate));
+	}
+
+}
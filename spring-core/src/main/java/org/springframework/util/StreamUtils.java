@@ -19,13 +19,23 @@ package org.springframework.util;
 import org.springframework.lang.Nullable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Simple utility methods for dealing with streams. The copy methods of this class are
  * similar to those defined in {@link FileCopyUtils} except that all affected streams are
  * left open when done. All copy methods use a block size of 8192 bytes.
  *
+ * <p>Copy buffers are borrowed from a small shared pool rather than allocated per
+ * call. Copies between plain file streams and file channels are delegated to
+ * {@link FileChannel#transferTo}/{@link FileChannel#transferFrom}, which lets the
+ * operating system move the bytes without copying them through the Java heap.
+ *
  * <p>Mainly for use within the framework, but also useful for application code.
  *
  * @author Juergen Hoeller
@@ -43,6 +53,8 @@ public abstract class StreamUtils {
 
 	private static final byte[] EMPTY_CONTENT = new byte[0];
 
+	private static final BufferPool bufferPool = new BufferPool();
+
 
 	/**
 	 * Copy the contents of the given InputStream into a new byte array.
@@ -142,9 +154,79 @@ public abstract class StreamUtils {
 		Assert.notNull(in, "No InputStream specified");
 		Assert.notNull(out, "No OutputStream specified");
 
-		int count = (int) in.transferTo(out);
+		long count = 0;
+		if (in.getClass() == FileInputStream.class && out.getClass() == FileOutputStream.class) {
+			FileChannel source = ((FileInputStream) in).getChannel();
+			long position = source.position();
+			count = transferTo(source, position, Math.max(source.size() - position, 0),
+					((FileOutputStream) out).getChannel());
+			source.position(position + count);
+			// Not a regular file (e.g. a pipe): continue with the buffered copy below
+		}
+		if (in instanceof ByteArrayInputStream) {
+			count += in.transferTo(out);
+		}
+		else {
+			count += copyBuffered(in, out, Long.MAX_VALUE);
+		}
 		out.flush();
-		return count;
+		return (int) count;
+	}
+
+	/**
+	 * Copy the contents of the given channel to the given channel.
+	 * <p>A {@link FileChannel} source is transferred through
+	 * {@link FileChannel#transferTo}, and a {@link FileChannel} target through
+	 * {@link FileChannel#transferFrom}, so that copies between files and sockets
+	 * can be performed by the operating system without passing through the Java
+	 * heap. A file source is read from its current position, which is advanced
+	 * by the number of bytes copied; the same applies to a file target.
+	 * <p>Leaves both channels open when done. Both channels are expected
+	 * to be in blocking mode.
+	 * @param in the channel to copy from
+	 * @param out the channel to copy to
+	 * @return the number of bytes copied
+	 * @throws IOException in case of I/O errors
+	 * @since 6.1
+	 */
+	public static long copy(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		Assert.notNull(in, "No ReadableByteChannel specified");
+		Assert.notNull(out, "No WritableByteChannel specified");
+
+		if (in instanceof FileChannel source) {
+			long position = source.position();
+			long count = transferTo(source, position, Math.max(source.size() - position, 0), out);
+			source.position(position + count);
+			return count;
+		}
+		if (out instanceof FileChannel target) {
+			long position = target.position();
+			long count = 0;
+			long transferred;
+			while ((transferred = target.transferFrom(in, position + count, Long.MAX_VALUE - position - count)) > 0) {
+				count += transferred;
+			}
+			target.position(position + count);
+			return count;
+		}
+		byte[] buffer = bufferPool.acquire();
+		try {
+			ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+			long count = 0;
+			int bytesRead;
+			while ((bytesRead = in.read(byteBuffer)) != -1) {
+				byteBuffer.flip();
+				while (byteBuffer.hasRemaining()) {
+					out.write(byteBuffer);
+				}
+				byteBuffer.clear();
+				count += bytesRead;
+			}
+			return count;
+		}
+		finally {
+			bufferPool.release(buffer);
+		}
 	}
 
 	/**
@@ -164,28 +246,23 @@ public abstract class StreamUtils {
 		Assert.notNull(in, "No InputStream specified");
 		Assert.notNull(out, "No OutputStream specified");
 
+		long length = end - start + 1;
+		if (in.getClass() == FileInputStream.class) {
+			// Positional access instead of skipping through the preceding content
+			FileChannel source = ((FileInputStream) in).getChannel();
+			long position = source.position() + start;
+			long count = (out.getClass() == FileOutputStream.class ?
+					transferTo(source, position, length, ((FileOutputStream) out).getChannel()) :
+					copyPositional(source, position, length, out));
+			source.position(position + count);
+			return count;
+		}
+
 		long skipped = in.skip(start);
 		if (skipped < start) {
 			throw new IOException("Skipped only " + skipped + " bytes out of " + start + " required");
 		}
-
-		long bytesToCopy = end - start + 1;
-		byte[] buffer = new byte[(int) Math.min(StreamUtils.BUFFER_SIZE, bytesToCopy)];
-		while (bytesToCopy > 0) {
-			int bytesRead = in.read(buffer);
-			if (bytesRead == -1) {
-				break;
-			}
-			else if (bytesRead <= bytesToCopy) {
-				out.write(buffer, 0, bytesRead);
-				bytesToCopy -= bytesRead;
-			}
-			else {
-				out.write(buffer, 0, (int) bytesToCopy);
-				bytesToCopy = 0;
-			}
-		}
-		return (end - start + 1 - bytesToCopy);
+		return copyBuffered(in, out, length);
 	}
 
 	/**
@@ -235,6 +312,122 @@ public abstract class StreamUtils {
 	}
 
 
+	/**
+	 * Copy up to {@code length} bytes from the given stream, using a pooled buffer.
+	 */
+	private static long copyBuffered(InputStream in, OutputStream out, long length) throws IOException {
+		byte[] buffer = bufferPool.acquire();
+		try {
+			long bytesToCopy = length;
+			while (bytesToCopy > 0) {
+				int bytesRead = in.read(buffer, 0, (int) Math.min(buffer.length, bytesToCopy));
+				if (bytesRead == -1) {
+					break;
+				}
+				out.write(buffer, 0, bytesRead);
+				bytesToCopy -= bytesRead;
+			}
+			return (length - bytesToCopy);
+		}
+		finally {
+			bufferPool.release(buffer);
+		}
+	}
+
+	/**
+	 * Copy up to {@code length} bytes from the given file channel position,
+	 * using positional reads into a pooled buffer.
+	 */
+	private static long copyPositional(FileChannel source, long position, long length, OutputStream out)
+			throws IOException {
+
+		byte[] buffer = bufferPool.acquire();
+		try {
+			ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+			long bytesToCopy = length;
+			while (bytesToCopy > 0) {
+				byteBuffer.clear().limit((int) Math.min(buffer.length, bytesToCopy));
+				int bytesRead = source.read(byteBuffer, position + length - bytesToCopy);
+				if (bytesRead == -1) {
+					break;
+				}
+				out.write(buffer, 0, bytesRead);
+				bytesToCopy -= bytesRead;
+			}
+			return (length - bytesToCopy);
+		}
+		finally {
+			bufferPool.release(buffer);
+		}
+	}
+
+	/**
+	 * Transfer up to {@code count} bytes from the given file channel position,
+	 * stopping early at the end of the file.
+	 */
+	private static long transferTo(FileChannel source, long position, long count, WritableByteChannel target)
+			throws IOException {
+
+		long transferred = 0;
+		while (transferred < count) {
+			long bytes = source.transferTo(position + transferred, count - transferred, target);
+			if (bytes <= 0) {
+				break;
+			}
+			transferred += bytes;
+		}
+		return transferred;
+	}
+
+
+	/**
+	 * Lock-free pool of {@link #BUFFER_SIZE} copy buffers. Buffers are handed out
+	 * from a fixed number of slots rather than held per thread, so the pool stays
+	 * small however many (virtual) threads copy concurrently; when all slots are
+	 * empty, a new buffer is allocated and either returned to a free slot or
+	 * left to the garbage collector.
+	 */
+	private static final class BufferPool {
+
+		private final AtomicReferenceArray<byte[]> slots;
+
+		private final int mask;
+
+		BufferPool() {
+			int size = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 2) * 2 - 1) << 1;
+			this.slots = new AtomicReferenceArray<>(Math.min(size, 64));
+			this.mask = this.slots.length() - 1;
+		}
+
+		byte[] acquire() {
+			int start = startIndex();
+			for (int i = 0; i <= this.mask; i++) {
+				int index = (start + i) & this.mask;
+				byte[] buffer = this.slots.get(index);
+				if (buffer != null && this.slots.compareAndSet(index, buffer, null)) {
+					return buffer;
+				}
+			}
+			return new byte[BUFFER_SIZE];
+		}
+
+		void release(byte[] buffer) {
+			int start = startIndex();
+			for (int i = 0; i <= this.mask; i++) {
+				int index = (start + i) & this.mask;
+				if (this.slots.get(index) == null && this.slots.compareAndSet(index, null, buffer)) {
+					return;
+				}
+			}
+		}
+
+		private int startIndex() {
+			// Spread threads across slots to reduce contention
+			return (int) Thread.currentThread().getId() * 0x9E3779B9 >>> 16;
+		}
+	}
+
+
 	private static class NonClosingInputStream extends FilterInputStream {
 
 		public NonClosingInputStream(InputStream in) {
@@ -1,8 +1,12 @@
 package org.springframework.util;
 
 
-import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -545,8 +549,9 @@ public class StringUtils {
         String normalizedPath = replace(path, WINDOWS_FOLDER_SEPARATOR, FOLDER_SEPARATOR);
         String pathToUse = normalizedPath;
 
-        // Shortcut if there is no work to do
-        if (pathToUse.indexOf('.') == -1) {
+        // Shortcut if there is no work to do: without "." or ".." path elements,
+        // the path would be re-joined from exactly the same elements.
+        if (!hasDotPathElement(pathToUse)) {
             return pathToUse;
         }
 
@@ -614,6 +619,30 @@ public class StringUtils {
         return prefix.isEmpty() ? joined : prefix + joined;
     }
 
+    /**
+     * Check whether the given (slash-separated) path contains a "." or ".."
+     * path element. A ':' is treated as an element boundary as well, so that
+     * elements directly following a "file:"-like prefix are covered.
+     * <p>May report false positives, which merely lead to the full
+     * normalization in {@link #cleanPath}, but never false negatives.
+     */
+    private static boolean hasDotPathElement(String path) {
+        int length = path.length();
+        for (int i = path.indexOf('.'); i != -1; i = path.indexOf('.', i + 1)) {
+            char previous = (i > 0 ? path.charAt(i - 1) : FOLDER_SEPARATOR_CHAR);
+            if (previous == FOLDER_SEPARATOR_CHAR || previous == ':') {
+                int end = i + 1;
+                if (end < length && path.charAt(end) == '.') {
+                    end++;
+                }
+                if (end == length || path.charAt(end) == FOLDER_SEPARATOR_CHAR) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Compare two paths after normalization of them.
      */
@@ -644,32 +673,110 @@ public class StringUtils {
         }
         Assert.notNull(charset, "Charset must not be null");
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(length);
+        int firstEscape = source.indexOf('%');
+        if (firstEscape == -1) {
+            // Shortcut: nothing to decode
+            return source;
+        }
+        byte[] bytes = new byte[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            int ch = source.charAt(i);
+            if (ch == '%') {
+                bytes[count++] = decodeEscape(source, i);
+                i += 2;
+            }
+            else {
+                bytes[count++] = (byte) ch;
+            }
+        }
+        return new String(bytes, 0, count, charset);
+    }
+
+    /**
+     * Decode the given encoded URI component value into the given {@link CharBuffer},
+     * following the same rules as {@link #uriDecode(String, Charset)} but without
+     * creating any intermediate objects: the raw bytes are collected in the given
+     * {@link ByteBuffer} and decoded in chunks through the given {@link CharsetDecoder},
+     * so that all three can be reused across invocations (e.g. per thread).
+     * <p>The byte buffer is cleared before use and may be smaller than the decoded
+     * content; it needs to be able to hold at least one complete character in the
+     * target charset, though. The decoder is reset before use, and its malformed-input
+     * and unmappable-character actions determine how invalid byte sequences are handled.
+     *
+     * 将给定的编码 URI 组件值解码到给定的 {@link CharBuffer} 中，不创建任何中间对象；
+     * 字节缓冲区、字符缓冲区和解码器均可在多次调用之间复用。
+     *
+     * @param source the encoded value
+     * @param byteBuffer the buffer for collecting raw bytes
+     * @param target the buffer to append the decoded characters to
+     * @param decoder the decoder for the target charset
+     * @return {@code true} if the source contained any escape sequences,
+     * {@code false} if the decoded characters are the same as the source
+     * @throws IllegalArgumentException in case of an invalid escape sequence or
+     * an invalid byte sequence reported by the decoder
+     * @throws java.nio.BufferOverflowException if the target buffer is too small
+     * @since 6.1
+     * @see #uriDecode(String, Charset)
+     */
+    public static boolean uriDecode(CharSequence source, ByteBuffer byteBuffer, CharBuffer target,
+            CharsetDecoder decoder) {
+
+        Assert.notNull(source, "Source must not be null");
+        Assert.notNull(decoder, "CharsetDecoder must not be null");
+        decoder.reset();
+        byteBuffer.clear();
         boolean changed = false;
+        int length = source.length();
         for (int i = 0; i < length; i++) {
             int ch = source.charAt(i);
+            byte b;
             if (ch == '%') {
-                if (i + 2 < length) {
-                    char hex1 = source.charAt(i + 1);
-                    char hex2 = source.charAt(i + 2);
-                    int u = Character.digit(hex1, 16);
-                    int l = Character.digit(hex2, 16);
-                    if (u == -1 || l == -1) {
-                        throw new IllegalArgumentException("Invalid encoded sequence \"" + source.substring(i) + "\"");
-                    }
-                    baos.write((char) ((u << 4) + l));
-                    i += 2;
-                    changed = true;
-                }
-                else {
-                    throw new IllegalArgumentException("Invalid encoded sequence \"" + source.substring(i) + "\"");
-                }
+                b = decodeEscape(source, i);
+                i += 2;
+                changed = true;
             }
             else {
-                baos.write(ch);
+                b = (byte) ch;
+            }
+            if (!byteBuffer.hasRemaining()) {
+                byteBuffer.flip();
+                decodeChunk(decoder, byteBuffer, target, false);
+                byteBuffer.compact();
+                if (!byteBuffer.hasRemaining()) {
+                    throw new IllegalArgumentException("ByteBuffer too small to hold a single character");
+                }
+            }
+            byteBuffer.put(b);
+        }
+        byteBuffer.flip();
+        decodeChunk(decoder, byteBuffer, target, true);
+        CoderResult result = decoder.flush(target);
+        if (result.isOverflow()) {
+            throw new BufferOverflowException();
+        }
+        return changed;
+    }
+
+    private static byte decodeEscape(CharSequence source, int index) {
+        if (index + 2 < source.length()) {
+            int u = Character.digit(source.charAt(index + 1), 16);
+            int l = Character.digit(source.charAt(index + 2), 16);
+            if (u != -1 && l != -1) {
+                return (byte) ((u << 4) + l);
             }
         }
-        return (changed ? StreamUtils.copyToString(baos, charset) : source);
+        throw new IllegalArgumentException("Invalid encoded sequence \"" + source.subSequence(index, source.length()) + "\"");
+    }
+
+    private static void decodeChunk(CharsetDecoder decoder, ByteBuffer in, CharBuffer out, boolean endOfInput) {
+        CoderResult result = decoder.decode(in, out, endOfInput);
+        if (result.isOverflow()) {
+            throw new BufferOverflowException();
+        }
+        if (result.isError()) {
+            throw new IllegalArgumentException("Invalid byte sequence for charset " + decoder.charset().name());
+        }
     }
 
     /**
@@ -989,22 +1096,66 @@ public class StringUtils {
     public static String[] tokenizeToStringArray(
             @Nullable String str, String delimiters, boolean trimTokens, boolean ignoreEmptyTokens) {
 
-        if (str == null) {
+        if (str == null || str.isEmpty()) {
+            return EMPTY_STRING_ARRAY;
+        }
+
+        // Same token boundaries as a StringTokenizer: maximal runs of non-delimiter
+        // characters. Count them first so that the result array is the only allocation
+        // besides the tokens themselves.
+        int maxDelimiter = 0;
+        for (int i = 0; i < delimiters.length(); i++) {
+            maxDelimiter = Math.max(maxDelimiter, delimiters.charAt(i));
+        }
+        int length = str.length();
+        int tokenCount = 0;
+        boolean inToken = false;
+        for (int i = 0; i < length; i++) {
+            boolean delimiter = isDelimiter(str.charAt(i), delimiters, maxDelimiter);
+            if (!delimiter && !inToken) {
+                tokenCount++;
+            }
+            inToken = !delimiter;
+        }
+        if (tokenCount == 0) {
             return EMPTY_STRING_ARRAY;
         }
+        if (tokenCount == 1 && inToken && !isDelimiter(str.charAt(0), delimiters, maxDelimiter)) {
+            // Single token spanning the entire input: no substring needed.
+            String token = (trimTokens ? str.trim() : str);
+            return (ignoreEmptyTokens && token.isEmpty() ? EMPTY_STRING_ARRAY : new String[] {token});
+        }
 
-        StringTokenizer st = new StringTokenizer(str, delimiters);
-        List<String> tokens = new ArrayList<>();
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
-            if (trimTokens) {
-                token = token.trim();
+        String[] tokens = new String[tokenCount];
+        int index = 0;
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean delimiter = (i == length || isDelimiter(str.charAt(i), delimiters, maxDelimiter));
+            if (!delimiter && start == -1) {
+                start = i;
             }
-            if (!ignoreEmptyTokens || token.length() > 0) {
-                tokens.add(token);
+            else if (delimiter && start != -1) {
+                int end = i;
+                if (trimTokens) {
+                    // Same as String.trim(), without the intermediate substring
+                    while (start < end && str.charAt(start) <= ' ') {
+                        start++;
+                    }
+                    while (end > start && str.charAt(end - 1) <= ' ') {
+                        end--;
+                    }
+                }
+                if (!ignoreEmptyTokens || start < end) {
+                    tokens[index++] = str.substring(start, end);
+                }
+                start = -1;
             }
         }
-        return toStringArray(tokens);
+        return (index == tokens.length ? tokens : Arrays.copyOf(tokens, index));
+    }
+
+    private static boolean isDelimiter(char c, String delimiters, int maxDelimiter) {
+        return (c <= maxDelimiter && delimiters.indexOf(c) != -1);
     }
 
     /**
@@ -1045,25 +1196,135 @@ public class StringUtils {
             return new String[] {str};
         }
 
-        List<String> result = new ArrayList<>();
+        if (str.isEmpty()) {
+            return EMPTY_STRING_ARRAY;
+        }
         if (delimiter.isEmpty()) {
+            String[] result = new String[str.length()];
             for (int i = 0; i < str.length(); i++) {
-                result.add(deleteAny(str.substring(i, i + 1), charsToDelete));
+                result[i] = deleteAny(str.substring(i, i + 1), charsToDelete);
             }
+            return result;
         }
-        else {
-            int pos = 0;
-            int delPos;
-            while ((delPos = str.indexOf(delimiter, pos)) != -1) {
-                result.add(deleteAny(str.substring(pos, delPos), charsToDelete));
-                pos = delPos + delimiter.length();
-            }
-            if (str.length() > 0 && pos <= str.length()) {
-                // Add rest of String, but not in case of empty input.
-                result.add(deleteAny(str.substring(pos), charsToDelete));
+
+        int delPos = str.indexOf(delimiter);
+        if (delPos == -1) {
+            // Single element: return the input itself rather than a copy.
+            return new String[] {deleteAny(str, charsToDelete)};
+        }
+        String[] result = new String[countOccurrencesOf(str, delimiter) + 1];
+        int index = 0;
+        int pos = 0;
+        while (delPos != -1) {
+            result[index++] = deleteAny(str.substring(pos, delPos), charsToDelete);
+            pos = delPos + delimiter.length();
+            delPos = str.indexOf(delimiter, pos);
+        }
+        // Add rest of String (possibly empty after a trailing delimiter).
+        result[index] = deleteAny(str.substring(pos), charsToDelete);
+        return result;
+    }
+
+    /**
+     * Determine the boundaries of the elements of a delimited list, without
+     * creating any substrings.
+     * <p>Elements are determined exactly as in {@link #delimitedListToStringArray(String, String)}:
+     * element {@code i} spans the characters from {@code bounds[2 * i]} (inclusive)
+     * to {@code bounds[2 * i + 1]} (exclusive) of the given {@code CharSequence}.
+     * <p>The given array is filled with as many element boundaries as fit, so
+     * that the same array can be reused for many inputs; if the returned count
+     * exceeds {@code bounds.length / 2}, call again with a larger array.
+     *
+     * 确定分隔列表中各元素的边界，而不创建任何子字符串。给定数组可在多次调用之间复用。
+     *
+     * @param str the input {@code CharSequence} (potentially {@code null} or empty)
+     * @param delimiter the delimiter between elements (a single {@code String}
+     * that may consist of more than one character; must not be empty)
+     * @param bounds the array to fill with start and end indexes
+     * @return the total number of elements in the list
+     * @since 6.1
+     * @see #delimitedListToIndexArray(CharSequence, String)
+     */
+    public static int delimitedListToIndexArray(@Nullable CharSequence str, String delimiter, int[] bounds) {
+        Assert.hasLength(delimiter, "Delimiter must not be empty");
+        if (str == null || str.length() == 0) {
+            return 0;
+        }
+        int count = 0;
+        int pos = 0;
+        int delPos;
+        while ((delPos = indexOf(str, delimiter, pos)) != -1) {
+            count = addBounds(bounds, count, pos, delPos);
+            pos = delPos + delimiter.length();
+        }
+        return addBounds(bounds, count, pos, str.length());
+    }
+
+    /**
+     * Determine the boundaries of the elements of a delimited list, without
+     * creating any substrings.
+     * <p>Element {@code i} spans the characters from {@code bounds[2 * i]}
+     * (inclusive) to {@code bounds[2 * i + 1]} (exclusive) of the given
+     * {@code CharSequence}.
+     * @param str the input {@code CharSequence} (potentially {@code null} or empty)
+     * @param delimiter the delimiter between elements (must not be empty)
+     * @return an array of start and end indexes, two per element
+     * @since 6.1
+     * @see #delimitedListToIndexArray(CharSequence, String, int[])
+     */
+    public static int[] delimitedListToIndexArray(@Nullable CharSequence str, String delimiter) {
+        int[] bounds = new int[8];
+        int count = delimitedListToIndexArray(str, delimiter, bounds);
+        if (count * 2 > bounds.length) {
+            bounds = new int[count * 2];
+            delimitedListToIndexArray(str, delimiter, bounds);
+        }
+        return (count * 2 == bounds.length ? bounds : Arrays.copyOf(bounds, count * 2));
+    }
+
+    /**
+     * Split a delimited list into {@code CharSequence} views onto the given
+     * input, without copying any characters.
+     * <p>Elements are determined exactly as in {@link #delimitedListToStringArray(String, String)}.
+     * The returned slices are read-only and share the content of the input;
+     * call {@code toString()} on a slice to obtain a standalone {@code String}.
+     *
+     * 将分隔列表拆分为指向给定输入的 {@code CharSequence} 视图，不复制任何字符。
+     *
+     * @param str the input {@code CharSequence} (potentially {@code null} or empty)
+     * @param delimiter the delimiter between elements (must not be empty)
+     * @return an array of slices, or the empty array in case of empty input
+     * @since 6.1
+     * @see java.nio.CharBuffer#wrap(CharSequence, int, int)
+     */
+    public static CharSequence[] delimitedListToCharSequenceArray(@Nullable CharSequence str, String delimiter) {
+        int[] bounds = delimitedListToIndexArray(str, delimiter);
+        CharSequence[] slices = new CharSequence[bounds.length / 2];
+        for (int i = 0; i < slices.length; i++) {
+            slices[i] = CharBuffer.wrap(str, bounds[2 * i], bounds[2 * i + 1]);
+        }
+        return slices;
+    }
+
+    private static int addBounds(int[] bounds, int count, int start, int end) {
+        if (count * 2 + 1 < bounds.length) {
+            bounds[count * 2] = start;
+            bounds[count * 2 + 1] = end;
+        }
+        return count + 1;
+    }
+
+    private static int indexOf(CharSequence str, String searchStr, int fromIndex) {
+        if (str instanceof String string) {
+            return string.indexOf(searchStr, fromIndex);
+        }
+        int max = str.length() - searchStr.length();
+        for (int i = fromIndex; i <= max; i++) {
+            if (substringMatch(str, i, searchStr)) {
+                return i;
             }
         }
-        return toStringArray(result);
+        return -1;
     }
 
     /**
@@ -1085,8 +1346,25 @@ public class StringUtils {
      * @see #removeDuplicateStrings(String[])
      */
     public static Set<String> commaDelimitedListToSet(@Nullable String str) {
-        String[] tokens = commaDelimitedListToStringArray(str);
-        return new LinkedHashSet<>(Arrays.asList(tokens));
+        if (str == null || str.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
+        int delPos = str.indexOf(',');
+        if (delPos == -1) {
+            Set<String> set = new LinkedHashSet<>(2);
+            set.add(str);
+            return set;
+        }
+        // Add elements directly, without an intermediate array.
+        Set<String> set = new LinkedHashSet<>();
+        int pos = 0;
+        while (delPos != -1) {
+            set.add(str.substring(pos, delPos));
+            pos = delPos + 1;
+            delPos = str.indexOf(',', pos);
+        }
+        set.add(str.substring(pos));
+        return set;
     }
 
     /**